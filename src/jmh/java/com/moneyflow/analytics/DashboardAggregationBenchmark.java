@@ -0,0 +1,138 @@
+package com.moneyflow.analytics;
+
+import com.moneyflow.config.CurrencyProperties;
+import com.moneyflow.model.entity.Account;
+import com.moneyflow.model.entity.Category;
+import com.moneyflow.model.entity.Transaction;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.service.CurrencyService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Dashboard period aggregation: {@link TransactionColumnStore} scans against the
+ * entity path {@code DashboardService} uses when the store is disabled (fold the
+ * period's {@link Transaction}s, converting each amount to the base currency).
+ * <p>
+ * The entity path is measured from transactions already in memory, without the query
+ * and hydration that precede it in production, so it is a lower bound. The cold column
+ * store benchmark rebuilds every segment from the projection rows before scanning.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DashboardAggregationBenchmark {
+
+    private static final int ACCOUNTS = 4;
+    private static final int CATEGORIES = 24;
+    private static final int HISTORY_DAYS = 730;
+
+    @Param({"2000", "25000"})
+    private int rowsPerAccount;
+
+    @Param({"30", "365"})
+    private int rangeDays;
+
+    private CurrencyService currencyService;
+    private TransactionColumnStore store;
+    private List<Long> accountIds;
+    private List<Transaction> periodTransactions;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CurrencyProperties props = new CurrencyProperties();
+        props.setBase("USD");
+        props.setRates(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("1.08")));
+        currencyService = new CurrencyService(props);
+
+        endDate = LocalDate.of(2026, 6, 30);
+        startDate = endDate.minusDays(rangeDays - 1L);
+        LocalDate firstDay = endDate.minusDays(HISTORY_DAYS - 1L);
+
+        List<Category> categories = new ArrayList<>();
+        for (long id = 1; id <= CATEGORIES; id++) {
+            Category category = Category.builder().name("Category " + id).build();
+            category.setId(id);
+            categories.add(category);
+        }
+
+        Random random = new Random(42);
+        accountIds = new ArrayList<>();
+        periodTransactions = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        long transactionId = 1;
+        for (long accountId = 1; accountId <= ACCOUNTS; accountId++) {
+            Account account = Account.builder().currency(accountId % 2 == 0 ? "EUR" : "USD").build();
+            account.setId(accountId);
+            accountIds.add(accountId);
+            for (int i = 0; i < rowsPerAccount; i++) {
+                LocalDate date = firstDay.plusDays(random.nextInt(HISTORY_DAYS));
+                BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(50_000), 2);
+                Category category = categories.get(random.nextInt(CATEGORIES));
+                TransactionType type = random.nextInt(5) == 0 ? TransactionType.INCOME : TransactionType.EXPENSE;
+                rows.add(new Object[]{transactionId++, accountId, date, amount, category.getId(), type,
+                        account.getCurrency()});
+                if (!date.isBefore(startDate) && !date.isAfter(endDate)) {
+                    periodTransactions.add(Transaction.builder().account(account).category(category)
+                            .type(type).amount(amount).transactionDate(date).build());
+                }
+            }
+        }
+
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.findColumnRowsByAccountIds(anyCollection())).thenReturn(rows);
+        when(transactionRepository.findTagPairsByAccountIds(anyCollection())).thenReturn(List.of());
+        store = new TransactionColumnStore(transactionRepository, currencyService);
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "memoryBudgetMb", 1024L);
+        store.aggregate(accountIds, startDate, endDate, null);
+    }
+
+    @Benchmark
+    public PeriodAggregate columnStore() {
+        return store.aggregate(accountIds, startDate, endDate, null);
+    }
+
+    @Benchmark
+    public PeriodAggregate columnStoreCold() {
+        store.clear();
+        return store.aggregate(accountIds, startDate, endDate, null);
+    }
+
+    @Benchmark
+    public PeriodAggregate entityScan() {
+        PeriodAggregate period = new PeriodAggregate(startDate, endDate);
+        for (Transaction t : periodTransactions) {
+            period.add(t.getType(), t.getCategory().getId(), t.getTransactionDate(),
+                    PeriodAggregate.toUnits(currencyService.toBase(t.getAmount(), t.getAccount().getCurrency())));
+        }
+        return period;
+    }
+}
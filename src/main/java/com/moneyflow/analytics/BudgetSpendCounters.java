@@ -0,0 +1,143 @@
+package com.moneyflow.analytics;
+
+import com.moneyflow.model.entity.Budget;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.service.CurrencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory spent counters for budget alert evaluation, one per budget, in base
+ * currency units: the owner's spending in the budget's category subtree for its month,
+ * or the team members' spending for a team budget.
+ * <p>
+ * Alert evaluation runs after the writes commit and hands over their coalesced delta,
+ * so rolled-back writes never count. A missing counter (new budget, restart, eviction)
+ * is seeded from the database instead, and the seed already includes those writes.
+ * <p>
+ * Counters are per node and a write that commits while a seed or reconcile query is
+ * running can be missed or counted twice; {@link #reconcile()} recomputes every counter
+ * periodically and drops those of months that are over.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BudgetSpendCounters {
+
+    private final TransactionRepository transactionRepository;
+    private final CurrencyService currencyService;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    /** What a counter sums, so it can be recomputed without loading the budget. */
+    private record Counter(Long userId, Long teamId, Long categoryId, TransactionType type, YearMonth month,
+                           AtomicLong units) {
+    }
+
+    /**
+     * Adds {@code deltaUnits} of committed writes to the budget's counter and returns the
+     * new spent, seeding the counter from the database if there is none.
+     */
+    public BigDecimal addCommitted(Budget budget, long deltaUnits) {
+        Long budgetId = budget.getId();
+        Counter counter = counters.get(budgetId);
+        if (counter != null) {
+            return PeriodAggregate.fromUnits(counter.units().addAndGet(deltaUnits));
+        }
+        Counter seeded = newCounter(budget);
+        seeded.units().set(load(seeded));
+        Counter existing = counters.putIfAbsent(budgetId, seeded);
+        // Another evaluation may have seeded the counter first; then only our delta is new to it.
+        return PeriodAggregate.fromUnits(existing != null
+                ? existing.units().addAndGet(deltaUnits)
+                : seeded.units().get());
+    }
+
+    /**
+     * Recomputes the budget's spent from the database, resets its counter to it and
+     * returns it. Counters only see the writes evaluated on this node, so a decision that
+     * writes other nodes must not undo is checked against this first.
+     */
+    public BigDecimal reload(Budget budget) {
+        Counter counter = counters.computeIfAbsent(budget.getId(), id -> newCounter(budget));
+        long actual = load(counter);
+        counter.units().set(actual);
+        return PeriodAggregate.fromUnits(actual);
+    }
+
+    /**
+     * Drops the budgets' counters, e.g. after an evaluation that had added to them rolled
+     * back; they are seeded from the database again on next use.
+     */
+    public void forget(Collection<Long> budgetIds) {
+        budgetIds.forEach(counters::remove);
+    }
+
+    /** Converts an amount in {@code currency} to counter units. */
+    public long units(BigDecimal amount, String currency) {
+        return PeriodAggregate.toUnits(currencyService.toBase(amount, currency));
+    }
+
+    /**
+     * Recomputes every counter from the database and drops those of months before last
+     * month, which no longer receive routine writes.
+     */
+    @Scheduled(fixedDelayString = "${moneyflow.budget.counter-reconcile-ms:600000}",
+            initialDelayString = "${moneyflow.budget.counter-reconcile-ms:600000}")
+    public void reconcile() {
+        YearMonth oldest = YearMonth.now().minusMonths(1);
+        int corrected = 0;
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            if (counter.month().isBefore(oldest)) {
+                counters.remove(entry.getKey(), counter);
+                continue;
+            }
+            long actual = load(counter);
+            if (counter.units().getAndSet(actual) != actual) {
+                corrected++;
+            }
+        }
+        if (corrected > 0) {
+            log.info("Budget spend reconcile corrected {} of {} counter(s)", corrected, counters.size());
+        }
+    }
+
+    private static Counter newCounter(Budget budget) {
+        return new Counter(budget.getUser().getId(),
+                budget.getTeam() != null ? budget.getTeam().getId() : null, budget.getCategory().getId(),
+                TransactionType.valueOf(budget.getCategory().getType().name()),
+                YearMonth.of(budget.getYear(), budget.getMonth()), new AtomicLong());
+    }
+
+    int size() {
+        return counters.size();
+    }
+
+    private long load(Counter counter) {
+        LocalDate start = counter.month().atDay(1);
+        LocalDate end = counter.month().atEndOfMonth();
+        List<Object[]> rows = counter.teamId() != null
+                ? transactionRepository.sumTeamCategorySubtreeGroupedByCurrency(
+                        counter.teamId(), counter.categoryId(), counter.type(), start, end)
+                : transactionRepository.sumByCategorySubtreeGroupedByCurrency(
+                        counter.userId(), counter.categoryId(), counter.type(), start, end);
+        long units = 0;
+        for (Object[] row : rows) {
+            units += units((BigDecimal) row[1], (String) row[0]);
+        }
+        return units;
+    }
+}
@@ -0,0 +1,163 @@
+package com.moneyflow.analytics;
+
+import com.moneyflow.model.enums.TransactionType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Active transactions of one account stored column-wise: parallel primitive arrays
+ * indexed by row, a dictionary-encoded category column and one bitmap per tag.
+ * Updates never rewrite a row in place; the old row is marked dead and the new
+ * version appended, so scans stay a straight pass over the arrays.
+ * <p>
+ * All access is synchronized on the segment; scans are short (one account).
+ */
+final class ColumnSegment {
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private long[] ids;
+    private int[] epochDays;
+    private long[] amounts;
+    private int[] categoryCodes;
+    private byte[] types;
+    private int size;
+    private int deadRows;
+
+    private final BitSet live = new BitSet();
+    private final Map<Long, BitSet> tagRows = new HashMap<>();
+    private final LongIntHashMap rowById;
+
+    private final Map<Long, Integer> categoryCodeById = new HashMap<>();
+    private final List<Long> categoryIdByCode = new ArrayList<>();
+
+    ColumnSegment(int expectedRows) {
+        int capacity = Math.max(16, expectedRows);
+        ids = new long[capacity];
+        epochDays = new int[capacity];
+        amounts = new long[capacity];
+        categoryCodes = new int[capacity];
+        types = new byte[capacity];
+        rowById = new LongIntHashMap(capacity);
+    }
+
+    synchronized void append(long id, LocalDate date, long units, Long categoryId,
+                             TransactionType type, Collection<Long> tagIds) {
+        int existing = rowById.get(id);
+        if (existing != LongIntHashMap.MISSING && live.get(existing)) {
+            kill(existing);
+        }
+        if (size == ids.length) {
+            grow();
+        }
+        int row = size++;
+        ids[row] = id;
+        epochDays[row] = (int) date.toEpochDay();
+        amounts[row] = units;
+        categoryCodes[row] = categoryCodeById.computeIfAbsent(categoryId, k -> {
+            categoryIdByCode.add(k);
+            return categoryIdByCode.size() - 1;
+        });
+        types[row] = (byte) type.ordinal();
+        live.set(row);
+        rowById.put(id, row);
+        if (tagIds != null) {
+            for (Long tagId : tagIds) {
+                tagRows.computeIfAbsent(tagId, k -> new BitSet()).set(row);
+            }
+        }
+    }
+
+    /** Adds a tag to the live row of a transaction; used while bulk loading. */
+    synchronized void tag(long id, Long tagId) {
+        int row = rowById.get(id);
+        if (row != LongIntHashMap.MISSING && live.get(row)) {
+            tagRows.computeIfAbsent(tagId, k -> new BitSet()).set(row);
+        }
+    }
+
+    synchronized void remove(long id) {
+        int row = rowById.get(id);
+        if (row != LongIntHashMap.MISSING && live.get(row)) {
+            kill(row);
+        }
+    }
+
+    /**
+     * Folds live rows dated within {@code [startDay, endDay]} (and carrying {@code tagId}
+     * when given) into {@code out}. Category totals are accumulated per dictionary code
+     * in flat arrays and only handed to the aggregate once per category.
+     */
+    synchronized void scan(long startDay, long endDay, Long tagId, PeriodAggregate out) {
+        BitSet rows = live;
+        if (tagId != null) {
+            BitSet tagged = tagRows.get(tagId);
+            if (tagged == null) {
+                return;
+            }
+            rows = (BitSet) tagged.clone();
+            rows.and(live);
+        }
+        int codes = categoryIdByCode.size();
+        long[][] categoryUnits = new long[TYPES.length][codes];
+        int[][] categoryCounts = new int[TYPES.length][codes];
+        int matched = 0;
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            int day = epochDays[row];
+            if (day < startDay || day > endDay) {
+                continue;
+            }
+            int type = types[row];
+            long units = amounts[row];
+            categoryUnits[type][categoryCodes[row]] += units;
+            categoryCounts[type][categoryCodes[row]]++;
+            out.addDay(type, day, units);
+            matched++;
+        }
+        for (int type = 0; type < TYPES.length; type++) {
+            for (int code = 0; code < codes; code++) {
+                if (categoryCounts[type][code] > 0) {
+                    out.addCategory(type, categoryIdByCode.get(code),
+                            categoryUnits[type][code], categoryCounts[type][code]);
+                }
+            }
+        }
+        out.addTransactionCount(matched);
+    }
+
+    synchronized int liveRows() {
+        return size - deadRows;
+    }
+
+    synchronized int deadRows() {
+        return deadRows;
+    }
+
+    /** Approximate heap footprint used for the store's memory budget. */
+    synchronized long estimatedBytes() {
+        long columns = (long) ids.length * (Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES + Byte.BYTES);
+        long bitmaps = (long) (tagRows.size() + 1) * (size / Byte.SIZE + 64);
+        return columns + bitmaps + rowById.estimatedBytes() + categoryIdByCode.size() * 64L;
+    }
+
+    private void kill(int row) {
+        live.clear(row);
+        deadRows++;
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+        types = Arrays.copyOf(types, capacity);
+    }
+}
@@ -0,0 +1,127 @@
+package com.moneyflow.analytics;
+
+import com.moneyflow.model.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Income/expense/transfer totals for a date range, per type, per category and per day,
+ * in base-currency minor units (scale 4, the same scale {@code CurrencyService.toBase}
+ * rounds to). Summing rounded minor units gives exactly the totals the dashboard would
+ * get by adding up per-transaction {@code BigDecimal} conversions.
+ * <p>
+ * Filled either from loaded {@code Transaction} entities or by a column-store scan, so
+ * the dashboard renders from one shape regardless of the source.
+ */
+public class PeriodAggregate {
+
+    public static final int SCALE = 4;
+
+    private static final int TYPES = TransactionType.values().length;
+
+    private final LocalDate startDate;
+    private final long startDay;
+    private final long[] totals = new long[TYPES];
+    private final long[][] daily;
+    private final Map<Long, long[]>[] categories;
+    private int transactionCount;
+
+    @SuppressWarnings("unchecked")
+    public PeriodAggregate(LocalDate startDate, LocalDate endDate) {
+        this.startDate = startDate;
+        this.startDay = startDate.toEpochDay();
+        int days = (int) Math.max(0, ChronoUnit.DAYS.between(startDate, endDate) + 1);
+        this.daily = new long[TYPES][days];
+        this.categories = new Map[TYPES];
+        for (int i = 0; i < TYPES; i++) {
+            categories[i] = new HashMap<>();
+        }
+    }
+
+    /** Base-currency amount (already converted) expressed in minor units. */
+    public static long toUnits(BigDecimal baseAmount) {
+        return baseAmount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /** Zero maps to {@link BigDecimal#ZERO} so empty periods render like a sum over no transactions. */
+    public static BigDecimal fromUnits(long units) {
+        return units == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(units, SCALE);
+    }
+
+    public void add(TransactionType type, Long categoryId, LocalDate date, long units) {
+        add(type, categoryId, date, units, 1);
+    }
+
+    /** Adds an already aggregated group of {@code count} transactions booked on {@code date}. */
+    public void add(TransactionType type, Long categoryId, LocalDate date, long units, int count) {
+        addCategory(type.ordinal(), categoryId, units, count);
+        addDay(type.ordinal(), date.toEpochDay(), units);
+        transactionCount += count;
+    }
+
+    /** Bulk form used by scans that pre-aggregate per category; does not touch the per-day totals. */
+    void addCategory(int typeOrdinal, Long categoryId, long units, int count) {
+        long[] bucket = categories[typeOrdinal].computeIfAbsent(categoryId, k -> new long[2]);
+        bucket[0] += units;
+        bucket[1] += count;
+        totals[typeOrdinal] += units;
+    }
+
+    void addDay(int typeOrdinal, long epochDay, long units) {
+        int offset = (int) (epochDay - startDay);
+        if (offset >= 0 && offset < daily[typeOrdinal].length) {
+            daily[typeOrdinal][offset] += units;
+        }
+    }
+
+    void addTransactionCount(int count) {
+        transactionCount += count;
+    }
+
+    public BigDecimal total(TransactionType type) {
+        return fromUnits(totals[type.ordinal()]);
+    }
+
+    public BigDecimal dayTotal(TransactionType type, LocalDate date) {
+        int offset = (int) (date.toEpochDay() - startDay);
+        long[] days = daily[type.ordinal()];
+        return offset >= 0 && offset < days.length ? fromUnits(days[offset]) : BigDecimal.ZERO;
+    }
+
+    /** Category id to {@code [minorUnits, transactionCount]} for one type. */
+    public Map<Long, long[]> categoryTotals(TransactionType type) {
+        return Collections.unmodifiableMap(categories[type.ordinal()]);
+    }
+
+    /**
+     * Re-keys the per-category totals through {@code target} (category id to the id its
+     * totals should be reported under, e.g. its top-level ancestor). Unmapped categories
+     * keep their own totals; type and day totals are unaffected.
+     */
+    public void rollUpCategories(Map<Long, Long> target) {
+        for (int i = 0; i < TYPES; i++) {
+            Map<Long, long[]> rolled = new HashMap<>();
+            for (Map.Entry<Long, long[]> entry : categories[i].entrySet()) {
+                long[] bucket = rolled.computeIfAbsent(
+                        target.getOrDefault(entry.getKey(), entry.getKey()), k -> new long[2]);
+                bucket[0] += entry.getValue()[0];
+                bucket[1] += entry.getValue()[1];
+            }
+            categories[i] = rolled;
+        }
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+}
@@ -0,0 +1,106 @@
+package com.moneyflow.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Weighted Space-Saving heavy-hitter summary (Metwally et al.) over string keys.
+ * Keeps at most {@code capacity} counters; when a new key arrives and the summary is
+ * full, the smallest counter is reassigned to it and its old weight becomes the new
+ * counter's error bound. Any key whose true weight exceeds {@code total / capacity} is
+ * guaranteed to be present, and {@code weight - error <= true weight <= weight}.
+ * <p>
+ * Summaries are mergeable, so monthly summaries combine into ranges. Plain getters and
+ * setters keep it JSON-serializable for storage.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class SpaceSavingSummary {
+
+    private int capacity;
+    private List<Counter> counters = new ArrayList<>();
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Counter {
+        private String key;
+        private long weight;
+        private long error;
+    }
+
+    public SpaceSavingSummary(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void offer(String key, long weight) {
+        for (Counter counter : counters) {
+            if (counter.key.equals(key)) {
+                counter.weight += weight;
+                return;
+            }
+        }
+        if (counters.size() < capacity) {
+            counters.add(new Counter(key, weight, 0));
+            return;
+        }
+        Counter min = counters.stream().min(Comparator.comparingLong(Counter::getWeight)).orElseThrow();
+        min.error = min.weight;
+        min.weight += weight;
+        min.key = key;
+    }
+
+    /**
+     * Combines two summaries of disjoint streams. A key missing from a full summary may
+     * still have occurred there up to that summary's minimum weight, which is added to
+     * both its weight and error.
+     */
+    public SpaceSavingSummary merge(SpaceSavingSummary other) {
+        long minThis = floor();
+        long minOther = other.floor();
+        Map<String, Counter> merged = new HashMap<>();
+        for (Counter c : counters) {
+            merged.put(c.key, new Counter(c.key, c.weight + minOther, c.error + minOther));
+        }
+        for (Counter c : other.counters) {
+            Counter existing = merged.get(c.key);
+            if (existing != null) {
+                existing.weight += c.weight - minOther;
+                existing.error += c.error - minOther;
+            } else {
+                merged.put(c.key, new Counter(c.key, c.weight + minThis, c.error + minThis));
+            }
+        }
+        SpaceSavingSummary result = new SpaceSavingSummary(Math.max(capacity, other.capacity));
+        result.counters = merged.values().stream()
+                .sorted(Comparator.comparingLong(Counter::getWeight).reversed())
+                .limit(result.capacity)
+                .collect(Collectors.toCollection(ArrayList::new));
+        return result;
+    }
+
+    public List<Counter> top(int n) {
+        return counters.stream()
+                .sorted(Comparator.comparingLong(Counter::getWeight).reversed())
+                .limit(n)
+                .collect(Collectors.toList());
+    }
+
+    /** Upper bound on the weight of any key not in the summary. */
+    private long floor() {
+        return counters.size() < capacity
+                ? 0
+                : counters.stream().mapToLong(Counter::getWeight).min().orElse(0);
+    }
+}
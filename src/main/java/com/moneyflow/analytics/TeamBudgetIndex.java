@@ -0,0 +1,110 @@
+package com.moneyflow.analytics;
+
+import com.moneyflow.model.entity.Budget;
+import com.moneyflow.model.entity.CategoryClosure;
+import com.moneyflow.repository.BudgetRepository;
+import com.moneyflow.repository.CategoryClosureRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index from (team, category, month) to the ids of the team budgets that
+ * cover the category, i.e. budgets on the category itself or one of its ancestors, so
+ * alert evaluation finds a write's team budgets without a query per team.
+ * <p>
+ * A (team, month) entry is built on first use from the team's budgets for the month
+ * and their subtrees (two queries). Budget and category hierarchy changes on this node
+ * invalidate entries once they commit; entries also expire after
+ * {@code moneyflow.budget.team-index-ttl-ms} to pick up changes made on other nodes.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamBudgetIndex {
+
+    private final BudgetRepository budgetRepository;
+    private final CategoryClosureRepository closureRepository;
+
+    @Value("${moneyflow.budget.team-index-ttl-ms:300000}")
+    private long ttlMs = 300_000;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Key(Long teamId, YearMonth month) {
+    }
+
+    private record Entry(Map<Long, List<Long>> budgetIdsByCategory, long loadedAt) {
+    }
+
+    /**
+     * Ids of the team's active budgets for the month that cover {@code categoryId}.
+     * Builds the (team, month) entry if needed, so must be called inside a transaction.
+     */
+    public List<Long> budgetIds(Long teamId, Long categoryId, YearMonth month) {
+        Key key = new Key(teamId, month);
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry == null || now - entry.loadedAt() > ttlMs) {
+            entries.values().removeIf(e -> now - e.loadedAt() > ttlMs);
+            entry = new Entry(load(teamId, month), now);
+            entries.put(key, entry);
+        }
+        return entry.budgetIdsByCategory().getOrDefault(categoryId, List.of());
+    }
+
+    /** Drops the team's entries now and again after the current transaction commits. */
+    public void invalidate(Long teamId) {
+        afterCommit(() -> entries.keySet().removeIf(key -> key.teamId().equals(teamId)));
+    }
+
+    /** Drops every entry now and again after commit, e.g. when the category hierarchy changes. */
+    public void clear() {
+        afterCommit(entries::clear);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private Map<Long, List<Long>> load(Long teamId, YearMonth month) {
+        List<Budget> budgets = budgetRepository.findByTeamIdAndMonthAndYearAndIsActiveTrue(
+                teamId, month.getMonthValue(), month.getYear());
+        Map<Long, List<Long>> byCategory = new HashMap<>();
+        if (budgets.isEmpty()) {
+            return byCategory;
+        }
+        Map<Long, List<Long>> byRoot = new HashMap<>();
+        for (Budget budget : budgets) {
+            byRoot.computeIfAbsent(budget.getCategory().getId(), k -> new ArrayList<>()).add(budget.getId());
+        }
+        byRoot.forEach((categoryId, ids) ->
+                byCategory.computeIfAbsent(categoryId, k -> new ArrayList<>()).addAll(ids));
+        for (CategoryClosure link : closureRepository.findByAncestorIdIn(byRoot.keySet())) {
+            byCategory.computeIfAbsent(link.getDescendantId(), k -> new ArrayList<>())
+                    .addAll(byRoot.get(link.getAncestorId()));
+        }
+        return byCategory;
+    }
+
+    private static void afterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Also after commit, so an entry rebuilt concurrently from the old state does not linger.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
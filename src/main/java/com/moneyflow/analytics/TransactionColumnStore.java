@@ -0,0 +1,231 @@
+package com.moneyflow.analytics;
+
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.service.CurrencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in in-memory column store for dashboard aggregation
+ * ({@code moneyflow.analytics.column-store.enabled}).
+ * <p>
+ * Transactions are held per account in {@link ColumnSegment}s, so a user's view is the
+ * union of their accessible accounts and a team-shared account is stored once no matter
+ * how many members read it. Amounts are converted to the base currency when loaded.
+ * Segments are loaded lazily on first read, kept current from committed
+ * {@link TransactionChangedEvent}s, and evicted least-recently-used once the estimated
+ * footprint exceeds the configured memory budget. An evicted (or never loaded) account
+ * simply falls back to a fresh load on the next read.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionColumnStore {
+
+    private final TransactionRepository transactionRepository;
+    private final CurrencyService currencyService;
+
+    @Value("${moneyflow.analytics.column-store.enabled:false}")
+    private boolean enabled;
+
+    @Value("${moneyflow.analytics.column-store.memory-budget-mb:256}")
+    private long memoryBudgetMb = 256;
+
+    /** Access-ordered for LRU eviction; guarded by {@code this}. */
+    private final LinkedHashMap<Long, ColumnSegment> segments = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Long> segmentBytes = new HashMap<>();
+    private long residentBytes;
+
+    /**
+     * Per-account write counters. A load records the counters before querying and is
+     * discarded if a write to that account committed in the meantime, since the loaded
+     * rows may or may not include it.
+     */
+    private final Map<Long, AtomicLong> writeVersions = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Aggregates active transactions of {@code accountIds} dated within the range,
+     * optionally restricted to one tag. Missing segments are loaded in a single query
+     * and therefore must be called inside a (read-only) transaction.
+     */
+    public PeriodAggregate aggregate(Collection<Long> accountIds, LocalDate startDate, LocalDate endDate, Long tagId) {
+        PeriodAggregate aggregate = new PeriodAggregate(startDate, endDate);
+        long startDay = startDate.toEpochDay();
+        long endDay = endDate.toEpochDay();
+        for (ColumnSegment segment : resolve(accountIds).values()) {
+            segment.scan(startDay, endDay, tagId, aggregate);
+        }
+        return aggregate;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        for (TransactionChangedEvent.Change change : event.getChanges()) {
+            if (change.getBefore() != null) {
+                TransactionSnapshot before = change.getBefore();
+                bumpVersion(before.getAccountId());
+                ColumnSegment segment = cached(before.getAccountId());
+                if (segment != null) {
+                    segment.remove(before.getId());
+                    resized(before.getAccountId(), segment);
+                }
+            }
+            if (change.getAfter() != null) {
+                TransactionSnapshot after = change.getAfter();
+                bumpVersion(after.getAccountId());
+                ColumnSegment segment = cached(after.getAccountId());
+                if (segment != null) {
+                    segment.append(after.getId(), after.getTransactionDate(),
+                            units(after.getAmount(), after.getCurrency()),
+                            after.getCategoryId(), after.getType(), after.getTagIds());
+                    resized(after.getAccountId(), segment);
+                }
+            }
+        }
+    }
+
+    /** Drops every segment; they reload lazily on the next read. */
+    public synchronized void clear() {
+        segments.clear();
+        segmentBytes.clear();
+        residentBytes = 0;
+    }
+
+    synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    private Map<Long, ColumnSegment> resolve(Collection<Long> accountIds) {
+        Map<Long, ColumnSegment> resolved = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        synchronized (this) {
+            for (Long accountId : accountIds) {
+                ColumnSegment segment = segments.get(accountId);
+                if (segment != null) {
+                    resolved.put(accountId, segment);
+                } else {
+                    missing.add(accountId);
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, Long> versions = new HashMap<>();
+            missing.forEach(id -> versions.put(id, version(id)));
+            Map<Long, ColumnSegment> loaded = load(missing);
+            install(loaded, versions);
+            resolved.putAll(loaded);
+        }
+        return resolved;
+    }
+
+    private Map<Long, ColumnSegment> load(List<Long> accountIds) {
+        long started = System.nanoTime();
+        List<Object[]> rows = transactionRepository.findColumnRowsByAccountIds(accountIds);
+
+        Map<Long, Integer> rowCounts = new HashMap<>();
+        for (Object[] row : rows) {
+            rowCounts.merge((Long) row[1], 1, Integer::sum);
+        }
+        Map<Long, ColumnSegment> loaded = new HashMap<>();
+        for (Long accountId : accountIds) {
+            loaded.put(accountId, new ColumnSegment(rowCounts.getOrDefault(accountId, 0)));
+        }
+        for (Object[] row : rows) {
+            loaded.get((Long) row[1]).append((Long) row[0], (LocalDate) row[2],
+                    units((BigDecimal) row[3], (String) row[6]), (Long) row[4], (TransactionType) row[5], null);
+        }
+        for (Object[] pair : transactionRepository.findTagPairsByAccountIds(accountIds)) {
+            loaded.get((Long) pair[1]).tag((Long) pair[0], (Long) pair[2]);
+        }
+        log.debug("Column store loaded {} rows for {} accounts in {} ms", rows.size(), accountIds.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return loaded;
+    }
+
+    private synchronized void install(Map<Long, ColumnSegment> loaded, Map<Long, Long> versions) {
+        long budget = memoryBudgetMb * 1024 * 1024;
+        for (Map.Entry<Long, ColumnSegment> entry : loaded.entrySet()) {
+            Long accountId = entry.getKey();
+            long bytes = entry.getValue().estimatedBytes();
+            if (version(accountId) != versions.get(accountId) || bytes > budget || segments.containsKey(accountId)) {
+                continue;
+            }
+            segments.put(accountId, entry.getValue());
+            segmentBytes.put(accountId, bytes);
+            residentBytes += bytes;
+        }
+        evictOverBudget();
+    }
+
+    private synchronized ColumnSegment cached(Long accountId) {
+        return segments.get(accountId);
+    }
+
+    /**
+     * Re-accounts a segment after a write. Segments that are mostly superseded rows are
+     * dropped and rebuilt by the next read rather than compacted in place.
+     */
+    private synchronized void resized(Long accountId, ColumnSegment segment) {
+        if (segments.get(accountId) != segment) {
+            return;
+        }
+        if (segment.deadRows() > 1024 && segment.deadRows() > segment.liveRows()) {
+            evict(accountId);
+            return;
+        }
+        long bytes = segment.estimatedBytes();
+        residentBytes += bytes - segmentBytes.getOrDefault(accountId, 0L);
+        segmentBytes.put(accountId, bytes);
+        evictOverBudget();
+    }
+
+    private void evictOverBudget() {
+        long budget = memoryBudgetMb * 1024 * 1024;
+        Iterator<Long> eldest = segments.keySet().iterator();
+        while (residentBytes > budget && eldest.hasNext()) {
+            Long accountId = eldest.next();
+            eldest.remove();
+            residentBytes -= segmentBytes.getOrDefault(accountId, 0L);
+            segmentBytes.remove(accountId);
+            log.debug("Column store evicted account {}", accountId);
+        }
+    }
+
+    private void evict(Long accountId) {
+        segments.remove(accountId);
+        Long bytes = segmentBytes.remove(accountId);
+        residentBytes -= bytes != null ? bytes : 0L;
+    }
+
+    private void bumpVersion(Long accountId) {
+        writeVersions.computeIfAbsent(accountId, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private long version(Long accountId) {
+        AtomicLong version = writeVersions.get(accountId);
+        return version != null ? version.get() : 0L;
+    }
+
+    private long units(BigDecimal amount, String currency) {
+        return PeriodAggregate.toUnits(currencyService.toBase(amount, currency));
+    }
+}
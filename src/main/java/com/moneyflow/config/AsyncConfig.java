@@ -0,0 +1,74 @@
+package com.moneyflow.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executors used for in-request fan-out. Pools are bounded (fixed size plus a bounded
+ * queue); once saturated the submitting request thread runs the task itself, so load
+ * degrades to serial execution instead of failing. Tasks inherit the submitter's
+ * {@code SecurityContext} so services can keep using {@code SecurityUtils}.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor homeTaskPool(
+            @Value("${moneyflow.home.pool-size:8}") int poolSize,
+            @Value("${moneyflow.home.queue-capacity:100}") int queueCapacity) {
+        return boundedPool("home-", poolSize, queueCapacity);
+    }
+
+    @Bean
+    public Executor homeExecutor(@Qualifier("homeTaskPool") ThreadPoolTaskExecutor homeTaskPool) {
+        return new DelegatingSecurityContextExecutor(homeTaskPool);
+    }
+
+    /**
+     * Writes queued server-sent events to their streams. The queue holds at most one
+     * drain task per open stream, so it is sized for the expected number of streams.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor liveUpdateExecutor(
+            @Value("${moneyflow.stream.pool-size:4}") int poolSize,
+            @Value("${moneyflow.stream.pool-queue-capacity:20000}") int queueCapacity) {
+        return boundedPool("live-", poolSize, queueCapacity);
+    }
+
+    /** Delivers batched notifications off the request thread once the triggering write commits. */
+    @Bean
+    public ThreadPoolTaskExecutor notificationExecutor(
+            @Value("${moneyflow.notifications.pool-size:2}") int poolSize,
+            @Value("${moneyflow.notifications.pool-queue-capacity:1000}") int queueCapacity) {
+        return boundedPool("notify-", poolSize, queueCapacity);
+    }
+
+    /**
+     * Workers of the recurring transaction job, one task per user group of a chunk. The
+     * job waits for each chunk, so the queue only ever holds one chunk's groups.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor recurringExecutor(
+            @Value("${moneyflow.recurring.pool-size:4}") int poolSize,
+            @Value("${moneyflow.recurring.chunk-size:500}") int chunkSize) {
+        return boundedPool("recurring-", poolSize, chunkSize);
+    }
+
+    private ThreadPoolTaskExecutor boundedPool(String prefix, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(prefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -43,6 +43,7 @@ public class CorsConfig implements WebMvcConfigurer {
             "Authorization",
             "Content-Type",
             "X-Total-Count",
+            "ETag",
             "Access-Control-Allow-Origin",
             "Access-Control-Allow-Credentials"
         ));
@@ -59,7 +60,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOriginPatterns("http://localhost:*", "http://127.0.0.1:*")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS", "HEAD")
                 .allowedHeaders("*")
-                .exposedHeaders("Authorization", "Content-Type", "X-Total-Count")
+                .exposedHeaders("Authorization", "Content-Type", "X-Total-Count", "ETag")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -0,0 +1,22 @@
+package com.moneyflow.config;
+
+import com.moneyflow.filter.ConditionalGetInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ConditionalGetInterceptor conditionalGetInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Exports are file downloads, the stream never completes; auth and health are unauthenticated.
+        registry.addInterceptor(conditionalGetInterceptor)
+                .addPathPatterns("/v1/**")
+                .excludePathPatterns("/v1/auth/**", "/v1/health", "/v1/export/**", "/v1/stream");
+    }
+}
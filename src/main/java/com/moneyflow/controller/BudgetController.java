@@ -1,10 +1,18 @@
 package com.moneyflow.controller;
 
 import com.moneyflow.model.dto.ApiResponse;
+import com.moneyflow.model.dto.budget.BudgetPlanRequest;
+import com.moneyflow.model.dto.budget.BudgetPlanResponse;
 import com.moneyflow.model.dto.budget.BudgetResponse;
 import com.moneyflow.model.dto.budget.CreateBudgetRequest;
+import com.moneyflow.model.dto.budget.EnvelopeAllocationRequest;
+import com.moneyflow.model.dto.budget.EnvelopeResponse;
+import com.moneyflow.model.dto.budget.EnvelopeSummaryResponse;
+import com.moneyflow.model.dto.budget.SpendDistributionResponse;
 import com.moneyflow.model.dto.budget.UpdateBudgetRequest;
 import com.moneyflow.service.BudgetService;
+import com.moneyflow.service.EnvelopeService;
+import com.moneyflow.service.SpendSketchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -22,6 +30,8 @@ import java.util.List;
 public class BudgetController {
 
     private final BudgetService budgetService;
+    private final SpendSketchService spendSketchService;
+    private final EnvelopeService envelopeService;
 
     @PostMapping
     @Operation(summary = "Create a new budget")
@@ -33,6 +43,13 @@ public class BudgetController {
                 .body(ApiResponse.success("Budget created successfully", response));
     }
 
+    @PutMapping("/plan")
+    @Operation(summary = "Create or update a year's budgets in one call")
+    public ResponseEntity<ApiResponse<BudgetPlanResponse>> savePlan(
+            @Valid @RequestBody BudgetPlanRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Budget plan saved successfully", budgetService.savePlan(request)));
+    }
+
     @GetMapping
     @Operation(summary = "Get budgets by month and year")
     public ResponseEntity<ApiResponse<List<BudgetResponse>>> getBudgetsByMonthAndYear(
@@ -57,6 +74,37 @@ public class BudgetController {
         return ResponseEntity.ok(ApiResponse.success(budgets));
     }
 
+    @GetMapping("/pace")
+    @Operation(summary = "Get every budget of a month with expected, projected and days-to-exhaustion pace")
+    public ResponseEntity<ApiResponse<List<BudgetResponse>>> getBudgetPace(
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) Integer year) {
+        return ResponseEntity.ok(ApiResponse.success(budgetService.getPace(month, year)));
+    }
+
+    @GetMapping("/distribution")
+    @Operation(summary = "Get median/p90 transaction size and monthly spend per expense category")
+    public ResponseEntity<ApiResponse<List<SpendDistributionResponse>>> getSpendDistribution(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "12") Integer months) {
+        return ResponseEntity.ok(ApiResponse.success(spendSketchService.getDistribution(categoryId, months)));
+    }
+
+    @GetMapping("/envelopes")
+    @Operation(summary = "Get envelopes with a month's allocations, spending and running balances")
+    public ResponseEntity<ApiResponse<EnvelopeSummaryResponse>> getEnvelopes(
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) Integer year) {
+        return ResponseEntity.ok(ApiResponse.success(envelopeService.getEnvelopes(month, year)));
+    }
+
+    @PostMapping("/envelopes/allocate")
+    @Operation(summary = "Assign money to a category envelope, or take it back with a negative amount")
+    public ResponseEntity<ApiResponse<EnvelopeResponse>> allocateToEnvelope(
+            @Valid @RequestBody EnvelopeAllocationRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Envelope allocation saved", envelopeService.allocate(request)));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get budget by ID")
     public ResponseEntity<ApiResponse<BudgetResponse>> getBudgetById(@PathVariable Long id) {
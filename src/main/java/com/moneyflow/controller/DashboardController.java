@@ -3,6 +3,8 @@ package com.moneyflow.controller;
 import com.moneyflow.model.dto.ApiResponse;
 import com.moneyflow.model.dto.dashboard.DashboardSummary;
 import com.moneyflow.model.dto.dashboard.MonthlyReport;
+import com.moneyflow.model.dto.dashboard.TeamDashboard;
+import com.moneyflow.model.dto.dashboard.TrendReport;
 import com.moneyflow.service.DashboardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 
 @RestController
 @RequestMapping("/v1/dashboard")
@@ -22,20 +25,38 @@ public class DashboardController {
     private final DashboardService dashboardService;
 
     @GetMapping("/summary")
-    @Operation(summary = "Get dashboard summary for date range")
+    @Operation(summary = "Get dashboard summary for date range (rollupCategories folds subcategories into their top-level category)")
     public ResponseEntity<ApiResponse<DashboardSummary>> getDashboardSummary(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        DashboardSummary summary = dashboardService.getDashboardSummary(startDate, endDate);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean rollupCategories) {
+        DashboardSummary summary = dashboardService.getDashboardSummary(startDate, endDate, rollupCategories);
         return ResponseEntity.ok(ApiResponse.success(summary));
     }
 
     @GetMapping("/monthly-report")
-    @Operation(summary = "Get monthly report")
+    @Operation(summary = "Get monthly report (rollupCategories folds subcategories into their top-level category)")
     public ResponseEntity<ApiResponse<MonthlyReport>> getMonthlyReport(
             @RequestParam Integer month,
-            @RequestParam Integer year) {
-        MonthlyReport report = dashboardService.getMonthlyReport(month, year);
+            @RequestParam Integer year,
+            @RequestParam(defaultValue = "false") boolean rollupCategories) {
+        MonthlyReport report = dashboardService.getMonthlyReport(month, year, rollupCategories);
         return ResponseEntity.ok(ApiResponse.success(report));
     }
+
+    @GetMapping("/team")
+    @Operation(summary = "Get team dashboard with per-member breakdowns over shared accounts and team categories")
+    public ResponseEntity<ApiResponse<TeamDashboard>> getTeamDashboard(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(ApiResponse.success(dashboardService.getTeamDashboard(startDate, endDate)));
+    }
+
+    @GetMapping("/trend")
+    @Operation(summary = "Get month-by-month income/expense over a long range (from/to as yyyy-MM)")
+    public ResponseEntity<ApiResponse<TrendReport>> getTrendReport(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        return ResponseEntity.ok(ApiResponse.success(dashboardService.getTrendReport(from, to)));
+    }
 }
@@ -0,0 +1,33 @@
+package com.moneyflow.controller;
+
+import com.moneyflow.model.dto.ApiResponse;
+import com.moneyflow.model.dto.home.HomeResponse;
+import com.moneyflow.service.HomeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/v1/home")
+@RequiredArgsConstructor
+@Tag(name = "Home", description = "Composite launch-screen endpoint")
+public class HomeController {
+
+    private final HomeService homeService;
+
+    @GetMapping
+    @Operation(summary = "Get accounts, balances, dashboard, triggered budgets, goals and active recurring in one call")
+    public ResponseEntity<ApiResponse<HomeResponse>> getHome(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(ApiResponse.success(homeService.getHome(startDate, endDate)));
+    }
+}
@@ -2,6 +2,7 @@ package com.moneyflow.controller;
 
 import com.moneyflow.model.dto.ApiResponse;
 import com.moneyflow.model.dto.recurring.CreateRecurringTransactionRequest;
+import com.moneyflow.model.dto.recurring.RecurringOccurrenceResponse;
 import com.moneyflow.model.dto.recurring.RecurringTransactionResponse;
 import com.moneyflow.model.dto.recurring.UpdateRecurringTransactionRequest;
 import com.moneyflow.service.RecurringTransactionService;
@@ -12,10 +13,12 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -53,6 +56,14 @@ public class RecurringTransactionController {
         return ResponseEntity.ok(ApiResponse.success(transactions));
     }
 
+    @GetMapping("/calendar")
+    @Operation(summary = "Upcoming occurrences of all active recurring transactions in a date range (at most a year)")
+    public ResponseEntity<ApiResponse<List<RecurringOccurrenceResponse>>> getCalendar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(ApiResponse.success(recurringTransactionService.getCalendar(from, to)));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get recurring transaction by ID")
     public ResponseEntity<ApiResponse<RecurringTransactionResponse>> getRecurringTransactionById(
@@ -0,0 +1,30 @@
+package com.moneyflow.controller;
+
+import com.moneyflow.notification.LiveUpdateHub;
+import com.moneyflow.security.SecurityUtils;
+import com.moneyflow.service.TeamPermissionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/v1/stream")
+@RequiredArgsConstructor
+@Tag(name = "Stream", description = "Server-sent events for live dashboard updates")
+public class StreamController {
+
+    private final LiveUpdateHub liveUpdateHub;
+    private final TeamPermissionService teamPermissionService;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to balance, shared-account transaction and budget alert events")
+    public SseEmitter subscribe() {
+        Long userId = SecurityUtils.getCurrentUserId();
+        return liveUpdateHub.subscribe(userId, teamPermissionService.teamId(userId));
+    }
+}
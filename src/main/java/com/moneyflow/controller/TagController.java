@@ -2,16 +2,20 @@ package com.moneyflow.controller;
 
 import com.moneyflow.model.dto.ApiResponse;
 import com.moneyflow.model.dto.tag.CreateTagRequest;
+import com.moneyflow.model.dto.tag.TagReportResponse;
 import com.moneyflow.model.dto.tag.TagResponse;
+import com.moneyflow.service.TagRollupService;
 import com.moneyflow.service.TagService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -21,6 +25,7 @@ import java.util.List;
 public class TagController {
 
     private final TagService tagService;
+    private final TagRollupService tagRollupService;
 
     @PostMapping
     @Operation(summary = "Create a tag")
@@ -35,6 +40,14 @@ public class TagController {
         return ResponseEntity.ok(ApiResponse.success(tagService.getTags()));
     }
 
+    @GetMapping("/report")
+    @Operation(summary = "Get income/expense per tag over a range of months (from/to as yyyy-MM)")
+    public ResponseEntity<ApiResponse<List<TagReportResponse>>> getTagReport(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        return ResponseEntity.ok(ApiResponse.success(tagRollupService.getReport(from, to)));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update a tag")
     public ResponseEntity<ApiResponse<TagResponse>> updateTag(
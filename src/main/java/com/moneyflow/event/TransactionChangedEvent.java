@@ -0,0 +1,43 @@
+package com.moneyflow.event;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Published whenever active transactions are created, edited or soft-deleted. Each
+ * change carries the state before and after the write ({@code before} is null for a
+ * creation, {@code after} for a deletion), so listeners can maintain derived data by
+ * applying "remove before, add after" deltas instead of re-reading history.
+ * <p>
+ * Listeners that keep database aggregates use {@code @EventListener} and run inside the
+ * writing transaction; in-memory structures use {@code @TransactionalEventListener} so
+ * they only see committed changes.
+ */
+@Value
+public class TransactionChangedEvent {
+
+    List<Change> changes;
+
+    public static TransactionChangedEvent created(TransactionSnapshot after) {
+        return new TransactionChangedEvent(List.of(new Change(null, after)));
+    }
+
+    public static TransactionChangedEvent created(List<TransactionSnapshot> after) {
+        return new TransactionChangedEvent(after.stream().map(a -> new Change(null, a)).toList());
+    }
+
+    public static TransactionChangedEvent updated(TransactionSnapshot before, TransactionSnapshot after) {
+        return new TransactionChangedEvent(List.of(new Change(before, after)));
+    }
+
+    public static TransactionChangedEvent deleted(TransactionSnapshot before) {
+        return new TransactionChangedEvent(List.of(new Change(before, null)));
+    }
+
+    @Value
+    public static class Change {
+        TransactionSnapshot before;
+        TransactionSnapshot after;
+    }
+}
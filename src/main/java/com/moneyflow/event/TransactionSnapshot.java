@@ -0,0 +1,53 @@
+package com.moneyflow.event;
+
+import com.moneyflow.model.entity.Tag;
+import com.moneyflow.model.entity.Transaction;
+import com.moneyflow.model.enums.TransactionType;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable copy of the fields of a {@link Transaction} that derived data (aggregates,
+ * caches) depends on. Taken while the entity is still attached, so listeners never
+ * touch lazy associations after the session is gone.
+ */
+@Value
+@Builder
+public class TransactionSnapshot {
+
+    Long id;
+    Long userId;
+    Long accountId;
+    /** Team the account is shared with, or null for a personal account. */
+    Long teamId;
+    String currency;
+    Long categoryId;
+    TransactionType type;
+    BigDecimal amount;
+    LocalDate transactionDate;
+    String description;
+    Set<Long> tagIds;
+
+    public static TransactionSnapshot of(Transaction transaction) {
+        return TransactionSnapshot.builder()
+                .id(transaction.getId())
+                .userId(transaction.getUser().getId())
+                .accountId(transaction.getAccount().getId())
+                .teamId(transaction.getAccount().getTeam() != null ? transaction.getAccount().getTeam().getId() : null)
+                .currency(transaction.getAccount().getCurrency())
+                .categoryId(transaction.getCategory().getId())
+                .type(transaction.getType())
+                .amount(transaction.getAmount())
+                .transactionDate(transaction.getTransactionDate())
+                .description(transaction.getDescription())
+                .tagIds(transaction.getTags() == null ? Set.of() : transaction.getTags().stream()
+                        .map(Tag::getId)
+                        .collect(Collectors.toUnmodifiableSet()))
+                .build();
+    }
+}
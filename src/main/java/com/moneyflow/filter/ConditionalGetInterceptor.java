@@ -0,0 +1,60 @@
+package com.moneyflow.filter;
+
+import com.moneyflow.security.SecurityUtils;
+import com.moneyflow.service.DataVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Arrays;
+
+/**
+ * Conditional GETs for the authenticated API. GETs carry an ETag derived from the
+ * caller's data versions and are answered with 304 Not Modified, before any
+ * controller or repository work, when {@code If-None-Match} still matches. Writes
+ * bump the caller's versions as their transaction commits, see
+ * {@link DataVersionCommitListener}.
+ * <p>
+ * Registered for {@code /v1/**} except auth, health, export and event stream endpoints.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private final DataVersionService dataVersionService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) || !SecurityUtils.isAuthenticated()) {
+            return true;
+        }
+        String etag = dataVersionService.etag(SecurityUtils.getCurrentUserId());
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return false;
+        }
+        return true;
+    }
+
+    static boolean isWrite(String method) {
+        return !HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)
+                && !HttpMethod.OPTIONS.matches(method);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(candidate -> candidate.equals("*") || candidate.equals(etag)
+                        || candidate.equals(etag.substring(2)));
+    }
+}
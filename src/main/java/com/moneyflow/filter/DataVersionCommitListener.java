@@ -0,0 +1,40 @@
+package com.moneyflow.filter;
+
+import com.moneyflow.security.SecurityUtils;
+import com.moneyflow.service.DataVersionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Bumps the caller's data versions when a read-write transaction of an authenticated
+ * API write commits. This happens before the controller returns and the response is
+ * sent, so a client cannot revalidate the old data into a 304 after the write.
+ * Registered with the transaction manager by Spring Boot, like every
+ * {@link TransactionExecutionListener} bean; the service is looked up lazily because it
+ * needs the transaction manager itself.
+ */
+@Component
+@RequiredArgsConstructor
+public class DataVersionCommitListener implements TransactionExecutionListener {
+
+    private final ObjectProvider<DataVersionService> dataVersionService;
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure != null || !transaction.isNewTransaction() || transaction.isReadOnly()
+                || DataVersionService.isBumping() || !isApiWrite() || !SecurityUtils.isAuthenticated()) {
+            return;
+        }
+        dataVersionService.getObject().bump(SecurityUtils.getCurrentUserId());
+    }
+
+    private static boolean isApiWrite() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && ConditionalGetInterceptor.isWrite(attributes.getRequest().getMethod());
+    }
+}
@@ -0,0 +1,50 @@
+package com.moneyflow.model.dto.budget;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/** A year's personal budgets, created or updated in one call. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BudgetPlanRequest {
+
+    @NotNull(message = "Year is required")
+    @Min(value = 2000, message = "Year must be 2000 or later")
+    private Integer year;
+
+    @NotEmpty(message = "At least one budget is required")
+    @Size(max = 1000, message = "At most 1000 budgets per plan")
+    private List<@Valid @NotNull Entry> budgets;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+
+        @NotNull(message = "Category ID is required")
+        private Long categoryId;
+
+        /** Month of the budget; when omitted the entry applies to every month of the year. */
+        @Min(value = 1, message = "Month must be between 1 and 12")
+        @Max(value = 12, message = "Month must be between 1 and 12")
+        private Integer month;
+
+        @NotNull(message = "Amount is required")
+        @Positive(message = "Amount must be positive")
+        private BigDecimal amount;
+
+        @DecimalMin(value = "0", message = "Alert threshold must be between 0 and 100")
+        @DecimalMax(value = "100", message = "Alert threshold must be between 0 and 100")
+        private BigDecimal alertThreshold;
+    }
+}
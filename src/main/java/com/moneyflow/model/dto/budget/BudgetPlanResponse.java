@@ -0,0 +1,30 @@
+package com.moneyflow.model.dto.budget;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** The year's budgets after a plan was saved, and the plan entries that were not applied. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BudgetPlanResponse {
+
+    private List<BudgetResponse> budgets;
+    /** (category, month) slots left unchanged because a team budget of the user occupies them. */
+    private List<Skipped> skipped;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Skipped {
+
+        private Long categoryId;
+        private Integer month;
+    }
+}
@@ -1,11 +1,13 @@
 package com.moneyflow.model.dto.budget;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
@@ -32,4 +34,31 @@ public class BudgetResponse {
     private String baseCurrency;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    /** Only filled in by {@code GET /v1/budgets/pace}. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Pace pace;
+
+    public enum PaceCurve {
+        /** Even spending across the month. */
+        LINEAR,
+        /** The day-of-month spending shape of the previous months. */
+        HISTORICAL
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Pace {
+        private LocalDate asOf;
+        private PaceCurve curve;
+        /** What should have been spent by {@code asOf} to land exactly on the budget. */
+        private BigDecimal expectedSpend;
+        private BigDecimal projectedSpend;
+        /** Days from {@code asOf} until the budget runs out at the projected rate; 0 if already spent. */
+        private Integer daysUntilExhausted;
+        private Boolean aheadOfPace;
+    }
 }
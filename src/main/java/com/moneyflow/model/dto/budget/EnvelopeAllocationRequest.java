@@ -0,0 +1,33 @@
+package com.moneyflow.model.dto.budget;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnvelopeAllocationRequest {
+
+    @NotNull(message = "Category ID is required")
+    private Long categoryId;
+
+    /** Base-currency amount to assign; negative takes money back out of the envelope. */
+    @NotNull(message = "Amount is required")
+    private BigDecimal amount;
+
+    /** Month the money is assigned in; defaults to the current month. */
+    @Min(value = 1, message = "Month must be between 1 and 12")
+    @Max(value = 12, message = "Month must be between 1 and 12")
+    private Integer month;
+
+    @Min(value = 2000, message = "Year must be 2000 or later")
+    private Integer year;
+}
@@ -0,0 +1,29 @@
+package com.moneyflow.model.dto.budget;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnvelopeResponse {
+
+    private Long categoryId;
+    private String categoryName;
+    private String categoryIcon;
+    private String categoryColor;
+    private YearMonth startMonth;
+    /** Assigned to the envelope in the requested month. */
+    private BigDecimal allocated;
+    /** Drawn from the envelope in the requested month. */
+    private BigDecimal spent;
+    /** Everything assigned minus everything spent to date, leftovers of earlier months included. */
+    private BigDecimal balance;
+    private Boolean overspent;
+}
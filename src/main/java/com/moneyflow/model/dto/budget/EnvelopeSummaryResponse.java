@@ -0,0 +1,23 @@
+package com.moneyflow.model.dto.budget;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnvelopeSummaryResponse {
+
+    private Integer month;
+    private Integer year;
+    private String baseCurrency;
+    /** Money in the user's accounts not yet assigned to an envelope. */
+    private BigDecimal readyToAssign;
+    private List<EnvelopeResponse> envelopes;
+}
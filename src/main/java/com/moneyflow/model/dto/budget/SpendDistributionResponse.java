@@ -0,0 +1,34 @@
+package com.moneyflow.model.dto.budget;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Spend distribution of one expense category over a window of months, in the base
+ * currency. Transaction-size percentiles are approximate (t-digest); monthly-spend
+ * percentiles are exact over the months that had any spend.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendDistributionResponse {
+
+    private Long categoryId;
+    private String categoryName;
+    private Boolean teamShared;
+    private YearMonth fromMonth;
+    private YearMonth toMonth;
+    private String baseCurrency;
+    private Long transactionCount;
+    private BigDecimal medianTransaction;
+    private BigDecimal p90Transaction;
+    private Integer monthsWithSpend;
+    private BigDecimal medianMonthlySpend;
+    private BigDecimal p90MonthlySpend;
+}
@@ -17,6 +17,7 @@ public class CategoryResponse {
     private Long id;
     private String name;
     private CategoryType type;
+    private Long parentId;
     private String icon;
     private String color;
     private Boolean isDefault;
@@ -25,4 +25,7 @@ public class CreateCategoryRequest {
     private String icon;
 
     private String color;
+
+    /** Optional parent; must be a category of the same type available to the user. */
+    private Long parentId;
 }
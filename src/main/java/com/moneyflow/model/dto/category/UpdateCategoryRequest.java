@@ -21,4 +21,10 @@ public class UpdateCategoryRequest {
     private String icon;
 
     private String color;
+
+    /** Moves the category (with its subcategories) under this parent. */
+    private Long parentId;
+
+    /** When true, moves the category to the top level; takes precedence over {@code parentId}. */
+    private Boolean topLevel;
 }
@@ -1,5 +1,6 @@
 package com.moneyflow.model.dto.dashboard;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,6 +24,7 @@ public class DashboardSummary {
     private List<AccountSummary> accountSummaries;
     private List<CategorySummary> topExpenseCategories;
     private List<CategorySummary> topIncomeCategories;
+    private TopMerchants topMerchants;
 
     @Data
     @Builder
@@ -51,4 +53,26 @@ public class DashboardSummary {
         private BigDecimal percentage;
         private Integer transactionCount;
     }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TopMerchants {
+        private List<MerchantStat> mostFrequent;
+        private List<MerchantStat> highestSpend;
+    }
+
+    /** Normalized payee; counts/amounts are upper bounds when {@code approximate} is set. */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class MerchantStat {
+        private String name;
+        private Long transactionCount;
+        private BigDecimal amount;
+        private Boolean approximate;
+    }
 }
@@ -0,0 +1,53 @@
+package com.moneyflow.model.dto.dashboard;
+
+import com.moneyflow.model.enums.TeamRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Team-wide totals over team-shared accounts and team categories, with the same
+ * figures broken down per member (by who recorded the transaction). Data recorded by
+ * users who have left the team is reported as one last member row without a user id.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeamDashboard {
+
+    private Long teamId;
+    private String teamName;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String baseCurrency;
+    private BigDecimal sharedBalance;
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private BigDecimal netFlow;
+    private Integer totalTransactions;
+    private List<DashboardSummary.AccountSummary> sharedAccounts;
+    private List<DashboardSummary.CategorySummary> topExpenseCategories;
+    private List<DashboardSummary.CategorySummary> topIncomeCategories;
+    private List<MemberSummary> members;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MemberSummary {
+        private Long userId;
+        private String name;
+        private TeamRole role;
+        private BigDecimal totalIncome;
+        private BigDecimal totalExpense;
+        private BigDecimal netFlow;
+        private Integer totalTransactions;
+        private List<DashboardSummary.CategorySummary> topExpenseCategories;
+    }
+}
@@ -0,0 +1,45 @@
+package com.moneyflow.model.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Month-by-month income/expense over a long range (e.g. year over year). Months up to
+ * {@code snapshotCoveredUntil} come from the nightly snapshot; later months are live.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendReport {
+
+    private YearMonth from;
+    private YearMonth to;
+    private String baseCurrency;
+    private LocalDate snapshotCoveredUntil;
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private BigDecimal netFlow;
+    private List<MonthFlow> months;
+    private List<MonthlyReport.CategoryBreakdown> expenseBreakdown;
+    private List<MonthlyReport.CategoryBreakdown> incomeBreakdown;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MonthFlow {
+        private YearMonth month;
+        private BigDecimal income;
+        private BigDecimal expense;
+        private BigDecimal net;
+        private Long transactionCount;
+    }
+}
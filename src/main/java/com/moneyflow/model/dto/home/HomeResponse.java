@@ -0,0 +1,57 @@
+package com.moneyflow.model.dto.home;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.moneyflow.model.dto.account.AccountResponse;
+import com.moneyflow.model.dto.account.BalanceSummaryResponse;
+import com.moneyflow.model.dto.budget.BudgetResponse;
+import com.moneyflow.model.dto.dashboard.DashboardSummary;
+import com.moneyflow.model.dto.recurring.RecurringTransactionResponse;
+import com.moneyflow.model.dto.savings.SavingsGoalResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Everything the app needs on launch in one payload. Each section carries its own
+ * timing and, if it failed, an error message instead of data, so one slow or broken
+ * section does not take the whole screen down.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HomeResponse {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Section<List<AccountResponse>> accounts;
+    private Section<BalanceSummaryResponse> balanceSummary;
+    private Section<DashboardSummary> dashboard;
+    private Section<List<BudgetResponse>> triggeredBudgets;
+    private Section<List<SavingsGoalResponse>> savingsGoals;
+    private Section<List<RecurringTransactionResponse>> activeRecurring;
+    private Long totalMillis;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Section<T> {
+        private T data;
+        private Long durationMillis;
+        private String error;
+
+        public static <T> Section<T> ok(T data, long durationMillis) {
+            return Section.<T>builder().data(data).durationMillis(durationMillis).build();
+        }
+
+        public static <T> Section<T> failed(String error, long durationMillis) {
+            return Section.<T>builder().error(error).durationMillis(durationMillis).build();
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.moneyflow.model.dto.recurring;
 
 import com.moneyflow.model.enums.Frequency;
+import com.moneyflow.model.enums.MonthlyAnchor;
 import com.moneyflow.model.enums.TransactionType;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
@@ -11,7 +14,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.Set;
 
 @Data
 @Builder
@@ -38,6 +43,20 @@ public class CreateRecurringTransactionRequest {
     @NotNull(message = "Frequency is required")
     private Frequency frequency;
 
+    /** Every this many periods of the frequency; 1 if omitted. */
+    @Min(value = 1, message = "Interval must be at least 1")
+    @Max(value = 1000, message = "Interval must not exceed 1000")
+    private Integer interval;
+
+    /** WEEKLY: the days of the week it falls on (the start date's if omitted); NTH_WEEKDAY: the weekday. */
+    private Set<DayOfWeek> weekdays;
+
+    /** MONTHLY: which day of the month; the start date's day of month if omitted. */
+    private MonthlyAnchor monthlyAnchor;
+
+    /** NTH_WEEKDAY: 1 to 4, or -1 for the last; the start date's if omitted. */
+    private Integer weekdayOrdinal;
+
     @NotNull(message = "Start date is required")
     private LocalDate startDate;
 
@@ -0,0 +1,33 @@
+package com.moneyflow.model.dto.recurring;
+
+import com.moneyflow.model.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** One upcoming occurrence of a recurring transaction. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringOccurrenceResponse {
+
+    private LocalDate date;
+    private Long recurringTransactionId;
+    private TransactionType type;
+    private BigDecimal amount;
+    private String currency;
+    private String description;
+
+    private Long accountId;
+    private String accountName;
+
+    private Long categoryId;
+    private String categoryName;
+    private String categoryIcon;
+    private String categoryColor;
+}
@@ -1,6 +1,7 @@
 package com.moneyflow.model.dto.recurring;
 
 import com.moneyflow.model.enums.Frequency;
+import com.moneyflow.model.enums.MonthlyAnchor;
 import com.moneyflow.model.enums.TransactionType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,8 +9,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @Data
 @Builder
@@ -22,6 +25,10 @@ public class RecurringTransactionResponse {
     private BigDecimal amount;
     private String description;
     private Frequency frequency;
+    private Integer interval;
+    private Set<DayOfWeek> weekdays;
+    private MonthlyAnchor monthlyAnchor;
+    private Integer weekdayOrdinal;
     private LocalDate startDate;
     private LocalDate endDate;
     private LocalDate nextExecutionDate;
@@ -38,7 +45,9 @@ public class RecurringTransactionResponse {
     private String categoryIcon;
     private String categoryColor;
 
-    private Integer totalExecutions;
+    private Long totalExecutions;
+    private BigDecimal totalPostedAmount;
+    private BigDecimal lastPostedAmount;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -1,6 +1,9 @@
 package com.moneyflow.model.dto.recurring;
 
 import com.moneyflow.model.enums.Frequency;
+import com.moneyflow.model.enums.MonthlyAnchor;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -9,7 +12,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.Set;
 
 @Data
 @Builder
@@ -25,8 +30,23 @@ public class UpdateRecurringTransactionRequest {
     @Size(max = 255, message = "Description must not exceed 255 characters")
     private String description;
 
+    /**
+     * A new frequency replaces the whole schedule: interval, weekdays, monthly anchor and
+     * ordinal then come from this request, defaulted if omitted. Without one, each of
+     * those given here replaces the current value.
+     */
     private Frequency frequency;
 
+    @Min(value = 1, message = "Interval must be at least 1")
+    @Max(value = 1000, message = "Interval must not exceed 1000")
+    private Integer interval;
+
+    private Set<DayOfWeek> weekdays;
+
+    private MonthlyAnchor monthlyAnchor;
+
+    private Integer weekdayOrdinal;
+
     private LocalDate endDate;
 
     private Boolean isPaused;
@@ -0,0 +1,22 @@
+package com.moneyflow.model.dto.stream;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * {@code balance} stream event: an account's balance after a committed change.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceUpdate {
+
+    private Long accountId;
+    private BigDecimal balance;
+    private String currency;
+}
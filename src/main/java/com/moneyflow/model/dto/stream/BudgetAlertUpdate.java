@@ -0,0 +1,28 @@
+package com.moneyflow.model.dto.stream;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * {@code budget-alert} stream event: a budget crossed its alert threshold
+ * ({@code triggered}) or dropped back below it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BudgetAlertUpdate {
+
+    private Long budgetId;
+    private Long categoryId;
+    private Integer month;
+    private Integer year;
+    private boolean triggered;
+    private boolean overBudget;
+    private BigDecimal spent;
+    private BigDecimal percentageUsed;
+}
@@ -0,0 +1,30 @@
+package com.moneyflow.model.dto.stream;
+
+import com.moneyflow.model.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * {@code transaction} stream event: a transaction recorded on an account shared with
+ * the recipient's team.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SharedTransactionNotice {
+
+    private Long transactionId;
+    private Long accountId;
+    private Long userId;
+    private TransactionType type;
+    private BigDecimal amount;
+    private String currency;
+    private LocalDate transactionDate;
+    private String description;
+}
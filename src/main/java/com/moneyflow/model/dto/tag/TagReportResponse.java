@@ -0,0 +1,41 @@
+package com.moneyflow.model.dto.tag;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Income/expense of one tag over a range of months, converted to the base currency.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagReportResponse {
+
+    private Long tagId;
+    private String tagName;
+    private String color;
+    private String baseCurrency;
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private BigDecimal netFlow;
+    private Long transactionCount;
+    private List<MonthTotal> months;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MonthTotal {
+        private YearMonth month;
+        private BigDecimal income;
+        private BigDecimal expense;
+        private Long transactionCount;
+    }
+}
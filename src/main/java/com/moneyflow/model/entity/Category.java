@@ -24,6 +24,11 @@ public class Category extends BaseEntity {
     @JoinColumn(name = "team_id")
     private Team team;
 
+    /** Parent in the category hierarchy, or null for a top-level category. */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "parent_id")
+    private Category parent;
+
     @Column(nullable = false)
     private String name;
 
@@ -0,0 +1,34 @@
+package com.moneyflow.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Transitive closure of the category hierarchy: one row per (ancestor, descendant)
+ * pair at any distance, so subtree and ancestor lookups are a single indexed join
+ * instead of a recursive query. A category is not stored as its own ancestor;
+ * top-level categories without children have no rows at all.
+ */
+@Entity
+@Table(name = "category_closure", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"ancestor_id", "descendant_id"})
+}, indexes = {
+        @Index(name = "idx_category_closure_descendant", columnList = "descendant_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryClosure extends BaseEntity {
+
+    @Column(name = "ancestor_id", nullable = false)
+    private Long ancestorId;
+
+    @Column(name = "descendant_id", nullable = false)
+    private Long descendantId;
+
+    /** Number of edges between the two; 1 for a direct parent. */
+    @Column(nullable = false)
+    private Integer depth;
+}
@@ -0,0 +1,49 @@
+package com.moneyflow.model.entity;
+
+import com.moneyflow.model.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Income or expense of one user's transactions in one category on one day, per account
+ * currency. Kept current from transaction changes and rebuilt by the daily rollup job;
+ * conversion to the base currency happens at read time.
+ */
+@Entity
+@Table(name = "daily_category_totals", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"user_id", "category_id", "transaction_date", "type", "currency"})
+}, indexes = {
+        @Index(name = "idx_daily_category_totals_date", columnList = "transaction_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyCategoryTotal extends BaseEntity {
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "transaction_date", nullable = false)
+    private LocalDate transactionDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+}
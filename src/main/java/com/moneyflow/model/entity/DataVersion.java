@@ -0,0 +1,31 @@
+package com.moneyflow.model.entity;
+
+import com.moneyflow.model.enums.DataVersionScope;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Monotonically increasing counter of committed changes visible to one user or one
+ * team, used to derive ETags for conditional GETs.
+ */
+@Entity
+@Table(name = "data_versions", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"scope", "scope_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DataVersion extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DataVersionScope scope;
+
+    @Column(name = "scope_id", nullable = false)
+    private Long scopeId;
+
+    @Column(name = "data_version", nullable = false)
+    private Long dataVersion;
+}
@@ -0,0 +1,41 @@
+package com.moneyflow.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A user's envelope for an expense category and its subcategories. {@code balance} is
+ * the running total, in base currency, of everything allocated to the envelope minus
+ * the spending drawn from it since {@code startMonth}; leftovers carry over from month
+ * to month simply by staying in it.
+ */
+@Entity
+@Table(name = "envelopes", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"user_id", "category_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Envelope extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = false)
+    private Category category;
+
+    /** First day of the first month the envelope draws spending from. */
+    @Column(name = "start_month", nullable = false)
+    private LocalDate startMonth;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    @Builder.Default
+    private BigDecimal balance = BigDecimal.ZERO;
+}
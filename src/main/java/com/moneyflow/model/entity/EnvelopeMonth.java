@@ -0,0 +1,34 @@
+package com.moneyflow.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** Allocations to and spending from one envelope in one month, in base currency. */
+@Entity
+@Table(name = "envelope_months", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"envelope_id", "month_start"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EnvelopeMonth extends BaseEntity {
+
+    @Column(name = "envelope_id", nullable = false)
+    private Long envelopeId;
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    @Builder.Default
+    private BigDecimal allocated = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    @Builder.Default
+    private BigDecimal spent = BigDecimal.ZERO;
+}
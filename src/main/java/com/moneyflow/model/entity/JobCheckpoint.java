@@ -0,0 +1,55 @@
+package com.moneyflow.model.entity;
+
+import com.moneyflow.model.enums.JobRunStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the current or last run of a chunked batch job: the keyset position
+ * ({@code lastId}) reached in pass {@code passNumber}, saved after every chunk.
+ */
+@Entity
+@Table(name = "job_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobCheckpoint extends BaseEntity {
+
+    @Column(name = "job_name", nullable = false, unique = true, length = 64)
+    private String jobName;
+
+    @Column(name = "run_date", nullable = false)
+    private LocalDate runDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private JobRunStatus status;
+
+    @Column(name = "pass_number", nullable = false)
+    private Integer passNumber;
+
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    /** Rules handed to workers so far in this run. */
+    @Column(name = "processed_count", nullable = false)
+    private Long processedCount;
+
+    /** Transactions generated so far in this run. */
+    @Column(name = "generated_count", nullable = false)
+    private Long generatedCount;
+
+    @Column(name = "failed_count", nullable = false)
+    private Long failedCount;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,31 @@
+package com.moneyflow.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Heavy-hitter summaries of one user's expense descriptions for one month, stored as
+ * JSON (see {@code MerchantInsightService}): one ranked by frequency, one by spend.
+ */
+@Entity
+@Table(name = "merchant_summaries", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"user_id", "month_start"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MerchantSummary extends BaseEntity {
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+}
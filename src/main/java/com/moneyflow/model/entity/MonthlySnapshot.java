@@ -0,0 +1,48 @@
+package com.moneyflow.model.entity;
+
+import com.moneyflow.model.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated active transactions for one closed month, written by the nightly
+ * snapshot job. Amounts are in the account's currency, so conversion to the base
+ * currency happens at read time exactly as for live rows.
+ */
+@Entity
+@Table(name = "monthly_snapshots", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"user_id", "account_id", "category_id", "type", "month_start"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MonthlySnapshot extends BaseEntity {
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    /** First day of the month this row aggregates. */
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+}
@@ -1,18 +1,23 @@
 package com.moneyflow.model.entity;
 
 import com.moneyflow.model.enums.Frequency;
+import com.moneyflow.model.enums.MonthlyAnchor;
 import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.recurrence.RecurrenceRule;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "recurring_transactions")
+@Table(name = "recurring_transactions", indexes = {
+        @Index(name = "idx_recurring_transactions_due", columnList = "next_execution_date, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -46,6 +51,23 @@ public class RecurringTransaction extends BaseEntity {
     @Column(nullable = false)
     private Frequency frequency;
 
+    /** Recurs every this many periods of {@code frequency}. */
+    @Column(name = "repeat_interval", nullable = false)
+    @Builder.Default
+    private Integer repeatInterval = 1;
+
+    /** Comma-separated days of the week: those of a weekly rule, or the weekday of an n-th weekday rule. */
+    @Column(name = "by_weekdays", length = 80)
+    private String byWeekdays;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "monthly_anchor", length = 32)
+    private MonthlyAnchor monthlyAnchor;
+
+    /** Which weekday of the month for an n-th weekday rule: 1 to 4, or -1 for the last. */
+    @Column(name = "weekday_ordinal")
+    private Integer weekdayOrdinal;
+
     @Column(name = "start_date", nullable = false)
     private LocalDate startDate;
 
@@ -58,6 +80,19 @@ public class RecurringTransaction extends BaseEntity {
     @Column(name = "last_executed_at")
     private LocalDateTime lastExecutedAt;
 
+    /** Occurrences posted so far. */
+    @Column(name = "execution_count", nullable = false)
+    @Builder.Default
+    private Long executionCount = 0L;
+
+    /** Sum of the amounts of all occurrences posted so far, in the account's currency. */
+    @Column(name = "total_posted_amount", nullable = false, precision = 19, scale = 4)
+    @Builder.Default
+    private BigDecimal totalPostedAmount = BigDecimal.ZERO;
+
+    @Column(name = "last_posted_amount", precision = 19, scale = 4)
+    private BigDecimal lastPostedAmount;
+
     @Column(name = "is_paused", nullable = false)
     @Builder.Default
     private Boolean isPaused = false;
@@ -68,14 +103,33 @@ public class RecurringTransaction extends BaseEntity {
 
     public LocalDate calculateNextExecutionDate() {
         if (nextExecutionDate == null) {
-            return startDate;
+            return rule().occurrence(0);
+        }
+
+        return occurrenceAfter(nextExecutionDate);
+    }
+
+    /** The occurrence following the one on {@code date}. */
+    public LocalDate occurrenceAfter(LocalDate date) {
+        return rule().firstAfter(date);
+    }
+
+    /** The schedule described by the frequency, interval, weekday and monthly anchor columns. */
+    public RecurrenceRule rule() {
+        return RecurrenceRule.of(frequency, repeatInterval, startDate, monthlyAnchor, getWeekdays(), weekdayOrdinal);
+    }
+
+    public Set<DayOfWeek> getWeekdays() {
+        if (byWeekdays == null || byWeekdays.isBlank()) {
+            return Set.of();
         }
+        return Arrays.stream(byWeekdays.split(","))
+                .map(DayOfWeek::valueOf)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(DayOfWeek.class)));
+    }
 
-        return switch (frequency) {
-            case DAILY -> nextExecutionDate.plusDays(1);
-            case WEEKLY -> nextExecutionDate.plusWeeks(1);
-            case MONTHLY -> nextExecutionDate.plusMonths(1);
-            case YEARLY -> nextExecutionDate.plusYears(1);
-        };
+    public void setWeekdays(Collection<DayOfWeek> weekdays) {
+        byWeekdays = weekdays == null || weekdays.isEmpty() ? null
+                : EnumSet.copyOf(weekdays).stream().map(DayOfWeek::name).collect(Collectors.joining(","));
     }
 }
@@ -0,0 +1,36 @@
+package com.moneyflow.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A closed (account, month) whose transactions changed after it may have been
+ * snapshotted. Readers serve such months live until the nightly job rebuilds them.
+ */
+@Entity
+@Table(name = "snapshot_dirty_months", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"user_id", "account_id", "month_start"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SnapshotDirtyMonth extends BaseEntity {
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    /** Last time a write touched the month; the rebuild only clears marks it has seen. */
+    @Column(name = "marked_at", nullable = false)
+    private LocalDateTime markedAt;
+}
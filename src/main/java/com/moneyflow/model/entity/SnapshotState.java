@@ -0,0 +1,27 @@
+package com.moneyflow.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/** Progress of a snapshot job: every month up to {@code coveredUntil} has been built. */
+@Entity
+@Table(name = "snapshot_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SnapshotState extends BaseEntity {
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String name;
+
+    @Column(name = "covered_until")
+    private LocalDate coveredUntil;
+
+    @Column(name = "last_run_at")
+    private LocalDateTime lastRunAt;
+}
@@ -0,0 +1,42 @@
+package com.moneyflow.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Serialized t-digest of one user's expense transaction sizes (base currency) in one
+ * category and month, plus the month's exact count and total. Digests from several
+ * months or team members merge into one distribution on read.
+ */
+@Entity
+@Table(name = "spend_sketches", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"user_id", "category_id", "month_start"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpendSketch extends BaseEntity {
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(nullable = false, length = 65536)
+    private byte[] digest;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 4)
+    private BigDecimal totalAmount;
+}
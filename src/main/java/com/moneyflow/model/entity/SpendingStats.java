@@ -0,0 +1,35 @@
+package com.moneyflow.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Running mean and variance (Welford's M2) of one user's expense amounts in one
+ * category, in the base currency. Updated in O(1) per new expense.
+ */
+@Entity
+@Table(name = "spending_stats", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"user_id", "category_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpendingStats extends BaseEntity {
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "sample_count", nullable = false)
+    private long sampleCount;
+
+    @Column(nullable = false)
+    private double mean;
+
+    @Column(name = "sum_sq_diff", nullable = false)
+    private double sumSqDiff;
+}
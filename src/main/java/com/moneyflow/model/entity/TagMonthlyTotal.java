@@ -0,0 +1,44 @@
+package com.moneyflow.model.entity;
+
+import com.moneyflow.model.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Income or expense of the transactions carrying one tag in one month, per account
+ * currency. Kept current from transaction changes and rebuilt by the tag rollup job;
+ * conversion to the base currency happens at read time.
+ */
+@Entity
+@Table(name = "tag_monthly_totals", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"tag_id", "month_start", "type", "currency"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TagMonthlyTotal extends BaseEntity {
+
+    @Column(name = "tag_id", nullable = false)
+    private Long tagId;
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+}
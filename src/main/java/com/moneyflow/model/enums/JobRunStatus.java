@@ -0,0 +1,6 @@
+package com.moneyflow.model.enums;
+
+public enum JobRunStatus {
+    RUNNING,
+    COMPLETED
+}
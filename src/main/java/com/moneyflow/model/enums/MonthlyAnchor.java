@@ -0,0 +1,12 @@
+package com.moneyflow.model.enums;
+
+/** Which day of each month a monthly recurring transaction falls on. */
+public enum MonthlyAnchor {
+    /** The start date's day of month, or the month's last day if it is shorter. */
+    DAY_OF_MONTH,
+    /** The n-th (or last) given weekday, e.g. the second Tuesday. */
+    NTH_WEEKDAY,
+    LAST_DAY,
+    /** The last Monday-to-Friday day of the month. */
+    LAST_BUSINESS_DAY
+}
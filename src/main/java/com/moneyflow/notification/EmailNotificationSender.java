@@ -8,6 +8,8 @@ import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+
 /**
  * Sends notifications via email. Opt-in: only active when
  * {@code moneyflow.notifications.email.enabled=true} and SMTP is configured
@@ -38,4 +40,23 @@ public class EmailNotificationSender implements NotificationSender {
             log.error("Failed to send email to {}: {}", recipient, e.getMessage());
         }
     }
+
+    /** One message addressed to every recipient by Bcc, so members do not see each other's addresses. */
+    @Override
+    public void sendBatch(Collection<String> recipients, String subject, String message) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+        try {
+            SimpleMailMessage mail = new SimpleMailMessage();
+            mail.setFrom(from);
+            mail.setTo(from);
+            mail.setBcc(recipients.toArray(String[]::new));
+            mail.setSubject(subject);
+            mail.setText(message);
+            mailSender.send(mail);
+        } catch (Exception e) {
+            log.error("Failed to send email to {} recipient(s): {}", recipients.size(), e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,77 @@
+package com.moneyflow.notification;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One open event stream: its emitter plus a bounded queue of pre-rendered frames. At
+ * most one drain task runs per subscriber at a time, so frames go out in order and a
+ * subscriber never occupies more than one pool thread.
+ */
+final class LiveSubscriber {
+
+    private final Long userId;
+    private final Long teamId;
+    private final SseEmitter emitter;
+    private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+
+    LiveSubscriber(Long userId, Long teamId, SseEmitter emitter, int queueCapacity) {
+        this.userId = userId;
+        this.teamId = teamId;
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    Long getTeamId() {
+        return teamId;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /** Queues a frame; false when the queue is full, i.e. the client is not keeping up. */
+    boolean offer(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        return !closed && queue.offer(frame);
+    }
+
+    /** True if the caller won the right to schedule the (single) drain task. */
+    boolean claimDrain() {
+        return draining.compareAndSet(false, true);
+    }
+
+    /**
+     * Writes queued frames until the queue is empty. Re-checks after releasing the
+     * claim so a frame offered concurrently is not stranded.
+     */
+    void drain() throws IOException {
+        do {
+            Set<ResponseBodyEmitter.DataWithMediaType> frame;
+            while (!closed && (frame = queue.poll()) != null) {
+                emitter.send(frame);
+            }
+            draining.set(false);
+        } while (!closed && !queue.isEmpty() && claimDrain());
+    }
+
+    void close() {
+        closed = true;
+        queue.clear();
+    }
+}
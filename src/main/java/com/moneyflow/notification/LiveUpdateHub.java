@@ -0,0 +1,324 @@
+package com.moneyflow.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.model.dto.stream.BalanceUpdate;
+import com.moneyflow.model.dto.stream.BudgetAlertUpdate;
+import com.moneyflow.model.dto.stream.SharedTransactionNotice;
+import com.moneyflow.model.entity.Account;
+import com.moneyflow.repository.TeamMemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-sent event fan-out of balance changes, transactions on team-shared accounts
+ * and budget alert state to the subscribed users.
+ * <p>
+ * Streams are async {@link SseEmitter}s, so an idle connection holds no servlet thread.
+ * Each event is rendered to JSON once and queued on every recipient's bounded queue; a
+ * small pool drains the queues. A subscriber whose queue fills up (a client that stops
+ * reading) is disconnected rather than buffered for, and is expected to reconnect and
+ * reload. Heartbeat comments keep proxies from closing idle streams and surface dead
+ * connections.
+ * <p>
+ * Events are published after the writing transaction commits, so clients never see a
+ * change that was rolled back.
+ * <p>
+ * A stream is indexed under the team its user belonged to when it opened. Joining or
+ * leaving a team closes the user's streams on this node once the change commits, and a
+ * periodic check against the stored memberships closes the streams whose team no longer
+ * matches, which covers changes made through other nodes. Clients reconnect and are
+ * indexed under their current team.
+ */
+@Slf4j
+@Component
+public class LiveUpdateHub {
+
+    static final String BALANCE = "balance";
+    static final String TRANSACTION = "transaction";
+    static final String BUDGET_ALERT = "budget-alert";
+
+    private static final int MEMBERSHIP_BATCH = 500;
+
+    private final Executor executor;
+    private final ObjectMapper objectMapper;
+    private final TeamMemberRepository teamMemberRepository;
+
+    @Value("${moneyflow.stream.queue-capacity:64}")
+    private int queueCapacity = 64;
+
+    @Value("${moneyflow.stream.timeout-ms:1800000}")
+    private long timeoutMs = 1_800_000;
+
+    @Value("${moneyflow.stream.reconnect-ms:5000}")
+    private long reconnectMs = 5_000;
+
+    private final Map<Long, Set<LiveSubscriber>> byUser = new ConcurrentHashMap<>();
+    private final Map<Long, Set<LiveSubscriber>> byTeam = new ConcurrentHashMap<>();
+    private final AtomicLong eventIds = new AtomicLong();
+
+    public LiveUpdateHub(@Qualifier("liveUpdateExecutor") Executor executor, ObjectMapper objectMapper,
+                         TeamMemberRepository teamMemberRepository) {
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+        this.teamMemberRepository = teamMemberRepository;
+    }
+
+    /** Opens a stream for the user; {@code teamId} is their team, or null. */
+    public SseEmitter subscribe(Long userId, Long teamId) {
+        return subscribe(userId, teamId, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter subscribe(Long userId, Long teamId, SseEmitter emitter) {
+        LiveSubscriber subscriber = new LiveSubscriber(userId, teamId, emitter, queueCapacity);
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> disconnect(subscriber));
+        emitter.onError(e -> disconnect(subscriber));
+
+        add(byUser, userId, subscriber);
+        if (teamId != null) {
+            add(byTeam, teamId, subscriber);
+        }
+        enqueue(subscriber, SseEmitter.event().reconnectTime(reconnectMs).comment("connected").build());
+        return emitter;
+    }
+
+    /**
+     * Records a balance change on {@code account}. Changes are collected per transaction
+     * and published once on commit, with the final balance of each account.
+     */
+    public void balanceChanged(Account account) {
+        BalanceChange change = new BalanceChange(account.getUser().getId(),
+                account.getTeam() != null ? account.getTeam().getId() : null,
+                BalanceUpdate.builder()
+                        .accountId(account.getId())
+                        .balance(account.getBalance())
+                        .currency(account.getCurrency())
+                        .build());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publishBalance(change);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, BalanceChange> pending = (Map<Long, BalanceChange>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, BalanceChange> changes = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changes.values().forEach(LiveUpdateHub.this::publishBalance);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LiveUpdateHub.this);
+                }
+            });
+            pending = changes;
+        }
+        pending.put(account.getId(), change);
+    }
+
+    /**
+     * Publishes a budget alert state change to the budget's owner, and to the members of
+     * {@code teamId} for a team budget, once the transaction commits.
+     */
+    public void budgetAlertChanged(Long userId, Long teamId, BudgetAlertUpdate update) {
+        afterCommit(() -> publish(recipients(userId, teamId), BUDGET_ALERT, update));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        for (TransactionChangedEvent.Change change : event.getChanges()) {
+            TransactionSnapshot after = change.getAfter();
+            if (change.getBefore() != null || after == null || after.getTeamId() == null) {
+                continue;
+            }
+            publish(recipients(null, after.getTeamId()), TRANSACTION, SharedTransactionNotice.builder()
+                    .transactionId(after.getId())
+                    .accountId(after.getAccountId())
+                    .userId(after.getUserId())
+                    .type(after.getType())
+                    .amount(after.getAmount())
+                    .currency(after.getCurrency())
+                    .transactionDate(after.getTransactionDate())
+                    .description(after.getDescription())
+                    .build());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${moneyflow.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        byUser.values().forEach(subscribers -> subscribers.forEach(s -> enqueue(s, ping)));
+    }
+
+    /**
+     * Closes the user's streams once the current transaction commits, after they joined
+     * or left a team, so shared events stop reaching former members and start reaching
+     * new ones when the client reconnects.
+     */
+    public void membershipChanged(Long userId) {
+        afterCommit(() -> {
+            Set<LiveSubscriber> subscribers = byUser.get(userId);
+            if (subscribers != null) {
+                List.copyOf(subscribers).forEach(this::disconnect);
+            }
+        });
+    }
+
+    /** Closes the streams indexed under a team their user no longer belongs to. */
+    @Scheduled(fixedDelayString = "${moneyflow.stream.membership-check-ms:60000}")
+    public void checkMemberships() {
+        List<Long> userIds = new ArrayList<>(byUser.keySet());
+        for (int from = 0; from < userIds.size(); from += MEMBERSHIP_BATCH) {
+            List<Long> batch = userIds.subList(from, Math.min(from + MEMBERSHIP_BATCH, userIds.size()));
+            Map<Long, Long> teamByUser = new HashMap<>();
+            for (Object[] row : teamMemberRepository.findTeamIdsByUserIds(batch)) {
+                teamByUser.put((Long) row[0], (Long) row[1]);
+            }
+            for (Long userId : batch) {
+                Set<LiveSubscriber> subscribers = byUser.getOrDefault(userId, Set.of());
+                subscribers.stream()
+                        .filter(s -> !Objects.equals(s.getTeamId(), teamByUser.get(userId)))
+                        .toList()
+                        .forEach(this::disconnect);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return byUser.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void publishBalance(BalanceChange change) {
+        publish(recipients(change.ownerId, change.teamId), BALANCE, change.update);
+    }
+
+    private void publish(Collection<LiveSubscriber> recipients, String name, Object data) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> frame;
+        try {
+            frame = SseEmitter.event()
+                    .id(Long.toString(eventIds.incrementAndGet()))
+                    .name(name)
+                    .data(objectMapper.writeValueAsString(data))
+                    .build();
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize {} stream event", name, e);
+            return;
+        }
+        recipients.forEach(subscriber -> enqueue(subscriber, frame));
+    }
+
+    /** The owner's streams plus, for team-shared data, every team member's streams, without duplicates. */
+    private Collection<LiveSubscriber> recipients(Long userId, Long teamId) {
+        Set<LiveSubscriber> own = userId != null ? byUser.get(userId) : null;
+        Set<LiveSubscriber> team = teamId != null ? byTeam.get(teamId) : null;
+        if (team == null) {
+            return own != null ? own : List.of();
+        }
+        if (own == null) {
+            return team;
+        }
+        Set<LiveSubscriber> all = new HashSet<>(team);
+        all.addAll(own);
+        return all;
+    }
+
+    private void enqueue(LiveSubscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        if (!subscriber.offer(frame)) {
+            if (!subscriber.isClosed()) {
+                log.debug("Dropping slow stream subscriber of user {}", subscriber.getUserId());
+                disconnect(subscriber);
+            }
+            return;
+        }
+        if (subscriber.claimDrain()) {
+            try {
+                executor.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                disconnect(subscriber);
+            }
+        }
+    }
+
+    private void drain(LiveSubscriber subscriber) {
+        try {
+            subscriber.drain();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away, or the emitter already completed.
+            disconnect(subscriber);
+        }
+    }
+
+    private void disconnect(LiveSubscriber subscriber) {
+        subscriber.close();
+        unregister(subscriber);
+        try {
+            subscriber.getEmitter().complete();
+        } catch (IllegalStateException ignored) {
+            // Already completed.
+        }
+    }
+
+    private void unregister(LiveSubscriber subscriber) {
+        subscriber.close();
+        remove(byUser, subscriber.getUserId(), subscriber);
+        if (subscriber.getTeamId() != null) {
+            remove(byTeam, subscriber.getTeamId(), subscriber);
+        }
+    }
+
+    private static void add(Map<Long, Set<LiveSubscriber>> index, Long key, LiveSubscriber subscriber) {
+        // compute (not computeIfAbsent + add) so a concurrent remove cannot drop the set in between.
+        index.compute(key, (k, subscribers) -> {
+            Set<LiveSubscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+    }
+
+    private static void remove(Map<Long, Set<LiveSubscriber>> index, Long key, LiveSubscriber subscriber) {
+        index.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record BalanceChange(Long ownerId, Long teamId, BalanceUpdate update) {
+    }
+}
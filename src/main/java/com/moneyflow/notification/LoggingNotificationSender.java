@@ -3,6 +3,8 @@ package com.moneyflow.notification;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+
 /**
  * Default notification sender that writes to the application log. Always active so
  * the system has at least one delivery channel; real channels (email, push) can be
@@ -16,4 +18,9 @@ public class LoggingNotificationSender implements NotificationSender {
     public void send(String recipient, String subject, String message) {
         log.warn("[NOTIFICATION] to={} | {} | {}", recipient, subject, message);
     }
+
+    @Override
+    public void sendBatch(Collection<String> recipients, String subject, String message) {
+        log.warn("[NOTIFICATION] to={} | {} | {}", String.join(",", recipients), subject, message);
+    }
 }
@@ -1,5 +1,7 @@
 package com.moneyflow.notification;
 
+import java.util.Collection;
+
 /**
  * Strategy for delivering a notification to a user. Implementations are picked up
  * as Spring beans; add e.g. an email/push sender by contributing another bean.
@@ -7,4 +9,12 @@ package com.moneyflow.notification;
 public interface NotificationSender {
 
     void send(String recipient, String subject, String message);
+
+    /**
+     * Delivers the same notification to several recipients. Senders that can address
+     * many recipients in one delivery override this; the default sends one by one.
+     */
+    default void sendBatch(Collection<String> recipients, String subject, String message) {
+        recipients.forEach(recipient -> send(recipient, subject, message));
+    }
 }
@@ -1,22 +1,38 @@
 package com.moneyflow.notification;
 
+import com.moneyflow.event.TransactionSnapshot;
 import com.moneyflow.model.entity.Budget;
+import com.moneyflow.model.entity.Category;
 import com.moneyflow.model.entity.User;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Fans a notification out to every configured {@link NotificationSender}.
  */
 @Service
-@RequiredArgsConstructor
 public class NotificationService {
 
     private final List<NotificationSender> senders;
+    private final Executor executor;
 
+    public NotificationService(List<NotificationSender> senders,
+                               @Qualifier("notificationExecutor") Executor executor) {
+        this.senders = senders;
+        this.executor = executor;
+    }
+
+    /**
+     * Alerts a personal budget's owner on the notification executor after the current
+     * transaction commits, like {@link #sendTeamBudgetAlert}.
+     */
     public void sendBudgetAlert(User user, Budget budget, BigDecimal spent,
                                 BigDecimal percentageUsed, boolean overBudget) {
         String categoryName = budget.getCategory().getName();
@@ -27,7 +43,47 @@ public class NotificationService {
                 "You have spent %s of your %s budget for %02d/%d (%.2f%% used).",
                 spent, categoryName, budget.getMonth(), budget.getYear(), percentageUsed);
 
-        senders.forEach(sender -> sender.send(user.getEmail(), subject, message));
+        String recipient = user.getEmail();
+        afterCommit(() -> executor.execute(() ->
+                senders.forEach(sender -> sender.send(recipient, subject, message))));
+    }
+
+    /**
+     * Alerts every member of a team budget's team. The message is built once and handed
+     * to each sender as a single batch on the notification executor after the current
+     * transaction commits, so the write neither waits on delivery nor alerts on rollback.
+     */
+    public void sendTeamBudgetAlert(Collection<User> members, Budget budget, BigDecimal spent,
+                                    BigDecimal percentageUsed, boolean overBudget) {
+        String categoryName = budget.getCategory().getName();
+        String subject = overBudget
+                ? "Team budget exceeded: " + categoryName
+                : "Team budget alert: " + categoryName;
+        String message = String.format(
+                "Your team has spent %s of its %s budget for %02d/%d (%.2f%% used).",
+                spent, categoryName, budget.getMonth(), budget.getYear(), percentageUsed);
+        List<String> recipients = members.stream().map(User::getEmail).toList();
+        if (recipients.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> executor.execute(() ->
+                senders.forEach(sender -> sender.sendBatch(recipients, subject, message))));
+    }
+
+    /**
+     * Tells a user about an unusually large expense, on the notification executor after
+     * the current transaction commits like {@link #sendBudgetAlert}.
+     */
+    public void sendSpendingAnomaly(User user, Category category, TransactionSnapshot transaction,
+                                    BigDecimal typicalAmount, String baseCurrency) {
+        String subject = "Unusual expense: " + category.getName();
+        String message = String.format(
+                "An expense of %s %s on %s (\"%s\") is well above your usual %s spending of about %s %s.",
+                transaction.getAmount(), transaction.getCurrency(), transaction.getTransactionDate(),
+                transaction.getDescription(), category.getName(), typicalAmount, baseCurrency);
+        String recipient = user.getEmail();
+        afterCommit(() -> executor.execute(() ->
+                senders.forEach(sender -> sender.send(recipient, subject, message))));
     }
 
     public void sendMonthlyReport(User user, String periodLabel, BigDecimal income,
@@ -38,4 +94,17 @@ public class NotificationService {
                 periodLabel, income, expense, net);
         senders.forEach(sender -> sender.send(user.getEmail(), subject, message));
     }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
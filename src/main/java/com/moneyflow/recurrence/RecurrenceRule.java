@@ -0,0 +1,198 @@
+package com.moneyflow.recurrence;
+
+import com.moneyflow.model.enums.Frequency;
+import com.moneyflow.model.enums.MonthlyAnchor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * When a recurring transaction falls, in the spirit of an iCalendar RRULE: every
+ * {@code interval} days, weeks (optionally on given weekdays), months (on a day of the
+ * month, the n-th weekday, the last day or the last business day) or years, from the
+ * start date on.
+ * <p>
+ * Occurrences are computed from the start date in closed form rather than by stepping
+ * from one to the next, so the k-th occurrence and the first occurrence on or after a
+ * date cost the same however far they are from the start, and month-end dates do not
+ * drift: a monthly rule starting on Jan 31 falls on Feb 28 and then on Mar 31.
+ * <p>
+ * Immutable. End dates are left to the caller.
+ */
+public final class RecurrenceRule {
+
+    private final Frequency frequency;
+    private final int interval;
+    private final LocalDate start;
+    private final MonthlyAnchor anchor;
+    /** WEEKLY: the days of the week, in order (empty for the start date's). NTH_WEEKDAY: the one weekday. */
+    private final DayOfWeek[] weekdays;
+    /** NTH_WEEKDAY: 1 to 4, or -1 for the last. */
+    private final int ordinal;
+
+    /** WEEKLY on weekdays: Monday of the start week, and occurrences of that week before the start. */
+    private final LocalDate firstWeek;
+    private final int skippedInFirstPeriod;
+
+    private RecurrenceRule(Frequency frequency, int interval, LocalDate start, MonthlyAnchor anchor,
+                           DayOfWeek[] weekdays, int ordinal) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.start = start;
+        this.anchor = anchor;
+        this.weekdays = weekdays;
+        this.ordinal = ordinal;
+        this.firstWeek = start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        if (frequency == Frequency.WEEKLY && weekdays.length > 0) {
+            this.skippedInFirstPeriod = (int) Arrays.stream(weekdays)
+                    .filter(day -> day.compareTo(start.getDayOfWeek()) < 0)
+                    .count();
+        } else if (frequency == Frequency.MONTHLY) {
+            this.skippedInFirstPeriod = dateIn(YearMonth.from(start)).isBefore(start) ? 1 : 0;
+        } else {
+            this.skippedInFirstPeriod = 0;
+        }
+    }
+
+    /**
+     * Builds a rule, checking that its parts fit together. {@code interval} defaults to 1,
+     * a monthly {@code anchor} to the day of month, and an n-th weekday rule takes its
+     * weekday and ordinal from the start date unless given.
+     *
+     * @throws IllegalArgumentException if the parts do not make a valid rule
+     */
+    public static RecurrenceRule of(Frequency frequency, Integer interval, LocalDate start, MonthlyAnchor anchor,
+                                    Collection<DayOfWeek> weekdays, Integer ordinal) {
+        if (frequency == null || start == null) {
+            throw new IllegalArgumentException("Frequency and start date are required");
+        }
+        int every = interval != null ? interval : 1;
+        if (every < 1 || every > 1000) {
+            throw new IllegalArgumentException("Interval must be between 1 and 1000");
+        }
+        DayOfWeek[] days = weekdays == null ? new DayOfWeek[0]
+                : weekdays.stream().distinct().sorted().toArray(DayOfWeek[]::new);
+        if (anchor != null && frequency != Frequency.MONTHLY) {
+            throw new IllegalArgumentException("A day-of-month rule needs a monthly frequency");
+        }
+        MonthlyAnchor monthly = frequency == Frequency.MONTHLY
+                ? (anchor != null ? anchor : MonthlyAnchor.DAY_OF_MONTH) : null;
+        if (monthly == MonthlyAnchor.NTH_WEEKDAY) {
+            if (days.length > 1) {
+                throw new IllegalArgumentException("An n-th weekday rule takes a single weekday");
+            }
+            if (days.length == 0) {
+                days = new DayOfWeek[]{start.getDayOfWeek()};
+            }
+            int nth = ordinal != null ? ordinal : ordinalOf(start);
+            if (nth != -1 && (nth < 1 || nth > 4)) {
+                throw new IllegalArgumentException("Weekday ordinal must be 1 to 4, or -1 for the last");
+            }
+            return new RecurrenceRule(frequency, every, start, monthly, days, nth);
+        }
+        if (ordinal != null) {
+            throw new IllegalArgumentException("A weekday ordinal needs an n-th weekday rule");
+        }
+        if (days.length > 0 && frequency != Frequency.WEEKLY) {
+            throw new IllegalArgumentException("Weekdays need a weekly or n-th weekday rule");
+        }
+        return new RecurrenceRule(frequency, every, start, monthly, days, 0);
+    }
+
+    /** The k-th occurrence, the first being occurrence 0. */
+    public LocalDate occurrence(long k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Occurrence index must not be negative");
+        }
+        return switch (frequency) {
+            case DAILY -> start.plusDays(k * interval);
+            case WEEKLY -> {
+                if (weekdays.length == 0) {
+                    yield start.plusWeeks(k * interval);
+                }
+                long index = k + skippedInFirstPeriod;
+                yield onWeekday(index / weekdays.length, (int) (index % weekdays.length));
+            }
+            case MONTHLY -> dateIn(YearMonth.from(start).plusMonths((k + skippedInFirstPeriod) * interval));
+            case YEARLY -> start.plusYears(k * interval);
+        };
+    }
+
+    /** The first occurrence on or after {@code date}. */
+    public LocalDate firstOnOrAfter(LocalDate date) {
+        if (!date.isAfter(start)) {
+            return occurrence(0);
+        }
+        return switch (frequency) {
+            case DAILY -> start.plusDays(ceilDiv(ChronoUnit.DAYS.between(start, date), interval) * interval);
+            case WEEKLY -> weekdays.length == 0
+                    ? start.plusWeeks(ceilDiv(ChronoUnit.DAYS.between(start, date), 7L * interval) * interval)
+                    : firstWeekdayOnOrAfter(date);
+            case MONTHLY -> {
+                YearMonth first = YearMonth.from(start);
+                long period = ceilDiv(first.until(YearMonth.from(date), ChronoUnit.MONTHS), interval);
+                LocalDate candidate = dateIn(first.plusMonths(period * interval));
+                yield candidate.isBefore(date) ? dateIn(first.plusMonths((period + 1) * interval)) : candidate;
+            }
+            case YEARLY -> {
+                long period = ceilDiv(date.getYear() - start.getYear(), interval);
+                LocalDate candidate = start.plusYears(period * interval);
+                yield candidate.isBefore(date) ? start.plusYears((period + 1) * interval) : candidate;
+            }
+        };
+    }
+
+    /** The first occurrence strictly after {@code date}. */
+    public LocalDate firstAfter(LocalDate date) {
+        return firstOnOrAfter(date.plusDays(1));
+    }
+
+    private LocalDate firstWeekdayOnOrAfter(LocalDate date) {
+        long week = ChronoUnit.WEEKS.between(firstWeek, date);
+        long period = week / interval;
+        if (week % interval == 0) {
+            for (int i = 0; i < weekdays.length; i++) {
+                if (weekdays[i].compareTo(date.getDayOfWeek()) >= 0) {
+                    return onWeekday(period, i);
+                }
+            }
+        }
+        return onWeekday(period + 1, 0);
+    }
+
+    private LocalDate onWeekday(long period, int index) {
+        return firstWeek.plusWeeks(period * interval).plusDays(weekdays[index].getValue() - 1);
+    }
+
+    /** The month's occurrence for a monthly rule, which may fall before the start in the first month. */
+    private LocalDate dateIn(YearMonth month) {
+        return switch (anchor) {
+            case DAY_OF_MONTH -> month.atDay(Math.min(start.getDayOfMonth(), month.lengthOfMonth()));
+            case LAST_DAY -> month.atEndOfMonth();
+            case LAST_BUSINESS_DAY -> {
+                LocalDate last = month.atEndOfMonth();
+                yield switch (last.getDayOfWeek()) {
+                    case SATURDAY -> last.minusDays(1);
+                    case SUNDAY -> last.minusDays(2);
+                    default -> last;
+                };
+            }
+            case NTH_WEEKDAY -> month.atDay(1).with(TemporalAdjusters.dayOfWeekInMonth(ordinal, weekdays[0]));
+        };
+    }
+
+    /** Which of its month's weekdays of that kind the date is: 1 to 4, or -1 for a fifth. */
+    private static int ordinalOf(LocalDate date) {
+        int nth = (date.getDayOfMonth() - 1) / 7 + 1;
+        return nth > 4 ? -1 : nth;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+}
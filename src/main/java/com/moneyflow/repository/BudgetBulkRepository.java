@@ -0,0 +1,161 @@
+package com.moneyflow.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Set-based budget writes that would otherwise be one exists-check and insert per
+ * budget. On PostgreSQL they are {@code INSERT ... SELECT} statements resolving
+ * duplicates through {@code ON CONFLICT ON CONSTRAINT uq_budget_user_category_period};
+ * the H2 development database, which has no {@code ON CONFLICT}, gets the equivalent
+ * {@code MERGE}. Runs in the caller's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BudgetBulkRepository {
+
+    /** Plan rows per statement, keeping PostgreSQL well under its bind parameter limit. */
+    static final int PLAN_CHUNK_SIZE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    private volatile Boolean postgres;
+
+    /** One budget of a plan. */
+    public record PlanRow(Long categoryId, int month, BigDecimal amount, BigDecimal alertThreshold) {
+    }
+
+    /**
+     * Creates or updates the user's personal budgets for {@code year}: existing personal
+     * budgets for the same (category, month), deleted ones included, take the new amount
+     * and threshold and are reactivated. A team budget the user owns in that slot is left
+     * as it is, and its row is returned as skipped. Rows must be unique per
+     * (category, month).
+     */
+    public List<PlanRow> upsertPlan(Long userId, int year, List<PlanRow> rows) {
+        for (int from = 0; from < rows.size(); from += PLAN_CHUNK_SIZE) {
+            List<PlanRow> chunk = rows.subList(from, Math.min(rows.size(), from + PLAN_CHUNK_SIZE));
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("userId", userId)
+                    .addValue("year", year)
+                    .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+            StringBuilder values = new StringBuilder();
+            for (int i = 0; i < chunk.size(); i++) {
+                PlanRow row = chunk.get(i);
+                values.append(i > 0 ? ", " : "")
+                        .append("(CAST(:c").append(i).append(" AS BIGINT), CAST(:m").append(i)
+                        .append(" AS INTEGER), CAST(:a").append(i).append(" AS NUMERIC(19, 4)), CAST(:t")
+                        .append(i).append(" AS NUMERIC(5, 2)))");
+                params.addValue("c" + i, row.categoryId())
+                        .addValue("m" + i, row.month())
+                        .addValue("a" + i, row.amount())
+                        .addValue("t" + i, row.alertThreshold());
+            }
+            String source = "(VALUES " + values + ") AS v(category_id, budget_month, amount, alert_threshold)";
+            String sql = isPostgres()
+                    ? "INSERT INTO budgets (created_at, updated_at, is_active, version, user_id, category_id, " +
+                      "amount, budget_month, budget_year, alert_threshold) " +
+                      "SELECT :now, :now, TRUE, 0, :userId, v.category_id, v.amount, v.budget_month, :year, " +
+                      "v.alert_threshold FROM " + source + " " +
+                      "ON CONFLICT ON CONSTRAINT uq_budget_user_category_period DO UPDATE SET " +
+                      "amount = EXCLUDED.amount, alert_threshold = EXCLUDED.alert_threshold, is_active = TRUE, " +
+                      "updated_at = EXCLUDED.updated_at, version = COALESCE(budgets.version, 0) + 1 " +
+                      "WHERE budgets.team_id IS NULL"
+                    : "MERGE INTO budgets b USING " + source + " " +
+                      "ON b.user_id = :userId AND b.category_id = v.category_id " +
+                      "AND b.budget_month = v.budget_month AND b.budget_year = :year " +
+                      "WHEN MATCHED AND b.team_id IS NULL THEN UPDATE SET amount = v.amount, alert_threshold = v.alert_threshold, " +
+                      "is_active = TRUE, updated_at = :now, version = COALESCE(b.version, 0) + 1 " +
+                      "WHEN NOT MATCHED THEN INSERT (created_at, updated_at, is_active, version, user_id, " +
+                      "category_id, amount, budget_month, budget_year, alert_threshold) " +
+                      "VALUES (:now, :now, TRUE, 0, :userId, v.category_id, v.amount, v.budget_month, :year, " +
+                      "v.alert_threshold)";
+            jdbc.update(sql, params);
+        }
+        return teamOwned(userId, year, rows);
+    }
+
+    /**
+     * Copies every active budget of {@code from} on an active category into {@code to},
+     * for all users in one statement. A budget that already exists for the target period,
+     * even a deleted one, is left as it is. Returns the (user, team) pairs of the new
+     * budgets, the team being null for personal ones.
+     */
+    public List<Object[]> rollover(YearMonth from, YearMonth to) {
+        // Marks the new rows so they can be told apart from existing ones afterwards.
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("fromMonth", from.getMonthValue())
+                .addValue("fromYear", from.getYear())
+                .addValue("toMonth", to.getMonthValue())
+                .addValue("toYear", to.getYear())
+                .addValue("now", now);
+        String source = "SELECT b.user_id, b.category_id, b.team_id, b.amount, b.alert_threshold " +
+                "FROM budgets b JOIN categories c ON c.id = b.category_id AND c.is_active = TRUE " +
+                "WHERE b.budget_month = :fromMonth AND b.budget_year = :fromYear AND b.is_active = TRUE";
+        String sql = isPostgres()
+                ? "INSERT INTO budgets (created_at, updated_at, is_active, version, user_id, category_id, team_id, " +
+                  "amount, budget_month, budget_year, alert_threshold) " +
+                  "SELECT :now, :now, TRUE, 0, s.user_id, s.category_id, s.team_id, s.amount, :toMonth, :toYear, " +
+                  "s.alert_threshold FROM (" + source + ") s " +
+                  "ON CONFLICT ON CONSTRAINT uq_budget_user_category_period DO NOTHING"
+                : "MERGE INTO budgets t USING (" + source + ") s " +
+                  "ON t.user_id = s.user_id AND t.category_id = s.category_id " +
+                  "AND t.budget_month = :toMonth AND t.budget_year = :toYear " +
+                  "WHEN NOT MATCHED THEN INSERT (created_at, updated_at, is_active, version, user_id, " +
+                  "category_id, team_id, amount, budget_month, budget_year, alert_threshold) " +
+                  "VALUES (:now, :now, TRUE, 0, s.user_id, s.category_id, s.team_id, s.amount, :toMonth, " +
+                  ":toYear, s.alert_threshold)";
+        if (jdbc.update(sql, params) == 0) {
+            return List.of();
+        }
+        return jdbc.query("SELECT DISTINCT user_id, team_id FROM budgets " +
+                        "WHERE budget_month = :toMonth AND budget_year = :toYear AND created_at = :now", params,
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getObject(2, Long.class)});
+    }
+
+    /** The rows whose (category, month) slot of {@code year} holds a team budget of the user. */
+    private List<PlanRow> teamOwned(Long userId, int year, List<PlanRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("year", year)
+                .addValue("categoryIds", rows.stream().map(PlanRow::categoryId).distinct().toList());
+        Set<List<Long>> slots = new HashSet<>(jdbc.query("SELECT category_id, budget_month FROM budgets " +
+                        "WHERE user_id = :userId AND budget_year = :year AND team_id IS NOT NULL " +
+                        "AND category_id IN (:categoryIds)", params,
+                (rs, i) -> List.of(rs.getLong(1), rs.getLong(2))));
+        if (slots.isEmpty()) {
+            return List.of();
+        }
+        return rows.stream()
+                .filter(row -> slots.contains(List.of(row.categoryId(), (long) row.month())))
+                .toList();
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            String product = jdbc.getJdbcTemplate().execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            result = product != null && product.toLowerCase(Locale.ROOT).contains("postgres");
+            postgres = result;
+        }
+        return result;
+    }
+}
@@ -1,6 +1,7 @@
 package com.moneyflow.repository;
 
 import com.moneyflow.model.entity.Budget;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,12 +17,14 @@ public interface BudgetRepository extends JpaRepository<Budget, Long> {
 
     List<Budget> findByUserIdAndYearAndIsActiveTrue(Long userId, Integer year);
 
+    @EntityGraph(attributePaths = {"category"})
     @Query("SELECT b FROM Budget b WHERE (b.user.id = :userId " +
             "OR b.team.id IN (SELECT tm.team.id FROM TeamMember tm WHERE tm.user.id = :userId)) " +
             "AND b.month = :month AND b.year = :year AND b.isActive = true")
     List<Budget> findVisibleByMonthAndYear(
             @Param("userId") Long userId, @Param("month") Integer month, @Param("year") Integer year);
 
+    @EntityGraph(attributePaths = {"category"})
     @Query("SELECT b FROM Budget b WHERE (b.user.id = :userId " +
             "OR b.team.id IN (SELECT tm.team.id FROM TeamMember tm WHERE tm.user.id = :userId)) " +
             "AND b.year = :year AND b.isActive = true")
@@ -30,6 +33,20 @@ public interface BudgetRepository extends JpaRepository<Budget, Long> {
     Optional<Budget> findByUserIdAndCategoryIdAndMonthAndYear(
             Long userId, Long categoryId, Integer month, Integer year);
 
+    /** The user's personal budgets for a period on a category or any of its ancestors. */
+    @Query("SELECT b FROM Budget b WHERE b.user.id = :userId AND b.team IS NULL " +
+            "AND b.month = :month AND b.year = :year " +
+            "AND (b.category.id = :categoryId OR b.category.id IN " +
+            "     (SELECT cc.ancestorId FROM CategoryClosure cc WHERE cc.descendantId = :categoryId))")
+    List<Budget> findForCategoryOrAncestors(@Param("userId") Long userId,
+                                            @Param("categoryId") Long categoryId,
+                                            @Param("month") Integer month,
+                                            @Param("year") Integer year);
+
+    /** Active budgets shared with a team for a period. */
+    @EntityGraph(attributePaths = {"category"})
+    List<Budget> findByTeamIdAndMonthAndYearAndIsActiveTrue(Long teamId, Integer month, Integer year);
+
     Optional<Budget> findByIdAndUserId(Long id, Long userId);
 
     boolean existsByUserIdAndCategoryIdAndMonthAndYear(
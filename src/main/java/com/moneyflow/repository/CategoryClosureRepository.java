@@ -0,0 +1,47 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.CategoryClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, Long> {
+
+    /** Proper ancestors of a category, nearest first. */
+    List<CategoryClosure> findByDescendantIdOrderByDepth(Long descendantId);
+
+    /** Proper descendants of a category. */
+    List<CategoryClosure> findByAncestorId(Long ancestorId);
+
+    /** Proper descendants of several categories at once. */
+    List<CategoryClosure> findByAncestorIdIn(Collection<Long> ancestorIds);
+
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+
+    /**
+     * Whether a category has subcategories that are not deleted. Deleted ones keep their
+     * closure rows, so their past transactions still roll up into their ancestors.
+     */
+    @Query("SELECT COUNT(cc) > 0 FROM CategoryClosure cc, Category c " +
+            "WHERE c.id = cc.descendantId AND cc.ancestorId = :ancestorId AND c.isActive = TRUE")
+    boolean existsActiveDescendant(@Param("ancestorId") Long ancestorId);
+
+    /**
+     * (category, top-level ancestor) pairs for those of {@code categoryIds} that have a
+     * parent; categories missing from the result are top-level themselves.
+     */
+    @Query("SELECT cc.descendantId, cc.ancestorId FROM CategoryClosure cc, Category a " +
+            "WHERE a.id = cc.ancestorId AND a.parent IS NULL AND cc.descendantId IN :categoryIds")
+    List<Object[]> findRootPairs(@Param("categoryIds") Collection<Long> categoryIds);
+
+    /** Detaches a subtree: drops every pair linking it to ancestors outside it. */
+    @Modifying
+    @Query("DELETE FROM CategoryClosure cc WHERE cc.descendantId IN :subtree AND cc.ancestorId NOT IN :subtree")
+    int deleteAncestorLinks(@Param("subtree") Collection<Long> subtree);
+}
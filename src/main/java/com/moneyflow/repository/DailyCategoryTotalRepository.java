@@ -0,0 +1,23 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.DailyCategoryTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailyCategoryTotalRepository extends JpaRepository<DailyCategoryTotal, Long> {
+
+    List<DailyCategoryTotal> findByUserIdInAndCategoryIdInAndTransactionDateBetween(
+            Collection<Long> userIds, Collection<Long> categoryIds, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM DailyCategoryTotal d WHERE d.transactionDate BETWEEN :from AND :to")
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,32 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.DataVersion;
+import com.moneyflow.model.enums.DataVersionScope;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DataVersionRepository extends JpaRepository<DataVersion, Long> {
+
+    @Modifying
+    @Query("UPDATE DataVersion d SET d.dataVersion = d.dataVersion + 1, d.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE d.scope = :scope AND d.scopeId = :scopeId")
+    int increment(@Param("scope") DataVersionScope scope, @Param("scopeId") Long scopeId);
+
+    @Modifying
+    @Query("UPDATE DataVersion d SET d.dataVersion = d.dataVersion + 1, d.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE d.scope = :scope AND d.scopeId IN :scopeIds")
+    int incrementAll(@Param("scope") DataVersionScope scope, @Param("scopeIds") Collection<Long> scopeIds);
+
+    /** The user's counter and, when {@code teamId} is not null, the team's, in one query. */
+    @Query("SELECT d FROM DataVersion d WHERE (d.scope = com.moneyflow.model.enums.DataVersionScope.USER " +
+            "AND d.scopeId = :userId) OR (d.scope = com.moneyflow.model.enums.DataVersionScope.TEAM " +
+            "AND d.scopeId = :teamId)")
+    List<DataVersion> findForUserAndTeam(@Param("userId") Long userId, @Param("teamId") Long teamId);
+}
@@ -0,0 +1,25 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.EnvelopeMonth;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EnvelopeMonthRepository extends JpaRepository<EnvelopeMonth, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM EnvelopeMonth m WHERE m.envelopeId = :envelopeId AND m.monthStart = :monthStart")
+    Optional<EnvelopeMonth> findForUpdate(@Param("envelopeId") Long envelopeId,
+                                          @Param("monthStart") LocalDate monthStart);
+
+    List<EnvelopeMonth> findByEnvelopeIdInAndMonthStart(Collection<Long> envelopeIds, LocalDate monthStart);
+}
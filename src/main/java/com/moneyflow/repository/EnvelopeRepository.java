@@ -0,0 +1,37 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.Envelope;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EnvelopeRepository extends JpaRepository<Envelope, Long> {
+
+    @EntityGraph(attributePaths = "category")
+    List<Envelope> findByUserIdAndIsActiveTrueOrderByCategoryName(Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Envelope e WHERE e.user.id = :userId AND e.category.id = :categoryId")
+    Optional<Envelope> findForUpdate(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
+
+    /**
+     * The user's envelope covering a category: the one on the category itself or on one
+     * of its ancestors. Envelopes do not nest, so there is at most one.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Envelope e WHERE e.user.id = :userId AND e.isActive = true " +
+            "AND (e.category.id = :categoryId OR e.category.id IN " +
+            "     (SELECT cc.ancestorId FROM CategoryClosure cc WHERE cc.descendantId = :categoryId))")
+    List<Envelope> findCoveringForUpdate(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
+
+    boolean existsByUserIdAndCategoryIdIn(Long userId, Collection<Long> categoryIds);
+}
@@ -0,0 +1,24 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.MerchantSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MerchantSummaryRepository extends JpaRepository<MerchantSummary, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM MerchantSummary m WHERE m.userId = :userId AND m.monthStart = :monthStart")
+    Optional<MerchantSummary> findForUpdate(@Param("userId") Long userId,
+                                            @Param("monthStart") LocalDate monthStart);
+
+    List<MerchantSummary> findByUserIdAndMonthStartBetween(Long userId, LocalDate from, LocalDate to);
+}
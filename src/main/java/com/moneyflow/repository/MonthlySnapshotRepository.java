@@ -0,0 +1,32 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.MonthlySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MonthlySnapshotRepository extends JpaRepository<MonthlySnapshot, Long> {
+
+    List<MonthlySnapshot> findByAccountIdInAndMonthStartBetween(
+            Collection<Long> accountIds, LocalDate from, LocalDate to);
+
+    List<MonthlySnapshot> findByUserIdAndMonthStart(Long userId, LocalDate monthStart);
+
+    @Modifying
+    @Query("DELETE FROM MonthlySnapshot s WHERE s.monthStart = :monthStart")
+    int deleteMonth(@Param("monthStart") LocalDate monthStart);
+
+    @Modifying
+    @Query("DELETE FROM MonthlySnapshot s WHERE s.userId = :userId AND s.accountId = :accountId " +
+            "AND s.monthStart = :monthStart")
+    int deleteMonth(@Param("userId") Long userId,
+                    @Param("accountId") Long accountId,
+                    @Param("monthStart") LocalDate monthStart);
+}
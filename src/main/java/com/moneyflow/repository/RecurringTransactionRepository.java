@@ -1,14 +1,18 @@
 package com.moneyflow.repository;
 
 import com.moneyflow.model.entity.RecurringTransaction;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,12 +25,40 @@ public interface RecurringTransactionRepository extends JpaRepository<RecurringT
 
     Optional<RecurringTransaction> findByIdAndUserId(Long id, Long userId);
 
-    @Query("SELECT rt FROM RecurringTransaction rt WHERE rt.nextExecutionDate <= :date " +
+    /**
+     * Keyset page of the rules due on or before {@code date} with an id above
+     * {@code afterId}, as (id, user id) rows in id order, limited to the users of one
+     * shard ({@code userId % shardCount == shard}).
+     */
+    @Query("SELECT rt.id, rt.user.id FROM RecurringTransaction rt WHERE rt.nextExecutionDate <= :date " +
             "AND rt.isPaused = false AND rt.isActive = true " +
-            "AND (rt.endDate IS NULL OR rt.endDate >= :date)")
-    List<RecurringTransaction> findDueRecurringTransactions(@Param("date") LocalDate date);
+            "AND (rt.endDate IS NULL OR rt.endDate >= rt.nextExecutionDate) " +
+            "AND MOD(rt.user.id, :shardCount) = :shard " +
+            "AND rt.id > :afterId ORDER BY rt.id")
+    List<Object[]> findDueKeysAfter(@Param("date") LocalDate date, @Param("shard") int shard,
+                                    @Param("shardCount") int shardCount, @Param("afterId") Long afterId,
+                                    Pageable pageable);
+
+    /** (id, user id, next execution date) of every rule of a shard's users due on or before {@code date}. */
+    @Query("SELECT rt.id, rt.user.id, rt.nextExecutionDate FROM RecurringTransaction rt " +
+            "WHERE rt.nextExecutionDate <= :date AND rt.isPaused = false AND rt.isActive = true " +
+            "AND (rt.endDate IS NULL OR rt.endDate >= rt.nextExecutionDate) " +
+            "AND MOD(rt.user.id, :shardCount) = :shard")
+    List<Object[]> findDueKeysThrough(@Param("date") LocalDate date, @Param("shard") int shard,
+                                      @Param("shardCount") int shardCount);
+
+    /** Locks the rules in id order, so runs over overlapping shards take turns on them. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT rt FROM RecurringTransaction rt WHERE rt.id IN :ids ORDER BY rt.id")
+    List<RecurringTransaction> lockByIds(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"user", "account", "category"})
+    List<RecurringTransaction> findByIdInOrderById(Collection<Long> ids);
 
     List<RecurringTransaction> findByUserIdAndIsPausedFalseAndIsActiveTrue(Long userId);
 
+    @EntityGraph(attributePaths = {"account", "category"})
+    List<RecurringTransaction> findWithDetailsByUserIdAndIsPausedFalseAndIsActiveTrue(Long userId);
+
     List<RecurringTransaction> findByAccountIdAndIsActiveTrue(Long accountId);
 }
@@ -0,0 +1,236 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.enums.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Single-statement upserts of the keyed rows that transaction writes create on first
+ * use. Reading the row for update and inserting it when missing is not enough there:
+ * a lock cannot be taken on a row that does not exist yet, so two writers of the same
+ * new key both insert and the second fails its whole transaction on the unique key.
+ * <p>
+ * On PostgreSQL these are {@code INSERT ... ON CONFLICT} statements, which wait for a
+ * concurrent insert of the same key and then update (or skip) the row it created; the
+ * H2 development database gets the equivalent {@code MERGE}. Runs in the caller's
+ * transaction.
+ * <p>
+ * Rollups that a job also rebuilds month by month coordinate through month locks,
+ * transaction-scoped PostgreSQL advisory locks keyed by rollup and month: writers take
+ * the month's lock shared, so they never wait on each other, and the rebuild of a
+ * month takes it exclusively. The rebuild then starts only once in-flight writes to the
+ * month have committed, and later writes apply their deltas to the rebuilt rows. On H2
+ * the month locks are no-ops.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RollupUpsertRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    private volatile Boolean postgres;
+
+    /** Marks an (account, month) dirty, or moves an existing mark's time to {@code now}. */
+    public void markDirty(Long userId, Long accountId, LocalDate monthStart, LocalDateTime now) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("accountId", accountId)
+                .addValue("monthStart", monthStart)
+                .addValue("now", Timestamp.valueOf(now));
+        String sql = isPostgres()
+                ? "INSERT INTO snapshot_dirty_months (created_at, updated_at, is_active, version, user_id, " +
+                  "account_id, month_start, marked_at) VALUES (:now, :now, TRUE, 0, :userId, :accountId, " +
+                  ":monthStart, :now) " +
+                  "ON CONFLICT (user_id, account_id, month_start) DO UPDATE SET marked_at = EXCLUDED.marked_at, " +
+                  "updated_at = EXCLUDED.updated_at"
+                : "MERGE INTO snapshot_dirty_months d USING (VALUES (CAST(:userId AS BIGINT), " +
+                  "CAST(:accountId AS BIGINT), CAST(:monthStart AS DATE))) AS v(user_id, account_id, month_start) " +
+                  "ON d.user_id = v.user_id AND d.account_id = v.account_id AND d.month_start = v.month_start " +
+                  "WHEN MATCHED THEN UPDATE SET marked_at = :now, updated_at = :now " +
+                  "WHEN NOT MATCHED THEN INSERT (created_at, updated_at, is_active, version, user_id, account_id, " +
+                  "month_start, marked_at) VALUES (:now, :now, TRUE, 0, v.user_id, v.account_id, v.month_start, :now)";
+        jdbc.update(sql, params);
+    }
+
+    /**
+     * Creates the (user, category, month) spend sketch with the given digest and no
+     * transactions unless it exists; returns true if this call created it.
+     */
+    public boolean insertSpendSketchIfAbsent(Long userId, Long categoryId, LocalDate monthStart, byte[] digest) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("categoryId", categoryId)
+                .addValue("monthStart", monthStart)
+                .addValue("digest", digest)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        String sql = isPostgres()
+                ? "INSERT INTO spend_sketches (created_at, updated_at, is_active, version, user_id, category_id, " +
+                  "month_start, digest, transaction_count, total_amount) VALUES (:now, :now, TRUE, 0, :userId, " +
+                  ":categoryId, :monthStart, :digest, 0, 0) " +
+                  "ON CONFLICT (user_id, category_id, month_start) DO NOTHING"
+                : "MERGE INTO spend_sketches s USING (VALUES (CAST(:userId AS BIGINT), CAST(:categoryId AS BIGINT), " +
+                  "CAST(:monthStart AS DATE))) AS v(user_id, category_id, month_start) " +
+                  "ON s.user_id = v.user_id AND s.category_id = v.category_id AND s.month_start = v.month_start " +
+                  "WHEN NOT MATCHED THEN INSERT (created_at, updated_at, is_active, version, user_id, category_id, " +
+                  "month_start, digest, transaction_count, total_amount) VALUES (:now, :now, TRUE, 0, v.user_id, " +
+                  "v.category_id, v.month_start, :digest, 0, 0)";
+        return jdbc.update(sql, params) > 0;
+    }
+
+    /** Creates the (user, month) merchant summary with the given payload unless it exists. */
+    public void insertMerchantSummaryIfAbsent(Long userId, LocalDate monthStart, String payload) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("monthStart", monthStart)
+                .addValue("payload", payload)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        String sql = isPostgres()
+                ? "INSERT INTO merchant_summaries (created_at, updated_at, is_active, version, user_id, month_start, " +
+                  "payload) VALUES (:now, :now, TRUE, 0, :userId, :monthStart, :payload) " +
+                  "ON CONFLICT (user_id, month_start) DO NOTHING"
+                : "MERGE INTO merchant_summaries m USING (VALUES (CAST(:userId AS BIGINT), CAST(:monthStart AS DATE))) " +
+                  "AS v(user_id, month_start) ON m.user_id = v.user_id AND m.month_start = v.month_start " +
+                  "WHEN NOT MATCHED THEN INSERT (created_at, updated_at, is_active, version, user_id, month_start, " +
+                  "payload) VALUES (:now, :now, TRUE, 0, v.user_id, v.month_start, :payload)";
+        jdbc.update(sql, params);
+    }
+
+    /** Creates empty (user, category) spending statistics unless they exist. */
+    public void insertSpendingStatsIfAbsent(Long userId, Long categoryId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("categoryId", categoryId)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        String sql = isPostgres()
+                ? "INSERT INTO spending_stats (created_at, updated_at, is_active, version, user_id, category_id, " +
+                  "sample_count, mean, sum_sq_diff) VALUES (:now, :now, TRUE, 0, :userId, :categoryId, 0, 0, 0) " +
+                  "ON CONFLICT (user_id, category_id) DO NOTHING"
+                : "MERGE INTO spending_stats s USING (VALUES (CAST(:userId AS BIGINT), CAST(:categoryId AS BIGINT))) " +
+                  "AS v(user_id, category_id) ON s.user_id = v.user_id AND s.category_id = v.category_id " +
+                  "WHEN NOT MATCHED THEN INSERT (created_at, updated_at, is_active, version, user_id, category_id, " +
+                  "sample_count, mean, sum_sq_diff) VALUES (:now, :now, TRUE, 0, v.user_id, v.category_id, 0, 0, 0)";
+        jdbc.update(sql, params);
+    }
+
+    /**
+     * Adds {@code amount} and {@code count} to the (tag, month, type, currency) total,
+     * creating it if needed, and drops the row once no transaction is left in it.
+     */
+    public void addTagMonthlyTotal(Long tagId, LocalDate monthStart, TransactionType type, String currency,
+                                   BigDecimal amount, long count) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tagId", tagId)
+                .addValue("monthStart", monthStart)
+                .addValue("type", type.name())
+                .addValue("currency", currency)
+                .addValue("amount", amount)
+                .addValue("count", count)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        String sql = isPostgres()
+                ? "INSERT INTO tag_monthly_totals AS t (created_at, updated_at, is_active, version, tag_id, " +
+                  "month_start, type, currency, amount, transaction_count) VALUES (:now, :now, TRUE, 0, :tagId, " +
+                  ":monthStart, :type, :currency, :amount, :count) " +
+                  "ON CONFLICT (tag_id, month_start, type, currency) DO UPDATE SET " +
+                  "amount = t.amount + EXCLUDED.amount, " +
+                  "transaction_count = t.transaction_count + EXCLUDED.transaction_count, " +
+                  "updated_at = EXCLUDED.updated_at, version = COALESCE(t.version, 0) + 1"
+                : "MERGE INTO tag_monthly_totals t USING (VALUES (CAST(:tagId AS BIGINT), CAST(:monthStart AS DATE), " +
+                  "CAST(:type AS VARCHAR(16)), CAST(:currency AS VARCHAR(3)))) AS v(tag_id, month_start, type, currency) " +
+                  "ON t.tag_id = v.tag_id AND t.month_start = v.month_start AND t.type = v.type " +
+                  "AND t.currency = v.currency " +
+                  "WHEN MATCHED THEN UPDATE SET amount = t.amount + :amount, " +
+                  "transaction_count = t.transaction_count + :count, updated_at = :now, " +
+                  "version = COALESCE(t.version, 0) + 1 " +
+                  "WHEN NOT MATCHED THEN INSERT (created_at, updated_at, is_active, version, tag_id, month_start, " +
+                  "type, currency, amount, transaction_count) VALUES (:now, :now, TRUE, 0, v.tag_id, v.month_start, " +
+                  "v.type, v.currency, :amount, :count)";
+        jdbc.update(sql, params);
+        if (count < 0) {
+            jdbc.update("DELETE FROM tag_monthly_totals WHERE tag_id = :tagId AND month_start = :monthStart " +
+                    "AND type = :type AND currency = :currency AND transaction_count = 0", params);
+        }
+    }
+
+    /**
+     * Adds {@code amount} and {@code count} to the (user, category, day, type, currency)
+     * total, creating it if needed, and drops the row once no transaction is left in it.
+     */
+    public void addDailyCategoryTotal(Long userId, Long categoryId, LocalDate transactionDate, TransactionType type,
+                                      String currency, BigDecimal amount, long count) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("categoryId", categoryId)
+                .addValue("transactionDate", transactionDate)
+                .addValue("type", type.name())
+                .addValue("currency", currency)
+                .addValue("amount", amount)
+                .addValue("count", count)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        String sql = isPostgres()
+                ? "INSERT INTO daily_category_totals AS d (created_at, updated_at, is_active, version, user_id, " +
+                  "category_id, transaction_date, type, currency, amount, transaction_count) VALUES (:now, :now, " +
+                  "TRUE, 0, :userId, :categoryId, :transactionDate, :type, :currency, :amount, :count) " +
+                  "ON CONFLICT (user_id, category_id, transaction_date, type, currency) DO UPDATE SET " +
+                  "amount = d.amount + EXCLUDED.amount, " +
+                  "transaction_count = d.transaction_count + EXCLUDED.transaction_count, " +
+                  "updated_at = EXCLUDED.updated_at, version = COALESCE(d.version, 0) + 1"
+                : "MERGE INTO daily_category_totals d USING (VALUES (CAST(:userId AS BIGINT), " +
+                  "CAST(:categoryId AS BIGINT), CAST(:transactionDate AS DATE), CAST(:type AS VARCHAR(16)), " +
+                  "CAST(:currency AS VARCHAR(3)))) AS v(user_id, category_id, transaction_date, type, currency) " +
+                  "ON d.user_id = v.user_id AND d.category_id = v.category_id " +
+                  "AND d.transaction_date = v.transaction_date AND d.type = v.type AND d.currency = v.currency " +
+                  "WHEN MATCHED THEN UPDATE SET amount = d.amount + :amount, " +
+                  "transaction_count = d.transaction_count + :count, updated_at = :now, " +
+                  "version = COALESCE(d.version, 0) + 1 " +
+                  "WHEN NOT MATCHED THEN INSERT (created_at, updated_at, is_active, version, user_id, category_id, " +
+                  "transaction_date, type, currency, amount, transaction_count) VALUES (:now, :now, TRUE, 0, " +
+                  "v.user_id, v.category_id, v.transaction_date, v.type, v.currency, :amount, :count)";
+        jdbc.update(sql, params);
+        if (count < 0) {
+            jdbc.update("DELETE FROM daily_category_totals WHERE user_id = :userId AND category_id = :categoryId " +
+                    "AND transaction_date = :transactionDate AND type = :type AND currency = :currency " +
+                    "AND transaction_count = 0", params);
+        }
+    }
+
+    /** Takes the rollup's lock on a month shared, until the current transaction ends. */
+    public void lockMonthShared(String rollup, LocalDate monthStart) {
+        lockMonth("pg_advisory_xact_lock_shared", rollup, monthStart);
+    }
+
+    /** Takes the rollup's lock on a month exclusively, until the current transaction ends. */
+    public void lockMonthExclusive(String rollup, LocalDate monthStart) {
+        lockMonth("pg_advisory_xact_lock", rollup, monthStart);
+    }
+
+    private void lockMonth(String function, String rollup, LocalDate monthStart) {
+        if (!isPostgres()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("rollup", rollup.hashCode())
+                .addValue("month", monthStart.getYear() * 12 + monthStart.getMonthValue() - 1);
+        jdbc.execute("SELECT " + function + "(:rollup, :month)", params, PreparedStatement::execute);
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            String product = jdbc.getJdbcTemplate().execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            result = product != null && product.toLowerCase(Locale.ROOT).contains("postgres");
+            postgres = result;
+        }
+        return result;
+    }
+}
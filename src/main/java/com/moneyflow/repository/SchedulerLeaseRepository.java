@@ -0,0 +1,30 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, Long> {
+
+    boolean existsByName(String name);
+
+    /** Takes the lease over if it has expired; returns 1 if this call got it. */
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.owner = :owner, l.lockedAt = :now, l.leaseUntil = :until, " +
+            "l.updatedAt = :now WHERE l.name = :name AND l.leaseUntil <= :now")
+    int takeOver(@Param("name") String name, @Param("owner") String owner,
+                 @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    /** Moves the expiry of a lease still held by {@code owner}; returns 0 if it was lost. */
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.leaseUntil = :until, l.updatedAt = :now " +
+            "WHERE l.name = :name AND l.owner = :owner")
+    int renew(@Param("name") String name, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+}
@@ -0,0 +1,30 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.SchedulerNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SchedulerNodeRepository extends JpaRepository<SchedulerNode, Long> {
+
+    @Modifying
+    @Query("UPDATE SchedulerNode n SET n.heartbeatAt = :now, n.updatedAt = :now WHERE n.nodeId = :nodeId")
+    int heartbeat(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT n.nodeId FROM SchedulerNode n WHERE n.heartbeatAt >= :since ORDER BY n.nodeId")
+    List<String> findNodeIdsAliveSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM SchedulerNode n WHERE n.heartbeatAt < :before")
+    int deleteDeadBefore(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("DELETE FROM SchedulerNode n WHERE n.nodeId = :nodeId")
+    int deleteByNodeId(@Param("nodeId") String nodeId);
+}
@@ -0,0 +1,27 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.SnapshotDirtyMonth;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SnapshotDirtyMonthRepository extends JpaRepository<SnapshotDirtyMonth, Long> {
+
+    List<SnapshotDirtyMonth> findByAccountIdInAndMonthStartBetween(
+            Collection<Long> accountIds, LocalDate from, LocalDate to);
+
+    boolean existsByUserIdAndMonthStart(Long userId, LocalDate monthStart);
+
+    /** Clears a mark only if no write re-touched it after the rebuild read it. */
+    @Modifying
+    @Query("DELETE FROM SnapshotDirtyMonth d WHERE d.id = :id AND d.markedAt = :markedAt")
+    int deleteIfUnchanged(@Param("id") Long id, @Param("markedAt") LocalDateTime markedAt);
+}
@@ -0,0 +1,13 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.SnapshotState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SnapshotStateRepository extends JpaRepository<SnapshotState, Long> {
+
+    Optional<SnapshotState> findByName(String name);
+}
@@ -0,0 +1,32 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.SpendSketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SpendSketchRepository extends JpaRepository<SpendSketch, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SpendSketch s WHERE s.userId = :userId AND s.categoryId = :categoryId " +
+            "AND s.monthStart = :monthStart")
+    Optional<SpendSketch> findForUpdate(@Param("userId") Long userId,
+                                        @Param("categoryId") Long categoryId,
+                                        @Param("monthStart") LocalDate monthStart);
+
+    List<SpendSketch> findByUserIdAndCategoryIdInAndMonthStartBetween(
+            Long userId, Collection<Long> categoryIds, LocalDate from, LocalDate to);
+
+    /** Team categories: every member's sketches. */
+    List<SpendSketch> findByCategoryIdInAndMonthStartBetween(
+            Collection<Long> categoryIds, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,19 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.SpendingStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SpendingStatsRepository extends JpaRepository<SpendingStats, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SpendingStats s WHERE s.userId = :userId AND s.categoryId = :categoryId")
+    Optional<SpendingStats> findForUpdate(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
+}
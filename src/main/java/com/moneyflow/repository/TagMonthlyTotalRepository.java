@@ -0,0 +1,22 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.TagMonthlyTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TagMonthlyTotalRepository extends JpaRepository<TagMonthlyTotal, Long> {
+
+    List<TagMonthlyTotal> findByTagIdInAndMonthStartBetween(Collection<Long> tagIds, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM TagMonthlyTotal t WHERE t.monthStart = :monthStart")
+    int deleteMonth(@Param("monthStart") LocalDate monthStart);
+}
@@ -1,9 +1,13 @@
 package com.moneyflow.repository;
 
 import com.moneyflow.model.entity.TeamMember;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,7 +18,18 @@ public interface TeamMemberRepository extends JpaRepository<TeamMember, Long> {
 
     List<TeamMember> findByTeamId(Long teamId);
 
+    @EntityGraph(attributePaths = {"user", "team"})
+    List<TeamMember> findWithUserByTeamId(Long teamId);
+
     Optional<TeamMember> findByTeamIdAndUserId(Long teamId, Long userId);
 
     boolean existsByTeamIdAndUserId(Long teamId, Long userId);
+
+    /** (team id, user id) of every member of the given teams. */
+    @Query("SELECT tm.team.id, tm.user.id FROM TeamMember tm WHERE tm.team.id IN :teamIds")
+    List<Object[]> findMemberPairs(@Param("teamIds") Collection<Long> teamIds);
+
+    /** (user id, team id) of each of the given users that belongs to a team. */
+    @Query("SELECT tm.user.id, tm.team.id FROM TeamMember tm WHERE tm.user.id IN :userIds")
+    List<Object[]> findTeamIdsByUserIds(@Param("userIds") Collection<Long> userIds);
 }
@@ -0,0 +1,64 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts many new transactions as one JDBC batch instead of one identity insert per
+ * entity, which Hibernate cannot batch. Tags, notes, references and transfer targets
+ * are not written, so this is only for plain income/expense rows such as recurring
+ * occurrences. Runs in the caller's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionBulkRepository {
+
+    private static final String INSERT = "INSERT INTO transactions (created_at, updated_at, is_active, version, " +
+            "user_id, account_id, category_id, type, amount, description, transaction_date, " +
+            "recurring_transaction_id) VALUES (:now, :now, TRUE, 0, :userId, :accountId, :categoryId, :type, " +
+            ":amount, :description, :transactionDate, :recurringId)";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /** Inserts the transactions and sets their generated ids, creation time and version. */
+    public void insertAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        SqlParameterSource[] batch = transactions.stream()
+                .map(t -> new MapSqlParameterSource()
+                        .addValue("now", Timestamp.valueOf(now))
+                        .addValue("userId", t.getUser().getId())
+                        .addValue("accountId", t.getAccount().getId())
+                        .addValue("categoryId", t.getCategory().getId())
+                        .addValue("type", t.getType().name())
+                        .addValue("amount", t.getAmount())
+                        .addValue("description", t.getDescription())
+                        .addValue("transactionDate", t.getTransactionDate())
+                        .addValue("recurringId", t.getRecurringTransaction() != null
+                                ? t.getRecurringTransaction().getId() : null))
+                .toArray(SqlParameterSource[]::new);
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.batchUpdate(INSERT, batch, keys, new String[]{"id"});
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            transaction.setId(((Number) generated.get(i).values().iterator().next()).longValue());
+            transaction.setCreatedAt(now);
+            transaction.setUpdatedAt(now);
+            transaction.setVersion(0L);
+        }
+    }
+}
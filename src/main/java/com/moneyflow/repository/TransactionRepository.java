@@ -12,6 +12,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,7 +40,8 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     @EntityGraph(attributePaths = {"account", "category", "transferToAccount"})
     @Query("SELECT t FROM Transaction t WHERE t.account.id IN :accountIds " +
             "AND (:accountId IS NULL OR t.account.id = :accountId) " +
-            "AND (:categoryId IS NULL OR t.category.id = :categoryId) " +
+            "AND (:categoryId IS NULL OR t.category.id = :categoryId OR t.category.id IN " +
+            "     (SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId)) " +
             "AND (:type IS NULL OR t.type = :type) " +
             "AND (:startDate IS NULL OR t.transactionDate >= :startDate) " +
             "AND (:endDate IS NULL OR t.transactionDate <= :endDate) " +
@@ -76,6 +78,55 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate);
 
+    /**
+     * Like {@link #sumAmountByCategoryTypeAndDateRange} but including the category's
+     * subcategories, as (account currency, sum) rows so callers can convert.
+     */
+    @Query("SELECT t.account.currency, SUM(t.amount) FROM Transaction t WHERE t.user.id = :userId " +
+            "AND (t.category.id = :categoryId OR t.category.id IN " +
+            "     (SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId)) " +
+            "AND t.type = :type AND t.transactionDate BETWEEN :startDate AND :endDate " +
+            "AND t.isActive = true GROUP BY t.account.currency")
+    List<Object[]> sumByCategorySubtreeGroupedByCurrency(
+            @Param("userId") Long userId,
+            @Param("categoryId") Long categoryId,
+            @Param("type") TransactionType type,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Like {@link #sumByCategorySubtreeGroupedByCurrency} from {@code startDate} on, per
+     * month: (year, month, account currency, sum) rows.
+     */
+    @Query("SELECT YEAR(t.transactionDate), MONTH(t.transactionDate), t.account.currency, SUM(t.amount) " +
+            "FROM Transaction t WHERE t.user.id = :userId " +
+            "AND (t.category.id = :categoryId OR t.category.id IN " +
+            "     (SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId)) " +
+            "AND t.type = :type AND t.transactionDate >= :startDate AND t.isActive = true " +
+            "GROUP BY YEAR(t.transactionDate), MONTH(t.transactionDate), t.account.currency")
+    List<Object[]> sumByCategorySubtreeMonthlySince(
+            @Param("userId") Long userId,
+            @Param("categoryId") Long categoryId,
+            @Param("type") TransactionType type,
+            @Param("startDate") LocalDate startDate);
+
+    /**
+     * Like {@link #sumByCategorySubtreeGroupedByCurrency} over the current members of a
+     * team, for team budgets.
+     */
+    @Query("SELECT t.account.currency, SUM(t.amount) FROM Transaction t " +
+            "WHERE t.user.id IN (SELECT tm.user.id FROM TeamMember tm WHERE tm.team.id = :teamId) " +
+            "AND (t.category.id = :categoryId OR t.category.id IN " +
+            "     (SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId)) " +
+            "AND t.type = :type AND t.transactionDate BETWEEN :startDate AND :endDate " +
+            "AND t.isActive = true GROUP BY t.account.currency")
+    List<Object[]> sumTeamCategorySubtreeGroupedByCurrency(
+            @Param("teamId") Long teamId,
+            @Param("categoryId") Long categoryId,
+            @Param("type") TransactionType type,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
     @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.user.id = :userId " +
             "AND t.category.id = :categoryId AND t.type = :type " +
             "AND t.transactionDate BETWEEN :startDate AND :endDate " +
@@ -97,15 +148,6 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate);
 
-    @EntityGraph(attributePaths = {"account"})
-    @Query("SELECT t FROM Transaction t WHERE t.category.id = :categoryId " +
-            "AND t.type = :type AND t.transactionDate BETWEEN :startDate AND :endDate AND t.isActive = true")
-    List<Transaction> findSpentTransactionsForCategory(
-            @Param("categoryId") Long categoryId,
-            @Param("type") TransactionType type,
-            @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate);
-
     @Query("SELECT t.category.id, t.type, SUM(t.amount) FROM Transaction t " +
             "WHERE t.user.id = :userId AND t.category.id IN :categoryIds " +
             "AND t.transactionDate BETWEEN :startDate AND :endDate AND t.isActive = true " +
@@ -115,4 +157,125 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             @Param("categoryIds") List<Long> categoryIds,
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate);
+
+    /** Column-store load: one flat row per active transaction of the given accounts. */
+    @Query("SELECT t.id, t.account.id, t.transactionDate, t.amount, t.category.id, t.type, t.account.currency " +
+            "FROM Transaction t WHERE t.account.id IN :accountIds AND t.isActive = true")
+    List<Object[]> findColumnRowsByAccountIds(@Param("accountIds") Collection<Long> accountIds);
+
+    @Query("SELECT t.id, t.account.id, tg.id FROM Transaction t JOIN t.tags tg " +
+            "WHERE t.account.id IN :accountIds AND t.isActive = true")
+    List<Object[]> findTagPairsByAccountIds(@Param("accountIds") Collection<Long> accountIds);
+
+    /**
+     * Per-month aggregates grouped by (user, account, category, type, year, month) for
+     * the snapshot job and the live tail of long-range reports.
+     */
+    @Query("SELECT t.user.id, t.account.id, t.category.id, t.type, " +
+            "YEAR(t.transactionDate), MONTH(t.transactionDate), SUM(t.amount), COUNT(t) " +
+            "FROM Transaction t WHERE t.transactionDate BETWEEN :startDate AND :endDate AND t.isActive = true " +
+            "GROUP BY t.user.id, t.account.id, t.category.id, t.type, YEAR(t.transactionDate), MONTH(t.transactionDate)")
+    List<Object[]> sumMonthlyGrouped(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT t.user.id, t.account.id, t.category.id, t.type, " +
+            "YEAR(t.transactionDate), MONTH(t.transactionDate), SUM(t.amount), COUNT(t) " +
+            "FROM Transaction t WHERE t.account.id IN :accountIds " +
+            "AND t.transactionDate BETWEEN :startDate AND :endDate AND t.isActive = true " +
+            "GROUP BY t.user.id, t.account.id, t.category.id, t.type, YEAR(t.transactionDate), MONTH(t.transactionDate)")
+    List<Object[]> sumMonthlyGroupedForAccounts(
+            @Param("accountIds") Collection<Long> accountIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT t.user.id, t.account.id, t.category.id, t.type, " +
+            "YEAR(t.transactionDate), MONTH(t.transactionDate), SUM(t.amount), COUNT(t) " +
+            "FROM Transaction t WHERE t.user.id = :userId AND t.account.id = :accountId " +
+            "AND t.transactionDate BETWEEN :startDate AND :endDate AND t.isActive = true " +
+            "GROUP BY t.user.id, t.account.id, t.category.id, t.type, YEAR(t.transactionDate), MONTH(t.transactionDate)")
+    List<Object[]> sumMonthlyGroupedForUserAccount(
+            @Param("userId") Long userId,
+            @Param("accountId") Long accountId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Budget listings: the given users' spend in the given categories grouped by (user,
+     * category, year, month, type, account currency), so any number of budgets is priced
+     * from one query that reads only the budget owners' and team members' rows.
+     */
+    @Query("SELECT t.user.id, t.category.id, YEAR(t.transactionDate), MONTH(t.transactionDate), t.type, " +
+            "t.account.currency, SUM(t.amount) " +
+            "FROM Transaction t WHERE t.user.id IN :userIds AND t.category.id IN :categoryIds " +
+            "AND t.transactionDate BETWEEN :startDate AND :endDate AND t.isActive = true " +
+            "GROUP BY t.user.id, t.category.id, YEAR(t.transactionDate), MONTH(t.transactionDate), t.type, " +
+            "t.account.currency")
+    List<Object[]> sumSpendByCategoryMonthGrouped(
+            @Param("userIds") Collection<Long> userIds,
+            @Param("categoryIds") Collection<Long> categoryIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /** Tag rollup rebuild: one month's income/expense grouped by (tag, type, account currency). */
+    @Query("SELECT tg.id, t.type, t.account.currency, SUM(t.amount), COUNT(t) " +
+            "FROM Transaction t JOIN t.tags tg " +
+            "WHERE t.transactionDate BETWEEN :startDate AND :endDate AND t.isActive = true " +
+            "GROUP BY tg.id, t.type, t.account.currency")
+    List<Object[]> sumByTagGrouped(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /** Daily rollup rebuild: a range's income/expense grouped by (user, category, day, type, account currency). */
+    @Query("SELECT t.user.id, t.category.id, t.transactionDate, t.type, t.account.currency, SUM(t.amount), COUNT(t) " +
+            "FROM Transaction t WHERE t.transactionDate BETWEEN :startDate AND :endDate AND t.isActive = true " +
+            "AND t.type <> com.moneyflow.model.enums.TransactionType.TRANSFER AND t.category IS NOT NULL " +
+            "GROUP BY t.user.id, t.category.id, t.transactionDate, t.type, t.account.currency")
+    List<Object[]> sumDailyGrouped(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /** {@link #sumDailyGrouped} restricted to the given users and categories. */
+    @Query("SELECT t.user.id, t.category.id, t.transactionDate, t.type, t.account.currency, SUM(t.amount), COUNT(t) " +
+            "FROM Transaction t WHERE t.user.id IN :userIds AND t.category.id IN :categoryIds " +
+            "AND t.transactionDate BETWEEN :startDate AND :endDate AND t.isActive = true " +
+            "AND t.type <> com.moneyflow.model.enums.TransactionType.TRANSFER " +
+            "GROUP BY t.user.id, t.category.id, t.transactionDate, t.type, t.account.currency")
+    List<Object[]> sumDailyGroupedFor(
+            @Param("userIds") Collection<Long> userIds,
+            @Param("categoryIds") Collection<Long> categoryIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT MIN(t.transactionDate) FROM Transaction t WHERE t.isActive = true")
+    LocalDate findEarliestTransactionDate();
+
+    /**
+     * Team dashboard: transactions on team-shared accounts or in team categories,
+     * grouped by the member who recorded them, in one pass.
+     */
+    @Query("SELECT t.user.id, t.type, t.category.id, t.account.currency, SUM(t.amount), COUNT(t) " +
+            "FROM Transaction t WHERE (t.account.team.id = :teamId OR t.category.team.id = :teamId) " +
+            "AND t.transactionDate BETWEEN :startDate AND :endDate AND t.isActive = true " +
+            "GROUP BY t.user.id, t.type, t.category.id, t.account.currency")
+    List<Object[]> sumTeamGroupedByMember(
+            @Param("teamId") Long teamId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /** (user id, category id) of every pair with an active expense in the range. */
+    @Query("SELECT DISTINCT t.user.id, t.category.id FROM Transaction t " +
+            "WHERE t.type = com.moneyflow.model.enums.TransactionType.EXPENSE " +
+            "AND t.transactionDate BETWEEN :startDate AND :endDate AND t.isActive = true")
+    List<Object[]> findExpenseKeys(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /** Expense sizes for building spend sketches; one row per active expense in the range. */
+    @Query("SELECT t.user.id, t.category.id, t.amount, t.account.currency FROM Transaction t " +
+            "WHERE t.type = com.moneyflow.model.enums.TransactionType.EXPENSE " +
+            "AND t.transactionDate BETWEEN :startDate AND :endDate AND t.isActive = true")
+    List<Object[]> findExpenseAmounts(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
 }
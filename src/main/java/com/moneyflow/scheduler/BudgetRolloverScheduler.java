@@ -0,0 +1,40 @@
+package com.moneyflow.scheduler;
+
+import com.moneyflow.service.BudgetService;
+import com.moneyflow.service.DataVersionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+
+/**
+ * Rolls every user's budgets over into the next month so they exist before it starts.
+ * The cron expression is configurable via {@code moneyflow.budget.rollover-cron} and
+ * defaults to 22:00 on the last day of each month. Running it again (or on several
+ * nodes) is harmless: budgets already present in the next month are left alone.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BudgetRolloverScheduler {
+
+    private final BudgetService budgetService;
+    private final DataVersionService dataVersionService;
+
+    @Value("${moneyflow.budget.rollover-zone:UTC}")
+    private String zone = "UTC";
+
+    @Scheduled(cron = "${moneyflow.budget.rollover-cron:0 0 22 L * *}", zone = "${moneyflow.budget.rollover-zone:UTC}")
+    public void rollover() {
+        YearMonth next = YearMonth.from(LocalDate.now(ZoneId.of(zone))).plusMonths(1);
+        log.info("Budget rollover into {} started", next);
+        BudgetService.Rollover result = budgetService.rolloverInto(next);
+        dataVersionService.bumpAll(result.userIds(), result.teamIds());
+        log.info("Budget rollover into {} finished for {} user(s)", next, result.userIds().size());
+    }
+}
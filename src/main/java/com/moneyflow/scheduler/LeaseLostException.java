@@ -0,0 +1,12 @@
+package com.moneyflow.scheduler;
+
+/**
+ * Thrown by {@link SchedulerLeases#checkHeld()} when the lease of the running job has
+ * been taken over by another node; {@link SchedulerLeases#runLocked} stops the job on it.
+ */
+public class LeaseLostException extends RuntimeException {
+
+    public LeaseLostException(String name) {
+        super("lease " + name + " was lost to another node");
+    }
+}
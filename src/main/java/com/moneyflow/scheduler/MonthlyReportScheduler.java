@@ -9,7 +9,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -18,7 +17,8 @@ import java.time.YearMonth;
 /**
  * On the first of each month, sends every user a summary of the previous month's
  * income/expense via the configured notification channels. Cron is configurable
- * via {@code moneyflow.report.monthly-cron} (default 06:00 on the 1st).
+ * via {@code moneyflow.report.monthly-cron} (default 06:00 on the 1st). Only the node
+ * holding the job's lease sends them, so each user gets one report.
  */
 @Slf4j
 @Component
@@ -28,10 +28,14 @@ public class MonthlyReportScheduler {
     private final UserRepository userRepository;
     private final TransactionRepository transactionRepository;
     private final NotificationService notificationService;
+    private final SchedulerLeases schedulerLeases;
 
     @Scheduled(cron = "${moneyflow.report.monthly-cron:0 0 6 1 * *}", zone = "${moneyflow.report.zone:UTC}")
-    @Transactional(readOnly = true)
     public void sendMonthlyReports() {
+        schedulerLeases.runLocked("monthly_report", this::sendReports);
+    }
+
+    private void sendReports() {
         YearMonth lastMonth = YearMonth.from(LocalDate.now().minusMonths(1));
         LocalDate start = lastMonth.atDay(1);
         LocalDate end = lastMonth.atEndOfMonth();
@@ -40,6 +44,7 @@ public class MonthlyReportScheduler {
         log.info("Monthly report job started for {}", periodLabel);
         int sent = 0;
         for (User user : userRepository.findAll()) {
+            SchedulerLeases.checkHeld();
             BigDecimal income = orZero(transactionRepository.sumAmountByTypeAndDateRange(
                     user.getId(), TransactionType.INCOME, start, end));
             BigDecimal expense = orZero(transactionRepository.sumAmountByTypeAndDateRange(
@@ -0,0 +1,52 @@
+package com.moneyflow.scheduler;
+
+import com.moneyflow.service.DailyRollupService;
+import com.moneyflow.service.MonthlySnapshotService;
+import com.moneyflow.service.SpendSketchService;
+import com.moneyflow.service.TagRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nightly refresh of the per-month snapshots used by long-range reports. The cron
+ * expression is configurable via {@code moneyflow.snapshot.cron} and defaults to
+ * 02:30 every day, after the recurring transaction job. The same run completes the
+ * one-time spend sketch backfill if it has not finished yet and seeds the tag and
+ * daily rollups on first run; a separate weekly job ({@code moneyflow.tag-rollup.rebuild-cron})
+ * rebuilds both rollups from scratch. Each job runs on one node at a time, the one
+ * holding its lease.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MonthlySnapshotScheduler {
+
+    private final MonthlySnapshotService monthlySnapshotService;
+    private final SpendSketchService spendSketchService;
+    private final TagRollupService tagRollupService;
+    private final DailyRollupService dailyRollupService;
+    private final SchedulerLeases schedulerLeases;
+
+    @Scheduled(cron = "${moneyflow.snapshot.cron:0 30 2 * * *}", zone = "${moneyflow.snapshot.zone:UTC}")
+    public void refreshSnapshots() {
+        schedulerLeases.runLocked("monthly_snapshots", () -> {
+            log.info("Monthly snapshot job started");
+            monthlySnapshotService.refresh();
+            spendSketchService.backfillIfNeeded();
+            tagRollupService.rebuildIfNeeded();
+            dailyRollupService.rebuildIfNeeded();
+            log.info("Monthly snapshot job finished");
+        });
+    }
+
+    @Scheduled(cron = "${moneyflow.tag-rollup.rebuild-cron:0 0 4 * * SUN}", zone = "${moneyflow.snapshot.zone:UTC}")
+    public void rebuildRollups() {
+        schedulerLeases.runLocked("rollup_rebuild", () -> {
+            log.info("Tag and daily rollup rebuild started");
+            tagRollupService.rebuild();
+            dailyRollupService.rebuild();
+        });
+    }
+}
@@ -1,27 +1,94 @@
 package com.moneyflow.scheduler;
 
-import com.moneyflow.service.RecurringTransactionService;
+import com.moneyflow.service.RecurringBatchProcessor;
+import com.moneyflow.service.RecurringDueQueue;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
- * Periodically executes due recurring transactions (and back-fills any missed
- * periods). The cron expression is configurable via {@code moneyflow.recurring.cron}
- * and defaults to 01:00 every day.
+ * Executes due recurring transactions (and back-fills any missed periods).
+ * <p>
+ * Rules are normally posted through the day by {@link RecurringDueQueue}: every
+ * {@code moneyflow.recurring.queue.tick-ms} the rules whose instant has come are handed
+ * to {@link RecurringBatchProcessor}. The daily sweep ({@code moneyflow.recurring.cron},
+ * 01:00 by default) then only reconciles: it backfills whatever is still due from
+ * before today, e.g. after downtime, and reloads the queue. With the queue disabled
+ * the sweep posts everything due up to today, as a plain daily job.
+ * <p>
+ * Only the node holding a job's lease runs it. In sharded mode every live node sweeps
+ * its own shard of the users first, then any other shard whose lease is free, which
+ * picks up the share of a node that died or has not started yet; a shard already
+ * finished today has nothing left due. Each node's queue holds only its own shard and
+ * is ticked under that shard's lease; the queue is reloaded when the node's shard
+ * changes, so a node joining or leaving moves the rules to their new owner.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class RecurringTransactionScheduler {
 
-    private final RecurringTransactionService recurringTransactionService;
+    static final String QUEUE_JOB_NAME = "recurring_due_queue";
+
+    private final RecurringBatchProcessor recurringBatchProcessor;
+    private final RecurringDueQueue dueQueue;
+    private final SchedulerLeases schedulerLeases;
+
+    @Scheduled(fixedDelayString = "${moneyflow.recurring.queue.tick-ms:30000}")
+    public void runQueuedRecurringTransactions() {
+        if (!dueQueue.isEnabled()) {
+            return;
+        }
+        SchedulerLeases.Shards shards = schedulerLeases.shards();
+        if (!dueQueue.holdsShard(shards.index(), shards.count())) {
+            dueQueue.reload(shards.index(), shards.count());
+        }
+        schedulerLeases.runLocked(queueJobName(shards), 0, () -> {
+            List<RecurringDueQueue.Entry> due = dueQueue.pollDue();
+            if (due.isEmpty()) {
+                return;
+            }
+            Map<Long, List<Long>> byUser = new LinkedHashMap<>();
+            due.forEach(entry -> byUser.computeIfAbsent(entry.userId(), k -> new ArrayList<>()).add(entry.ruleId()));
+            long generated = recurringBatchProcessor.processRules(byUser.values(), dueQueue.today());
+            log.info("Recurring due queue fired {} rule(s), {} transaction(s) generated", due.size(), generated);
+        });
+    }
 
     @Scheduled(cron = "${moneyflow.recurring.cron:0 0 1 * * *}", zone = "${moneyflow.recurring.zone:UTC}")
     public void runDueRecurringTransactions() {
-        log.info("Recurring transaction job started");
-        int processed = recurringTransactionService.processDueRecurringTransactions();
-        log.info("Recurring transaction job finished, {} transaction(s) generated", processed);
+        LocalDate today = dueQueue.today();
+        LocalDate through = dueQueue.isEnabled() ? today.minusDays(1) : today;
+        SchedulerLeases.Shards shards = schedulerLeases.shards();
+        for (int i = 0; i < shards.count(); i++) {
+            int shard = (shards.index() + i) % shards.count();
+            schedulerLeases.runLocked(RecurringBatchProcessor.jobName(shard, shards.count()), () -> {
+                log.info("Recurring transaction sweep through {} started (shard {}/{})",
+                        through, shard, shards.count());
+                long processed = recurringBatchProcessor.processDue(through, shard, shards.count());
+                log.info("Recurring transaction sweep finished (shard {}/{}), {} transaction(s) generated",
+                        shard, shards.count(), processed);
+            });
+        }
+        dueQueue.reload();
+    }
+
+    /** Lease name of a shard's queue ticks. */
+    static String queueJobName(SchedulerLeases.Shards shards) {
+        return shards.count() == 1 ? QUEUE_JOB_NAME
+                : QUEUE_JOB_NAME + "#" + shards.index() + "/" + shards.count();
+    }
+
+    @Scheduled(fixedDelayString = "${moneyflow.recurring.queue.refresh-ms:300000}",
+            initialDelayString = "${moneyflow.recurring.queue.refresh-ms:300000}")
+    public void refreshQueue() {
+        dueQueue.reload();
     }
 }
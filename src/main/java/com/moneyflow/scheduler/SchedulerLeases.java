@@ -0,0 +1,299 @@
+package com.moneyflow.scheduler;
+
+import com.moneyflow.model.entity.SchedulerLease;
+import com.moneyflow.model.entity.SchedulerNode;
+import com.moneyflow.repository.SchedulerLeaseRepository;
+import com.moneyflow.repository.SchedulerNodeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps scheduled jobs from running on several nodes at once. Before a run, a node takes
+ * the job's row in {@code scheduler_leases} for {@code moneyflow.scheduler.lease-ttl-ms};
+ * other nodes skip the job until the lease expires. While the job runs, the heartbeat
+ * extends the lease, so a long run keeps it and a crashed node's lease lapses after one
+ * TTL. The heartbeat has its own thread, so jobs filling the scheduling pool cannot
+ * hold up renewal. If a renewal finds the lease taken over (or it could not be renewed
+ * before it expired) the run is marked lost: the job stops at its next
+ * {@link #checkHeld()}, and the lease is left to its new owner. On completion the
+ * lease is held for at least {@code lease-min-hold-ms} after it was taken, so a node
+ * whose clock (and cron trigger) is slightly behind does not run the job again. Times are the nodes' UTC clocks, which must be roughly in sync.
+ * <p>
+ * In sharded mode ({@code moneyflow.scheduler.sharded}) each node also heartbeats a row
+ * in {@code scheduler_nodes}; {@link #shards()} gives this node's position among the
+ * live ones, which jobs that can be split by user use to pick their share.
+ */
+@Slf4j
+@Component
+public class SchedulerLeases {
+
+    /** This node's share of a sharded job: users with {@code id % count == index}. */
+    public record Shards(int index, int count) {
+    }
+
+    private final SchedulerLeaseRepository leaseRepository;
+    private final SchedulerNodeRepository nodeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+
+    /** A lease this node holds for a running job. */
+    private static final class Held {
+        final String name;
+        volatile LocalDateTime until;
+        volatile boolean lost;
+
+        Held(String name, LocalDateTime until) {
+            this.name = name;
+            this.until = until;
+        }
+    }
+
+    /** Leases this node holds, by name. */
+    private final Map<String, Held> held = new ConcurrentHashMap<>();
+
+    /** The lease of the job running on the current thread, for {@link #checkHeld()}. */
+    private static final ThreadLocal<Held> CURRENT = new ThreadLocal<>();
+
+    private ScheduledExecutorService heartbeatThread;
+
+    @Value("${moneyflow.scheduler.lease-ttl-ms:300000}")
+    private long leaseTtlMs = 300000;
+
+    @Value("${moneyflow.scheduler.lease-min-hold-ms:60000}")
+    private long leaseMinHoldMs = 60000;
+
+    @Value("${moneyflow.scheduler.heartbeat-ms:10000}")
+    private long heartbeatMs = 10000;
+
+    @Value("${moneyflow.scheduler.sharded:false}")
+    private boolean sharded;
+
+    public SchedulerLeases(SchedulerLeaseRepository leaseRepository,
+                           SchedulerNodeRepository nodeRepository,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${moneyflow.scheduler.node-id:}") String nodeId) {
+        this.leaseRepository = leaseRepository;
+        this.nodeRepository = nodeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+    }
+
+    /**
+     * Runs {@code task} if this node can take the lease {@code name}; returns false,
+     * without running it, if another node holds it. A run stopped because its lease was
+     * lost still counts as run.
+     */
+    public boolean runLocked(String name, Runnable task) {
+        return runLocked(name, leaseMinHoldMs, task);
+    }
+
+    /**
+     * As {@link #runLocked(String, Runnable)}, holding the lease at least {@code minHoldMs}
+     * after taking it; 0 for frequent jobs that may run again as soon as they finish.
+     */
+    public boolean runLocked(String name, long minHoldMs, Runnable task) {
+        LocalDateTime lockedAt = acquire(name);
+        if (lockedAt == null) {
+            log.debug("Skipping {}: leased by another node", name);
+            return false;
+        }
+        Held lease = new Held(name, lockedAt.plus(leaseTtlMs, ChronoUnit.MILLIS));
+        held.put(name, lease);
+        Held outer = CURRENT.get();
+        CURRENT.set(lease);
+        try {
+            task.run();
+        } catch (LeaseLostException e) {
+            log.warn("Stopped {}: {}", name, e.getMessage());
+        } finally {
+            restore(outer);
+            held.remove(name);
+            if (!lease.lost) {
+                release(name, lockedAt.plus(minHoldMs, ChronoUnit.MILLIS));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Throws {@link LeaseLostException} if the lease of the job running on this thread
+     * has been lost; a no-op outside {@link #runLocked}. Long jobs call it between units
+     * of work so a run that another node has taken over stops instead of running twice.
+     */
+    public static void checkHeld() {
+        Held lease = CURRENT.get();
+        if (lease != null && lease.lost) {
+            throw new LeaseLostException(lease.name);
+        }
+    }
+
+    /** This node's shard among the live nodes, or the single shard when not sharded. */
+    public Shards shards() {
+        if (!sharded) {
+            return new Shards(0, 1);
+        }
+        LocalDateTime now = now();
+        List<String> alive = transactionTemplate.execute(status -> {
+            registerNode(now);
+            return nodeRepository.findNodeIdsAliveSince(now.minus(nodeTtlMs(), ChronoUnit.MILLIS));
+        });
+        return new Shards(Math.max(0, alive.indexOf(nodeId)), Math.max(1, alive.size()));
+    }
+
+    @PostConstruct
+    void startHeartbeat() {
+        heartbeatThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatThread.scheduleWithFixedDelay(() -> {
+            try {
+                heartbeat();
+            } catch (RuntimeException e) {
+                log.warn("Scheduler heartbeat failed: {}", e.getMessage());
+            }
+        }, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Extends the leases of running jobs, marking lost the ones taken over or expired,
+     * and, when sharded, keeps this node registered.
+     */
+    public void heartbeat() {
+        LocalDateTime now = now();
+        LocalDateTime until = now.plus(leaseTtlMs, ChronoUnit.MILLIS);
+        for (Held lease : held.values()) {
+            if (lease.lost) {
+                continue;
+            }
+            try {
+                Integer renewed = transactionTemplate.execute(status ->
+                        leaseRepository.renew(lease.name, nodeId, now, until));
+                if (renewed == null || renewed == 0) {
+                    lease.lost = true;
+                    log.warn("Lease {} was taken over by another node while still running here", lease.name);
+                } else {
+                    lease.until = until;
+                }
+            } catch (RuntimeException e) {
+                if (!now.isBefore(lease.until)) {
+                    lease.lost = true;
+                    log.warn("Lease {} expired before it could be renewed: {}", lease.name, e.getMessage());
+                } else {
+                    log.warn("Could not renew lease {}, retrying: {}", lease.name, e.getMessage());
+                }
+            }
+        }
+        if (sharded) {
+            transactionTemplate.executeWithoutResult(status -> {
+                registerNode(now);
+                // Rows of nodes gone for good.
+                nodeRepository.deleteDeadBefore(now.minusDays(1));
+            });
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (heartbeatThread != null) {
+            heartbeatThread.shutdownNow();
+        }
+        if (!sharded) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> nodeRepository.deleteByNodeId(nodeId));
+        } catch (RuntimeException e) {
+            log.warn("Could not unregister scheduler node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    /** Takes the lease; returns when it was taken, or null if another node holds it. */
+    private LocalDateTime acquire(String name) {
+        LocalDateTime now = now();
+        LocalDateTime until = now.plus(leaseTtlMs, ChronoUnit.MILLIS);
+        try {
+            Boolean acquired = transactionTemplate.execute(status -> {
+                if (leaseRepository.takeOver(name, nodeId, now, until) > 0) {
+                    return true;
+                }
+                if (leaseRepository.existsByName(name)) {
+                    return false;
+                }
+                leaseRepository.saveAndFlush(SchedulerLease.builder()
+                        .name(name)
+                        .owner(nodeId)
+                        .lockedAt(now)
+                        .leaseUntil(until)
+                        .build());
+                return true;
+            });
+            return Boolean.TRUE.equals(acquired) ? now : null;
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the lease row first.
+            return null;
+        }
+    }
+
+    private void release(String name, LocalDateTime minHold) {
+        LocalDateTime now = now();
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    leaseRepository.renew(name, nodeId, now, minHold.isAfter(now) ? minHold : now));
+        } catch (RuntimeException e) {
+            log.warn("Could not release lease {}; it expires on its own: {}", name, e.getMessage());
+        }
+    }
+
+    private static void restore(Held outer) {
+        if (outer != null) {
+            CURRENT.set(outer);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    private void registerNode(LocalDateTime now) {
+        if (nodeRepository.heartbeat(nodeId, now) == 0) {
+            nodeRepository.save(SchedulerNode.builder().nodeId(nodeId).heartbeatAt(now).build());
+        }
+    }
+
+    /** A node missing this many heartbeats is no longer counted. */
+    private long nodeTtlMs() {
+        return heartbeatMs * 3;
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -1,25 +1,63 @@
 package com.moneyflow.service;
 
+import com.moneyflow.analytics.BudgetSpendCounters;
+import com.moneyflow.analytics.TeamBudgetIndex;
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.model.dto.stream.BudgetAlertUpdate;
 import com.moneyflow.model.entity.Budget;
+import com.moneyflow.model.entity.TeamMember;
+import com.moneyflow.model.entity.User;
 import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.notification.LiveUpdateHub;
 import com.moneyflow.notification.NotificationService;
 import com.moneyflow.repository.BudgetRepository;
-import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.repository.TeamMemberRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Evaluates the budget for a category/period after spending changes and sends a
- * one-shot alert when the alert threshold or the budget itself is crossed. The
- * {@code alertSentAt} marker prevents repeat notifications; it is cleared when
- * spending drops back below the threshold so a later breach can alert again.
+ * Evaluates the budgets affected by expense writes and sends a one-shot alert when the
+ * alert threshold or the budget itself is crossed. Budgets on ancestor categories
+ * cover their subcategories, so they are evaluated too. The {@code alertSentAt} marker
+ * prevents repeat notifications; it is cleared when spending drops back below the
+ * threshold so a later breach can alert again. Clearing it is confirmed against the
+ * database, since the counters only see this node's writes.
+ * <p>
+ * Evaluation is off the write path: once a write commits, its signed amount is added to
+ * a pending delta per (user, category, month), and {@link #flush()} evaluates each
+ * pending key once every {@code moneyflow.budget.alert-coalesce-ms}, so a bulk import or
+ * a recurring catch-up costs one evaluation per key rather than one per transaction.
+ * Flushes run on their own thread, so a busy scheduling pool does not delay alerts. A
+ * batch whose evaluation fails goes back to the pending deltas and is retried on the
+ * next flush. Pending deltas live in memory; those not yet flushed when the node stops
+ * are lost, and the next write to the same budget evaluates it again.
+ * <p>
+ * Team budgets count every member's spending. The writer's team budgets covering the
+ * category come from the in-memory {@link TeamBudgetIndex}, and their alerts go to all
+ * members as one batched notification. Spent comes from {@link BudgetSpendCounters}
+ * plus the flushed delta, so evaluation runs no aggregate query.
  */
 @Slf4j
 @Service
@@ -27,47 +65,177 @@ import java.time.LocalDateTime;
 public class BudgetAlertService {
 
     private final BudgetRepository budgetRepository;
-    private final TransactionRepository transactionRepository;
+    private final TeamMemberRepository teamMemberRepository;
+    private final BudgetSpendCounters spendCounters;
+    private final TeamBudgetIndex teamBudgetIndex;
+    private final TeamPermissionService teamPermissionService;
     private final NotificationService notificationService;
+    private final LiveUpdateHub liveUpdateHub;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
-    public void evaluateForCategory(Long userId, Long categoryId, LocalDate transactionDate) {
-        budgetRepository.findByUserIdAndCategoryIdAndMonthAndYear(
-                        userId, categoryId, transactionDate.getMonthValue(), transactionDate.getYear())
-                .filter(budget -> Boolean.TRUE.equals(budget.getIsActive()))
-                .ifPresent(budget -> evaluate(userId, budget));
+    private final Map<AlertKey, Long> pending = new ConcurrentHashMap<>();
+
+    @Value("${moneyflow.budget.alert-coalesce-ms:500}")
+    private long coalesceMs = 500;
+
+    private ScheduledExecutorService flushThread;
+
+    /** Expense writes are coalesced per (user, category, month) until the next flush. */
+    private record AlertKey(Long userId, Long categoryId, YearMonth month) {
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        for (TransactionChangedEvent.Change change : event.getChanges()) {
+            enqueue(change.getBefore(), -1);
+            enqueue(change.getAfter(), 1);
+        }
     }
 
-    private void evaluate(Long userId, Budget budget) {
-        BigDecimal spent = computeSpent(budget, userId);
+    @PostConstruct
+    void startFlushing() {
+        flushThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "budget-alert-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushThread.scheduleWithFixedDelay(this::flush, coalesceMs, coalesceMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopFlushing() throws InterruptedException {
+        flushThread.shutdown();
+        flushThread.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
 
-        BigDecimal percentageUsed = BigDecimal.ZERO;
-        if (budget.getAmount().compareTo(BigDecimal.ZERO) > 0) {
-            percentageUsed = spent.multiply(BigDecimal.valueOf(100))
-                    .divide(budget.getAmount(), 2, RoundingMode.HALF_UP);
+    /**
+     * Evaluates every pending (user, category, month) once, in one transaction. If that
+     * fails, the batch is merged back into the pending deltas, and the counters it had
+     * already moved are dropped so they are seeded again, writes included, on the retry.
+     */
+    public void flush() {
+        Map<AlertKey, Long> batch = new LinkedHashMap<>();
+        for (AlertKey key : pending.keySet()) {
+            Long units = pending.remove(key);
+            if (units != null && units != 0) {
+                batch.put(key, units);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
         }
+        List<Long> counted = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> evaluate(batch, counted));
+        } catch (RuntimeException e) {
+            spendCounters.forget(counted);
+            batch.forEach((key, units) -> pending.merge(key, units, Long::sum));
+            log.warn("Budget alert evaluation of {} key(s) failed, retrying on the next flush", batch.size(), e);
+        }
+    }
 
+    private void enqueue(TransactionSnapshot snapshot, int sign) {
+        if (snapshot == null || snapshot.getType() != TransactionType.EXPENSE) {
+            return;
+        }
+        pending.merge(new AlertKey(snapshot.getUserId(), snapshot.getCategoryId(),
+                        YearMonth.from(snapshot.getTransactionDate())),
+                sign * spendCounters.units(snapshot.getAmount(), snapshot.getCurrency()), Long::sum);
+    }
+
+    private void evaluate(Map<AlertKey, Long> batch, List<Long> counted) {
+        Map<Long, Budget> budgets = new LinkedHashMap<>();
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        Map<Long, Optional<Long>> teams = new HashMap<>();
+        batch.forEach((key, units) -> collect(key, units, budgets, deltas, teams));
+        List<Long> teamBudgetIds = deltas.keySet().stream().filter(id -> !budgets.containsKey(id)).toList();
+        if (!teamBudgetIds.isEmpty()) {
+            budgetRepository.findAllById(teamBudgetIds).stream()
+                    .filter(budget -> Boolean.TRUE.equals(budget.getIsActive()))
+                    .forEach(budget -> budgets.put(budget.getId(), budget));
+        }
+        budgets.values().forEach(budget -> {
+            counted.add(budget.getId());
+            evaluate(budget, spendCounters.addCommitted(budget, deltas.get(budget.getId())));
+        });
+    }
+
+    /**
+     * Adds the key's delta to every active personal budget on its category or an
+     * ancestor, and to the user's team budgets covering the category; the latter are
+     * only collected by id here and loaded together afterwards.
+     */
+    private void collect(AlertKey key, long units, Map<Long, Budget> budgets,
+                         Map<Long, Long> deltas, Map<Long, Optional<Long>> teams) {
+        budgetRepository.findForCategoryOrAncestors(key.userId(), key.categoryId(),
+                        key.month().getMonthValue(), key.month().getYear()).stream()
+                .filter(budget -> Boolean.TRUE.equals(budget.getIsActive()))
+                .forEach(budget -> {
+                    budgets.putIfAbsent(budget.getId(), budget);
+                    deltas.merge(budget.getId(), units, Long::sum);
+                });
+
+        Long teamId = teams.computeIfAbsent(key.userId(),
+                userId -> Optional.ofNullable(teamPermissionService.teamId(userId))).orElse(null);
+        if (teamId != null) {
+            teamBudgetIndex.budgetIds(teamId, key.categoryId(), key.month())
+                    .forEach(budgetId -> deltas.merge(budgetId, units, Long::sum));
+        }
+    }
+
+    private void evaluate(Budget budget, BigDecimal spent) {
+        BigDecimal percentageUsed = percentageUsed(budget, spent);
         boolean overBudget = spent.compareTo(budget.getAmount()) > 0;
-        boolean alertTriggered = percentageUsed.compareTo(budget.getAlertThreshold()) >= 0;
-        boolean triggered = overBudget || alertTriggered;
+        boolean triggered = overBudget || percentageUsed.compareTo(budget.getAlertThreshold()) >= 0;
 
         if (triggered && budget.getAlertSentAt() == null) {
-            notificationService.sendBudgetAlert(budget.getUser(), budget, spent, percentageUsed, overBudget);
+            if (budget.getTeam() != null) {
+                List<User> members = teamMemberRepository.findWithUserByTeamId(budget.getTeam().getId()).stream()
+                        .map(TeamMember::getUser)
+                        .toList();
+                notificationService.sendTeamBudgetAlert(members, budget, spent, percentageUsed, overBudget);
+            } else {
+                notificationService.sendBudgetAlert(budget.getUser(), budget, spent, percentageUsed, overBudget);
+            }
             budget.setAlertSentAt(LocalDateTime.now());
             budgetRepository.save(budget);
+            publishAlertState(budget, spent, percentageUsed, true, overBudget);
         } else if (!triggered && budget.getAlertSentAt() != null) {
-            // Spending fell back below the threshold; re-arm the alert.
+            // Spending looks back below the threshold. The counter misses writes evaluated
+            // on other nodes, and re-arming on a stale low value would send the alert
+            // again on the next write, so confirm against the database first.
+            BigDecimal actual = spendCounters.reload(budget);
+            BigDecimal actualPercentage = percentageUsed(budget, actual);
+            if (actual.compareTo(budget.getAmount()) > 0
+                    || actualPercentage.compareTo(budget.getAlertThreshold()) >= 0) {
+                return;
+            }
             budget.setAlertSentAt(null);
             budgetRepository.save(budget);
+            publishAlertState(budget, actual, actualPercentage, false, false);
+        }
+    }
+
+    private static BigDecimal percentageUsed(Budget budget, BigDecimal spent) {
+        if (budget.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
         }
+        return spent.multiply(BigDecimal.valueOf(100)).divide(budget.getAmount(), 2, RoundingMode.HALF_UP);
     }
 
-    private BigDecimal computeSpent(Budget budget, Long userId) {
-        LocalDate startDate = LocalDate.of(budget.getYear(), budget.getMonth(), 1);
-        LocalDate endDate = startDate.plusMonths(1).minusDays(1);
-        TransactionType type = TransactionType.valueOf(budget.getCategory().getType().name());
-        BigDecimal spent = transactionRepository.sumAmountByCategoryTypeAndDateRange(
-                userId, budget.getCategory().getId(), type, startDate, endDate);
-        return spent != null ? spent : BigDecimal.ZERO;
+    private void publishAlertState(Budget budget, BigDecimal spent, BigDecimal percentageUsed,
+                                   boolean triggered, boolean overBudget) {
+        Long teamId = budget.getTeam() != null ? budget.getTeam().getId() : null;
+        liveUpdateHub.budgetAlertChanged(budget.getUser().getId(), teamId, BudgetAlertUpdate.builder()
+                .budgetId(budget.getId())
+                .categoryId(budget.getCategory().getId())
+                .month(budget.getMonth())
+                .year(budget.getYear())
+                .triggered(triggered)
+                .overBudget(overBudget)
+                .spent(spent)
+                .percentageUsed(percentageUsed)
+                .build());
     }
 }
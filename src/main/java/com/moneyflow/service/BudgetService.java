@@ -1,20 +1,30 @@
 package com.moneyflow.service;
 
+import com.moneyflow.analytics.PeriodAggregate;
+import com.moneyflow.analytics.TeamBudgetIndex;
 import com.moneyflow.exception.BadRequestException;
 import com.moneyflow.exception.ResourceNotFoundException;
 import com.moneyflow.exception.UnauthorizedException;
+import com.moneyflow.model.dto.budget.BudgetPlanRequest;
+import com.moneyflow.model.dto.budget.BudgetPlanResponse;
 import com.moneyflow.model.dto.budget.BudgetResponse;
 import com.moneyflow.model.dto.budget.CreateBudgetRequest;
 import com.moneyflow.model.dto.budget.UpdateBudgetRequest;
 import com.moneyflow.model.entity.Budget;
 import com.moneyflow.model.entity.Category;
+import com.moneyflow.model.entity.CategoryClosure;
+import com.moneyflow.model.entity.DailyCategoryTotal;
 import com.moneyflow.model.entity.Team;
-import com.moneyflow.model.entity.Transaction;
 import com.moneyflow.model.entity.User;
 import com.moneyflow.model.enums.TeamRole;
 import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.BudgetBulkRepository;
 import com.moneyflow.repository.BudgetRepository;
+import com.moneyflow.repository.CategoryClosureRepository;
 import com.moneyflow.repository.CategoryRepository;
+import com.moneyflow.repository.DailyCategoryTotalRepository;
+import com.moneyflow.repository.SnapshotStateRepository;
+import com.moneyflow.repository.TeamMemberRepository;
 import com.moneyflow.repository.TransactionRepository;
 import com.moneyflow.repository.UserRepository;
 import com.moneyflow.security.SecurityUtils;
@@ -25,20 +35,31 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.util.List;
-import java.util.Objects;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
 public class BudgetService {
 
+    /** Months before a budget's month whose daily spending shapes its pace curve. */
+    static final int PACE_HISTORY_MONTHS = 3;
+
     private final BudgetRepository budgetRepository;
+    private final BudgetBulkRepository budgetBulkRepository;
     private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final TeamMemberRepository teamMemberRepository;
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
     private final CurrencyService currencyService;
     private final TeamPermissionService teamPermissionService;
+    private final TeamBudgetIndex teamBudgetIndex;
+    private final DailyCategoryTotalRepository dailyTotalRepository;
+    private final SnapshotStateRepository stateRepository;
 
     @Transactional
     public BudgetResponse createBudget(CreateBudgetRequest request) {
@@ -80,23 +101,107 @@ public class BudgetService {
                 .build();
 
         budget = budgetRepository.save(budget);
+        if (team != null) {
+            teamBudgetIndex.invalidate(team.getId());
+        }
         return mapToResponse(budget);
     }
 
+    /**
+     * Creates or updates a year's personal budgets in one set-based write instead of a
+     * lookup and insert per budget. Entries without a month apply to all twelve; a later
+     * entry for the same (category, month) wins. Slots holding a team budget of the user
+     * are not touched and come back as skipped, along with the year's visible budgets.
+     */
+    @Transactional
+    public BudgetPlanResponse savePlan(BudgetPlanRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId();
+
+        Set<Long> available = categoryRepository.findAllAvailableForUser(userId).stream()
+                .map(Category::getId)
+                .collect(Collectors.toSet());
+        Map<List<Object>, BudgetBulkRepository.PlanRow> rows = new LinkedHashMap<>();
+        for (BudgetPlanRequest.Entry entry : request.getBudgets()) {
+            if (!available.contains(entry.getCategoryId())) {
+                throw new ResourceNotFoundException("Category", "id", entry.getCategoryId());
+            }
+            BigDecimal threshold = entry.getAlertThreshold() != null
+                    ? entry.getAlertThreshold()
+                    : new BigDecimal("80.00");
+            List<Integer> months = entry.getMonth() != null
+                    ? List.of(entry.getMonth())
+                    : IntStream.rangeClosed(1, 12).boxed().toList();
+            for (Integer month : months) {
+                rows.put(List.of(entry.getCategoryId(), month), new BudgetBulkRepository.PlanRow(
+                        entry.getCategoryId(), month, entry.getAmount(), threshold));
+            }
+        }
+        List<BudgetBulkRepository.PlanRow> skipped =
+                budgetBulkRepository.upsertPlan(userId, request.getYear(), new ArrayList<>(rows.values()));
+
+        return BudgetPlanResponse.builder()
+                .budgets(mapToResponses(budgetRepository.findVisibleByYear(userId, request.getYear())))
+                .skipped(skipped.stream()
+                        .map(row -> BudgetPlanResponse.Skipped.builder()
+                                .categoryId(row.categoryId())
+                                .month(row.month())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    /**
+     * Copies every user's active budgets of the month before {@code target} into it,
+     * leaving budgets that already exist there (including deleted ones) untouched.
+     */
+    @Transactional
+    public Rollover rolloverInto(YearMonth target) {
+        List<Object[]> created = budgetBulkRepository.rollover(target.minusMonths(1), target);
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> teamIds = new HashSet<>();
+        for (Object[] pair : created) {
+            userIds.add((Long) pair[0]);
+            if (pair[1] != null) {
+                teamIds.add((Long) pair[1]);
+            }
+        }
+        if (!teamIds.isEmpty()) {
+            teamBudgetIndex.clear();
+        }
+        return new Rollover(userIds, teamIds);
+    }
+
+    /** Owners and teams that received budgets in a rollover. */
+    public record Rollover(Set<Long> userIds, Set<Long> teamIds) {
+    }
+
     @Transactional(readOnly = true)
     public List<BudgetResponse> getBudgetsByMonthAndYear(Integer month, Integer year) {
         Long userId = SecurityUtils.getCurrentUserId();
-        return budgetRepository.findVisibleByMonthAndYear(userId, month, year).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(budgetRepository.findVisibleByMonthAndYear(userId, month, year));
     }
 
     @Transactional(readOnly = true)
     public List<BudgetResponse> getBudgetsByYear(Integer year) {
         Long userId = SecurityUtils.getCurrentUserId();
-        return budgetRepository.findVisibleByYear(userId, year).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(budgetRepository.findVisibleByYear(userId, year));
+    }
+
+    /**
+     * Every visible budget of a month (the current one by default) with its pace, computed
+     * together from the daily rollups.
+     */
+    @Transactional(readOnly = true)
+    public List<BudgetResponse> getPace(Integer month, Integer year) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        LocalDate today = LocalDate.now();
+        if (month != null && (month < 1 || month > 12)) {
+            throw new BadRequestException("Month must be between 1 and 12");
+        }
+        YearMonth target = YearMonth.of(year != null ? year : today.getYear(),
+                month != null ? month : today.getMonthValue());
+        return mapToPaceResponses(budgetRepository.findVisibleByMonthAndYear(
+                userId, target.getMonthValue(), target.getYear()), target, today);
     }
 
     /**
@@ -106,8 +211,8 @@ public class BudgetService {
     public List<BudgetResponse> getTriggeredBudgets() {
         Long userId = SecurityUtils.getCurrentUserId();
         LocalDate now = LocalDate.now();
-        return budgetRepository.findVisibleByMonthAndYear(userId, now.getMonthValue(), now.getYear()).stream()
-                .map(this::mapToResponse)
+        return mapToResponses(budgetRepository.findVisibleByMonthAndYear(userId, now.getMonthValue(), now.getYear()))
+                .stream()
                 .filter(b -> Boolean.TRUE.equals(b.getIsAlertTriggered()) || Boolean.TRUE.equals(b.getIsOverBudget()))
                 .collect(Collectors.toList());
     }
@@ -147,6 +252,9 @@ public class BudgetService {
                 .orElseThrow(() -> new ResourceNotFoundException("Budget", "id", id));
         budget.setIsActive(false);
         budgetRepository.save(budget);
+        if (budget.getTeam() != null) {
+            teamBudgetIndex.invalidate(budget.getTeam().getId());
+        }
     }
 
     private boolean canView(Long userId, Budget budget) {
@@ -157,28 +265,236 @@ public class BudgetService {
         return budget.getTeam() != null && teamId != null && budget.getTeam().getId().equals(teamId);
     }
 
+    private List<BudgetResponse> mapToResponses(List<Budget> budgets) {
+        Map<Long, BigDecimal> spent = computeSpent(budgets);
+        return budgets.stream()
+                .map(budget -> mapToResponse(budget, spent.get(budget.getId())))
+                .collect(Collectors.toList());
+    }
+
     /**
-     * Spent for a budget, converted to the base currency. Team budgets aggregate the
-     * category's spending across all members; personal budgets only the owner's.
+     * Spent per budget id, converted to the base currency, for any number of budgets in
+     * at most three queries: the subcategories of every budgeted category, the members of
+     * teams with a budget, then those users' spend in all of the categories grouped by
+     * (user, category, month, type, account currency). Team budgets aggregate the
+     * category's spending across the team's current members; personal budgets only the
+     * owner's. A budget on a parent category covers its subcategories. Amounts are summed
+     * per currency and converted once per currency.
      */
-    private BigDecimal computeSpent(Budget budget) {
-        LocalDate startDate = LocalDate.of(budget.getYear(), budget.getMonth(), 1);
-        LocalDate endDate = startDate.plusMonths(1).minusDays(1);
-        TransactionType type = TransactionType.valueOf(budget.getCategory().getType().name());
-        Long categoryId = budget.getCategory().getId();
+    private Map<Long, BigDecimal> computeSpent(List<Budget> budgets) {
+        if (budgets.isEmpty()) {
+            return Map.of();
+        }
+        SpendScope scope = resolveScope(budgets);
+        if (scope.userIds().isEmpty()) {
+            return budgets.stream().collect(Collectors.toMap(Budget::getId, b -> BigDecimal.ZERO, (a, b) -> a));
+        }
 
-        List<Transaction> transactions = budget.getTeam() != null
-                ? transactionRepository.findSpentTransactionsForCategory(categoryId, type, startDate, endDate)
-                : transactionRepository.findSpentTransactionsForUser(
-                        budget.getUser().getId(), categoryId, type, startDate, endDate);
+        YearMonth first = budgets.stream().map(b -> YearMonth.of(b.getYear(), b.getMonth()))
+                .min(Comparator.naturalOrder()).orElseThrow();
+        YearMonth last = budgets.stream().map(b -> YearMonth.of(b.getYear(), b.getMonth()))
+                .max(Comparator.naturalOrder()).orElseThrow();
 
-        return transactions.stream()
-                .map(t -> currencyService.toBase(t.getAmount(), t.getAccount().getCurrency()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // (category, year, month, type) -> rows of (user, currency, amount)
+        Map<List<Object>, List<Object[]>> buckets = new HashMap<>();
+        for (Object[] row : transactionRepository.sumSpendByCategoryMonthGrouped(
+                scope.userIds(), scope.categoryIds(), first.atDay(1), last.atEndOfMonth())) {
+            List<Object> key = List.of(row[1], ((Number) row[2]).intValue(), ((Number) row[3]).intValue(), row[4]);
+            buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+        }
+
+        Map<Long, BigDecimal> spent = new HashMap<>();
+        for (Budget budget : budgets) {
+            TransactionType type = TransactionType.valueOf(budget.getCategory().getType().name());
+            Set<Long> spenders = scope.spenders(budget);
+            Map<String, BigDecimal> byCurrency = new HashMap<>();
+            for (Long categoryId : scope.subtrees().get(budget.getCategory().getId())) {
+                for (Object[] row : buckets.getOrDefault(
+                        List.of(categoryId, budget.getYear(), budget.getMonth(), type), List.of())) {
+                    if (spenders.contains((Long) row[0])) {
+                        byCurrency.merge((String) row[5], (BigDecimal) row[6], BigDecimal::add);
+                    }
+                }
+            }
+            spent.put(budget.getId(), byCurrency.entrySet().stream()
+                    .map(e -> currencyService.toBase(e.getValue(), e.getKey()))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add));
+        }
+        return spent;
+    }
+
+    /**
+     * Responses with pace for budgets of one month, from a single read of the daily
+     * rollups covering the month and the {@link #PACE_HISTORY_MONTHS} before it; spent is
+     * taken from the same rows.
+     */
+    private List<BudgetResponse> mapToPaceResponses(List<Budget> budgets, YearMonth month, LocalDate today) {
+        if (budgets.isEmpty()) {
+            return List.of();
+        }
+        SpendScope scope = resolveScope(budgets);
+        YearMonth firstHistory = month.minusMonths(PACE_HISTORY_MONTHS);
+
+        // (category, type) -> daily rows
+        Map<List<Object>, List<DailyCategoryTotal>> buckets = new HashMap<>();
+        if (!scope.userIds().isEmpty()) {
+            for (DailyCategoryTotal row : dailyTotals(scope, firstHistory.atDay(1), month.atEndOfMonth())) {
+                buckets.computeIfAbsent(List.of(row.getCategoryId(), row.getType()), k -> new ArrayList<>()).add(row);
+            }
+        }
+
+        List<BudgetResponse> responses = new ArrayList<>();
+        for (Budget budget : budgets) {
+            TransactionType type = TransactionType.valueOf(budget.getCategory().getType().name());
+            Set<Long> spenders = scope.spenders(budget);
+            // Index 0 is the oldest history month, the last one the budget's month.
+            long[][] daily = new long[PACE_HISTORY_MONTHS + 1][];
+            for (int i = 0; i <= PACE_HISTORY_MONTHS; i++) {
+                daily[i] = new long[firstHistory.plusMonths(i).lengthOfMonth()];
+            }
+            for (Long categoryId : scope.subtrees().get(budget.getCategory().getId())) {
+                for (DailyCategoryTotal row : buckets.getOrDefault(List.of(categoryId, type), List.of())) {
+                    if (spenders.contains(row.getUserId())) {
+                        int index = (int) firstHistory.until(YearMonth.from(row.getTransactionDate()),
+                                ChronoUnit.MONTHS);
+                        daily[index][row.getTransactionDate().getDayOfMonth() - 1] += PeriodAggregate.toUnits(
+                                currencyService.toBase(row.getAmount(), row.getCurrency()));
+                    }
+                }
+            }
+            long spentUnits = Arrays.stream(daily[PACE_HISTORY_MONTHS]).sum();
+            BudgetResponse response = mapToResponse(budget, PeriodAggregate.fromUnits(spentUnits));
+            response.setPace(pace(budget.getAmount(), spentUnits,
+                    Arrays.asList(daily).subList(0, PACE_HISTORY_MONTHS), month, today));
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    /**
+     * The scope's daily totals, from the rollups once they have been built. Until the
+     * first rebuild has finished they are summed from the transactions instead, so pace
+     * is right from the start rather than after the nightly seed.
+     */
+    private List<DailyCategoryTotal> dailyTotals(SpendScope scope, LocalDate from, LocalDate to) {
+        if (stateRepository.findByName(DailyRollupService.STATE_NAME).isPresent()) {
+            return dailyTotalRepository.findByUserIdInAndCategoryIdInAndTransactionDateBetween(
+                    scope.userIds(), scope.categoryIds(), from, to);
+        }
+        return transactionRepository.sumDailyGroupedFor(scope.userIds(), scope.categoryIds(), from, to).stream()
+                .map(DailyRollupService::fromRow)
+                .toList();
+    }
+
+    /**
+     * Pace of a month's spending as of {@code today} (or the month's last day once it is
+     * over); null for future months. The expected-spend curve is the average cumulative
+     * day-of-month share of the history months with any spending, or linear without any.
+     * The projection extrapolates spent along that curve.
+     */
+    static BudgetResponse.Pace pace(BigDecimal amount, long spentUnits, List<long[]> history,
+                                    YearMonth month, LocalDate today) {
+        YearMonth current = YearMonth.from(today);
+        if (month.isAfter(current)) {
+            return null;
+        }
+        LocalDate asOf = month.equals(current) ? today : month.atEndOfMonth();
+        int length = month.lengthOfMonth();
+        int elapsed = asOf.getDayOfMonth();
+
+        double shareSum = 0;
+        int shapedMonths = 0;
+        for (long[] days : history) {
+            long total = Arrays.stream(days).sum();
+            if (total <= 0) {
+                continue;
+            }
+            int cutoff = (int) Math.ceil((double) elapsed * days.length / length);
+            long cumulative = 0;
+            for (int d = 0; d < cutoff; d++) {
+                cumulative += days[d];
+            }
+            shareSum += (double) cumulative / total;
+            shapedMonths++;
+        }
+        BudgetResponse.PaceCurve curve = shapedMonths > 0
+                ? BudgetResponse.PaceCurve.HISTORICAL
+                : BudgetResponse.PaceCurve.LINEAR;
+        double share = shapedMonths > 0 ? shareSum / shapedMonths : (double) elapsed / length;
+        if (share <= 0) {
+            share = (double) elapsed / length;
+        }
+
+        BigDecimal spent = PeriodAggregate.fromUnits(spentUnits);
+        BigDecimal expected = amount.multiply(BigDecimal.valueOf(Math.min(share, 1.0)));
+        BigDecimal projected = elapsed == length ? spent : spent.divide(BigDecimal.valueOf(share), 4, RoundingMode.HALF_UP);
+
+        Integer daysUntilExhausted = null;
+        int remainingDays = length - elapsed;
+        if (spent.compareTo(amount) >= 0) {
+            daysUntilExhausted = 0;
+        } else if (remainingDays > 0) {
+            BigDecimal dailyRate = projected.subtract(spent)
+                    .divide(BigDecimal.valueOf(remainingDays), 8, RoundingMode.HALF_UP);
+            if (dailyRate.signum() > 0) {
+                daysUntilExhausted = amount.subtract(spent).divide(dailyRate, 0, RoundingMode.CEILING).intValue();
+            }
+        }
+
+        return BudgetResponse.Pace.builder()
+                .asOf(asOf)
+                .curve(curve)
+                .expectedSpend(expected.setScale(2, RoundingMode.HALF_UP))
+                .projectedSpend(projected.setScale(2, RoundingMode.HALF_UP))
+                .daysUntilExhausted(daysUntilExhausted)
+                .aheadOfPace(spent.compareTo(expected) > 0)
+                .build();
+    }
+
+    /** Categories and users whose spending counts toward a set of budgets. */
+    private record SpendScope(Map<Long, Set<Long>> subtrees, Map<Long, Set<Long>> teamMembers,
+                              Set<Long> userIds, Set<Long> categoryIds) {
+
+        Set<Long> spenders(Budget budget) {
+            return budget.getTeam() != null
+                    ? teamMembers.getOrDefault(budget.getTeam().getId(), Set.of())
+                    : Set.of(budget.getUser().getId());
+        }
+    }
+
+    /** Subtrees of the budgeted categories and the spending users, in two queries. */
+    private SpendScope resolveScope(List<Budget> budgets) {
+        Map<Long, Set<Long>> subtrees = new HashMap<>();
+        budgets.forEach(b -> subtrees.computeIfAbsent(b.getCategory().getId(), id -> new HashSet<>(Set.of(id))));
+        for (CategoryClosure link : categoryClosureRepository.findByAncestorIdIn(subtrees.keySet())) {
+            subtrees.get(link.getAncestorId()).add(link.getDescendantId());
+        }
+        Set<Long> categoryIds = subtrees.values().stream().flatMap(Set::stream).collect(Collectors.toSet());
+
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> teamIds = new HashSet<>();
+        budgets.forEach(b -> {
+            if (b.getTeam() != null) {
+                teamIds.add(b.getTeam().getId());
+            } else {
+                userIds.add(b.getUser().getId());
+            }
+        });
+        Map<Long, Set<Long>> teamMembers = new HashMap<>();
+        if (!teamIds.isEmpty()) {
+            for (Object[] pair : teamMemberRepository.findMemberPairs(teamIds)) {
+                teamMembers.computeIfAbsent((Long) pair[0], k -> new HashSet<>()).add((Long) pair[1]);
+                userIds.add((Long) pair[1]);
+            }
+        }
+        return new SpendScope(subtrees, teamMembers, userIds, categoryIds);
     }
 
     private BudgetResponse mapToResponse(Budget budget) {
-        BigDecimal spent = computeSpent(budget);
+        return mapToResponses(List.of(budget)).get(0);
+    }
+
+    private BudgetResponse mapToResponse(Budget budget, BigDecimal spent) {
         BigDecimal remaining = budget.getAmount().subtract(spent);
         BigDecimal percentageUsed = BigDecimal.ZERO;
 
@@ -1,14 +1,17 @@
 package com.moneyflow.service;
 
+import com.moneyflow.analytics.TeamBudgetIndex;
 import com.moneyflow.exception.BadRequestException;
 import com.moneyflow.exception.ResourceNotFoundException;
 import com.moneyflow.model.dto.category.CategoryResponse;
 import com.moneyflow.model.dto.category.CreateCategoryRequest;
 import com.moneyflow.model.dto.category.UpdateCategoryRequest;
 import com.moneyflow.model.entity.Category;
+import com.moneyflow.model.entity.CategoryClosure;
 import com.moneyflow.model.entity.TeamMember;
 import com.moneyflow.model.entity.User;
 import com.moneyflow.model.enums.CategoryType;
+import com.moneyflow.repository.CategoryClosureRepository;
 import com.moneyflow.repository.CategoryRepository;
 import com.moneyflow.repository.UserRepository;
 import com.moneyflow.security.SecurityUtils;
@@ -16,7 +19,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,8 +31,10 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository closureRepository;
     private final UserRepository userRepository;
     private final TeamPermissionService teamPermissionService;
+    private final TeamBudgetIndex teamBudgetIndex;
 
     @Transactional
     public CategoryResponse createCategory(CreateCategoryRequest request) {
@@ -38,8 +47,13 @@ public class CategoryService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
+        Category parent = request.getParentId() != null
+                ? resolveParent(request.getParentId(), request.getType(), userId)
+                : null;
+
         Category category = Category.builder()
                 .user(user)
+                .parent(parent)
                 .name(request.getName())
                 .type(request.getType())
                 .icon(request.getIcon())
@@ -48,6 +62,10 @@ public class CategoryService {
                 .build();
 
         category = categoryRepository.save(category);
+        if (parent != null) {
+            linkSubtree(List.of(category.getId()), parent);
+            teamBudgetIndex.clear();
+        }
         return mapToResponse(category);
     }
 
@@ -131,10 +149,19 @@ public class CategoryService {
             category.setName(request.getName());
         }
 
-        if (request.getType() != null) {
+        if (request.getType() != null && request.getType() != category.getType()) {
+            if (category.getParent() != null || closureRepository.existsActiveDescendant(category.getId())) {
+                throw new BadRequestException("Cannot change the type of a category that has a parent or subcategories");
+            }
             category.setType(request.getType());
         }
 
+        if (Boolean.TRUE.equals(request.getTopLevel())) {
+            move(category, null);
+        } else if (request.getParentId() != null) {
+            move(category, resolveParent(request.getParentId(), category.getType(), userId));
+        }
+
         if (request.getIcon() != null) {
             category.setIcon(request.getIcon());
         }
@@ -158,17 +185,88 @@ public class CategoryService {
         if (category.getIsDefault() || !category.getUser().getId().equals(userId)) {
             throw new BadRequestException("Cannot delete this category");
         }
+        if (closureRepository.existsActiveDescendant(id)) {
+            throw new BadRequestException("Move or delete the subcategories of this category first");
+        }
 
         // Soft delete
         category.setIsActive(false);
         categoryRepository.save(category);
     }
 
+    private Category resolveParent(Long parentId, CategoryType type, Long userId) {
+        Category parent = categoryRepository.findByIdAndAvailableForUser(parentId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", parentId));
+        if (parent.getType() != type) {
+            throw new BadRequestException("A subcategory must have the same type as its parent");
+        }
+        return parent;
+    }
+
+    /**
+     * Re-parents a category together with its subtree: pairs linking the subtree to its
+     * old ancestors are dropped and pairs to the new parent and its ancestors added.
+     */
+    private void move(Category category, Category newParent) {
+        Long currentParentId = category.getParent() != null ? category.getParent().getId() : null;
+        Long newParentId = newParent != null ? newParent.getId() : null;
+        if (Objects.equals(currentParentId, newParentId)) {
+            return;
+        }
+        if (newParent != null && (newParent.getId().equals(category.getId())
+                || closureRepository.existsByAncestorIdAndDescendantId(category.getId(), newParent.getId()))) {
+            throw new BadRequestException("A category cannot be moved under itself or one of its subcategories");
+        }
+
+        List<CategoryClosure> below = closureRepository.findByAncestorId(category.getId());
+        List<Long> subtree = new ArrayList<>();
+        subtree.add(category.getId());
+        below.forEach(c -> subtree.add(c.getDescendantId()));
+
+        closureRepository.deleteAncestorLinks(subtree);
+        category.setParent(newParent);
+        if (newParent != null) {
+            linkSubtree(subtree, newParent);
+        }
+        teamBudgetIndex.clear();
+    }
+
+    /**
+     * Adds closure pairs from {@code parent} and each of its ancestors to every category
+     * of a subtree whose root (first element) becomes a direct child of {@code parent}.
+     */
+    private void linkSubtree(List<Long> subtree, Category parent) {
+        Long root = subtree.get(0);
+        Map<Long, Integer> depthBelowRoot = new HashMap<>();
+        depthBelowRoot.put(root, 0);
+        if (subtree.size() > 1) {
+            closureRepository.findByAncestorId(root)
+                    .forEach(c -> depthBelowRoot.put(c.getDescendantId(), c.getDepth()));
+        }
+
+        List<CategoryClosure> above = new ArrayList<>();
+        above.add(CategoryClosure.builder().ancestorId(parent.getId()).depth(0).build());
+        above.addAll(closureRepository.findByDescendantIdOrderByDepth(parent.getId()));
+
+        List<CategoryClosure> links = new ArrayList<>();
+        for (CategoryClosure ancestor : above) {
+            for (Long descendant : subtree) {
+                links.add(CategoryClosure.builder()
+                        .ancestorId(ancestor.getAncestorId())
+                        .descendantId(descendant)
+                        .depth(ancestor.getDepth() + depthBelowRoot.get(descendant) + 1)
+                        .build());
+            }
+        }
+        closureRepository.saveAll(links);
+    }
+
     private CategoryResponse mapToResponse(Category category) {
         return CategoryResponse.builder()
                 .id(category.getId())
                 .name(category.getName())
                 .type(category.getType())
+                .parentId(category.getParent() != null ? category.getParent().getId() : null)
                 .icon(category.getIcon())
                 .color(category.getColor())
                 .isDefault(category.getIsDefault())
@@ -0,0 +1,137 @@
+package com.moneyflow.service;
+
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.model.entity.DailyCategoryTotal;
+import com.moneyflow.model.entity.SnapshotState;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.DailyCategoryTotalRepository;
+import com.moneyflow.repository.RollupUpsertRepository;
+import com.moneyflow.repository.SnapshotStateRepository;
+import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.scheduler.SchedulerLeases;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Per (user, category, day, type, currency) income/expense rollups, the per-day series
+ * behind budget pace tracking, so pace never re-scans the transaction history.
+ * <p>
+ * Like the tag rollups, they are adjusted inside the writing transaction with "remove
+ * before, add after" deltas, each a single upsert, and the rebuild job recomputes them
+ * month by month from the transactions to seed them initially and correct any drift.
+ * Writers and the rebuild of a month are kept apart by the month locks of
+ * {@link RollupUpsertRepository}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailyRollupService {
+
+    static final String STATE_NAME = "daily_totals";
+
+    private final DailyCategoryTotalRepository totalRepository;
+    private final RollupUpsertRepository upsertRepository;
+    private final TransactionRepository transactionRepository;
+    private final SnapshotStateRepository stateRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        Map<List<Object>, Delta> deltas = new LinkedHashMap<>();
+        for (TransactionChangedEvent.Change change : event.getChanges()) {
+            collect(deltas, change.getBefore(), -1);
+            collect(deltas, change.getAfter(), 1);
+        }
+        deltas.values().removeIf(delta -> delta.count == 0 && delta.amount.signum() == 0);
+        deltas.keySet().stream()
+                .map(key -> ((LocalDate) key.get(2)).withDayOfMonth(1))
+                .collect(Collectors.toCollection(TreeSet::new))
+                .forEach(monthStart -> upsertRepository.lockMonthShared(STATE_NAME, monthStart));
+        deltas.forEach((key, delta) -> upsertRepository.addDailyCategoryTotal((Long) key.get(0), (Long) key.get(1),
+                (LocalDate) key.get(2), (TransactionType) key.get(3), (String) key.get(4), delta.amount, delta.count));
+    }
+
+    /**
+     * Recomputes every month from the earliest transaction to the current one, a month
+     * per transaction, each under the month's exclusive lock so no concurrent write is
+     * missed or counted twice.
+     */
+    public void rebuild() {
+        LocalDateTime started = LocalDateTime.now();
+        LocalDate earliest = transactionRepository.findEarliestTransactionDate();
+        YearMonth last = YearMonth.now();
+        int months = 0;
+        if (earliest != null) {
+            for (YearMonth month = YearMonth.from(earliest); !month.isAfter(last); month = month.plusMonths(1)) {
+                SchedulerLeases.checkHeld();
+                YearMonth current = month;
+                transactionTemplate.executeWithoutResult(status -> rebuildMonth(current));
+                months++;
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            SnapshotState state = stateRepository.findByName(STATE_NAME)
+                    .orElseGet(() -> SnapshotState.builder().name(STATE_NAME).build());
+            state.setCoveredUntil(last.atEndOfMonth());
+            state.setLastRunAt(started);
+            stateRepository.save(state);
+        });
+        log.info("Daily rollup rebuild: {} month(s) rebuilt", months);
+    }
+
+    /** Runs the initial rebuild if rollups have never been built. */
+    public void rebuildIfNeeded() {
+        if (stateRepository.findByName(STATE_NAME).isEmpty()) {
+            rebuild();
+        }
+    }
+
+    private void rebuildMonth(YearMonth month) {
+        upsertRepository.lockMonthExclusive(STATE_NAME, month.atDay(1));
+        totalRepository.deleteRange(month.atDay(1), month.atEndOfMonth());
+        List<DailyCategoryTotal> totals = new ArrayList<>();
+        for (Object[] row : transactionRepository.sumDailyGrouped(month.atDay(1), month.atEndOfMonth())) {
+            totals.add(fromRow(row));
+        }
+        totalRepository.saveAll(totals);
+    }
+
+    /** A total from a {@link TransactionRepository#sumDailyGrouped} row. */
+    static DailyCategoryTotal fromRow(Object[] row) {
+        return DailyCategoryTotal.builder()
+                .userId((Long) row[0])
+                .categoryId((Long) row[1])
+                .transactionDate((LocalDate) row[2])
+                .type((TransactionType) row[3])
+                .currency((String) row[4])
+                .amount((BigDecimal) row[5])
+                .transactionCount(((Number) row[6]).longValue())
+                .build();
+    }
+
+    private static void collect(Map<List<Object>, Delta> deltas, TransactionSnapshot snapshot, int sign) {
+        if (snapshot == null || snapshot.getType() == TransactionType.TRANSFER || snapshot.getCategoryId() == null) {
+            return;
+        }
+        Delta delta = deltas.computeIfAbsent(List.of(snapshot.getUserId(), snapshot.getCategoryId(),
+                snapshot.getTransactionDate(), snapshot.getType(), snapshot.getCurrency()), k -> new Delta());
+        delta.amount = sign > 0 ? delta.amount.add(snapshot.getAmount()) : delta.amount.subtract(snapshot.getAmount());
+        delta.count += sign;
+    }
+
+    private static class Delta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private int count;
+    }
+}
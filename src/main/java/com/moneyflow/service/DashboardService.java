@@ -1,11 +1,22 @@
 package com.moneyflow.service;
 
+import com.moneyflow.analytics.PeriodAggregate;
+import com.moneyflow.analytics.TransactionColumnStore;
 import com.moneyflow.model.dto.dashboard.DashboardSummary;
+import com.moneyflow.exception.BadRequestException;
 import com.moneyflow.model.dto.dashboard.MonthlyReport;
+import com.moneyflow.model.dto.dashboard.TeamDashboard;
+import com.moneyflow.model.dto.dashboard.TrendReport;
 import com.moneyflow.model.entity.Account;
+import com.moneyflow.model.entity.Category;
+import com.moneyflow.model.entity.TeamMember;
 import com.moneyflow.model.entity.Transaction;
+import com.moneyflow.model.enums.TeamRole;
 import com.moneyflow.model.enums.TransactionType;
 import com.moneyflow.repository.AccountRepository;
+import com.moneyflow.repository.CategoryClosureRepository;
+import com.moneyflow.repository.CategoryRepository;
+import com.moneyflow.repository.TeamMemberRepository;
 import com.moneyflow.repository.TransactionRepository;
 import com.moneyflow.security.SecurityUtils;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +26,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -22,13 +34,31 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class DashboardService {
 
+    /** Name of the team dashboard row for data recorded by users no longer in the team. */
+    static final String FORMER_MEMBERS = "Former members";
+
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
     private final TeamPermissionService teamPermissionService;
+    private final TeamMemberRepository teamMemberRepository;
     private final CurrencyService currencyService;
+    private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final TransactionColumnStore columnStore;
+    private final MonthlySnapshotService monthlySnapshotService;
+    private final MerchantInsightService merchantInsightService;
 
     @Transactional(readOnly = true)
     public DashboardSummary getDashboardSummary(LocalDate startDate, LocalDate endDate) {
+        return getDashboardSummary(startDate, endDate, false);
+    }
+
+    /**
+     * @param rollupCategories when true, subcategory totals are reported under their
+     *                         top-level category instead of individually
+     */
+    @Transactional(readOnly = true)
+    public DashboardSummary getDashboardSummary(LocalDate startDate, LocalDate endDate, boolean rollupCategories) {
         Long userId = SecurityUtils.getCurrentUserId();
 
         // Own accounts plus accounts shared with the user's team.
@@ -38,22 +68,18 @@ public class DashboardService {
                 .map(a -> currencyService.toBase(a.getBalance(), a.getCurrency()))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        List<Transaction> transactions = transactionsFor(accounts, startDate, endDate);
+        PeriodAggregate period = aggregate(accounts, startDate, endDate);
+        if (rollupCategories) {
+            rollUpToTopLevel(period);
+        }
+        Map<Long, Category> categories = categoriesOf(period);
 
-        BigDecimal totalIncome = sumBase(transactions, TransactionType.INCOME);
-        BigDecimal totalExpense = sumBase(transactions, TransactionType.EXPENSE);
+        BigDecimal totalIncome = period.total(TransactionType.INCOME);
+        BigDecimal totalExpense = period.total(TransactionType.EXPENSE);
         BigDecimal netFlow = totalIncome.subtract(totalExpense);
 
         List<DashboardSummary.AccountSummary> accountSummaries = accounts.stream()
-                .map(account -> DashboardSummary.AccountSummary.builder()
-                        .id(account.getId())
-                        .name(account.getName())
-                        .type(account.getType().name())
-                        .balance(account.getBalance())
-                        .currency(account.getCurrency())
-                        .icon(account.getIcon())
-                        .color(account.getColor())
-                        .build())
+                .map(this::toAccountSummary)
                 .collect(Collectors.toList());
 
         return DashboardSummary.builder()
@@ -62,43 +88,37 @@ public class DashboardService {
                 .totalIncome(totalIncome)
                 .totalExpense(totalExpense)
                 .netFlow(netFlow)
-                .totalTransactions(transactions.size())
+                .totalTransactions(period.getTransactionCount())
                 .accountSummaries(accountSummaries)
-                .topExpenseCategories(getCategorySummaries(transactions, TransactionType.EXPENSE, totalExpense, 5))
-                .topIncomeCategories(getCategorySummaries(transactions, TransactionType.INCOME, totalIncome, 5))
+                .topExpenseCategories(getCategorySummaries(period, categories, TransactionType.EXPENSE, totalExpense, 5))
+                .topIncomeCategories(getCategorySummaries(period, categories, TransactionType.INCOME, totalIncome, 5))
+                .topMerchants(merchantInsightService.topMerchants(userId, startDate, endDate, 5))
                 .build();
     }
 
     @Transactional(readOnly = true)
-    public MonthlyReport getMonthlyReport(Integer month, Integer year) {
+    public MonthlyReport getMonthlyReport(Integer month, Integer year, boolean rollupCategories) {
         Long userId = SecurityUtils.getCurrentUserId();
 
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.plusMonths(1).minusDays(1);
 
         List<Account> accounts = accountRepository.findAllAccessibleByUser(userId);
-        List<Transaction> transactions = transactionsFor(accounts, startDate, endDate);
-
-        BigDecimal totalIncome = sumBase(transactions, TransactionType.INCOME);
-        BigDecimal totalExpense = sumBase(transactions, TransactionType.EXPENSE);
-
-        Map<Integer, BigDecimal> dailyIncome = new HashMap<>();
-        Map<Integer, BigDecimal> dailyExpense = new HashMap<>();
-        for (Transaction transaction : transactions) {
-            int day = transaction.getTransactionDate().getDayOfMonth();
-            BigDecimal base = baseAmount(transaction);
-            if (transaction.getType() == TransactionType.INCOME) {
-                dailyIncome.merge(day, base, BigDecimal::add);
-            } else if (transaction.getType() == TransactionType.EXPENSE) {
-                dailyExpense.merge(day, base, BigDecimal::add);
-            }
+        PeriodAggregate period = aggregate(accounts, startDate, endDate);
+        if (rollupCategories) {
+            rollUpToTopLevel(period);
         }
+        Map<Long, Category> categories = categoriesOf(period);
+
+        BigDecimal totalIncome = period.total(TransactionType.INCOME);
+        BigDecimal totalExpense = period.total(TransactionType.EXPENSE);
 
         List<MonthlyReport.DailyFlow> dailyFlows = new ArrayList<>();
         int daysInMonth = endDate.getDayOfMonth();
         for (int day = 1; day <= daysInMonth; day++) {
-            BigDecimal income = dailyIncome.getOrDefault(day, BigDecimal.ZERO);
-            BigDecimal expense = dailyExpense.getOrDefault(day, BigDecimal.ZERO);
+            LocalDate date = startDate.withDayOfMonth(day);
+            BigDecimal income = period.dayTotal(TransactionType.INCOME, date);
+            BigDecimal expense = period.dayTotal(TransactionType.EXPENSE, date);
             dailyFlows.add(MonthlyReport.DailyFlow.builder()
                     .day(day)
                     .income(income)
@@ -115,54 +135,234 @@ public class DashboardService {
                 .totalExpense(totalExpense)
                 .netFlow(totalIncome.subtract(totalExpense))
                 .dailyFlows(dailyFlows)
-                .expenseBreakdown(getCategoryBreakdown(transactions, TransactionType.EXPENSE, totalExpense))
-                .incomeBreakdown(getCategoryBreakdown(transactions, TransactionType.INCOME, totalIncome))
+                .expenseBreakdown(getCategoryBreakdown(period, categories, TransactionType.EXPENSE, totalExpense))
+                .incomeBreakdown(getCategoryBreakdown(period, categories, TransactionType.INCOME, totalIncome))
                 .build();
     }
 
-    private List<Transaction> transactionsFor(List<Account> accounts, LocalDate startDate, LocalDate endDate) {
+    /**
+     * Dashboard for the caller's team over team-shared accounts and team categories.
+     * All members are aggregated by one grouped query partitioned by member, instead of
+     * building N per-user dashboards.
+     */
+    @Transactional(readOnly = true)
+    public TeamDashboard getTeamDashboard(LocalDate startDate, LocalDate endDate) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        Long teamId = teamPermissionService.teamId(userId);
+        if (teamId == null) {
+            throw new BadRequestException("User does not belong to a team");
+        }
+
+        List<TeamMember> members = teamMemberRepository.findWithUserByTeamId(teamId);
+        List<Account> sharedAccounts = accountRepository.findByTeamIdAndIsActiveTrue(teamId);
+
+        // Shared data recorded by users who have since left still counts in the team
+        // totals; it is broken down as one extra row so the members add up to them.
+        Set<Long> memberIds = members.stream().map(member -> member.getUser().getId()).collect(Collectors.toSet());
+        PeriodAggregate team = new PeriodAggregate(startDate, startDate);
+        Map<Long, PeriodAggregate> byMember = new HashMap<>();
+        PeriodAggregate former = new PeriodAggregate(startDate, startDate);
+        for (Object[] row : transactionRepository.sumTeamGroupedByMember(teamId, startDate, endDate)) {
+            TransactionType type = (TransactionType) row[1];
+            Long categoryId = (Long) row[2];
+            long units = PeriodAggregate.toUnits(currencyService.toBase((BigDecimal) row[4], (String) row[3]));
+            int count = ((Number) row[5]).intValue();
+            team.add(type, categoryId, startDate, units, count);
+            (memberIds.contains((Long) row[0])
+                    ? byMember.computeIfAbsent((Long) row[0], id -> new PeriodAggregate(startDate, startDate))
+                    : former).add(type, categoryId, startDate, units, count);
+        }
+        Map<Long, Category> categories = categoriesOf(team);
+
+        List<TeamDashboard.MemberSummary> memberSummaries = members.stream()
+                .map(member -> memberSummary(member.getUser().getId(),
+                        member.getUser().getFirstName() + " " + member.getUser().getLastName(), member.getRole(),
+                        byMember.getOrDefault(member.getUser().getId(), new PeriodAggregate(startDate, startDate)),
+                        categories))
+                .sorted((a, b) -> b.getTotalExpense().compareTo(a.getTotalExpense()))
+                .collect(Collectors.toList());
+        if (former.getTransactionCount() > 0) {
+            memberSummaries.add(memberSummary(null, FORMER_MEMBERS, null, former, categories));
+        }
+
+        BigDecimal totalIncome = team.total(TransactionType.INCOME);
+        BigDecimal totalExpense = team.total(TransactionType.EXPENSE);
+
+        return TeamDashboard.builder()
+                .teamId(teamId)
+                .teamName(members.isEmpty() ? null : members.get(0).getTeam().getName())
+                .startDate(startDate)
+                .endDate(endDate)
+                .baseCurrency(currencyService.getBaseCurrency())
+                .sharedBalance(sharedAccounts.stream()
+                        .map(a -> currencyService.toBase(a.getBalance(), a.getCurrency()))
+                        .reduce(BigDecimal.ZERO, BigDecimal::add))
+                .totalIncome(totalIncome)
+                .totalExpense(totalExpense)
+                .netFlow(totalIncome.subtract(totalExpense))
+                .totalTransactions(team.getTransactionCount())
+                .sharedAccounts(sharedAccounts.stream().map(this::toAccountSummary).collect(Collectors.toList()))
+                .topExpenseCategories(getCategorySummaries(team, categories, TransactionType.EXPENSE, totalExpense, 5))
+                .topIncomeCategories(getCategorySummaries(team, categories, TransactionType.INCOME, totalIncome, 5))
+                .members(memberSummaries)
+                .build();
+    }
+
+    /**
+     * Month-by-month flows over a long range. Closed months are read from the nightly
+     * snapshot (see {@link MonthlySnapshotService}); only the recent tail hits the
+     * transactions table.
+     */
+    @Transactional(readOnly = true)
+    public TrendReport getTrendReport(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        Long userId = SecurityUtils.getCurrentUserId();
+        List<Account> accounts = accountRepository.findAllAccessibleByUser(userId);
+        Map<Long, String> currencyByAccount = accounts.stream()
+                .collect(Collectors.toMap(Account::getId, Account::getCurrency));
+
+        PeriodAggregate period = new PeriodAggregate(from.atDay(1), to.atEndOfMonth());
+        Map<YearMonth, long[]> byMonth = new TreeMap<>();
+        for (MonthlySnapshotService.MonthlyAmount row : monthlySnapshotService.monthlyTotalsForAccounts(
+                currencyByAccount.keySet(), from, to)) {
+            long units = PeriodAggregate.toUnits(
+                    currencyService.toBase(row.getAmount(), currencyByAccount.get(row.getAccountId())));
+            period.add(row.getType(), row.getCategoryId(), row.getMonth().atDay(1), units,
+                    (int) row.getTransactionCount());
+            long[] month = byMonth.computeIfAbsent(row.getMonth(), m -> new long[3]);
+            if (row.getType() == TransactionType.INCOME) {
+                month[0] += units;
+            } else if (row.getType() == TransactionType.EXPENSE) {
+                month[1] += units;
+            }
+            month[2] += row.getTransactionCount();
+        }
+
+        List<TrendReport.MonthFlow> months = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            long[] totals = byMonth.getOrDefault(month, new long[3]);
+            BigDecimal income = PeriodAggregate.fromUnits(totals[0]);
+            BigDecimal expense = PeriodAggregate.fromUnits(totals[1]);
+            months.add(TrendReport.MonthFlow.builder()
+                    .month(month)
+                    .income(income)
+                    .expense(expense)
+                    .net(income.subtract(expense))
+                    .transactionCount(totals[2])
+                    .build());
+        }
+
+        Map<Long, Category> categories = categoriesOf(period);
+        BigDecimal totalIncome = period.total(TransactionType.INCOME);
+        BigDecimal totalExpense = period.total(TransactionType.EXPENSE);
+
+        return TrendReport.builder()
+                .from(from)
+                .to(to)
+                .baseCurrency(currencyService.getBaseCurrency())
+                .snapshotCoveredUntil(monthlySnapshotService.getCoveredUntil())
+                .totalIncome(totalIncome)
+                .totalExpense(totalExpense)
+                .netFlow(totalIncome.subtract(totalExpense))
+                .months(months)
+                .expenseBreakdown(getCategoryBreakdown(period, categories, TransactionType.EXPENSE, totalExpense))
+                .incomeBreakdown(getCategoryBreakdown(period, categories, TransactionType.INCOME, totalIncome))
+                .build();
+    }
+
+    /**
+     * Period totals for the accounts, from the column store when it is enabled and
+     * otherwise by loading the period's transactions.
+     */
+    private PeriodAggregate aggregate(List<Account> accounts, LocalDate startDate, LocalDate endDate) {
         List<Long> accountIds = accounts.stream().map(Account::getId).collect(Collectors.toList());
         if (accountIds.isEmpty()) {
-            return List.of();
+            return new PeriodAggregate(startDate, endDate);
+        }
+        if (columnStore.isEnabled()) {
+            return columnStore.aggregate(accountIds, startDate, endDate, null);
         }
-        return transactionRepository.findByAccountIdInAndTransactionDateBetweenAndIsActiveTrue(
-                accountIds, startDate, endDate);
+        PeriodAggregate period = new PeriodAggregate(startDate, endDate);
+        for (Transaction t : transactionRepository.findByAccountIdInAndTransactionDateBetweenAndIsActiveTrue(
+                accountIds, startDate, endDate)) {
+            period.add(t.getType(), t.getCategory().getId(), t.getTransactionDate(),
+                    PeriodAggregate.toUnits(currencyService.toBase(t.getAmount(), t.getAccount().getCurrency())));
+        }
+        return period;
     }
 
-    /** Transaction amount converted to the base currency using its account's currency. */
-    private BigDecimal baseAmount(Transaction t) {
-        return currencyService.toBase(t.getAmount(), t.getAccount().getCurrency());
+    private TeamDashboard.MemberSummary memberSummary(Long userId, String name, TeamRole role,
+                                                      PeriodAggregate period, Map<Long, Category> categories) {
+        BigDecimal income = period.total(TransactionType.INCOME);
+        BigDecimal expense = period.total(TransactionType.EXPENSE);
+        return TeamDashboard.MemberSummary.builder()
+                .userId(userId)
+                .name(name)
+                .role(role)
+                .totalIncome(income)
+                .totalExpense(expense)
+                .netFlow(income.subtract(expense))
+                .totalTransactions(period.getTransactionCount())
+                .topExpenseCategories(getCategorySummaries(period, categories, TransactionType.EXPENSE, expense, 5))
+                .build();
     }
 
-    private BigDecimal sumBase(List<Transaction> transactions, TransactionType type) {
-        return transactions.stream()
-                .filter(t -> t.getType() == type)
-                .map(this::baseAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private DashboardSummary.AccountSummary toAccountSummary(Account account) {
+        return DashboardSummary.AccountSummary.builder()
+                .id(account.getId())
+                .name(account.getName())
+                .type(account.getType().name())
+                .balance(account.getBalance())
+                .currency(account.getCurrency())
+                .icon(account.getIcon())
+                .color(account.getColor())
+                .build();
     }
 
-    private List<DashboardSummary.CategorySummary> getCategorySummaries(
-            List<Transaction> transactions, TransactionType type, BigDecimal total, int limit) {
+    /** Folds subcategory totals into their top-level category via the category closure. */
+    private void rollUpToTopLevel(PeriodAggregate period) {
+        Set<Long> ids = new HashSet<>(period.categoryTotals(TransactionType.INCOME).keySet());
+        ids.addAll(period.categoryTotals(TransactionType.EXPENSE).keySet());
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> roots = new HashMap<>();
+        for (Object[] pair : categoryClosureRepository.findRootPairs(ids)) {
+            roots.put((Long) pair[0], (Long) pair[1]);
+        }
+        period.rollUpCategories(roots);
+    }
 
-        Map<Long, List<Transaction>> byCategory = transactions.stream()
-                .filter(t -> t.getType() == type)
-                .collect(Collectors.groupingBy(t -> t.getCategory().getId()));
+    private Map<Long, Category> categoriesOf(PeriodAggregate period) {
+        Set<Long> ids = new HashSet<>(period.categoryTotals(TransactionType.INCOME).keySet());
+        ids.addAll(period.categoryTotals(TransactionType.EXPENSE).keySet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return categoryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Category::getId, c -> c));
+    }
 
-        return byCategory.values().stream()
-                .map(categoryTransactions -> {
-                    Transaction first = categoryTransactions.get(0);
-                    BigDecimal amount = categoryTransactions.stream()
-                            .map(this::baseAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private List<DashboardSummary.CategorySummary> getCategorySummaries(
+            PeriodAggregate period, Map<Long, Category> categories, TransactionType type,
+            BigDecimal total, int limit) {
+
+        return period.categoryTotals(type).entrySet().stream()
+                .filter(e -> categories.containsKey(e.getKey()))
+                .map(e -> {
+                    Category category = categories.get(e.getKey());
+                    BigDecimal amount = PeriodAggregate.fromUnits(e.getValue()[0]);
 
                     return DashboardSummary.CategorySummary.builder()
-                            .id(first.getCategory().getId())
-                            .name(first.getCategory().getName())
-                            .icon(first.getCategory().getIcon())
-                            .color(first.getCategory().getColor())
+                            .id(category.getId())
+                            .name(category.getName())
+                            .icon(category.getIcon())
+                            .color(category.getColor())
                             .amount(amount)
                             .percentage(percentage(amount, total))
-                            .transactionCount(categoryTransactions.size())
+                            .transactionCount((int) e.getValue()[1])
                             .build();
                 })
                 .sorted((a, b) -> b.getAmount().compareTo(a.getAmount()))
@@ -171,24 +371,19 @@ public class DashboardService {
     }
 
     private List<MonthlyReport.CategoryBreakdown> getCategoryBreakdown(
-            List<Transaction> transactions, TransactionType type, BigDecimal total) {
-
-        Map<Long, List<Transaction>> byCategory = transactions.stream()
-                .filter(t -> t.getType() == type)
-                .collect(Collectors.groupingBy(t -> t.getCategory().getId()));
+            PeriodAggregate period, Map<Long, Category> categories, TransactionType type, BigDecimal total) {
 
-        return byCategory.values().stream()
-                .map(categoryTransactions -> {
-                    Transaction first = categoryTransactions.get(0);
-                    BigDecimal amount = categoryTransactions.stream()
-                            .map(this::baseAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return period.categoryTotals(type).entrySet().stream()
+                .filter(e -> categories.containsKey(e.getKey()))
+                .map(e -> {
+                    Category category = categories.get(e.getKey());
+                    BigDecimal amount = PeriodAggregate.fromUnits(e.getValue()[0]);
 
                     return MonthlyReport.CategoryBreakdown.builder()
-                            .categoryId(first.getCategory().getId())
-                            .categoryName(first.getCategory().getName())
-                            .icon(first.getCategory().getIcon())
-                            .color(first.getCategory().getColor())
+                            .categoryId(category.getId())
+                            .categoryName(category.getName())
+                            .icon(category.getIcon())
+                            .color(category.getColor())
                             .amount(amount)
                             .percentage(percentage(amount, total))
                             .build();
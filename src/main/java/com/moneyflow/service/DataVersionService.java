@@ -0,0 +1,193 @@
+package com.moneyflow.service;
+
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.model.entity.DataVersion;
+import com.moneyflow.model.enums.DataVersionScope;
+import com.moneyflow.repository.DataVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user and per-team data versions for conditional GETs. Every committed change
+ * bumps the acting user's counter and, for team members, the team's, so a member's
+ * ETag also moves when a teammate changes shared data. Versions are bumped as soon as
+ * the change commits, before the write's response is sent: a reader can briefly see
+ * new data under the old version, but never cache old data under the new one.
+ * <p>
+ * API writes are bumped by {@code DataVersionCommitListener} when their transaction
+ * commits; writes outside a request (the recurring transaction job) are bumped from
+ * their {@link TransactionChangedEvent}.
+ * <p>
+ * A user's team id and versions are kept in memory for
+ * {@code moneyflow.etag.cache-ttl-ms}, so most conditional GETs run no query. Bumps on
+ * this node drop the entries they affect at once; bumps and membership changes on other
+ * nodes are picked up when the entry expires.
+ */
+@Slf4j
+@Service
+public class DataVersionService {
+
+    private final DataVersionRepository dataVersionRepository;
+    private final TeamPermissionService teamPermissionService;
+    private final TransactionTemplate requiresNew;
+
+    /** Set while this thread runs a bump, whose own transactions are not writes to version. */
+    private static final ThreadLocal<Boolean> BUMPING = new ThreadLocal<>();
+
+    private record Versions(Long teamId, long userVersion, long teamVersion, long loadedAt) {
+    }
+
+    private final Map<Long, Versions> versions = new ConcurrentHashMap<>();
+    /** Moves on every invalidation, so a load that raced a bump is not cached. */
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long sweptAt;
+
+    @Value("${moneyflow.etag.cache-ttl-ms:2000}")
+    private long cacheTtlMs = 2000;
+
+    public DataVersionService(DataVersionRepository dataVersionRepository,
+                              TeamPermissionService teamPermissionService,
+                              PlatformTransactionManager transactionManager) {
+        this.dataVersionRepository = dataVersionRepository;
+        this.teamPermissionService = teamPermissionService;
+        // Bumps run after the caller's transaction has committed and must not join it.
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Weak ETag over the user's and their team's versions. The current date is part of
+     * it because some responses (current-month budgets, default date ranges) change at
+     * midnight without any write.
+     */
+    public String etag(Long userId) {
+        long now = System.currentTimeMillis();
+        Versions current = versions.get(userId);
+        if (current == null || now - current.loadedAt() > cacheTtlMs) {
+            current = load(userId, now);
+        }
+        Long teamId = current.teamId();
+        return "W/\"" + userId + "-" + current.userVersion() + "." + (teamId != null ? teamId : 0)
+                + "-" + current.teamVersion() + "." + LocalDate.now().toEpochDay() + "\"";
+    }
+
+    /** Records a committed change by {@code userId}. */
+    public void bump(Long userId) {
+        Long teamId = teamPermissionService.teamId(userId);
+        BUMPING.set(true);
+        try {
+            increment(DataVersionScope.USER, userId);
+            if (teamId != null) {
+                increment(DataVersionScope.TEAM, teamId);
+            }
+        } finally {
+            BUMPING.remove();
+        }
+        generation.incrementAndGet();
+        versions.remove(userId);
+        if (teamId != null) {
+            versions.values().removeIf(cached -> teamId.equals(cached.teamId()));
+        }
+    }
+
+    /** Whether the current thread is running a bump. */
+    public static boolean isBumping() {
+        return Boolean.TRUE.equals(BUMPING.get());
+    }
+
+    /**
+     * Records a committed bulk change (e.g. the budget rollover) for many users and teams
+     * at once. Scopes without a counter row yet are skipped: they have never been written
+     * through the API, so no client holds an ETag for data they own.
+     */
+    public void bumpAll(Collection<Long> userIds, Collection<Long> teamIds) {
+        BUMPING.set(true);
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                if (!userIds.isEmpty()) {
+                    dataVersionRepository.incrementAll(DataVersionScope.USER, userIds);
+                }
+                if (!teamIds.isEmpty()) {
+                    dataVersionRepository.incrementAll(DataVersionScope.TEAM, teamIds);
+                }
+            });
+        } finally {
+            BUMPING.remove();
+        }
+        generation.incrementAndGet();
+        versions.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        if (RequestContextHolder.getRequestAttributes() != null) {
+            // Raised by an API write, bumped when its transaction commits.
+            return;
+        }
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (TransactionChangedEvent.Change change : event.getChanges()) {
+            TransactionSnapshot snapshot = change.getAfter() != null ? change.getAfter() : change.getBefore();
+            userIds.add(snapshot.getUserId());
+        }
+        userIds.stream().filter(Objects::nonNull).forEach(this::bump);
+    }
+
+    /** Reads the user's team and versions, caching them unless a bump ran meanwhile. */
+    private Versions load(Long userId, long now) {
+        long loadGeneration = generation.get();
+        Long teamId = teamPermissionService.teamId(userId);
+        long userVersion = 0;
+        long teamVersion = 0;
+        for (DataVersion version : dataVersionRepository.findForUserAndTeam(userId, teamId)) {
+            if (version.getScope() == DataVersionScope.USER) {
+                userVersion = version.getDataVersion();
+            } else {
+                teamVersion = version.getDataVersion();
+            }
+        }
+        Versions loaded = new Versions(teamId, userVersion, teamVersion, now);
+        if (now - sweptAt > cacheTtlMs) {
+            sweptAt = now;
+            versions.values().removeIf(cached -> now - cached.loadedAt() > cacheTtlMs);
+        }
+        versions.put(userId, loaded);
+        if (generation.get() != loadGeneration) {
+            versions.remove(userId, loaded);
+        }
+        return loaded;
+    }
+
+    private void increment(DataVersionScope scope, Long scopeId) {
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                if (dataVersionRepository.increment(scope, scopeId) == 0) {
+                    dataVersionRepository.save(DataVersion.builder()
+                            .scope(scope)
+                            .scopeId(scopeId)
+                            .dataVersion(1L)
+                            .build());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race to create the row; it exists now.
+            requiresNew.executeWithoutResult(status -> dataVersionRepository.increment(scope, scopeId));
+        }
+    }
+}
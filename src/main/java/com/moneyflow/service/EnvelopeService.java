@@ -0,0 +1,235 @@
+package com.moneyflow.service;
+
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.exception.BadRequestException;
+import com.moneyflow.exception.ResourceNotFoundException;
+import com.moneyflow.model.dto.budget.EnvelopeAllocationRequest;
+import com.moneyflow.model.dto.budget.EnvelopeResponse;
+import com.moneyflow.model.dto.budget.EnvelopeSummaryResponse;
+import com.moneyflow.model.entity.Account;
+import com.moneyflow.model.entity.Category;
+import com.moneyflow.model.entity.CategoryClosure;
+import com.moneyflow.model.entity.Envelope;
+import com.moneyflow.model.entity.EnvelopeMonth;
+import com.moneyflow.model.entity.User;
+import com.moneyflow.model.enums.CategoryType;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.AccountRepository;
+import com.moneyflow.repository.CategoryClosureRepository;
+import com.moneyflow.repository.CategoryRepository;
+import com.moneyflow.repository.EnvelopeMonthRepository;
+import com.moneyflow.repository.EnvelopeRepository;
+import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.repository.UserRepository;
+import com.moneyflow.security.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Envelope (zero-based) budgeting. Users assign money to expense-category envelopes;
+ * expenses in the category or its subcategories draw the envelope down, and whatever
+ * is left rolls over into the next month.
+ * <p>
+ * Balances are maintained incrementally: an allocation adds to the envelope's running
+ * balance and to its month row, and each expense write applies its delta to the
+ * covering envelope inside the writing transaction, so no balance is ever recomputed
+ * from the transaction history. The one exception is a new envelope, whose balance is
+ * seeded from its category's spending since its first month, once.
+ * <p>
+ * Ready-to-assign is the user's account balances minus everything still held in
+ * envelopes.
+ */
+@Service
+@RequiredArgsConstructor
+public class EnvelopeService {
+
+    private final EnvelopeRepository envelopeRepository;
+    private final EnvelopeMonthRepository monthRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository closureRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final CurrencyService currencyService;
+
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        Map<List<Object>, BigDecimal> deltas = new LinkedHashMap<>();
+        for (TransactionChangedEvent.Change change : event.getChanges()) {
+            collect(deltas, change.getBefore(), -1);
+            collect(deltas, change.getAfter(), 1);
+        }
+        deltas.forEach((key, spent) -> {
+            if (spent.signum() != 0) {
+                applySpend((Long) key.get(0), (Long) key.get(1), (YearMonth) key.get(2),
+                        currencyService.toBase(spent, (String) key.get(3)));
+            }
+        });
+    }
+
+    /** The caller's envelopes with their allocations and spending in the given month (default current). */
+    @Transactional(readOnly = true)
+    public EnvelopeSummaryResponse getEnvelopes(Integer month, Integer year) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        YearMonth period = period(month, year);
+        List<Envelope> envelopes = envelopeRepository.findByUserIdAndIsActiveTrueOrderByCategoryName(userId);
+        Map<Long, EnvelopeMonth> months = envelopes.isEmpty() ? Map.of()
+                : monthRepository.findByEnvelopeIdInAndMonthStart(
+                                envelopes.stream().map(Envelope::getId).toList(), period.atDay(1)).stream()
+                        .collect(Collectors.toMap(EnvelopeMonth::getEnvelopeId, Function.identity()));
+
+        BigDecimal held = envelopes.stream().map(Envelope::getBalance).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal cash = BigDecimal.ZERO;
+        for (Account account : accountRepository.findByUserIdAndIsActiveTrue(userId)) {
+            cash = cash.add(currencyService.toBase(account.getBalance(), account.getCurrency()));
+        }
+
+        return EnvelopeSummaryResponse.builder()
+                .month(period.getMonthValue())
+                .year(period.getYear())
+                .baseCurrency(currencyService.getBaseCurrency())
+                .readyToAssign(cash.subtract(held))
+                .envelopes(envelopes.stream()
+                        .map(e -> mapToResponse(e, months.get(e.getId())))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * Assigns money to the category's envelope in a month, creating the envelope on first
+     * use. A negative amount takes money back out, but never more than the envelope holds.
+     */
+    @Transactional
+    public EnvelopeResponse allocate(EnvelopeAllocationRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        YearMonth period = period(request.getMonth(), request.getYear());
+        Category category = categoryRepository.findByIdAndAvailableForUser(request.getCategoryId(), userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", request.getCategoryId()));
+        if (category.getType() != CategoryType.EXPENSE) {
+            throw new BadRequestException("Envelopes can only be created for expense categories");
+        }
+
+        Envelope envelope = envelopeRepository.findForUpdate(userId, category.getId())
+                .orElseGet(() -> createEnvelope(userId, category, period));
+        if (period.isBefore(YearMonth.from(envelope.getStartMonth()))) {
+            throw new BadRequestException("The envelope for " + category.getName() + " starts in "
+                    + YearMonth.from(envelope.getStartMonth()));
+        }
+        BigDecimal balance = envelope.getBalance().add(request.getAmount());
+        if (request.getAmount().signum() < 0 && balance.signum() < 0) {
+            throw new BadRequestException("Cannot take back more than the envelope holds");
+        }
+        envelope.setBalance(balance);
+        envelope = envelopeRepository.save(envelope);
+
+        EnvelopeMonth row = monthRow(envelope.getId(), period);
+        row.setAllocated(row.getAllocated().add(request.getAmount()));
+        row = monthRepository.save(row);
+        return mapToResponse(envelope, row);
+    }
+
+    /**
+     * New envelope starting in {@code period}, with the category subtree's spending from
+     * that month on already drawn from it. Envelopes do not nest, so spending is never
+     * drawn from two of them.
+     */
+    private Envelope createEnvelope(Long userId, Category category, YearMonth period) {
+        Set<Long> related = new HashSet<>();
+        closureRepository.findByDescendantIdOrderByDepth(category.getId())
+                .forEach(link -> related.add(link.getAncestorId()));
+        closureRepository.findByAncestorId(category.getId()).stream()
+                .map(CategoryClosure::getDescendantId)
+                .forEach(related::add);
+        if (!related.isEmpty() && envelopeRepository.existsByUserIdAndCategoryIdIn(userId, related)) {
+            throw new BadRequestException("A parent or subcategory of " + category.getName()
+                    + " already has an envelope");
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        Map<YearMonth, BigDecimal> spentByMonth = new TreeMap<>();
+        for (Object[] row : transactionRepository.sumByCategorySubtreeMonthlySince(
+                userId, category.getId(), TransactionType.EXPENSE, period.atDay(1))) {
+            spentByMonth.merge(YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()),
+                    currencyService.toBase((BigDecimal) row[3], (String) row[2]), BigDecimal::add);
+        }
+        BigDecimal spent = spentByMonth.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        Envelope envelope = envelopeRepository.save(Envelope.builder()
+                .user(user)
+                .category(category)
+                .startMonth(period.atDay(1))
+                .balance(spent.negate())
+                .build());
+        monthRepository.saveAll(spentByMonth.entrySet().stream()
+                .map(e -> EnvelopeMonth.builder()
+                        .envelopeId(envelope.getId())
+                        .monthStart(e.getKey().atDay(1))
+                        .spent(e.getValue())
+                        .build())
+                .toList());
+        return envelope;
+    }
+
+    private static void collect(Map<List<Object>, BigDecimal> deltas, TransactionSnapshot snapshot, int sign) {
+        if (snapshot == null || snapshot.getType() != TransactionType.EXPENSE || snapshot.getCategoryId() == null) {
+            return;
+        }
+        BigDecimal amount = sign > 0 ? snapshot.getAmount() : snapshot.getAmount().negate();
+        // Keyed by currency too; converted once per key when applied.
+        deltas.merge(List.of(snapshot.getUserId(), snapshot.getCategoryId(),
+                YearMonth.from(snapshot.getTransactionDate()), snapshot.getCurrency()), amount, BigDecimal::add);
+    }
+
+    private void applySpend(Long userId, Long categoryId, YearMonth month, BigDecimal amount) {
+        List<Envelope> covering = envelopeRepository.findCoveringForUpdate(userId, categoryId);
+        if (covering.isEmpty()) {
+            return;
+        }
+        Envelope envelope = covering.get(0);
+        if (month.isBefore(YearMonth.from(envelope.getStartMonth()))) {
+            return;
+        }
+        envelope.setBalance(envelope.getBalance().subtract(amount));
+        envelopeRepository.save(envelope);
+        EnvelopeMonth row = monthRow(envelope.getId(), month);
+        row.setSpent(row.getSpent().add(amount));
+        monthRepository.save(row);
+    }
+
+    private EnvelopeMonth monthRow(Long envelopeId, YearMonth month) {
+        return monthRepository.findForUpdate(envelopeId, month.atDay(1))
+                .orElseGet(() -> EnvelopeMonth.builder()
+                        .envelopeId(envelopeId)
+                        .monthStart(month.atDay(1))
+                        .build());
+    }
+
+    private static YearMonth period(Integer month, Integer year) {
+        YearMonth now = YearMonth.now();
+        return YearMonth.of(year != null ? year : now.getYear(), month != null ? month : now.getMonthValue());
+    }
+
+    private EnvelopeResponse mapToResponse(Envelope envelope, EnvelopeMonth month) {
+        Category category = envelope.getCategory();
+        return EnvelopeResponse.builder()
+                .categoryId(category.getId())
+                .categoryName(category.getName())
+                .categoryIcon(category.getIcon())
+                .categoryColor(category.getColor())
+                .startMonth(YearMonth.from(envelope.getStartMonth()))
+                .allocated(month != null ? month.getAllocated() : BigDecimal.ZERO)
+                .spent(month != null ? month.getSpent() : BigDecimal.ZERO)
+                .balance(envelope.getBalance())
+                .overspent(envelope.getBalance().signum() < 0)
+                .build();
+    }
+}
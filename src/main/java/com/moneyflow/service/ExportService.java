@@ -5,8 +5,11 @@ import com.lowagie.text.Font;
 import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
+import com.moneyflow.model.entity.Category;
+import com.moneyflow.model.entity.MonthlySnapshot;
 import com.moneyflow.model.entity.Transaction;
 import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.CategoryRepository;
 import com.moneyflow.repository.TransactionRepository;
 import com.moneyflow.security.SecurityUtils;
 import com.opencsv.CSVWriter;
@@ -20,14 +23,20 @@ import java.io.OutputStreamWriter;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ExportService {
 
     private final TransactionRepository transactionRepository;
+    private final CategoryRepository categoryRepository;
+    private final MonthlySnapshotService monthlySnapshotService;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
@@ -203,8 +212,10 @@ public class ExportService {
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.plusMonths(1).minusDays(1);
 
-        List<Transaction> transactions = transactionRepository
-                .findByUserIdAndTransactionDateBetweenAndIsActiveTrue(userId, startDate, endDate);
+        MonthTotals totals = monthlySnapshotService.findUserMonth(userId, YearMonth.of(year, month))
+                .map(this::totalsFromSnapshot)
+                .orElseGet(() -> totalsFromTransactions(transactionRepository
+                        .findByUserIdAndTransactionDateBetweenAndIsActiveTrue(userId, startDate, endDate)));
 
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
             Document document = new Document(PageSize.A4);
@@ -229,17 +240,8 @@ public class ExportService {
             monthYear.setSpacingAfter(30);
             document.add(monthYear);
 
-            // Calculate summaries
-            BigDecimal totalIncome = transactions.stream()
-                    .filter(t -> t.getType() == TransactionType.INCOME)
-                    .map(Transaction::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal totalExpense = transactions.stream()
-                    .filter(t -> t.getType() == TransactionType.EXPENSE)
-                    .map(Transaction::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
+            BigDecimal totalIncome = totals.income;
+            BigDecimal totalExpense = totals.expense;
             BigDecimal netFlow = totalIncome.subtract(totalExpense);
 
             // Summary table
@@ -258,7 +260,7 @@ public class ExportService {
                     new Font(Font.HELVETICA, 12, Font.BOLD,
                             netFlow.compareTo(BigDecimal.ZERO) >= 0
                                     ? new Color(39, 174, 96) : new Color(231, 76, 60)));
-            addSummaryRow(summaryTable, "Total Transactions:", String.valueOf(transactions.size()),
+            addSummaryRow(summaryTable, "Total Transactions:", String.valueOf(totals.count),
                     labelFont, valueFont);
 
             document.add(summaryTable);
@@ -279,19 +281,9 @@ public class ExportService {
             Font headerFont = new Font(Font.HELVETICA, 10, Font.BOLD, Color.WHITE);
             addCategoryHeader(categoryTable, headerFont);
 
-            // Group by category
-            transactions.stream()
-                    .filter(t -> t.getType() == TransactionType.EXPENSE)
-                    .collect(java.util.stream.Collectors.groupingBy(
-                            t -> t.getCategory().getName(),
-                            java.util.stream.Collectors.toList()))
-                    .forEach((categoryName, categoryTransactions) -> {
-                        BigDecimal categoryTotal = categoryTransactions.stream()
-                                .map(Transaction::getAmount)
-                                .reduce(BigDecimal.ZERO, BigDecimal::add);
-                        int count = categoryTransactions.size();
-                        addCategoryRow(categoryTable, categoryName, categoryTotal, count);
-                    });
+            totals.expenseByCategory.forEach((categoryName, categoryTotal) ->
+                    addCategoryRow(categoryTable, categoryName, categoryTotal,
+                            totals.expenseCountByCategory.get(categoryName).intValue()));
 
             document.add(categoryTable);
 
@@ -303,6 +295,48 @@ public class ExportService {
         }
     }
 
+    /** Totals the monthly report renders, in each account's own currency as before. */
+    private static class MonthTotals {
+        private BigDecimal income = BigDecimal.ZERO;
+        private BigDecimal expense = BigDecimal.ZERO;
+        private long count;
+        private final Map<String, BigDecimal> expenseByCategory = new HashMap<>();
+        private final Map<String, Long> expenseCountByCategory = new HashMap<>();
+
+        private void add(TransactionType type, String categoryName, BigDecimal amount, long transactions) {
+            count += transactions;
+            if (type == TransactionType.INCOME) {
+                income = income.add(amount);
+            } else if (type == TransactionType.EXPENSE) {
+                expense = expense.add(amount);
+                expenseByCategory.merge(categoryName, amount, BigDecimal::add);
+                expenseCountByCategory.merge(categoryName, transactions, Long::sum);
+            }
+        }
+    }
+
+    private MonthTotals totalsFromTransactions(List<Transaction> transactions) {
+        MonthTotals totals = new MonthTotals();
+        for (Transaction t : transactions) {
+            totals.add(t.getType(), t.getCategory().getName(), t.getAmount(), 1);
+        }
+        return totals;
+    }
+
+    /** Closed, unedited months come from the nightly snapshot instead of every transaction row. */
+    private MonthTotals totalsFromSnapshot(List<MonthlySnapshot> rows) {
+        Map<Long, String> categoryNames = categoryRepository.findAllById(
+                        rows.stream().map(MonthlySnapshot::getCategoryId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+        MonthTotals totals = new MonthTotals();
+        for (MonthlySnapshot row : rows) {
+            totals.add(row.getType(), categoryNames.get(row.getCategoryId()), row.getAmount(),
+                    row.getTransactionCount());
+        }
+        return totals;
+    }
+
     private PdfPCell createCell(String content, Font font) {
         PdfPCell cell = new PdfPCell(new Phrase(content, font));
         cell.setPadding(5);
@@ -0,0 +1,104 @@
+package com.moneyflow.service;
+
+import com.moneyflow.model.dto.home.HomeResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Composite launch-screen payload. The six sections are independent, so they are
+ * fetched concurrently on the bounded {@code homeExecutor}; the response time is
+ * roughly that of the slowest section rather than the sum of all of them.
+ * <p>
+ * Deliberately not {@code @Transactional}: each section calls a read-only service
+ * method through its Spring proxy on a worker thread, so every section runs in its
+ * own short read-only transaction.
+ */
+@Slf4j
+@Service
+public class HomeService {
+
+    static final String SECTION_UNAVAILABLE = "Section unavailable";
+
+    private final AccountService accountService;
+    private final DashboardService dashboardService;
+    private final BudgetService budgetService;
+    private final SavingsGoalService savingsGoalService;
+    private final RecurringTransactionService recurringTransactionService;
+    private final Executor homeExecutor;
+
+    @Value("${moneyflow.home.section-timeout-ms:5000}")
+    private long sectionTimeoutMillis = 5000;
+
+    public HomeService(AccountService accountService,
+                       DashboardService dashboardService,
+                       BudgetService budgetService,
+                       SavingsGoalService savingsGoalService,
+                       RecurringTransactionService recurringTransactionService,
+                       @Qualifier("homeExecutor") Executor homeExecutor) {
+        this.accountService = accountService;
+        this.dashboardService = dashboardService;
+        this.budgetService = budgetService;
+        this.savingsGoalService = savingsGoalService;
+        this.recurringTransactionService = recurringTransactionService;
+        this.homeExecutor = homeExecutor;
+    }
+
+    /**
+     * @param startDate dashboard period start; defaults to the first day of the current month
+     * @param endDate   dashboard period end; defaults to the last day of the current month
+     */
+    public HomeResponse getHome(LocalDate startDate, LocalDate endDate) {
+        long started = System.nanoTime();
+        LocalDate start = startDate != null ? startDate : LocalDate.now().withDayOfMonth(1);
+        LocalDate end = endDate != null ? endDate : start.plusMonths(1).minusDays(1);
+
+        var accounts = section("accounts", accountService::getAllAccounts);
+        var balanceSummary = section("balanceSummary", accountService::getBalanceSummary);
+        var dashboard = section("dashboard", () -> dashboardService.getDashboardSummary(start, end));
+        var triggeredBudgets = section("triggeredBudgets", budgetService::getTriggeredBudgets);
+        var savingsGoals = section("savingsGoals", savingsGoalService::getGoals);
+        var activeRecurring = section("activeRecurring", recurringTransactionService::getActiveRecurringTransactions);
+
+        return HomeResponse.builder()
+                .startDate(start)
+                .endDate(end)
+                .accounts(accounts.join())
+                .balanceSummary(balanceSummary.join())
+                .dashboard(dashboard.join())
+                .triggeredBudgets(triggeredBudgets.join())
+                .savingsGoals(savingsGoals.join())
+                .activeRecurring(activeRecurring.join())
+                .totalMillis(millisSince(started))
+                .build();
+    }
+
+    private <T> CompletableFuture<HomeResponse.Section<T>> section(String name, Supplier<T> call) {
+        long submitted = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        return HomeResponse.Section.ok(call.get(), millisSince(start));
+                    } catch (RuntimeException e) {
+                        // The detail may name internals (SQL, exception classes); it stays in the log.
+                        log.warn("Home section '{}' failed", name, e);
+                        return HomeResponse.Section.<T>failed(SECTION_UNAVAILABLE, millisSince(start));
+                    }
+                }, homeExecutor)
+                .completeOnTimeout(null, sectionTimeoutMillis, TimeUnit.MILLISECONDS)
+                .thenApply(result -> result != null
+                        ? result
+                        : HomeResponse.Section.<T>failed("Timed out", millisSince(submitted)));
+    }
+
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
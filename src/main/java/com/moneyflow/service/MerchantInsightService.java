@@ -0,0 +1,147 @@
+package com.moneyflow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneyflow.analytics.PeriodAggregate;
+import com.moneyflow.analytics.SpaceSavingSummary;
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.model.dto.dashboard.DashboardSummary;
+import com.moneyflow.model.entity.MerchantSummary;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.MerchantSummaryRepository;
+import com.moneyflow.repository.RollupUpsertRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * "Top merchants" insight: most frequent and highest-spend payees per user, from
+ * Space-Saving summaries of normalized expense descriptions kept per (user, month).
+ * Summaries are updated when an expense is created and merged for multi-month
+ * ranges, so no query ever groups by free-text description. Counts and amounts are
+ * upper bounds; entries with a non-zero error are flagged as approximate.
+ */
+@Service
+@RequiredArgsConstructor
+public class MerchantInsightService {
+
+    private final MerchantSummaryRepository merchantSummaryRepository;
+    private final RollupUpsertRepository upsertRepository;
+    private final CurrencyService currencyService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${moneyflow.insights.merchant-capacity:50}")
+    private int capacity = 50;
+
+    /** Stored JSON shape of a month's summaries. */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Payload {
+        private SpaceSavingSummary byCount;
+        private SpaceSavingSummary bySpend;
+    }
+
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        for (TransactionChangedEvent.Change change : event.getChanges()) {
+            TransactionSnapshot after = change.getAfter();
+            if (change.getBefore() == null && after != null && after.getType() == TransactionType.EXPENSE) {
+                String merchant = normalize(after.getDescription());
+                if (!merchant.isEmpty()) {
+                    record(after, merchant);
+                }
+            }
+        }
+    }
+
+    /**
+     * Top merchants for the user over every month overlapping the range (month
+     * granularity: partial months count whole).
+     */
+    @Transactional(readOnly = true)
+    public DashboardSummary.TopMerchants topMerchants(Long userId, LocalDate startDate, LocalDate endDate, int limit) {
+        Payload merged = new Payload(new SpaceSavingSummary(capacity), new SpaceSavingSummary(capacity));
+        for (MerchantSummary summary : merchantSummaryRepository.findByUserIdAndMonthStartBetween(
+                userId, startDate.withDayOfMonth(1), endDate.withDayOfMonth(1))) {
+            Payload month = read(summary.getPayload());
+            merged = new Payload(merged.byCount.merge(month.byCount), merged.bySpend.merge(month.bySpend));
+        }
+        return DashboardSummary.TopMerchants.builder()
+                .mostFrequent(merged.byCount.top(limit).stream()
+                        .map(c -> DashboardSummary.MerchantStat.builder()
+                                .name(c.getKey())
+                                .transactionCount(c.getWeight())
+                                .approximate(c.getError() > 0)
+                                .build())
+                        .collect(Collectors.toList()))
+                .highestSpend(merged.bySpend.top(limit).stream()
+                        .map(c -> DashboardSummary.MerchantStat.builder()
+                                .name(c.getKey())
+                                .amount(PeriodAggregate.fromUnits(c.getWeight()))
+                                .approximate(c.getError() > 0)
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    /** Lower-cases, drops digits/punctuation (card refs, store numbers) and collapses spaces. */
+    static String normalize(String description) {
+        if (description == null) {
+            return "";
+        }
+        String normalized = description.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\s]", " ")
+                .replaceAll("\\s+", " ")
+                .trim();
+        return normalized.length() > 64 ? normalized.substring(0, 64).trim() : normalized;
+    }
+
+    /**
+     * Offers the expense to its month's summaries. The month's row is created empty by an
+     * upsert before it is locked, so the first expenses of a month queue up on one row
+     * instead of each inserting it.
+     */
+    private void record(TransactionSnapshot after, String merchant) {
+        LocalDate monthStart = after.getTransactionDate().withDayOfMonth(1);
+        upsertRepository.insertMerchantSummaryIfAbsent(after.getUserId(), monthStart,
+                write(new Payload(new SpaceSavingSummary(capacity), new SpaceSavingSummary(capacity))));
+        MerchantSummary summary = merchantSummaryRepository.findForUpdate(after.getUserId(), monthStart)
+                .orElseThrow(() -> new IllegalStateException("Merchant summary missing after upsert"));
+        Payload payload = read(summary.getPayload());
+        payload.byCount.offer(merchant, 1);
+        payload.bySpend.offer(merchant,
+                PeriodAggregate.toUnits(currencyService.toBase(after.getAmount(), after.getCurrency())));
+        summary.setPayload(write(payload));
+        merchantSummaryRepository.save(summary);
+    }
+
+    private Payload read(String json) {
+        try {
+            return objectMapper.readValue(json, Payload.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt merchant summary", e);
+        }
+    }
+
+    private String write(Payload payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize merchant summary", e);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.moneyflow.service;
+
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.model.entity.MonthlySnapshot;
+import com.moneyflow.model.entity.SnapshotDirtyMonth;
+import com.moneyflow.model.entity.SnapshotState;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.MonthlySnapshotRepository;
+import com.moneyflow.repository.RollupUpsertRepository;
+import com.moneyflow.repository.SnapshotDirtyMonthRepository;
+import com.moneyflow.repository.SnapshotStateRepository;
+import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.scheduler.SchedulerLeases;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Per-month transaction aggregates for long-range reports, so multi-year views read a
+ * few rows per month instead of every transaction from the primary tables.
+ * <p>
+ * The nightly job snapshots every closed month up to the end of last month and
+ * records that cutoff in {@code snapshot_state}. Writes that touch a closed month mark
+ * its (user, account, month) dirty; readers serve dirty months and everything after
+ * the cutoff live, and the next run rebuilds the dirty months.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MonthlySnapshotService {
+
+    static final String STATE_NAME = "monthly";
+
+    private final MonthlySnapshotRepository snapshotRepository;
+    private final SnapshotDirtyMonthRepository dirtyMonthRepository;
+    private final RollupUpsertRepository upsertRepository;
+    private final SnapshotStateRepository stateRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /** One aggregated (user, account, category, type, month) row, from a snapshot or a live query. */
+    @Value
+    public static class MonthlyAmount {
+        Long userId;
+        Long accountId;
+        Long categoryId;
+        TransactionType type;
+        YearMonth month;
+        BigDecimal amount;
+        long transactionCount;
+    }
+
+    /**
+     * Builds months newly closed since the last run (one transaction per month, with the
+     * cutoff advanced after each so an interrupted run resumes where it stopped), then
+     * rebuilds closed months edited since they were built.
+     */
+    public void refresh() {
+        LocalDateTime started = LocalDateTime.now();
+        YearMonth lastClosed = YearMonth.now().minusMonths(1);
+
+        LocalDate coveredUntil = stateRepository.findByName(STATE_NAME)
+                .map(SnapshotState::getCoveredUntil)
+                .orElse(null);
+        LocalDate from = coveredUntil != null
+                ? coveredUntil.plusDays(1)
+                : transactionRepository.findEarliestTransactionDate();
+
+        int months = 0;
+        if (from != null) {
+            for (YearMonth month = YearMonth.from(from); !month.isAfter(lastClosed); month = month.plusMonths(1)) {
+                SchedulerLeases.checkHeld();
+                YearMonth current = month;
+                transactionTemplate.executeWithoutResult(status -> {
+                    snapshotRepository.deleteMonth(current.atDay(1));
+                    saveGrouped(transactionRepository.sumMonthlyGrouped(current.atDay(1), current.atEndOfMonth()));
+                    advanceCutoff(current.atEndOfMonth(), started);
+                });
+                months++;
+            }
+        }
+        if (months == 0) {
+            transactionTemplate.executeWithoutResult(status -> advanceCutoff(lastClosed.atEndOfMonth(), started));
+        }
+
+        int rebuilt = 0;
+        for (SnapshotDirtyMonth dirty : dirtyMonthRepository.findAll()) {
+            if (YearMonth.from(dirty.getMonthStart()).isAfter(lastClosed)) {
+                continue;
+            }
+            SchedulerLeases.checkHeld();
+            transactionTemplate.executeWithoutResult(status -> {
+                snapshotRepository.deleteMonth(dirty.getUserId(), dirty.getAccountId(), dirty.getMonthStart());
+                saveGrouped(transactionRepository.sumMonthlyGroupedForUserAccount(
+                        dirty.getUserId(), dirty.getAccountId(),
+                        dirty.getMonthStart(), YearMonth.from(dirty.getMonthStart()).atEndOfMonth()));
+                dirtyMonthRepository.deleteIfUnchanged(dirty.getId(), dirty.getMarkedAt());
+            });
+            rebuilt++;
+        }
+        log.info("Monthly snapshot refresh: {} month(s) built, {} dirty (account, month) pair(s) rebuilt, covered until {}",
+                months, rebuilt, lastClosed.atEndOfMonth());
+    }
+
+    /**
+     * Marks closed months touched by a write as dirty, inside the writing transaction so
+     * the mark commits (or rolls back) with the change itself.
+     */
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+        Set<List<Object>> marked = new HashSet<>();
+        for (TransactionChangedEvent.Change change : event.getChanges()) {
+            for (TransactionSnapshot snapshot : Arrays.asList(change.getBefore(), change.getAfter())) {
+                if (snapshot == null || !snapshot.getTransactionDate().isBefore(currentMonth)) {
+                    continue;
+                }
+                LocalDate monthStart = snapshot.getTransactionDate().withDayOfMonth(1);
+                if (marked.add(List.of(snapshot.getUserId(), snapshot.getAccountId(), monthStart))) {
+                    markDirty(snapshot.getUserId(), snapshot.getAccountId(), monthStart);
+                }
+            }
+        }
+    }
+
+    /** Cutoff of the snapshot, or null before the first run. */
+    @Transactional(readOnly = true)
+    public LocalDate getCoveredUntil() {
+        return stateRepository.findByName(STATE_NAME).map(SnapshotState::getCoveredUntil).orElse(null);
+    }
+
+    /**
+     * Monthly aggregates of the accounts between {@code from} and {@code to} inclusive:
+     * snapshot rows up to the cutoff except dirty months, which are read live along with
+     * the tail after the cutoff.
+     */
+    @Transactional(readOnly = true)
+    public List<MonthlyAmount> monthlyTotalsForAccounts(Collection<Long> accountIds, YearMonth from, YearMonth to) {
+        if (accountIds.isEmpty()) {
+            return List.of();
+        }
+        List<MonthlyAmount> result = new ArrayList<>();
+        LocalDate coveredUntil = getCoveredUntil();
+        LocalDate liveFrom = from.atDay(1);
+
+        if (coveredUntil != null && !liveFrom.isAfter(coveredUntil)) {
+            LocalDate snapshotTo = to.atEndOfMonth().isBefore(coveredUntil) ? to.atEndOfMonth() : coveredUntil;
+            List<SnapshotDirtyMonth> dirty = dirtyMonthRepository
+                    .findByAccountIdInAndMonthStartBetween(accountIds, liveFrom, snapshotTo);
+            Set<List<Object>> dirtyKeys = dirty.stream()
+                    .map(d -> List.<Object>of(d.getUserId(), d.getAccountId(), d.getMonthStart()))
+                    .collect(Collectors.toSet());
+
+            for (MonthlySnapshot row : snapshotRepository.findByAccountIdInAndMonthStartBetween(
+                    accountIds, liveFrom, snapshotTo)) {
+                if (!dirtyKeys.contains(List.of(row.getUserId(), row.getAccountId(), row.getMonthStart()))) {
+                    result.add(new MonthlyAmount(row.getUserId(), row.getAccountId(), row.getCategoryId(),
+                            row.getType(), YearMonth.from(row.getMonthStart()), row.getAmount(),
+                            row.getTransactionCount()));
+                }
+            }
+            for (SnapshotDirtyMonth d : dirty) {
+                result.addAll(toAmounts(transactionRepository.sumMonthlyGroupedForUserAccount(
+                        d.getUserId(), d.getAccountId(), d.getMonthStart(),
+                        YearMonth.from(d.getMonthStart()).atEndOfMonth())));
+            }
+            liveFrom = coveredUntil.plusDays(1);
+        }
+        if (!liveFrom.isAfter(to.atEndOfMonth())) {
+            result.addAll(toAmounts(transactionRepository.sumMonthlyGroupedForAccounts(
+                    accountIds, liveFrom, to.atEndOfMonth())));
+        }
+        return result;
+    }
+
+    /**
+     * Snapshot rows of one user's own transactions for a month, or empty when the month
+     * is not covered yet or has been edited since it was built.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<MonthlySnapshot>> findUserMonth(Long userId, YearMonth month) {
+        LocalDate coveredUntil = getCoveredUntil();
+        if (coveredUntil == null || month.atEndOfMonth().isAfter(coveredUntil)
+                || dirtyMonthRepository.existsByUserIdAndMonthStart(userId, month.atDay(1))) {
+            return Optional.empty();
+        }
+        return Optional.of(snapshotRepository.findByUserIdAndMonthStart(userId, month.atDay(1)));
+    }
+
+    private void markDirty(Long userId, Long accountId, LocalDate monthStart) {
+        upsertRepository.markDirty(userId, accountId, monthStart, LocalDateTime.now());
+    }
+
+    private void advanceCutoff(LocalDate coveredUntil, LocalDateTime runAt) {
+        SnapshotState state = stateRepository.findByName(STATE_NAME)
+                .orElseGet(() -> SnapshotState.builder().name(STATE_NAME).build());
+        state.setCoveredUntil(coveredUntil);
+        state.setLastRunAt(runAt);
+        stateRepository.save(state);
+    }
+
+    private void saveGrouped(List<Object[]> rows) {
+        snapshotRepository.saveAll(toAmounts(rows).stream()
+                .map(a -> MonthlySnapshot.builder()
+                        .userId(a.getUserId())
+                        .accountId(a.getAccountId())
+                        .categoryId(a.getCategoryId())
+                        .type(a.getType())
+                        .monthStart(a.getMonth().atDay(1))
+                        .amount(a.getAmount())
+                        .transactionCount(a.getTransactionCount())
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
+    private static List<MonthlyAmount> toAmounts(List<Object[]> rows) {
+        List<MonthlyAmount> amounts = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            amounts.add(new MonthlyAmount(
+                    (Long) row[0], (Long) row[1], (Long) row[2], (TransactionType) row[3],
+                    YearMonth.of(((Number) row[4]).intValue(), ((Number) row[5]).intValue()),
+                    (BigDecimal) row[6], ((Number) row[7]).longValue()));
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,196 @@
+package com.moneyflow.service;
+
+import com.moneyflow.model.entity.JobCheckpoint;
+import com.moneyflow.model.enums.JobRunStatus;
+import com.moneyflow.repository.JobCheckpointRepository;
+import com.moneyflow.repository.RecurringTransactionRepository;
+import com.moneyflow.scheduler.SchedulerLeases;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * The scheduled recurring transaction run. Due rules are read in keyset-paged chunks
+ * ({@code moneyflow.recurring.chunk-size}); each chunk is split by user and the groups
+ * are backfilled in parallel on the {@code recurringExecutor} pool, each group in its
+ * own transaction. A rule's account belongs to its user, so balance updates of one
+ * account never run concurrently, nor do the per-user rollups they feed. A group that
+ * fails is retried rule by rule so one bad rule does not hold back the others.
+ * <p>
+ * Fairness: a pass takes at most {@code moneyflow.recurring.per-user-quota} rules per
+ * user; a user's remaining rules wait for the next pass, which rescans from the start
+ * once the others have had their turn. Rules processed once in a run are not picked up
+ * again by later passes.
+ * <p>
+ * Progress is saved to {@code job_checkpoints} after every chunk; a run interrupted on
+ * the same day resumes from the last checkpoint.
+ * <p>
+ * A run can be limited to one shard of the users ({@code userId % shardCount}); each
+ * shard has its own checkpoint, so shards can be run by different nodes.
+ */
+@Slf4j
+@Service
+public class RecurringBatchProcessor {
+
+    static final String JOB_NAME = "recurring_transactions";
+
+    private final RecurringTransactionRepository recurringTransactionRepository;
+    private final RecurringTransactionService recurringTransactionService;
+    private final JobCheckpointRepository checkpointRepository;
+    private final Executor executor;
+
+    @Value("${moneyflow.recurring.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${moneyflow.recurring.per-user-quota:200}")
+    private int perUserQuota = 200;
+
+    public RecurringBatchProcessor(RecurringTransactionRepository recurringTransactionRepository,
+                                   RecurringTransactionService recurringTransactionService,
+                                   JobCheckpointRepository checkpointRepository,
+                                   @Qualifier("recurringExecutor") Executor executor) {
+        this.recurringTransactionRepository = recurringTransactionRepository;
+        this.recurringTransactionService = recurringTransactionService;
+        this.checkpointRepository = checkpointRepository;
+        this.executor = executor;
+    }
+
+    private record GroupResult(int generated, int failed) {
+    }
+
+    /** Checkpoint (and lease) name of a shard's runs. */
+    public static String jobName(int shard, int shardCount) {
+        return shardCount == 1 ? JOB_NAME : JOB_NAME + "#" + shard + "/" + shardCount;
+    }
+
+    /** Backfills every rule due today; returns the number of transactions generated in this run. */
+    public long processDue() {
+        return processDue(LocalDate.now(), 0, 1);
+    }
+
+    long processDue(LocalDate today) {
+        return processDue(today, 0, 1);
+    }
+
+    /** Backfills the rules of one shard's users due on or before {@code today}, posting up to that date. */
+    public long processDue(LocalDate today, int shard, int shardCount) {
+        JobCheckpoint checkpoint = start(jobName(shard, shardCount), today);
+        long generatedBefore = checkpoint.getGeneratedCount();
+        Set<Long> seen = new HashSet<>();
+        boolean deferred;
+        do {
+            deferred = false;
+            Map<Long, Integer> perUser = new HashMap<>();
+            List<Object[]> page;
+            while (!(page = recurringTransactionRepository.findDueKeysAfter(
+                    today, shard, shardCount, checkpoint.getLastId(), PageRequest.of(0, chunkSize))).isEmpty()) {
+                SchedulerLeases.checkHeld();
+                Map<Long, List<Long>> byUser = new LinkedHashMap<>();
+                for (Object[] row : page) {
+                    Long id = (Long) row[0];
+                    Long userId = (Long) row[1];
+                    if (seen.contains(id)) {
+                        continue;
+                    }
+                    if (perUser.merge(userId, 1, Integer::sum) > perUserQuota) {
+                        deferred = true;
+                        continue;
+                    }
+                    seen.add(id);
+                    byUser.computeIfAbsent(userId, k -> new ArrayList<>()).add(id);
+                }
+                GroupResult result = runChunk(byUser.values(), today);
+                checkpoint.setLastId((Long) page.get(page.size() - 1)[0]);
+                checkpoint.setProcessedCount(checkpoint.getProcessedCount()
+                        + byUser.values().stream().mapToInt(List::size).sum());
+                checkpoint.setGeneratedCount(checkpoint.getGeneratedCount() + result.generated());
+                checkpoint.setFailedCount(checkpoint.getFailedCount() + result.failed());
+                checkpoint = checkpointRepository.save(checkpoint);
+                log.info("{} pass {} up to id {}: {} rule(s), {} generated, {} failed so far",
+                        checkpoint.getJobName(), checkpoint.getPassNumber(), checkpoint.getLastId(), checkpoint.getProcessedCount(),
+                        checkpoint.getGeneratedCount(), checkpoint.getFailedCount());
+            }
+            if (deferred) {
+                checkpoint.setPassNumber(checkpoint.getPassNumber() + 1);
+                checkpoint.setLastId(0L);
+                checkpoint = checkpointRepository.save(checkpoint);
+            }
+        } while (deferred);
+
+        checkpoint.setStatus(JobRunStatus.COMPLETED);
+        checkpoint.setFinishedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+        return checkpoint.getGeneratedCount() - generatedBefore;
+    }
+
+    /**
+     * Backfills the given rules, by user, on the worker pool outside any checkpointed run;
+     * returns the number of transactions generated.
+     */
+    public long processRules(Collection<List<Long>> idsByUser, LocalDate today) {
+        GroupResult result = runChunk(idsByUser, today);
+        return result.generated();
+    }
+
+    /** Resumes today's interrupted run, or starts a new one. */
+    private JobCheckpoint start(String jobName, LocalDate today) {
+        JobCheckpoint checkpoint = checkpointRepository.findByJobName(jobName)
+                .orElseGet(() -> JobCheckpoint.builder().jobName(jobName).build());
+        if (checkpoint.getStatus() == JobRunStatus.RUNNING && today.equals(checkpoint.getRunDate())) {
+            log.info("Resuming {} run of {} at pass {} after id {}",
+                    jobName, today, checkpoint.getPassNumber(), checkpoint.getLastId());
+            return checkpoint;
+        }
+        checkpoint.setRunDate(today);
+        checkpoint.setStatus(JobRunStatus.RUNNING);
+        checkpoint.setPassNumber(1);
+        checkpoint.setLastId(0L);
+        checkpoint.setProcessedCount(0L);
+        checkpoint.setGeneratedCount(0L);
+        checkpoint.setFailedCount(0L);
+        checkpoint.setStartedAt(LocalDateTime.now());
+        checkpoint.setFinishedAt(null);
+        return checkpointRepository.save(checkpoint);
+    }
+
+    private GroupResult runChunk(Collection<List<Long>> groups, LocalDate today) {
+        List<CompletableFuture<GroupResult>> futures = groups.stream()
+                .map(ids -> CompletableFuture.supplyAsync(() -> runGroup(ids, today), executor))
+                .toList();
+        int generated = 0;
+        int failed = 0;
+        for (CompletableFuture<GroupResult> future : futures) {
+            GroupResult result = future.join();
+            generated += result.generated();
+            failed += result.failed();
+        }
+        return new GroupResult(generated, failed);
+    }
+
+    private GroupResult runGroup(List<Long> ids, LocalDate today) {
+        try {
+            return new GroupResult(recurringTransactionService.processDue(ids, today), 0);
+        } catch (RuntimeException e) {
+            if (ids.size() == 1) {
+                log.error("Failed to process recurring transaction {}: {}", ids.get(0), e.getMessage());
+                return new GroupResult(0, 1);
+            }
+        }
+        int generated = 0;
+        int failed = 0;
+        for (Long id : ids) {
+            GroupResult result = runGroup(List.of(id), today);
+            generated += result.generated();
+            failed += result.failed();
+        }
+        return new GroupResult(generated, failed);
+    }
+}
@@ -0,0 +1,202 @@
+package com.moneyflow.service;
+
+import com.moneyflow.model.entity.RecurringTransaction;
+import com.moneyflow.repository.RecurringTransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * In-memory priority queue of the instants at which recurring transactions next fall
+ * due, so rules are posted through the day close to when they are due instead of all
+ * at once by the daily job. A rule due on a date fires at the start of that day (in
+ * {@code moneyflow.recurring.zone}) plus a fixed per-rule offset below
+ * {@code moneyflow.recurring.queue.spread-minutes}, which spreads the load; an overdue
+ * rule fires on the next tick.
+ * <p>
+ * Only rules due within {@code horizon-days} are held, which bounds memory; the queue is
+ * loaded from {@code recurring_transactions} at startup and reloaded periodically and
+ * after the daily sweep, which also picks up rules changed on other nodes. Changes made
+ * here (create, update, pause, resume, delete, execution) are applied after commit.
+ * Entries are replaced lazily: a rule's queued instant only counts while it is the one
+ * recorded for the rule.
+ * <p>
+ * In sharded mode each node's queue holds only its shard of the users
+ * ({@code userId % shardCount}, see {@link #reload(int, int)}), so a rule is queued on
+ * one node and posted once.
+ */
+@Slf4j
+@Service
+public class RecurringDueQueue {
+
+    /** A rule's next firing. */
+    public record Entry(long fireAt, Long ruleId, Long userId, LocalDate dueDate) {
+    }
+
+    private final RecurringTransactionRepository recurringTransactionRepository;
+    private final Clock clock;
+
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>(
+            Comparator.comparingLong(Entry::fireAt).thenComparing(Entry::ruleId));
+    private final Map<Long, Entry> current = new HashMap<>();
+    private int shard = 0;
+    private int shardCount = 1;
+
+    @Value("${moneyflow.recurring.queue.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${moneyflow.recurring.queue.horizon-days:2}")
+    private int horizonDays = 2;
+
+    @Value("${moneyflow.recurring.queue.spread-minutes:720}")
+    private int spreadMinutes = 720;
+
+    @Value("${moneyflow.recurring.zone:UTC}")
+    private String zone = "UTC";
+
+    @Autowired
+    public RecurringDueQueue(RecurringTransactionRepository recurringTransactionRepository) {
+        this(recurringTransactionRepository, Clock.systemUTC());
+    }
+
+    RecurringDueQueue(RecurringTransactionRepository recurringTransactionRepository, Clock clock) {
+        this.recurringTransactionRepository = recurringTransactionRepository;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Queues the rule at its next execution date, or drops it if it is no longer due soon. */
+    public void schedule(RecurringTransaction recurring) {
+        if (!enabled) {
+            return;
+        }
+        Long ruleId = recurring.getId();
+        Long userId = recurring.getUser().getId();
+        LocalDate next = recurring.getNextExecutionDate();
+        boolean due = Boolean.TRUE.equals(recurring.getIsActive()) && !Boolean.TRUE.equals(recurring.getIsPaused())
+                && (recurring.getEndDate() == null || !next.isAfter(recurring.getEndDate()));
+        afterCommit(() -> {
+            if (due) {
+                put(ruleId, userId, next);
+            } else {
+                remove(ruleId);
+            }
+        });
+    }
+
+    /** Takes out every rule whose instant has come. */
+    public synchronized List<Entry> pollDue() {
+        long now = clock.millis();
+        List<Entry> due = new ArrayList<>();
+        while (!heap.isEmpty() && heap.peek().fireAt() <= now) {
+            Entry entry = heap.poll();
+            if (current.get(entry.ruleId()) == entry) {
+                current.remove(entry.ruleId());
+                due.add(entry);
+            }
+        }
+        return due;
+    }
+
+    /** Reloads the queue for the shard it currently holds. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        int heldShard;
+        int heldCount;
+        synchronized (this) {
+            heldShard = shard;
+            heldCount = shardCount;
+        }
+        reload(heldShard, heldCount);
+    }
+
+    /**
+     * Replaces the queue with the rules of the shard's users due within the horizon
+     * according to the database; later changes to other users' rules are ignored. A
+     * change committed while the query runs may be overwritten by its older state; the
+     * worst case is a rule firing when no longer due (posting re-checks) or waiting for
+     * the next reload.
+     */
+    public void reload(int shard, int shardCount) {
+        if (!enabled) {
+            return;
+        }
+        List<Object[]> rows = recurringTransactionRepository.findDueKeysThrough(
+                today().plusDays(horizonDays), shard, shardCount);
+        synchronized (this) {
+            this.shard = shard;
+            this.shardCount = shardCount;
+            heap.clear();
+            current.clear();
+            for (Object[] row : rows) {
+                put((Long) row[0], (Long) row[1], (LocalDate) row[2]);
+            }
+        }
+        log.debug("Recurring due queue loaded with {} rule(s) of shard {}/{}", rows.size(), shard, shardCount);
+    }
+
+    /** Whether the queue holds exactly the given shard of the users. */
+    public synchronized boolean holdsShard(int shard, int shardCount) {
+        return this.shard == shard && this.shardCount == shardCount;
+    }
+
+    public synchronized int size() {
+        return current.size();
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(clock.withZone(ZoneId.of(zone)));
+    }
+
+    private synchronized void put(Long ruleId, Long userId, LocalDate dueDate) {
+        if (dueDate.isAfter(today().plusDays(horizonDays)) || Math.floorMod(userId, shardCount) != shard) {
+            current.remove(ruleId);
+            return;
+        }
+        Entry entry = new Entry(fireAt(ruleId, dueDate), ruleId, userId, dueDate);
+        current.put(ruleId, entry);
+        heap.add(entry);
+        // Superseded entries stay in the heap until polled; rebuild once they dominate.
+        if (heap.size() > 2 * current.size() + 1024) {
+            heap.clear();
+            heap.addAll(current.values());
+        }
+    }
+
+    private synchronized void remove(Long ruleId) {
+        current.remove(ruleId);
+    }
+
+    private long fireAt(Long ruleId, LocalDate dueDate) {
+        long offsetMinutes = spreadMinutes > 0
+                ? Math.floorMod(Long.hashCode(ruleId * 0x9E3779B97F4A7C15L), spreadMinutes)
+                : 0;
+        return dueDate.atStartOfDay(ZoneId.of(zone)).plusMinutes(offsetMinutes).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,25 +1,36 @@
 package com.moneyflow.service;
 
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
 import com.moneyflow.exception.BadRequestException;
 import com.moneyflow.exception.ResourceNotFoundException;
 import com.moneyflow.model.dto.recurring.CreateRecurringTransactionRequest;
+import com.moneyflow.model.dto.recurring.RecurringOccurrenceResponse;
 import com.moneyflow.model.dto.recurring.RecurringTransactionResponse;
 import com.moneyflow.model.dto.recurring.UpdateRecurringTransactionRequest;
 import com.moneyflow.model.entity.*;
 import com.moneyflow.model.enums.AccountType;
 import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.notification.LiveUpdateHub;
+import com.moneyflow.recurrence.RecurrenceRule;
 import com.moneyflow.repository.*;
 import com.moneyflow.security.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -28,11 +39,13 @@ import java.util.stream.Collectors;
 public class RecurringTransactionService {
 
     private final RecurringTransactionRepository recurringTransactionRepository;
-    private final TransactionRepository transactionRepository;
+    private final TransactionBulkRepository transactionBulkRepository;
     private final AccountRepository accountRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
-    private final BudgetAlertService budgetAlertService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LiveUpdateHub liveUpdateHub;
+    private final RecurringDueQueue dueQueue;
 
     @Value("${moneyflow.accounts.enforce-sufficient-balance:false}")
     private boolean enforceSufficientBalance;
@@ -63,12 +76,17 @@ public class RecurringTransactionService {
                 .amount(request.getAmount())
                 .description(request.getDescription() != null ? request.getDescription() : category.getName())
                 .frequency(request.getFrequency())
+                .repeatInterval(request.getInterval() != null ? request.getInterval() : 1)
+                .monthlyAnchor(request.getMonthlyAnchor())
+                .weekdayOrdinal(request.getWeekdayOrdinal())
                 .startDate(request.getStartDate())
                 .endDate(request.getEndDate())
-                .nextExecutionDate(request.getStartDate())
                 .build();
+        recurringTransaction.setWeekdays(request.getWeekdays());
+        recurringTransaction.setNextExecutionDate(validRule(recurringTransaction).occurrence(0));
 
         recurringTransaction = recurringTransactionRepository.save(recurringTransaction);
+        dueQueue.schedule(recurringTransaction);
         return mapToResponse(recurringTransaction);
     }
 
@@ -129,6 +147,29 @@ public class RecurringTransactionService {
 
         if (request.getFrequency() != null) {
             recurringTransaction.setFrequency(request.getFrequency());
+            recurringTransaction.setRepeatInterval(request.getInterval() != null ? request.getInterval() : 1);
+            recurringTransaction.setWeekdays(request.getWeekdays());
+            recurringTransaction.setMonthlyAnchor(request.getMonthlyAnchor());
+            recurringTransaction.setWeekdayOrdinal(request.getWeekdayOrdinal());
+        } else {
+            if (request.getInterval() != null) {
+                recurringTransaction.setRepeatInterval(request.getInterval());
+            }
+            if (request.getWeekdays() != null) {
+                recurringTransaction.setWeekdays(request.getWeekdays());
+            }
+            if (request.getMonthlyAnchor() != null) {
+                recurringTransaction.setMonthlyAnchor(request.getMonthlyAnchor());
+            }
+            if (request.getWeekdayOrdinal() != null) {
+                recurringTransaction.setWeekdayOrdinal(request.getWeekdayOrdinal());
+            }
+        }
+        if (request.getFrequency() != null || request.getInterval() != null || request.getWeekdays() != null
+                || request.getMonthlyAnchor() != null || request.getWeekdayOrdinal() != null) {
+            // Occurrences already posted stay; the new schedule takes over from the next pending date.
+            recurringTransaction.setNextExecutionDate(validRule(recurringTransaction)
+                    .firstOnOrAfter(recurringTransaction.getNextExecutionDate()));
         }
 
         if (request.getEndDate() != null) {
@@ -140,6 +181,7 @@ public class RecurringTransactionService {
         }
 
         recurringTransaction = recurringTransactionRepository.save(recurringTransaction);
+        dueQueue.schedule(recurringTransaction);
         return mapToResponse(recurringTransaction);
     }
 
@@ -153,6 +195,7 @@ public class RecurringTransactionService {
         // Soft delete
         recurringTransaction.setIsActive(false);
         recurringTransactionRepository.save(recurringTransaction);
+        dueQueue.schedule(recurringTransaction);
     }
 
     @Transactional
@@ -164,6 +207,7 @@ public class RecurringTransactionService {
 
         recurringTransaction.setIsPaused(true);
         recurringTransaction = recurringTransactionRepository.save(recurringTransaction);
+        dueQueue.schedule(recurringTransaction);
         return mapToResponse(recurringTransaction);
     }
 
@@ -176,6 +220,7 @@ public class RecurringTransactionService {
 
         recurringTransaction.setIsPaused(false);
         recurringTransaction = recurringTransactionRepository.save(recurringTransaction);
+        dueQueue.schedule(recurringTransaction);
         return mapToResponse(recurringTransaction);
     }
 
@@ -197,7 +242,7 @@ public class RecurringTransactionService {
             throw new BadRequestException("Recurring transaction has ended");
         }
 
-        createTransactionFromRecurring(recurringTransaction);
+        post(recurringTransaction, List.of(recurringTransaction.getNextExecutionDate()));
     }
 
     /**
@@ -207,23 +252,20 @@ public class RecurringTransactionService {
     private static final int MAX_CATCH_UP_PER_RECURRING = 1000;
 
     /**
-     * Process all due recurring transactions (for scheduled job).
-     * For each due recurring, all missed periods up to today are backfilled.
+     * Backfills the given rules, those still due on {@code today}, in one transaction:
+     * the unit of work of {@link RecurringBatchProcessor}. Returns the number of
+     * transactions generated.
      */
     @Transactional
-    public int processDueRecurringTransactions() {
-        LocalDate today = LocalDate.now();
-        List<RecurringTransaction> dueTransactions = recurringTransactionRepository.findDueRecurringTransactions(today);
-
+    public int processDue(Collection<Long> ids, LocalDate today) {
+        // Another node may be running the same rules; wait for it and see its result.
+        recurringTransactionRepository.lockByIds(ids);
         int count = 0;
-        for (RecurringTransaction recurring : dueTransactions) {
-            try {
+        for (RecurringTransaction recurring : recurringTransactionRepository.findByIdInOrderById(ids)) {
+            if (Boolean.TRUE.equals(recurring.getIsActive()) && !Boolean.TRUE.equals(recurring.getIsPaused())) {
                 count += catchUpRecurring(recurring, today);
-            } catch (Exception e) {
-                log.error("Failed to process recurring transaction {}: {}", recurring.getId(), e.getMessage());
             }
         }
-
         return count;
     }
 
@@ -232,69 +274,159 @@ public class RecurringTransactionService {
      * within the recurring transaction's end date.
      */
     private int catchUpRecurring(RecurringTransaction recurring, LocalDate today) {
-        int executed = 0;
-        while (executed < MAX_CATCH_UP_PER_RECURRING
-                && recurring.getNextExecutionDate() != null
-                && !recurring.getNextExecutionDate().isAfter(today)
-                && (recurring.getEndDate() == null
-                        || !recurring.getNextExecutionDate().isAfter(recurring.getEndDate()))) {
-            createTransactionFromRecurring(recurring);
-            executed++;
+        RecurrenceRule rule = recurring.rule();
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate date = recurring.getNextExecutionDate();
+        while (dates.size() < MAX_CATCH_UP_PER_RECURRING
+                && date != null
+                && !date.isAfter(today)
+                && (recurring.getEndDate() == null || !date.isAfter(recurring.getEndDate()))) {
+            dates.add(date);
+            date = rule.firstAfter(date);
         }
-        return executed;
+        if (!dates.isEmpty()) {
+            post(recurring, dates);
+        }
+        return dates.size();
     }
 
-    private void createTransactionFromRecurring(RecurringTransaction recurring) {
+    /**
+     * Posts the occurrences on {@code dates} (the rule's next ones, in order) at once: one
+     * balance update for their total, one batch insert and one change event, after which
+     * the rule moves past the last of them.
+     */
+    private void post(RecurringTransaction recurring, List<LocalDate> dates) {
         Account account = recurring.getAccount();
-
-        // Create the transaction
-        Transaction transaction = Transaction.builder()
-                .user(recurring.getUser())
-                .account(account)
-                .category(recurring.getCategory())
-                .type(recurring.getType())
-                .amount(recurring.getAmount())
-                .description(recurring.getDescription())
-                .transactionDate(recurring.getNextExecutionDate())
-                .recurringTransaction(recurring)
-                .build();
+        BigDecimal total = recurring.getAmount().multiply(BigDecimal.valueOf(dates.size()));
 
         // Update account balance (guard non-credit accounts against overdraft)
         if (recurring.getType() == TransactionType.INCOME) {
-            account.setBalance(account.getBalance().add(recurring.getAmount()));
+            account.setBalance(account.getBalance().add(total));
         } else if (recurring.getType() == TransactionType.EXPENSE) {
             if (enforceSufficientBalance && account.getType() != AccountType.CREDIT_CARD
-                    && account.getBalance().subtract(recurring.getAmount()).compareTo(BigDecimal.ZERO) < 0) {
+                    && account.getBalance().subtract(total).compareTo(BigDecimal.ZERO) < 0) {
                 throw new BadRequestException("Insufficient balance in account '" + account.getName() + "'");
             }
-            account.setBalance(account.getBalance().subtract(recurring.getAmount()));
+            account.setBalance(account.getBalance().subtract(total));
         }
-
         accountRepository.save(account);
-        transactionRepository.save(transaction);
-
-        if (recurring.getType() == TransactionType.EXPENSE) {
-            budgetAlertService.evaluateForCategory(
-                    recurring.getUser().getId(), recurring.getCategory().getId(), transaction.getTransactionDate());
-        }
+        liveUpdateHub.balanceChanged(account);
+
+        List<Transaction> transactions = dates.stream()
+                .map(date -> Transaction.builder()
+                        .user(recurring.getUser())
+                        .account(account)
+                        .category(recurring.getCategory())
+                        .type(recurring.getType())
+                        .amount(recurring.getAmount())
+                        .description(recurring.getDescription())
+                        .transactionDate(date)
+                        .recurringTransaction(recurring)
+                        .build())
+                .toList();
+        transactionBulkRepository.insertAll(transactions);
+        eventPublisher.publishEvent(TransactionChangedEvent.created(
+                transactions.stream().map(TransactionSnapshot::of).toList()));
 
         // Update recurring transaction
+        recurring.setExecutionCount(recurring.getExecutionCount() + dates.size());
+        recurring.setTotalPostedAmount(recurring.getTotalPostedAmount().add(total));
+        recurring.setLastPostedAmount(recurring.getAmount());
         recurring.setLastExecutedAt(LocalDateTime.now());
-        recurring.setNextExecutionDate(recurring.calculateNextExecutionDate());
+        recurring.setNextExecutionDate(recurring.occurrenceAfter(dates.get(dates.size() - 1)));
         recurringTransactionRepository.save(recurring);
+        dueQueue.schedule(recurring);
     }
 
-    private RecurringTransactionResponse mapToResponse(RecurringTransaction recurring) {
-        int totalExecutions = recurring.getGeneratedTransactions() != null
-                ? recurring.getGeneratedTransactions().size()
-                : 0;
+    /** Longest range the calendar covers in one request. */
+    private static final int MAX_CALENDAR_DAYS = 366;
+
+    /** A rule's next occurrence in the calendar merge. */
+    private record Cursor(LocalDate date, RecurringTransaction recurring, RecurrenceRule rule) {
+    }
+
+    /**
+     * Every pending occurrence of the caller's active rules between {@code from} and
+     * {@code to}, in date order. Each rule is a sorted stream of dates; the streams are
+     * merged through a min-heap holding one next date per rule, so the calendar is built
+     * in one pass, O(n log r) for n occurrences of r rules.
+     */
+    @Transactional(readOnly = true)
+    public List<RecurringOccurrenceResponse> getCalendar(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_CALENDAR_DAYS) {
+            throw new BadRequestException("The calendar covers at most " + MAX_CALENDAR_DAYS + " days");
+        }
+        Long userId = SecurityUtils.getCurrentUserId();
+
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Comparator.comparing(Cursor::date)
+                .thenComparing(c -> c.recurring().getId()));
+        for (RecurringTransaction recurring
+                : recurringTransactionRepository.findWithDetailsByUserIdAndIsPausedFalseAndIsActiveTrue(userId)) {
+            RecurrenceRule rule = recurring.rule();
+            // Occurrences before the next execution date have been posted already.
+            LocalDate first = rule.firstOnOrAfter(
+                    recurring.getNextExecutionDate().isAfter(from) ? recurring.getNextExecutionDate() : from);
+            if (within(first, to, recurring)) {
+                heap.add(new Cursor(first, recurring, rule));
+            }
+        }
+
+        List<RecurringOccurrenceResponse> occurrences = new ArrayList<>();
+        while (!heap.isEmpty()) {
+            Cursor cursor = heap.poll();
+            occurrences.add(mapToOccurrence(cursor.recurring(), cursor.date()));
+            LocalDate next = cursor.rule().firstAfter(cursor.date());
+            if (within(next, to, cursor.recurring())) {
+                heap.add(new Cursor(next, cursor.recurring(), cursor.rule()));
+            }
+        }
+        return occurrences;
+    }
+
+    private static boolean within(LocalDate date, LocalDate to, RecurringTransaction recurring) {
+        return !date.isAfter(to) && (recurring.getEndDate() == null || !date.isAfter(recurring.getEndDate()));
+    }
+
+    /** The rule's schedule, rejecting combinations that do not make one. */
+    private static RecurrenceRule validRule(RecurringTransaction recurring) {
+        try {
+            return recurring.rule();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
 
+    private RecurringOccurrenceResponse mapToOccurrence(RecurringTransaction recurring, LocalDate date) {
+        return RecurringOccurrenceResponse.builder()
+                .date(date)
+                .recurringTransactionId(recurring.getId())
+                .type(recurring.getType())
+                .amount(recurring.getAmount())
+                .currency(recurring.getAccount().getCurrency())
+                .description(recurring.getDescription())
+                .accountId(recurring.getAccount().getId())
+                .accountName(recurring.getAccount().getName())
+                .categoryId(recurring.getCategory().getId())
+                .categoryName(recurring.getCategory().getName())
+                .categoryIcon(recurring.getCategory().getIcon())
+                .categoryColor(recurring.getCategory().getColor())
+                .build();
+    }
+
+    private RecurringTransactionResponse mapToResponse(RecurringTransaction recurring) {
         return RecurringTransactionResponse.builder()
                 .id(recurring.getId())
                 .type(recurring.getType())
                 .amount(recurring.getAmount())
                 .description(recurring.getDescription())
                 .frequency(recurring.getFrequency())
+                .interval(recurring.getRepeatInterval())
+                .weekdays(recurring.getWeekdays())
+                .monthlyAnchor(recurring.getMonthlyAnchor())
+                .weekdayOrdinal(recurring.getWeekdayOrdinal())
                 .startDate(recurring.getStartDate())
                 .endDate(recurring.getEndDate())
                 .nextExecutionDate(recurring.getNextExecutionDate())
@@ -306,7 +438,9 @@ public class RecurringTransactionService {
                 .categoryName(recurring.getCategory().getName())
                 .categoryIcon(recurring.getCategory().getIcon())
                 .categoryColor(recurring.getCategory().getColor())
-                .totalExecutions(totalExecutions)
+                .totalExecutions(recurring.getExecutionCount())
+                .totalPostedAmount(recurring.getTotalPostedAmount())
+                .lastPostedAmount(recurring.getLastPostedAmount())
                 .createdAt(recurring.getCreatedAt())
                 .updatedAt(recurring.getUpdatedAt())
                 .build();
@@ -0,0 +1,319 @@
+package com.moneyflow.service;
+
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.exception.ResourceNotFoundException;
+import com.moneyflow.model.dto.budget.SpendDistributionResponse;
+import com.moneyflow.model.entity.Category;
+import com.moneyflow.model.entity.SnapshotState;
+import com.moneyflow.model.entity.SpendSketch;
+import com.moneyflow.model.entity.Transaction;
+import com.moneyflow.model.enums.CategoryType;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.CategoryRepository;
+import com.moneyflow.repository.RollupUpsertRepository;
+import com.moneyflow.repository.SnapshotStateRepository;
+import com.moneyflow.repository.SpendSketchRepository;
+import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.scheduler.SchedulerLeases;
+import com.moneyflow.security.SecurityUtils;
+import com.tdunning.math.stats.MergingDigest;
+import com.tdunning.math.stats.TDigest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Spend distribution percentiles backed by mergeable t-digest sketches stored per
+ * (user, category, month). A new expense is added to its month's digest in the
+ * writing transaction; edits and deletions rebuild that month's digest from its
+ * transactions, since digests cannot remove points. Reads merge the digests of the
+ * requested months (and of all members for team categories) without touching
+ * {@code transactions}.
+ * <p>
+ * Monthly-spend percentiles are exact: they are taken over the per-month totals
+ * stored next to each digest.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpendSketchService {
+
+    static final double COMPRESSION = 100;
+    static final String BACKFILL_STATE = "spend_sketches";
+
+    private final SpendSketchRepository sketchRepository;
+    private final RollupUpsertRepository upsertRepository;
+    private final TransactionRepository transactionRepository;
+    private final CategoryRepository categoryRepository;
+    private final SnapshotStateRepository stateRepository;
+    private final CurrencyService currencyService;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        Set<List<Object>> rebuilt = new HashSet<>();
+        for (TransactionChangedEvent.Change change : event.getChanges()) {
+            if (change.getBefore() == null) {
+                TransactionSnapshot after = change.getAfter();
+                if (isExpense(after)) {
+                    // A month rebuilt earlier in this event already includes the row.
+                    List<Object> key = List.of(after.getUserId(), after.getCategoryId(),
+                            after.getTransactionDate().withDayOfMonth(1));
+                    if (!rebuilt.contains(key) && addPoint(after)) {
+                        rebuilt.add(key);
+                    }
+                }
+                continue;
+            }
+            for (TransactionSnapshot snapshot : Arrays.asList(change.getBefore(), change.getAfter())) {
+                if (isExpense(snapshot)) {
+                    LocalDate monthStart = snapshot.getTransactionDate().withDayOfMonth(1);
+                    if (rebuilt.add(List.of(snapshot.getUserId(), snapshot.getCategoryId(), monthStart))) {
+                        rebuild(snapshot.getUserId(), snapshot.getCategoryId(), monthStart);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Percentiles for the caller's expense categories (or one category) over the last
+     * {@code months} months including the current one.
+     */
+    @Transactional(readOnly = true)
+    public List<SpendDistributionResponse> getDistribution(Long categoryId, int months) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        List<Category> categories;
+        if (categoryId != null) {
+            categories = List.of(categoryRepository.findByIdAndAvailableForUser(categoryId, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId)));
+        } else {
+            categories = categoryRepository.findAllAvailableForUserByType(userId, CategoryType.EXPENSE);
+        }
+        YearMonth to = YearMonth.now();
+        YearMonth from = to.minusMonths(Math.max(1, months) - 1L);
+
+        List<Long> personal = categories.stream().filter(c -> c.getTeam() == null)
+                .map(Category::getId).collect(Collectors.toList());
+        List<Long> team = categories.stream().filter(c -> c.getTeam() != null)
+                .map(Category::getId).collect(Collectors.toList());
+
+        Map<Long, List<SpendSketch>> byCategory = new HashMap<>();
+        if (!personal.isEmpty()) {
+            sketchRepository.findByUserIdAndCategoryIdInAndMonthStartBetween(
+                            userId, personal, from.atDay(1), to.atDay(1))
+                    .forEach(s -> byCategory.computeIfAbsent(s.getCategoryId(), k -> new ArrayList<>()).add(s));
+        }
+        if (!team.isEmpty()) {
+            sketchRepository.findByCategoryIdInAndMonthStartBetween(team, from.atDay(1), to.atDay(1))
+                    .forEach(s -> byCategory.computeIfAbsent(s.getCategoryId(), k -> new ArrayList<>()).add(s));
+        }
+
+        return categories.stream()
+                .map(c -> toResponse(c, byCategory.getOrDefault(c.getId(), List.of()), from, to))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * One-time build of sketches for expenses that predate this feature, a month per
+     * transaction; progress is kept in {@code snapshot_state} so it resumes if stopped.
+     * Only closed months are built: the current month's sketches are built from the
+     * month's rows by its first write, and the month is backfilled once it has closed.
+     */
+    public void backfillIfNeeded() {
+        SnapshotState state = stateRepository.findByName(BACKFILL_STATE).orElse(null);
+        LocalDate from = state != null && state.getCoveredUntil() != null
+                ? state.getCoveredUntil().plusDays(1)
+                : transactionRepository.findEarliestTransactionDate();
+        if (from == null) {
+            return;
+        }
+        YearMonth lastClosed = YearMonth.now().minusMonths(1);
+        int months = 0;
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(lastClosed); month = month.plusMonths(1)) {
+            SchedulerLeases.checkHeld();
+            YearMonth current = month;
+            transactionTemplate.executeWithoutResult(status -> {
+                backfillMonth(current);
+                SnapshotState progress = stateRepository.findByName(BACKFILL_STATE)
+                        .orElseGet(() -> SnapshotState.builder().name(BACKFILL_STATE).build());
+                progress.setCoveredUntil(current.atEndOfMonth());
+                progress.setLastRunAt(LocalDateTime.now());
+                stateRepository.save(progress);
+            });
+            months++;
+        }
+        if (months > 0) {
+            log.info("Spend sketch backfill built {} month(s)", months);
+        }
+    }
+
+    /**
+     * Builds the month's sketches. As in {@link #rebuild(SpendSketch)}, the sketches are
+     * locked (in key order) before the amounts are read, so an expense added by a writer
+     * that held a lock first is included rather than overwritten. A pair whose first
+     * expense arrives after the keys were read is left to that expense's writer, which
+     * builds its sketch from the month's rows.
+     */
+    private void backfillMonth(YearMonth month) {
+        LocalDate start = month.atDay(1);
+        LocalDate end = month.atEndOfMonth();
+        Map<List<Long>, SpendSketch> locked = new LinkedHashMap<>();
+        transactionRepository.findExpenseKeys(start, end).stream()
+                .map(row -> List.of((Long) row[0], (Long) row[1]))
+                .sorted(Comparator.<List<Long>, Long>comparing(key -> key.get(0)).thenComparing(key -> key.get(1)))
+                .forEach(key -> locked.put(key, lockSketch(key.get(0), key.get(1), start).sketch()));
+        Map<List<Long>, MergingDigest> digests = new HashMap<>();
+        Map<List<Long>, BigDecimal> totals = new HashMap<>();
+        for (Object[] row : transactionRepository.findExpenseAmounts(start, end)) {
+            List<Long> key = List.of((Long) row[0], (Long) row[1]);
+            if (!locked.containsKey(key)) {
+                continue;
+            }
+            BigDecimal base = currencyService.toBase((BigDecimal) row[2], (String) row[3]);
+            digests.computeIfAbsent(key, k -> new MergingDigest(COMPRESSION)).add(base.doubleValue());
+            totals.merge(key, base, BigDecimal::add);
+        }
+        locked.forEach((key, sketch) -> store(sketch,
+                digests.getOrDefault(key, new MergingDigest(COMPRESSION)), totals.getOrDefault(key, BigDecimal.ZERO)));
+    }
+
+    /** A sketch row locked for update, and whether it was only just created (empty). */
+    private record Locked(SpendSketch sketch, boolean created) {
+    }
+
+    /**
+     * Locks the month's sketch, creating it empty first if needed. The row is created by
+     * an upsert rather than by saving a new entity when the lookup comes back empty, so
+     * concurrent first writes of a month queue up on one row instead of both inserting.
+     */
+    private Locked lockSketch(Long userId, Long categoryId, LocalDate monthStart) {
+        boolean created = upsertRepository.insertSpendSketchIfAbsent(userId, categoryId, monthStart,
+                encode(new MergingDigest(COMPRESSION)));
+        SpendSketch sketch = sketchRepository.findForUpdate(userId, categoryId, monthStart)
+                .orElseThrow(() -> new IllegalStateException("Spend sketch missing after upsert"));
+        return new Locked(sketch, created);
+    }
+
+    /** Adds the expense to its month's sketch; returns true if the sketch had to be rebuilt instead. */
+    private boolean addPoint(TransactionSnapshot after) {
+        LocalDate monthStart = after.getTransactionDate().withDayOfMonth(1);
+        Locked locked = lockSketch(after.getUserId(), after.getCategoryId(), monthStart);
+        if (locked.created()) {
+            // First write for the month: build from the month's rows so pre-existing expenses are included.
+            rebuild(locked.sketch());
+            return true;
+        }
+        SpendSketch sketch = locked.sketch();
+        BigDecimal base = currencyService.toBase(after.getAmount(), after.getCurrency());
+        MergingDigest digest = decode(sketch.getDigest());
+        digest.add(base.doubleValue());
+        sketch.setDigest(encode(digest));
+        sketch.setTransactionCount(sketch.getTransactionCount() + 1);
+        sketch.setTotalAmount(sketch.getTotalAmount().add(base));
+        sketchRepository.save(sketch);
+        return false;
+    }
+
+    private void rebuild(Long userId, Long categoryId, LocalDate monthStart) {
+        rebuild(lockSketch(userId, categoryId, monthStart).sketch());
+    }
+
+    /**
+     * Recomputes a locked sketch from its month's transactions. They are read only once
+     * the lock is held, so an expense added by a writer that held it before is included.
+     */
+    private void rebuild(SpendSketch sketch) {
+        MergingDigest digest = new MergingDigest(COMPRESSION);
+        BigDecimal total = BigDecimal.ZERO;
+        for (Transaction t : transactionRepository.findSpentTransactionsForUser(sketch.getUserId(),
+                sketch.getCategoryId(), TransactionType.EXPENSE, sketch.getMonthStart(),
+                YearMonth.from(sketch.getMonthStart()).atEndOfMonth())) {
+            BigDecimal base = currencyService.toBase(t.getAmount(), t.getAccount().getCurrency());
+            digest.add(base.doubleValue());
+            total = total.add(base);
+        }
+        store(sketch, digest, total);
+    }
+
+    private void store(SpendSketch sketch, MergingDigest digest, BigDecimal total) {
+        sketch.setDigest(encode(digest));
+        sketch.setTransactionCount(digest.size());
+        sketch.setTotalAmount(total);
+        sketchRepository.save(sketch);
+    }
+
+    private SpendDistributionResponse toResponse(Category category, List<SpendSketch> sketches,
+                                                 YearMonth from, YearMonth to) {
+        MergingDigest merged = new MergingDigest(COMPRESSION);
+        List<TDigest> parts = new ArrayList<>();
+        Map<LocalDate, BigDecimal> monthlyTotals = new TreeMap<>();
+        long count = 0;
+        for (SpendSketch sketch : sketches) {
+            parts.add(decode(sketch.getDigest()));
+            monthlyTotals.merge(sketch.getMonthStart(), sketch.getTotalAmount(), BigDecimal::add);
+            count += sketch.getTransactionCount();
+        }
+        if (!parts.isEmpty()) {
+            merged.add(parts);
+        }
+        List<BigDecimal> monthly = monthlyTotals.values().stream()
+                .filter(v -> v.signum() > 0)
+                .sorted()
+                .collect(Collectors.toList());
+
+        return SpendDistributionResponse.builder()
+                .categoryId(category.getId())
+                .categoryName(category.getName())
+                .teamShared(category.getTeam() != null)
+                .fromMonth(from)
+                .toMonth(to)
+                .baseCurrency(currencyService.getBaseCurrency())
+                .transactionCount(count)
+                .medianTransaction(count > 0 ? money(merged.quantile(0.5)) : null)
+                .p90Transaction(count > 0 ? money(merged.quantile(0.9)) : null)
+                .monthsWithSpend(monthly.size())
+                .medianMonthlySpend(nearestRank(monthly, 0.5))
+                .p90MonthlySpend(nearestRank(monthly, 0.9))
+                .build();
+    }
+
+    private static BigDecimal nearestRank(List<BigDecimal> sorted, double q) {
+        if (sorted.isEmpty()) {
+            return null;
+        }
+        int rank = (int) Math.ceil(q * sorted.size());
+        return sorted.get(Math.max(0, rank - 1)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static boolean isExpense(TransactionSnapshot snapshot) {
+        return snapshot != null && snapshot.getType() == TransactionType.EXPENSE;
+    }
+
+    static byte[] encode(MergingDigest digest) {
+        ByteBuffer buffer = ByteBuffer.allocate(digest.smallByteSize());
+        digest.asSmallBytes(buffer);
+        return buffer.array();
+    }
+
+    static MergingDigest decode(byte[] bytes) {
+        return MergingDigest.fromBytes(ByteBuffer.wrap(bytes));
+    }
+}
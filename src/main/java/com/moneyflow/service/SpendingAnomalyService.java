@@ -0,0 +1,151 @@
+package com.moneyflow.service;
+
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.model.entity.SpendingStats;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.notification.NotificationService;
+import com.moneyflow.repository.CategoryRepository;
+import com.moneyflow.repository.RollupUpsertRepository;
+import com.moneyflow.repository.SpendingStatsRepository;
+import com.moneyflow.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Flags unusually large expenses as they are created. Each (user, category) keeps a
+ * running count, mean and sum of squared differences updated with Welford's online
+ * algorithm, so a write costs one locked row read and update instead of a query over
+ * the history. A new amount more than {@code std-devs} standard deviations above the
+ * mean, once at least {@code min-samples} expenses have been seen, is reported through
+ * {@link NotificationService} after the write commits. The amount is folded into the
+ * statistics either way.
+ * <p>
+ * The statistics follow every expense write, recurring postings included: an edit or
+ * deletion takes the old amount back out (Welford in reverse) before the new one is
+ * added. Expenses older than the statistics themselves are not in them, so removing
+ * one of those never takes a row below zero samples.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpendingAnomalyService {
+
+    private final SpendingStatsRepository statsRepository;
+    private final RollupUpsertRepository upsertRepository;
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final CurrencyService currencyService;
+    private final NotificationService notificationService;
+
+    @Value("${moneyflow.insights.anomaly.std-devs:3}")
+    private double stdDevs = 3;
+
+    @Value("${moneyflow.insights.anomaly.min-samples:10}")
+    private long minSamples = 10;
+
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        // Rows locked so far in this event, so a batch of postings reads each one once.
+        Map<List<Long>, Optional<SpendingStats>> locked = new LinkedHashMap<>();
+        for (TransactionChangedEvent.Change change : event.getChanges()) {
+            TransactionSnapshot before = change.getBefore();
+            TransactionSnapshot after = change.getAfter();
+            if (isExpense(before)) {
+                locked.computeIfAbsent(key(before), k -> statsRepository.findForUpdate(k.get(0), k.get(1)))
+                        .ifPresent(stats -> remove(stats, amount(before)));
+            }
+            if (isExpense(after)) {
+                Optional<SpendingStats> stats = locked.get(key(after));
+                if (stats == null || stats.isEmpty()) {
+                    stats = Optional.of(lockOrCreate(after.getUserId(), after.getCategoryId()));
+                    locked.put(key(after), stats);
+                }
+                if (before == null) {
+                    checkAnomaly(stats.get(), after);
+                }
+                add(stats.get(), amount(after));
+            }
+        }
+        locked.values().forEach(stats -> stats.ifPresent(statsRepository::save));
+    }
+
+    /**
+     * Locks the (user, category) statistics, creating them empty first if needed. The row
+     * is created by an upsert rather than by saving a new entity when the lookup comes
+     * back empty, so two first expenses in a category queue up on one row instead of both
+     * inserting it.
+     */
+    private SpendingStats lockOrCreate(Long userId, Long categoryId) {
+        upsertRepository.insertSpendingStatsIfAbsent(userId, categoryId);
+        return statsRepository.findForUpdate(userId, categoryId)
+                .orElseThrow(() -> new IllegalStateException("Spending stats missing after upsert"));
+    }
+
+    private void checkAnomaly(SpendingStats stats, TransactionSnapshot expense) {
+        double amount = amount(expense);
+        if (!isAnomaly(stats, amount)) {
+            return;
+        }
+        log.debug("Spending anomaly for user {} category {}: {} vs mean {}",
+                expense.getUserId(), expense.getCategoryId(), amount, stats.getMean());
+        userRepository.findById(expense.getUserId()).ifPresent(user ->
+                categoryRepository.findById(expense.getCategoryId()).ifPresent(category ->
+                        notificationService.sendSpendingAnomaly(user, category, expense,
+                                money(stats.getMean()), currencyService.getBaseCurrency())));
+    }
+
+    private boolean isAnomaly(SpendingStats stats, double amount) {
+        if (stats.getSampleCount() < Math.max(2, minSamples)) {
+            return false;
+        }
+        double stdDev = Math.sqrt(stats.getSumSqDiff() / (stats.getSampleCount() - 1));
+        return stdDev > 0 && amount > stats.getMean() + stdDevs * stdDev;
+    }
+
+    private static void add(SpendingStats stats, double amount) {
+        long count = stats.getSampleCount() + 1;
+        double delta = amount - stats.getMean();
+        double mean = stats.getMean() + delta / count;
+        stats.setSampleCount(count);
+        stats.setMean(mean);
+        stats.setSumSqDiff(stats.getSumSqDiff() + delta * (amount - mean));
+    }
+
+    private static void remove(SpendingStats stats, double amount) {
+        long count = stats.getSampleCount() - 1;
+        if (count <= 0) {
+            stats.setSampleCount(0);
+            stats.setMean(0);
+            stats.setSumSqDiff(0);
+            return;
+        }
+        double mean = (stats.getMean() * stats.getSampleCount() - amount) / count;
+        stats.setSampleCount(count);
+        stats.setSumSqDiff(Math.max(0, stats.getSumSqDiff() - (amount - stats.getMean()) * (amount - mean)));
+        stats.setMean(mean);
+    }
+
+    private double amount(TransactionSnapshot snapshot) {
+        return currencyService.toBase(snapshot.getAmount(), snapshot.getCurrency()).doubleValue();
+    }
+
+    private static List<Long> key(TransactionSnapshot snapshot) {
+        return List.of(snapshot.getUserId(), snapshot.getCategoryId());
+    }
+
+    private static boolean isExpense(TransactionSnapshot snapshot) {
+        return snapshot != null && snapshot.getType() == TransactionType.EXPENSE && snapshot.getCategoryId() != null;
+    }
+
+    private static BigDecimal money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,212 @@
+package com.moneyflow.service;
+
+import com.moneyflow.analytics.PeriodAggregate;
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.exception.BadRequestException;
+import com.moneyflow.model.dto.tag.TagReportResponse;
+import com.moneyflow.model.entity.SnapshotState;
+import com.moneyflow.model.entity.Tag;
+import com.moneyflow.model.entity.TagMonthlyTotal;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.RollupUpsertRepository;
+import com.moneyflow.repository.SnapshotStateRepository;
+import com.moneyflow.repository.TagMonthlyTotalRepository;
+import com.moneyflow.repository.TagRepository;
+import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.scheduler.SchedulerLeases;
+import com.moneyflow.security.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Tag-level income/expense reports backed by per (tag, month, type, currency) rollups,
+ * so reports never join {@code transaction_tags} against the transaction history.
+ * <p>
+ * Rollups are adjusted inside the writing transaction by applying "remove before, add
+ * after" deltas for every tag on the changed transaction, which also covers tags being
+ * added or removed by an edit. Each delta is a single upsert, so concurrent first
+ * writes of a key never collide on its unique key. The rebuild job recomputes them
+ * month by month from the transactions, both to seed them initially and to correct any
+ * drift; writers and the rebuild of a month are kept apart by the month locks of
+ * {@link RollupUpsertRepository}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TagRollupService {
+
+    static final String STATE_NAME = "tag_rollups";
+
+    private final TagMonthlyTotalRepository totalRepository;
+    private final RollupUpsertRepository upsertRepository;
+    private final TagRepository tagRepository;
+    private final TransactionRepository transactionRepository;
+    private final SnapshotStateRepository stateRepository;
+    private final CurrencyService currencyService;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        Map<List<Object>, Delta> deltas = new LinkedHashMap<>();
+        for (TransactionChangedEvent.Change change : event.getChanges()) {
+            collect(deltas, change.getBefore(), -1);
+            collect(deltas, change.getAfter(), 1);
+        }
+        deltas.values().removeIf(delta -> delta.count == 0 && delta.amount.signum() == 0);
+        deltas.keySet().stream()
+                .map(key -> (LocalDate) key.get(1))
+                .collect(Collectors.toCollection(TreeSet::new))
+                .forEach(monthStart -> upsertRepository.lockMonthShared(STATE_NAME, monthStart));
+        deltas.forEach((key, delta) -> upsertRepository.addTagMonthlyTotal((Long) key.get(0), (LocalDate) key.get(1),
+                (TransactionType) key.get(2), (String) key.get(3), delta.amount, delta.count));
+    }
+
+    /**
+     * Income/expense per active tag of the caller over the months between {@code from}
+     * and {@code to} inclusive, in the base currency.
+     */
+    @Transactional(readOnly = true)
+    public List<TagReportResponse> getReport(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        Long userId = SecurityUtils.getCurrentUserId();
+        List<Tag> tags = tagRepository.findByUserIdAndIsActiveTrue(userId);
+        if (tags.isEmpty()) {
+            return List.of();
+        }
+
+        // tag -> month -> [income units, expense units, count]
+        Map<Long, Map<YearMonth, long[]>> byTag = new HashMap<>();
+        for (TagMonthlyTotal row : totalRepository.findByTagIdInAndMonthStartBetween(
+                tags.stream().map(Tag::getId).collect(Collectors.toList()), from.atDay(1), to.atDay(1))) {
+            long units = PeriodAggregate.toUnits(currencyService.toBase(row.getAmount(), row.getCurrency()));
+            long[] month = byTag.computeIfAbsent(row.getTagId(), k -> new TreeMap<>())
+                    .computeIfAbsent(YearMonth.from(row.getMonthStart()), k -> new long[3]);
+            month[row.getType() == TransactionType.INCOME ? 0 : 1] += units;
+            month[2] += row.getTransactionCount();
+        }
+
+        return tags.stream()
+                .map(tag -> toResponse(tag, byTag.getOrDefault(tag.getId(), Map.of())))
+                .sorted(Comparator.comparing(TagReportResponse::getTotalExpense).reversed()
+                        .thenComparing(TagReportResponse::getTagName))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Recomputes every month from the earliest transaction to the current one, a month
+     * per transaction, each under the month's exclusive lock so no concurrent write is
+     * missed or counted twice.
+     */
+    public void rebuild() {
+        LocalDateTime started = LocalDateTime.now();
+        LocalDate earliest = transactionRepository.findEarliestTransactionDate();
+        YearMonth last = YearMonth.now();
+        int months = 0;
+        if (earliest != null) {
+            for (YearMonth month = YearMonth.from(earliest); !month.isAfter(last); month = month.plusMonths(1)) {
+                SchedulerLeases.checkHeld();
+                YearMonth current = month;
+                transactionTemplate.executeWithoutResult(status -> rebuildMonth(current));
+                months++;
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            SnapshotState state = stateRepository.findByName(STATE_NAME)
+                    .orElseGet(() -> SnapshotState.builder().name(STATE_NAME).build());
+            state.setCoveredUntil(last.atEndOfMonth());
+            state.setLastRunAt(started);
+            stateRepository.save(state);
+        });
+        log.info("Tag rollup rebuild: {} month(s) rebuilt", months);
+    }
+
+    /** Runs the initial rebuild if rollups have never been built. */
+    public void rebuildIfNeeded() {
+        if (stateRepository.findByName(STATE_NAME).isEmpty()) {
+            rebuild();
+        }
+    }
+
+    private void rebuildMonth(YearMonth month) {
+        upsertRepository.lockMonthExclusive(STATE_NAME, month.atDay(1));
+        totalRepository.deleteMonth(month.atDay(1));
+        List<TagMonthlyTotal> totals = new ArrayList<>();
+        for (Object[] row : transactionRepository.sumByTagGrouped(month.atDay(1), month.atEndOfMonth())) {
+            TransactionType type = (TransactionType) row[1];
+            if (type == TransactionType.TRANSFER) {
+                continue;
+            }
+            totals.add(TagMonthlyTotal.builder()
+                    .tagId((Long) row[0])
+                    .monthStart(month.atDay(1))
+                    .type(type)
+                    .currency((String) row[2])
+                    .amount((BigDecimal) row[3])
+                    .transactionCount(((Number) row[4]).longValue())
+                    .build());
+        }
+        totalRepository.saveAll(totals);
+    }
+
+    private static void collect(Map<List<Object>, Delta> deltas, TransactionSnapshot snapshot, int sign) {
+        if (snapshot == null || snapshot.getType() == TransactionType.TRANSFER || snapshot.getTagIds().isEmpty()) {
+            return;
+        }
+        LocalDate monthStart = snapshot.getTransactionDate().withDayOfMonth(1);
+        for (Long tagId : snapshot.getTagIds()) {
+            Delta delta = deltas.computeIfAbsent(
+                    List.of(tagId, monthStart, snapshot.getType(), snapshot.getCurrency()), k -> new Delta());
+            delta.amount = sign > 0 ? delta.amount.add(snapshot.getAmount()) : delta.amount.subtract(snapshot.getAmount());
+            delta.count += sign;
+        }
+    }
+
+    private TagReportResponse toResponse(Tag tag, Map<YearMonth, long[]> months) {
+        long income = 0;
+        long expense = 0;
+        long count = 0;
+        List<TagReportResponse.MonthTotal> monthTotals = new ArrayList<>();
+        for (Map.Entry<YearMonth, long[]> entry : months.entrySet()) {
+            long[] totals = entry.getValue();
+            income += totals[0];
+            expense += totals[1];
+            count += totals[2];
+            monthTotals.add(TagReportResponse.MonthTotal.builder()
+                    .month(entry.getKey())
+                    .income(PeriodAggregate.fromUnits(totals[0]))
+                    .expense(PeriodAggregate.fromUnits(totals[1]))
+                    .transactionCount(totals[2])
+                    .build());
+        }
+        return TagReportResponse.builder()
+                .tagId(tag.getId())
+                .tagName(tag.getName())
+                .color(tag.getColor())
+                .baseCurrency(currencyService.getBaseCurrency())
+                .totalIncome(PeriodAggregate.fromUnits(income))
+                .totalExpense(PeriodAggregate.fromUnits(expense))
+                .netFlow(PeriodAggregate.fromUnits(income - expense))
+                .transactionCount(count)
+                .months(monthTotals)
+                .build();
+    }
+
+    private static class Delta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private int count;
+    }
+}
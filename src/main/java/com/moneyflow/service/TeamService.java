@@ -11,6 +11,7 @@ import com.moneyflow.model.entity.Team;
 import com.moneyflow.model.entity.TeamMember;
 import com.moneyflow.model.entity.User;
 import com.moneyflow.model.enums.TeamRole;
+import com.moneyflow.notification.LiveUpdateHub;
 import com.moneyflow.repository.TeamMemberRepository;
 import com.moneyflow.repository.TeamRepository;
 import com.moneyflow.repository.UserRepository;
@@ -28,6 +29,7 @@ public class TeamService {
     private final TeamRepository teamRepository;
     private final TeamMemberRepository teamMemberRepository;
     private final UserRepository userRepository;
+    private final LiveUpdateHub liveUpdateHub;
 
     @Transactional(readOnly = true)
     public TeamDTO getMyTeam() {
@@ -79,6 +81,7 @@ public class TeamService {
                 .build();
 
         teamMemberRepository.save(ownerMember);
+        liveUpdateHub.membershipChanged(userId);
 
         return TeamDTO.from(team);
     }
@@ -139,6 +142,7 @@ public class TeamService {
                 .build();
 
         newMember = teamMemberRepository.save(newMember);
+        liveUpdateHub.membershipChanged(newUser.getId());
 
         return TeamMemberDTO.from(newMember);
     }
@@ -173,6 +177,7 @@ public class TeamService {
         }
 
         teamMemberRepository.delete(memberToRemove);
+        liveUpdateHub.membershipChanged(memberUserId);
     }
 
     @Transactional
@@ -1,5 +1,7 @@
 package com.moneyflow.service;
 
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
 import com.moneyflow.exception.BadRequestException;
 import com.moneyflow.exception.ResourceNotFoundException;
 import com.moneyflow.model.dto.transaction.CreateTransactionRequest;
@@ -14,6 +16,7 @@ import com.moneyflow.model.entity.Transaction;
 import com.moneyflow.model.entity.User;
 import com.moneyflow.model.enums.AccountType;
 import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.notification.LiveUpdateHub;
 import com.moneyflow.repository.AccountRepository;
 import com.moneyflow.repository.CategoryRepository;
 import com.moneyflow.repository.TagRepository;
@@ -22,6 +25,7 @@ import com.moneyflow.repository.UserRepository;
 import com.moneyflow.security.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -45,8 +49,9 @@ public class TransactionService {
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
     private final TagRepository tagRepository;
-    private final BudgetAlertService budgetAlertService;
     private final TeamPermissionService teamPermissionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LiveUpdateHub liveUpdateHub;
 
     /** When true, non-credit accounts may not be driven below zero. Off by default. */
     @Value("${moneyflow.accounts.enforce-sufficient-balance:false}")
@@ -99,10 +104,7 @@ public class TransactionService {
         applyTransactionEffect(account, request.getType(), request.getAmount(), transferToAccount);
 
         transaction = transactionRepository.save(transaction);
-
-        if (transaction.getType() == TransactionType.EXPENSE) {
-            budgetAlertService.evaluateForCategory(userId, category.getId(), transaction.getTransactionDate());
-        }
+        eventPublisher.publishEvent(TransactionChangedEvent.created(TransactionSnapshot.of(transaction)));
 
         return mapToResponse(transaction);
     }
@@ -157,8 +159,7 @@ public class TransactionService {
         Transaction transaction = transactionRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", id));
 
-        Long previousCategoryId = transaction.getCategory().getId();
-        LocalDate previousDate = transaction.getTransactionDate();
+        TransactionSnapshot before = TransactionSnapshot.of(transaction);
 
         // Snapshot old monetary effect
         Account oldAccount = transaction.getAccount();
@@ -224,16 +225,7 @@ public class TransactionService {
         }
 
         transaction = transactionRepository.save(transaction);
-
-        if (transaction.getType() == TransactionType.EXPENSE) {
-            budgetAlertService.evaluateForCategory(
-                    userId, transaction.getCategory().getId(), transaction.getTransactionDate());
-            // The spending on the previous category/period changed too; re-evaluate it.
-            if (!previousCategoryId.equals(transaction.getCategory().getId())
-                    || !previousDate.equals(transaction.getTransactionDate())) {
-                budgetAlertService.evaluateForCategory(userId, previousCategoryId, previousDate);
-            }
-        }
+        eventPublisher.publishEvent(TransactionChangedEvent.updated(before, TransactionSnapshot.of(transaction)));
 
         return mapToResponse(transaction);
     }
@@ -253,11 +245,7 @@ public class TransactionService {
         // Soft delete
         transaction.setIsActive(false);
         transactionRepository.save(transaction);
-
-        if (transaction.getType() == TransactionType.EXPENSE) {
-            budgetAlertService.evaluateForCategory(
-                    userId, transaction.getCategory().getId(), transaction.getTransactionDate());
-        }
+        eventPublisher.publishEvent(TransactionChangedEvent.deleted(TransactionSnapshot.of(transaction)));
     }
 
     @Transactional(readOnly = true)
@@ -293,8 +281,10 @@ public class TransactionService {
             }
         }
         accountRepository.save(source);
+        liveUpdateHub.balanceChanged(source);
         if (type == TransactionType.TRANSFER && transferTo != null) {
             accountRepository.save(transferTo);
+            liveUpdateHub.balanceChanged(transferTo);
         }
     }
 
@@ -311,8 +301,10 @@ public class TransactionService {
             }
         }
         accountRepository.save(source);
+        liveUpdateHub.balanceChanged(source);
         if (type == TransactionType.TRANSFER && transferTo != null) {
             accountRepository.save(transferTo);
+            liveUpdateHub.balanceChanged(transferTo);
         }
     }
 
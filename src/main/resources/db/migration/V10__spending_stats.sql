@@ -0,0 +1,15 @@
+-- Per (user, category) running mean/variance of expense amounts for anomaly alerts.
+
+CREATE TABLE IF NOT EXISTS spending_stats (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at   TIMESTAMP        NOT NULL,
+    updated_at   TIMESTAMP        NOT NULL,
+    is_active    BOOLEAN          NOT NULL DEFAULT TRUE,
+    version      BIGINT,
+    user_id      BIGINT           NOT NULL REFERENCES users (id),
+    category_id  BIGINT           NOT NULL REFERENCES categories (id),
+    sample_count BIGINT           NOT NULL,
+    mean         DOUBLE PRECISION NOT NULL,
+    sum_sq_diff  DOUBLE PRECISION NOT NULL,
+    CONSTRAINT uq_spending_stats_user_category UNIQUE (user_id, category_id)
+);
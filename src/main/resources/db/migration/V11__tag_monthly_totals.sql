@@ -0,0 +1,18 @@
+-- Per (tag, month, type, currency) income/expense rollups for tag reports.
+
+CREATE TABLE IF NOT EXISTS tag_monthly_totals (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at        TIMESTAMP      NOT NULL,
+    updated_at        TIMESTAMP      NOT NULL,
+    is_active         BOOLEAN        NOT NULL DEFAULT TRUE,
+    version           BIGINT,
+    tag_id            BIGINT         NOT NULL REFERENCES tags (id),
+    month_start       DATE           NOT NULL,
+    type              VARCHAR(255)   NOT NULL,
+    currency          VARCHAR(3)     NOT NULL,
+    amount            NUMERIC(19, 4) NOT NULL,
+    transaction_count BIGINT         NOT NULL,
+    CONSTRAINT uq_tag_monthly_total UNIQUE (tag_id, month_start, type, currency)
+);
+
+CREATE INDEX IF NOT EXISTS idx_tag_monthly_totals_month ON tag_monthly_totals (month_start);
@@ -0,0 +1,20 @@
+-- Parent/child categories with a closure table of (ancestor, descendant) pairs.
+
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS parent_id BIGINT REFERENCES categories (id);
+
+CREATE INDEX IF NOT EXISTS idx_categories_parent ON categories (parent_id);
+
+CREATE TABLE IF NOT EXISTS category_closure (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at    TIMESTAMP NOT NULL,
+    updated_at    TIMESTAMP NOT NULL,
+    is_active     BOOLEAN   NOT NULL DEFAULT TRUE,
+    version       BIGINT,
+    ancestor_id   BIGINT    NOT NULL REFERENCES categories (id),
+    descendant_id BIGINT    NOT NULL REFERENCES categories (id),
+    depth         INTEGER   NOT NULL,
+    CONSTRAINT uq_category_closure UNIQUE (ancestor_id, descendant_id)
+);
+
+-- The unique constraint serves ancestor lookups; this one serves "ancestors of".
+CREATE INDEX IF NOT EXISTS idx_category_closure_descendant ON category_closure (descendant_id);
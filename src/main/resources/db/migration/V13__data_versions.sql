@@ -0,0 +1,13 @@
+-- Per user/team change counters behind ETags on GET endpoints.
+
+CREATE TABLE IF NOT EXISTS data_versions (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at   TIMESTAMP    NOT NULL,
+    updated_at   TIMESTAMP    NOT NULL,
+    is_active    BOOLEAN      NOT NULL DEFAULT TRUE,
+    version      BIGINT,
+    scope        VARCHAR(255) NOT NULL,
+    scope_id     BIGINT       NOT NULL,
+    data_version BIGINT       NOT NULL,
+    CONSTRAINT uq_data_version_scope UNIQUE (scope, scope_id)
+);
@@ -0,0 +1,5 @@
+-- Budget spend: range-scan one user's (budget owner or team member) active
+-- transactions per category and month instead of every user's rows in the category.
+
+CREATE INDEX IF NOT EXISTS idx_transaction_user_category_date_active
+    ON transactions (user_id, category_id, transaction_date) WHERE is_active = TRUE;
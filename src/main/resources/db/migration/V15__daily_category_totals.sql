@@ -0,0 +1,19 @@
+-- Per (user, category, day, type, currency) rollups for budget pace tracking.
+
+CREATE TABLE IF NOT EXISTS daily_category_totals (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at        TIMESTAMP      NOT NULL,
+    updated_at        TIMESTAMP      NOT NULL,
+    is_active         BOOLEAN        NOT NULL DEFAULT TRUE,
+    version           BIGINT,
+    user_id           BIGINT         NOT NULL REFERENCES users (id),
+    category_id       BIGINT         NOT NULL REFERENCES categories (id),
+    transaction_date  DATE           NOT NULL,
+    type              VARCHAR(255)   NOT NULL,
+    currency          VARCHAR(3)     NOT NULL,
+    amount            NUMERIC(19, 4) NOT NULL,
+    transaction_count BIGINT         NOT NULL,
+    CONSTRAINT uq_daily_category_total UNIQUE (user_id, category_id, transaction_date, type, currency)
+);
+
+CREATE INDEX IF NOT EXISTS idx_daily_category_totals_date ON daily_category_totals (transaction_date);
@@ -0,0 +1,28 @@
+-- Envelope (zero-based) budgeting: running balance per (user, category) and the
+-- allocations and spending of each month.
+
+CREATE TABLE IF NOT EXISTS envelopes (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at  TIMESTAMP      NOT NULL,
+    updated_at  TIMESTAMP      NOT NULL,
+    is_active   BOOLEAN        NOT NULL DEFAULT TRUE,
+    version     BIGINT,
+    user_id     BIGINT         NOT NULL REFERENCES users (id),
+    category_id BIGINT         NOT NULL REFERENCES categories (id),
+    start_month DATE           NOT NULL,
+    balance     NUMERIC(19, 4) NOT NULL,
+    CONSTRAINT uq_envelope_user_category UNIQUE (user_id, category_id)
+);
+
+CREATE TABLE IF NOT EXISTS envelope_months (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at  TIMESTAMP      NOT NULL,
+    updated_at  TIMESTAMP      NOT NULL,
+    is_active   BOOLEAN        NOT NULL DEFAULT TRUE,
+    version     BIGINT,
+    envelope_id BIGINT         NOT NULL REFERENCES envelopes (id),
+    month_start DATE           NOT NULL,
+    allocated   NUMERIC(19, 4) NOT NULL,
+    spent       NUMERIC(19, 4) NOT NULL,
+    CONSTRAINT uq_envelope_month UNIQUE (envelope_id, month_start)
+);
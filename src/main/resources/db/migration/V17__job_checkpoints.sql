@@ -0,0 +1,22 @@
+-- Progress of chunked batch jobs, so an interrupted run resumes where it stopped.
+
+CREATE TABLE IF NOT EXISTS job_checkpoints (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at      TIMESTAMP    NOT NULL,
+    updated_at      TIMESTAMP    NOT NULL,
+    is_active       BOOLEAN      NOT NULL DEFAULT TRUE,
+    version         BIGINT,
+    job_name        VARCHAR(64)  NOT NULL UNIQUE,
+    run_date        DATE         NOT NULL,
+    status          VARCHAR(32)  NOT NULL,
+    pass_number     INTEGER      NOT NULL,
+    last_id         BIGINT       NOT NULL,
+    processed_count BIGINT       NOT NULL,
+    generated_count BIGINT       NOT NULL,
+    failed_count    BIGINT       NOT NULL,
+    started_at      TIMESTAMP    NOT NULL,
+    finished_at     TIMESTAMP
+);
+
+-- Keyset scan of due recurring transactions.
+CREATE INDEX IF NOT EXISTS idx_recurring_transactions_due ON recurring_transactions (next_execution_date, id);
@@ -0,0 +1,24 @@
+-- Cluster coordination for scheduled jobs: one lease per job (or job shard) held by the
+-- node running it, and the heartbeats of the nodes taking part in sharded runs.
+
+CREATE TABLE IF NOT EXISTS scheduler_leases (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at   TIMESTAMP    NOT NULL,
+    updated_at   TIMESTAMP    NOT NULL,
+    is_active    BOOLEAN      NOT NULL DEFAULT TRUE,
+    version      BIGINT,
+    name         VARCHAR(64)  NOT NULL UNIQUE,
+    owner        VARCHAR(128) NOT NULL,
+    locked_at    TIMESTAMP    NOT NULL,
+    lease_until  TIMESTAMP    NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS scheduler_nodes (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at   TIMESTAMP    NOT NULL,
+    updated_at   TIMESTAMP    NOT NULL,
+    is_active    BOOLEAN      NOT NULL DEFAULT TRUE,
+    version      BIGINT,
+    node_id      VARCHAR(128) NOT NULL UNIQUE,
+    heartbeat_at TIMESTAMP    NOT NULL
+);
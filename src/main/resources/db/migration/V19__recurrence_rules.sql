@@ -0,0 +1,8 @@
+-- Richer recurrence: every N periods, weekly on given weekdays, and monthly on the n-th
+-- weekday, last day or last business day. Existing rules keep recurring every period on
+-- the start date's day.
+
+ALTER TABLE recurring_transactions ADD COLUMN IF NOT EXISTS repeat_interval INTEGER NOT NULL DEFAULT 1;
+ALTER TABLE recurring_transactions ADD COLUMN IF NOT EXISTS by_weekdays     VARCHAR(80);
+ALTER TABLE recurring_transactions ADD COLUMN IF NOT EXISTS monthly_anchor  VARCHAR(32);
+ALTER TABLE recurring_transactions ADD COLUMN IF NOT EXISTS weekday_ordinal INTEGER;
@@ -0,0 +1,24 @@
+-- Running execution totals of each recurring rule, kept up to date as occurrences are
+-- posted so that listing rules never counts their generated transactions. Existing
+-- rules are backfilled from the transactions they generated.
+
+ALTER TABLE recurring_transactions ADD COLUMN IF NOT EXISTS execution_count     BIGINT         NOT NULL DEFAULT 0;
+ALTER TABLE recurring_transactions ADD COLUMN IF NOT EXISTS total_posted_amount NUMERIC(19, 4) NOT NULL DEFAULT 0;
+ALTER TABLE recurring_transactions ADD COLUMN IF NOT EXISTS last_posted_amount  NUMERIC(19, 4);
+
+UPDATE recurring_transactions rt
+SET execution_count     = s.execution_count,
+    total_posted_amount = s.total_posted_amount
+FROM (SELECT recurring_transaction_id, COUNT(*) AS execution_count, SUM(amount) AS total_posted_amount
+      FROM transactions
+      WHERE recurring_transaction_id IS NOT NULL
+      GROUP BY recurring_transaction_id) s
+WHERE s.recurring_transaction_id = rt.id;
+
+UPDATE recurring_transactions rt
+SET last_posted_amount = l.amount
+FROM (SELECT DISTINCT ON (recurring_transaction_id) recurring_transaction_id, amount
+      FROM transactions
+      WHERE recurring_transaction_id IS NOT NULL
+      ORDER BY recurring_transaction_id, transaction_date DESC, id DESC) l
+WHERE l.recurring_transaction_id = rt.id;
@@ -0,0 +1,45 @@
+-- Nightly per-month aggregates for long-range reports, the (account, month) pairs
+-- edited since they were built, and the job's covered-until cutoff.
+
+CREATE TABLE IF NOT EXISTS monthly_snapshots (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at        TIMESTAMP      NOT NULL,
+    updated_at        TIMESTAMP      NOT NULL,
+    is_active         BOOLEAN        NOT NULL DEFAULT TRUE,
+    version           BIGINT,
+    user_id           BIGINT         NOT NULL REFERENCES users (id),
+    account_id        BIGINT         NOT NULL REFERENCES accounts (id),
+    category_id       BIGINT         NOT NULL REFERENCES categories (id),
+    type              VARCHAR(255)   NOT NULL,
+    month_start       DATE           NOT NULL,
+    amount            NUMERIC(19, 4) NOT NULL,
+    transaction_count BIGINT         NOT NULL,
+    CONSTRAINT uq_monthly_snapshot UNIQUE (user_id, account_id, category_id, type, month_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_monthly_snapshot_account_month ON monthly_snapshots (account_id, month_start);
+CREATE INDEX IF NOT EXISTS idx_monthly_snapshot_user_month ON monthly_snapshots (user_id, month_start);
+
+CREATE TABLE IF NOT EXISTS snapshot_dirty_months (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at  TIMESTAMP NOT NULL,
+    updated_at  TIMESTAMP NOT NULL,
+    is_active   BOOLEAN   NOT NULL DEFAULT TRUE,
+    version     BIGINT,
+    user_id     BIGINT    NOT NULL REFERENCES users (id),
+    account_id  BIGINT    NOT NULL REFERENCES accounts (id),
+    month_start DATE      NOT NULL,
+    marked_at   TIMESTAMP NOT NULL,
+    CONSTRAINT uq_snapshot_dirty UNIQUE (user_id, account_id, month_start)
+);
+
+CREATE TABLE IF NOT EXISTS snapshot_state (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at    TIMESTAMP   NOT NULL,
+    updated_at    TIMESTAMP   NOT NULL,
+    is_active     BOOLEAN     NOT NULL DEFAULT TRUE,
+    version       BIGINT,
+    name          VARCHAR(64) NOT NULL UNIQUE,
+    covered_until DATE,
+    last_run_at   TIMESTAMP
+);
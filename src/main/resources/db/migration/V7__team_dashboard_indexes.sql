@@ -0,0 +1,9 @@
+-- Team dashboard: resolve team-shared accounts/categories by team, then range-scan
+-- their active transactions by date.
+
+CREATE INDEX IF NOT EXISTS idx_account_team ON accounts (team_id) WHERE team_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_category_team ON categories (team_id) WHERE team_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_transaction_account_date_active
+    ON transactions (account_id, transaction_date) WHERE is_active = TRUE;
+CREATE INDEX IF NOT EXISTS idx_transaction_category_date_active
+    ON transactions (category_id, transaction_date) WHERE is_active = TRUE;
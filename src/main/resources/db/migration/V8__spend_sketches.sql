@@ -0,0 +1,21 @@
+-- Per (user, category, month) t-digest of expense transaction sizes for the budget
+-- screen's spend distribution percentiles.
+
+CREATE TABLE IF NOT EXISTS spend_sketches (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at        TIMESTAMP      NOT NULL,
+    updated_at        TIMESTAMP      NOT NULL,
+    is_active         BOOLEAN        NOT NULL DEFAULT TRUE,
+    version           BIGINT,
+    user_id           BIGINT         NOT NULL REFERENCES users (id),
+    category_id       BIGINT         NOT NULL REFERENCES categories (id),
+    month_start       DATE           NOT NULL,
+    digest            BYTEA          NOT NULL,
+    transaction_count BIGINT         NOT NULL,
+    total_amount      NUMERIC(19, 4) NOT NULL,
+    CONSTRAINT uq_spend_sketch UNIQUE (user_id, category_id, month_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_spend_sketch_category_month ON spend_sketches (category_id, month_start);
+
+-- Backfill from existing expenses happens on first write per month; see SpendSketchService.
@@ -0,0 +1,13 @@
+-- Per (user, month) Space-Saving summaries of normalized expense descriptions.
+
+CREATE TABLE IF NOT EXISTS merchant_summaries (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at  TIMESTAMP NOT NULL,
+    updated_at  TIMESTAMP NOT NULL,
+    is_active   BOOLEAN   NOT NULL DEFAULT TRUE,
+    version     BIGINT,
+    user_id     BIGINT    NOT NULL REFERENCES users (id),
+    month_start DATE      NOT NULL,
+    payload     TEXT      NOT NULL,
+    CONSTRAINT uq_merchant_summary_user_month UNIQUE (user_id, month_start)
+);
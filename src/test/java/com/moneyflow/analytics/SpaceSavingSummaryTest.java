@@ -0,0 +1,48 @@
+package com.moneyflow.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingSummaryTest {
+
+    @Test
+    void keepsHeavyHittersWithinCapacity() {
+        SpaceSavingSummary summary = new SpaceSavingSummary(3);
+        for (int i = 0; i < 20; i++) {
+            summary.offer("coffee", 1);
+        }
+        for (int i = 0; i < 10; i++) {
+            summary.offer("grocer", 1);
+        }
+        summary.offer("a", 1);
+        summary.offer("b", 1);
+        summary.offer("c", 1);
+
+        assertThat(summary.getCounters()).hasSize(3);
+        assertThat(summary.top(2)).extracting(SpaceSavingSummary.Counter::getKey).containsExactly("coffee", "grocer");
+        assertThat(summary.top(1).get(0).getWeight()).isEqualTo(20);
+    }
+
+    @Test
+    void mergeAddsWeightsAndBoundsMissingKeys() {
+        SpaceSavingSummary january = new SpaceSavingSummary(2);
+        january.offer("rent", 1000);
+        january.offer("coffee", 5);
+        january.offer("coffee", 1);
+        SpaceSavingSummary february = new SpaceSavingSummary(3);
+        february.offer("rent", 1000);
+        february.offer("taxi", 40);
+        february.offer("bus", 2);
+
+        SpaceSavingSummary merged = january.merge(february);
+
+        assertThat(merged.top(1).get(0).getKey()).isEqualTo("rent");
+        assertThat(merged.top(1).get(0).getWeight()).isEqualTo(2000);
+        SpaceSavingSummary.Counter taxi = merged.top(2).get(1);
+        assertThat(taxi.getKey()).isEqualTo("taxi");
+        // "taxi" may have occurred in January up to that summary's minimum weight.
+        assertThat(taxi.getWeight()).isEqualTo(46);
+        assertThat(taxi.getError()).isEqualTo(6);
+    }
+}
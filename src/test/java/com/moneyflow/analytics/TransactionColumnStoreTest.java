@@ -0,0 +1,130 @@
+package com.moneyflow.analytics;
+
+import com.moneyflow.config.CurrencyProperties;
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.service.CurrencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionColumnStoreTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2026, 1, 1);
+    private static final LocalDate JAN_31 = LocalDate.of(2026, 1, 31);
+
+    @Mock private TransactionRepository transactionRepository;
+
+    private TransactionColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        CurrencyProperties props = new CurrencyProperties();
+        props.setBase("USD");
+        props.setRates(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("1.08")));
+        store = new TransactionColumnStore(transactionRepository, new CurrencyService(props));
+        ReflectionTestUtils.setField(store, "enabled", true);
+    }
+
+    @Test
+    void aggregatesLoadedSegmentsInBaseCurrency() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row(1L, 10L, JAN_1, "100", 5L, TransactionType.EXPENSE, "USD"));
+        rows.add(row(2L, 20L, JAN_1.plusDays(4), "50", 5L, TransactionType.EXPENSE, "EUR"));
+        rows.add(row(3L, 20L, JAN_31, "1000", 6L, TransactionType.INCOME, "EUR"));
+        rows.add(row(4L, 10L, JAN_31.plusDays(1), "999", 5L, TransactionType.EXPENSE, "USD"));
+        when(transactionRepository.findColumnRowsByAccountIds(anyCollection())).thenReturn(rows);
+
+        PeriodAggregate period = store.aggregate(List.of(10L, 20L), JAN_1, JAN_31, null);
+
+        assertThat(period.total(TransactionType.EXPENSE)).isEqualByComparingTo("154");
+        assertThat(period.total(TransactionType.INCOME)).isEqualByComparingTo("1080");
+        assertThat(period.getTransactionCount()).isEqualTo(3);
+        assertThat(period.categoryTotals(TransactionType.EXPENSE).get(5L)[1]).isEqualTo(2);
+        assertThat(period.dayTotal(TransactionType.EXPENSE, JAN_1.plusDays(4))).isEqualByComparingTo("54");
+    }
+
+    @Test
+    void filtersByTagBitmap() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row(1L, 10L, JAN_1, "100", 5L, TransactionType.EXPENSE, "USD"));
+        rows.add(row(2L, 10L, JAN_1, "40", 5L, TransactionType.EXPENSE, "USD"));
+        List<Object[]> tags = new ArrayList<>();
+        tags.add(new Object[]{2L, 10L, 7L});
+        when(transactionRepository.findColumnRowsByAccountIds(anyCollection())).thenReturn(rows);
+        when(transactionRepository.findTagPairsByAccountIds(anyCollection())).thenReturn(tags);
+
+        assertThat(store.aggregate(List.of(10L), JAN_1, JAN_31, 7L).total(TransactionType.EXPENSE))
+                .isEqualByComparingTo("40");
+        assertThat(store.aggregate(List.of(10L), JAN_1, JAN_31, 8L).getTransactionCount()).isZero();
+    }
+
+    @Test
+    void appliesCommittedChangesWithoutReloading() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row(1L, 10L, JAN_1, "100", 5L, TransactionType.EXPENSE, "USD"));
+        when(transactionRepository.findColumnRowsByAccountIds(anyCollection())).thenReturn(rows);
+        store.aggregate(List.of(10L), JAN_1, JAN_31, null);
+
+        TransactionSnapshot before = snapshot(1L, "100", 5L);
+        TransactionSnapshot after = snapshot(1L, "30", 6L);
+        store.onTransactionChanged(TransactionChangedEvent.updated(before, after));
+        store.onTransactionChanged(TransactionChangedEvent.created(snapshot(2L, "20", 6L)));
+
+        PeriodAggregate period = store.aggregate(List.of(10L), JAN_1, JAN_31, null);
+
+        assertThat(period.total(TransactionType.EXPENSE)).isEqualByComparingTo("50");
+        assertThat(period.categoryTotals(TransactionType.EXPENSE)).containsOnlyKeys(6L);
+        verify(transactionRepository, times(1)).findColumnRowsByAccountIds(anyCollection());
+    }
+
+    @Test
+    void evictsSegmentsOverMemoryBudget() {
+        ReflectionTestUtils.setField(store, "memoryBudgetMb", 0L);
+        when(transactionRepository.findColumnRowsByAccountIds(anyCollection())).thenReturn(new ArrayList<>());
+
+        store.aggregate(List.of(10L), JAN_1, JAN_31, null);
+        store.aggregate(List.of(10L), JAN_1, JAN_31, null);
+
+        assertThat(store.getResidentBytes()).isZero();
+        verify(transactionRepository, times(2)).findColumnRowsByAccountIds(anyCollection());
+    }
+
+    private static Object[] row(Long id, Long accountId, LocalDate date, String amount,
+                                Long categoryId, TransactionType type, String currency) {
+        return new Object[]{id, accountId, date, new BigDecimal(amount), categoryId, type, currency};
+    }
+
+    private static TransactionSnapshot snapshot(Long id, String amount, Long categoryId) {
+        return TransactionSnapshot.builder()
+                .id(id)
+                .userId(1L)
+                .accountId(10L)
+                .currency("USD")
+                .categoryId(categoryId)
+                .type(TransactionType.EXPENSE)
+                .amount(new BigDecimal(amount))
+                .transactionDate(JAN_1.plusDays(2))
+                .tagIds(Set.of())
+                .build();
+    }
+}
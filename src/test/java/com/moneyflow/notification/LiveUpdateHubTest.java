@@ -0,0 +1,184 @@
+package com.moneyflow.notification;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.model.dto.stream.BudgetAlertUpdate;
+import com.moneyflow.model.entity.Account;
+import com.moneyflow.model.entity.Team;
+import com.moneyflow.model.entity.User;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.TeamMemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LiveUpdateHubTest {
+
+    private final List<Runnable> parked = new ArrayList<>();
+    private final TeamMemberRepository teamMemberRepository = mock(TeamMemberRepository.class);
+
+    /** Records frames instead of writing them to a response. */
+    static class RecordingEmitter extends SseEmitter {
+        final List<String> frames = new ArrayList<>();
+        final AtomicInteger completions = new AtomicInteger();
+
+        @Override
+        public synchronized void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+            frames.add(items.stream().map(d -> String.valueOf(d.getData())).collect(Collectors.joining()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completions.incrementAndGet();
+        }
+
+        long count(String eventName) {
+            return frames.stream().filter(f -> f.contains("event:" + eventName + "\n")).count();
+        }
+    }
+
+    private LiveUpdateHub directHub() {
+        return new LiveUpdateHub(Runnable::run, new ObjectMapper().findAndRegisterModules(), teamMemberRepository);
+    }
+
+    @Test
+    void fansOutToTenThousandSubscribers() {
+        LiveUpdateHub hub = directHub();
+        List<RecordingEmitter> emitters = new ArrayList<>();
+        for (long i = 0; i < 10_000; i++) {
+            RecordingEmitter emitter = new RecordingEmitter();
+            emitters.add(emitter);
+            hub.subscribe(i, 7L, emitter);
+        }
+
+        hub.onTransactionChanged(TransactionChangedEvent.created(sharedTransaction(7L)));
+        hub.heartbeat();
+
+        assertThat(hub.subscriberCount()).isEqualTo(10_000);
+        assertThat(emitters).allSatisfy(e -> {
+            assertThat(e.count(LiveUpdateHub.TRANSACTION)).isEqualTo(1);
+            assertThat(e.frames).last().asString().contains(":ping");
+        });
+    }
+
+    @Test
+    void deliversBalanceToOwnerAndTeamOnly() {
+        LiveUpdateHub hub = directHub();
+        RecordingEmitter owner = new RecordingEmitter();
+        RecordingEmitter teammate = new RecordingEmitter();
+        RecordingEmitter stranger = new RecordingEmitter();
+        hub.subscribe(1L, 7L, owner);
+        hub.subscribe(2L, 7L, teammate);
+        hub.subscribe(3L, 8L, stranger);
+
+        hub.balanceChanged(account(1L, 7L));
+        hub.budgetAlertChanged(1L, null, BudgetAlertUpdate.builder().budgetId(4L).triggered(true).build());
+
+        assertThat(owner.count(LiveUpdateHub.BALANCE)).isEqualTo(1);
+        assertThat(owner.count(LiveUpdateHub.BUDGET_ALERT)).isEqualTo(1);
+        assertThat(teammate.count(LiveUpdateHub.BALANCE)).isEqualTo(1);
+        assertThat(teammate.count(LiveUpdateHub.BUDGET_ALERT)).isZero();
+        assertThat(stranger.frames).noneMatch(f -> f.contains("event:"));
+    }
+
+    @Test
+    void disconnectsSubscriberThatFallsBehind() {
+        LiveUpdateHub hub = new LiveUpdateHub(parked::add, new ObjectMapper().findAndRegisterModules(), teamMemberRepository);
+        ReflectionTestUtils.setField(hub, "queueCapacity", 4);
+        RecordingEmitter slow = new RecordingEmitter();
+        hub.subscribe(1L, null, slow);
+
+        // Nothing drains, so the queue fills: connect comment + 3 events, then overflow.
+        for (int i = 0; i < 4; i++) {
+            hub.balanceChanged(account(1L, null));
+        }
+
+        assertThat(slow.completions.get()).isEqualTo(1);
+        assertThat(hub.subscriberCount()).isZero();
+        assertThat(parked).hasSize(1);
+    }
+
+    @Test
+    void membershipChangeClosesTheUsersStreams() {
+        LiveUpdateHub hub = directHub();
+        RecordingEmitter leaving = new RecordingEmitter();
+        RecordingEmitter staying = new RecordingEmitter();
+        hub.subscribe(2L, 7L, leaving);
+        hub.subscribe(1L, 7L, staying);
+
+        hub.membershipChanged(2L);
+        hub.onTransactionChanged(TransactionChangedEvent.created(sharedTransaction(7L)));
+
+        assertThat(leaving.completions.get()).isEqualTo(1);
+        assertThat(leaving.count(LiveUpdateHub.TRANSACTION)).isZero();
+        assertThat(staying.count(LiveUpdateHub.TRANSACTION)).isEqualTo(1);
+        assertThat(hub.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void membershipCheckClosesStreamsOfAnotherTeam() {
+        LiveUpdateHub hub = directHub();
+        RecordingEmitter removed = new RecordingEmitter();
+        RecordingEmitter joined = new RecordingEmitter();
+        RecordingEmitter current = new RecordingEmitter();
+        hub.subscribe(1L, 7L, removed);
+        hub.subscribe(2L, null, joined);
+        hub.subscribe(3L, 7L, current);
+        // Changed through another node: user 1 left team 7, user 2 joined it.
+        when(teamMemberRepository.findTeamIdsByUserIds(any())).thenReturn(List.of(
+                new Object[]{2L, 7L}, new Object[]{3L, 7L}));
+
+        hub.checkMemberships();
+        hub.onTransactionChanged(TransactionChangedEvent.created(sharedTransaction(7L)));
+
+        assertThat(removed.completions.get()).isEqualTo(1);
+        assertThat(joined.completions.get()).isEqualTo(1);
+        assertThat(current.completions.get()).isZero();
+        assertThat(removed.count(LiveUpdateHub.TRANSACTION)).isZero();
+        assertThat(current.count(LiveUpdateHub.TRANSACTION)).isEqualTo(1);
+    }
+
+    private static Account account(Long ownerId, Long teamId) {
+        User owner = User.builder().email("u" + ownerId + "@ex.com").build();
+        owner.setId(ownerId);
+        Account account = Account.builder().user(owner).name("Checking").currency("USD")
+                .balance(new BigDecimal("120.00")).build();
+        account.setId(10L);
+        if (teamId != null) {
+            Team team = Team.builder().name("Household").build();
+            team.setId(teamId);
+            account.setTeam(team);
+        }
+        return account;
+    }
+
+    private static TransactionSnapshot sharedTransaction(Long teamId) {
+        return TransactionSnapshot.builder()
+                .id(99L)
+                .userId(1L)
+                .accountId(10L)
+                .teamId(teamId)
+                .currency("USD")
+                .categoryId(5L)
+                .type(TransactionType.EXPENSE)
+                .amount(new BigDecimal("12.50"))
+                .transactionDate(LocalDate.of(2026, 1, 15))
+                .tagIds(Set.of())
+                .build();
+    }
+}
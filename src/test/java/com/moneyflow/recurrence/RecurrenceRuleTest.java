@@ -0,0 +1,111 @@
+package com.moneyflow.recurrence;
+
+import com.moneyflow.model.enums.Frequency;
+import com.moneyflow.model.enums.MonthlyAnchor;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecurrenceRuleTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 31);
+
+    private static List<LocalDate> first(RecurrenceRule rule, int n) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (int k = 0; k < n; k++) {
+            dates.add(rule.occurrence(k));
+        }
+        return dates;
+    }
+
+    @Test
+    void monthlyDayOfMonthDoesNotDriftAfterShortMonths() {
+        RecurrenceRule rule = RecurrenceRule.of(Frequency.MONTHLY, null, START, null, null, null);
+
+        assertThat(first(rule, 3)).containsExactly(
+                LocalDate.of(2026, 1, 31), LocalDate.of(2026, 2, 28), LocalDate.of(2026, 3, 31));
+    }
+
+    @Test
+    void everyOtherWeekOnGivenWeekdays() {
+        // Thursday Jan 1 2026: Monday of that week is Dec 29, which is before the start.
+        RecurrenceRule rule = RecurrenceRule.of(Frequency.WEEKLY, 2, LocalDate.of(2026, 1, 1), null,
+                Set.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), null);
+
+        assertThat(first(rule, 4)).containsExactly(
+                LocalDate.of(2026, 1, 2), LocalDate.of(2026, 1, 12),
+                LocalDate.of(2026, 1, 16), LocalDate.of(2026, 1, 26));
+        assertThat(rule.firstOnOrAfter(LocalDate.of(2026, 1, 5))).isEqualTo(LocalDate.of(2026, 1, 12));
+    }
+
+    @Test
+    void lastBusinessDayAndNthWeekday() {
+        RecurrenceRule payday = RecurrenceRule.of(Frequency.MONTHLY, null, LocalDate.of(2026, 1, 1),
+                MonthlyAnchor.LAST_BUSINESS_DAY, null, null);
+        // Jan 31 and Feb 28 2026 are Saturdays, May 31 a Sunday.
+        assertThat(payday.occurrence(0)).isEqualTo(LocalDate.of(2026, 1, 30));
+        assertThat(payday.occurrence(1)).isEqualTo(LocalDate.of(2026, 2, 27));
+        assertThat(payday.occurrence(4)).isEqualTo(LocalDate.of(2026, 5, 29));
+
+        RecurrenceRule lastFriday = RecurrenceRule.of(Frequency.MONTHLY, null, LocalDate.of(2026, 1, 1),
+                MonthlyAnchor.NTH_WEEKDAY, Set.of(DayOfWeek.FRIDAY), -1);
+        assertThat(first(lastFriday, 2)).containsExactly(LocalDate.of(2026, 1, 30), LocalDate.of(2026, 2, 27));
+
+        // Second Tuesday, taken from the start date; January's is before the start.
+        RecurrenceRule secondTuesday = RecurrenceRule.of(Frequency.MONTHLY, null, LocalDate.of(2026, 1, 13),
+                MonthlyAnchor.NTH_WEEKDAY, null, null);
+        assertThat(secondTuesday.occurrence(1)).isEqualTo(LocalDate.of(2026, 2, 10));
+    }
+
+    @Test
+    void kthOccurrenceFarFromStartIsDirect() {
+        RecurrenceRule rule = RecurrenceRule.of(Frequency.DAILY, 3, START, null, null, null);
+
+        assertThat(rule.occurrence(1_000_000)).isEqualTo(START.plusDays(3_000_000));
+        assertThat(rule.firstOnOrAfter(START.plusDays(3_000_001))).isEqualTo(START.plusDays(3_000_003));
+    }
+
+    @Test
+    void firstOnOrAfterAgreesWithEnumeration() {
+        List<RecurrenceRule> rules = List.of(
+                RecurrenceRule.of(Frequency.DAILY, 5, START, null, null, null),
+                RecurrenceRule.of(Frequency.WEEKLY, 3, START, null, null, null),
+                RecurrenceRule.of(Frequency.WEEKLY, 2, START, null,
+                        Set.of(DayOfWeek.TUESDAY, DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), null),
+                RecurrenceRule.of(Frequency.MONTHLY, 2, START, MonthlyAnchor.DAY_OF_MONTH, null, null),
+                RecurrenceRule.of(Frequency.MONTHLY, 1, START, MonthlyAnchor.NTH_WEEKDAY,
+                        Set.of(DayOfWeek.WEDNESDAY), 3),
+                RecurrenceRule.of(Frequency.MONTHLY, 3, START, MonthlyAnchor.LAST_BUSINESS_DAY, null, null),
+                RecurrenceRule.of(Frequency.YEARLY, 1, LocalDate.of(2024, 2, 29), null, null, null));
+        for (RecurrenceRule rule : rules) {
+            List<LocalDate> dates = first(rule, 200);
+            assertThat(dates).isSorted().doesNotHaveDuplicates();
+            int k = 0;
+            for (LocalDate day = START.minusDays(10); day.isBefore(dates.get(150)); day = day.plusDays(1)) {
+                while (dates.get(k).isBefore(day)) {
+                    k++;
+                }
+                assertThat(rule.firstOnOrAfter(day)).as("first on or after %s", day).isEqualTo(dates.get(k));
+            }
+        }
+    }
+
+    @Test
+    void rejectsPartsThatDoNotFitTogether() {
+        assertThatThrownBy(() -> RecurrenceRule.of(Frequency.DAILY, null, START, null, Set.of(DayOfWeek.MONDAY), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.of(Frequency.WEEKLY, null, START, MonthlyAnchor.LAST_DAY, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.of(Frequency.MONTHLY, null, START, MonthlyAnchor.NTH_WEEKDAY,
+                null, 5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.of(Frequency.MONTHLY, 0, START, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
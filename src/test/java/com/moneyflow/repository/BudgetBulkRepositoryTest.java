@@ -0,0 +1,120 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.Budget;
+import com.moneyflow.model.entity.Category;
+import com.moneyflow.model.entity.Team;
+import com.moneyflow.model.entity.User;
+import com.moneyflow.model.enums.CategoryType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/** Runs the H2 branch of the bulk budget writes against the dev schema. */
+@DataJpaTest
+@ActiveProfiles("dev")
+@Import(BudgetBulkRepository.class)
+class BudgetBulkRepositoryTest {
+
+    @Autowired private BudgetBulkRepository bulkRepository;
+    @Autowired private BudgetRepository budgetRepository;
+    @Autowired private TestEntityManager entityManager;
+
+    private User user;
+    private Team team;
+    private Category food;
+    private Category rent;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder().email("plan@ex.com").password("x").firstName("P").build());
+        team = entityManager.persist(Team.builder().name("Home").inviteCode("PLAN0001").owner(user).build());
+        food = entityManager.persist(Category.builder().user(user).name("Food").type(CategoryType.EXPENSE).build());
+        rent = entityManager.persist(Category.builder().user(user).name("Rent").type(CategoryType.EXPENSE).build());
+    }
+
+    @Test
+    void upsertPlanInsertsUpdatesAndReactivatesPersonalBudgets() {
+        Budget deleted = budget(food, 2, "100", null);
+        deleted.setIsActive(false);
+        entityManager.persist(deleted);
+        entityManager.persist(budget(food, 1, "100", null));
+        entityManager.flush();
+
+        List<BudgetBulkRepository.PlanRow> skipped = bulkRepository.upsertPlan(user.getId(), 2026, List.of(
+                row(food, 1, "250"), row(food, 2, "300"), row(rent, 1, "900")));
+        entityManager.clear();
+
+        assertThat(skipped).isEmpty();
+        assertThat(budgetRepository.findByUserIdAndYearAndIsActiveTrue(user.getId(), 2026))
+                .extracting(b -> b.getCategory().getId(), Budget::getMonth, b -> b.getAmount().intValue())
+                .containsExactlyInAnyOrder(
+                        tuple(food.getId(), 1, 250),
+                        tuple(food.getId(), 2, 300),
+                        tuple(rent.getId(), 1, 900));
+    }
+
+    @Test
+    void upsertPlanLeavesTeamBudgetsAloneAndReportsThem() {
+        Budget shared = budget(food, 3, "500", team);
+        shared.setIsActive(false);
+        entityManager.persist(shared);
+        entityManager.flush();
+
+        List<BudgetBulkRepository.PlanRow> skipped = bulkRepository.upsertPlan(user.getId(), 2026, List.of(
+                row(food, 3, "50"), row(food, 4, "60")));
+        entityManager.clear();
+
+        assertThat(skipped).containsExactly(row(food, 3, "50"));
+        Budget unchanged = budgetRepository.findById(shared.getId()).orElseThrow();
+        assertThat(unchanged.getAmount()).isEqualByComparingTo("500");
+        assertThat(unchanged.getIsActive()).isFalse();
+        assertThat(unchanged.getTeam().getId()).isEqualTo(team.getId());
+        assertThat(budgetRepository.findByUserIdAndMonthAndYearAndIsActiveTrue(user.getId(), 4, 2026))
+                .extracting(Budget::getAmount).usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("60"));
+    }
+
+    @Test
+    void rolloverCopiesActiveBudgetsAndKeepsExistingOnes() {
+        entityManager.persist(budget(food, 1, "100", null));
+        entityManager.persist(budget(rent, 1, "900", team));
+        Budget existing = budget(food, 2, "120", null);
+        existing.setIsActive(false);
+        entityManager.persist(existing);
+        entityManager.flush();
+
+        List<Object[]> created = bulkRepository.rollover(YearMonth.of(2026, 1), YearMonth.of(2026, 2));
+        entityManager.clear();
+
+        assertThat(created).extracting(pair -> pair[0], pair -> pair[1])
+                .containsExactly(tuple(user.getId(), team.getId()));
+        Budget copied = budgetRepository.findByTeamIdAndMonthAndYearAndIsActiveTrue(team.getId(), 2, 2026).get(0);
+        assertThat(copied.getCategory().getId()).isEqualTo(rent.getId());
+        assertThat(copied.getAmount()).isEqualByComparingTo("900");
+        Budget untouched = budgetRepository.findById(existing.getId()).orElseThrow();
+        assertThat(untouched.getIsActive()).isFalse();
+        assertThat(untouched.getAmount()).isEqualByComparingTo("120");
+        // A second run finds nothing left to copy.
+        assertThat(bulkRepository.rollover(YearMonth.of(2026, 1), YearMonth.of(2026, 2))).isEmpty();
+    }
+
+    private Budget budget(Category category, int month, String amount, Team team) {
+        return Budget.builder().user(user).category(category).team(team)
+                .amount(new BigDecimal(amount)).month(month).year(2026).build();
+    }
+
+    private static BudgetBulkRepository.PlanRow row(Category category, int month, String amount) {
+        return new BudgetBulkRepository.PlanRow(category.getId(), month, new BigDecimal(amount), new BigDecimal("80.00"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.moneyflow.repository;
+
+import com.moneyflow.model.entity.DailyCategoryTotal;
+import com.moneyflow.model.entity.MerchantSummary;
+import com.moneyflow.model.entity.SnapshotDirtyMonth;
+import com.moneyflow.model.entity.SpendSketch;
+import com.moneyflow.model.entity.SpendingStats;
+import com.moneyflow.model.entity.TagMonthlyTotal;
+import com.moneyflow.model.enums.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Runs the H2 branch of the upserts against the dev schema. */
+@DataJpaTest
+@ActiveProfiles("dev")
+@Import(RollupUpsertRepository.class)
+class RollupUpsertRepositoryTest {
+
+    private static final LocalDate JAN = LocalDate.of(2026, 1, 1);
+
+    @Autowired private RollupUpsertRepository upsertRepository;
+    @Autowired private SnapshotDirtyMonthRepository dirtyMonthRepository;
+    @Autowired private SpendSketchRepository sketchRepository;
+    @Autowired private MerchantSummaryRepository merchantSummaryRepository;
+    @Autowired private SpendingStatsRepository statsRepository;
+    @Autowired private TagMonthlyTotalRepository tagTotalRepository;
+    @Autowired private DailyCategoryTotalRepository dailyTotalRepository;
+    @Autowired private TestEntityManager entityManager;
+
+    @Test
+    void markDirtyInsertsOnceThenMovesTheMark() {
+        LocalDateTime first = LocalDateTime.of(2026, 2, 1, 10, 0);
+        LocalDateTime second = first.plusHours(1);
+
+        upsertRepository.markDirty(1L, 10L, JAN, first);
+        upsertRepository.markDirty(1L, 10L, JAN, second);
+        upsertRepository.markDirty(1L, 11L, JAN, first);
+
+        List<SnapshotDirtyMonth> marks = dirtyMonthRepository.findByAccountIdInAndMonthStartBetween(
+                List.of(10L, 11L), JAN, JAN);
+        assertThat(marks).hasSize(2);
+        assertThat(marks).filteredOn(m -> m.getAccountId() == 10L)
+                .extracting(SnapshotDirtyMonth::getMarkedAt).containsExactly(second);
+    }
+
+    @Test
+    void spendSketchIsCreatedOnlyByTheFirstCall() {
+        byte[] empty = {1, 2, 3};
+
+        assertThat(upsertRepository.insertSpendSketchIfAbsent(1L, 5L, JAN, empty)).isTrue();
+        assertThat(upsertRepository.insertSpendSketchIfAbsent(1L, 5L, JAN, new byte[]{9})).isFalse();
+
+        SpendSketch sketch = sketchRepository.findForUpdate(1L, 5L, JAN).orElseThrow();
+        assertThat(sketch.getDigest()).containsExactly(1, 2, 3);
+        assertThat(sketch.getTransactionCount()).isZero();
+        assertThat(sketch.getTotalAmount()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void merchantSummaryKeepsThePayloadItWasCreatedWith() {
+        upsertRepository.insertMerchantSummaryIfAbsent(1L, JAN, "{\"first\":true}");
+        upsertRepository.insertMerchantSummaryIfAbsent(1L, JAN, "{}");
+
+        assertThat(merchantSummaryRepository.findByUserIdAndMonthStartBetween(1L, JAN, JAN))
+                .extracting(MerchantSummary::getPayload).containsExactly("{\"first\":true}");
+    }
+
+    @Test
+    void spendingStatsAreCreatedEmptyAndLeftAloneAfterwards() {
+        upsertRepository.insertSpendingStatsIfAbsent(1L, 5L);
+        SpendingStats stats = statsRepository.findForUpdate(1L, 5L).orElseThrow();
+        stats.setSampleCount(3);
+        statsRepository.saveAndFlush(stats);
+
+        upsertRepository.insertSpendingStatsIfAbsent(1L, 5L);
+        entityManager.clear();
+
+        assertThat(statsRepository.count()).isEqualTo(1);
+        assertThat(statsRepository.findForUpdate(1L, 5L).orElseThrow().getSampleCount()).isEqualTo(3);
+    }
+
+    @Test
+    void tagTotalsAccumulateAndDisappearWhenEmpty() {
+        upsertRepository.addTagMonthlyTotal(7L, JAN, TransactionType.EXPENSE, "USD", new BigDecimal("40"), 1);
+        upsertRepository.addTagMonthlyTotal(7L, JAN, TransactionType.EXPENSE, "USD", new BigDecimal("15.5"), 1);
+        upsertRepository.addTagMonthlyTotal(7L, JAN, TransactionType.EXPENSE, "EUR", new BigDecimal("10"), 1);
+        upsertRepository.addTagMonthlyTotal(7L, JAN, TransactionType.EXPENSE, "EUR", new BigDecimal("-10"), -1);
+
+        List<TagMonthlyTotal> totals = tagTotalRepository.findByTagIdInAndMonthStartBetween(List.of(7L), JAN, JAN);
+        assertThat(totals).hasSize(1);
+        assertThat(totals.get(0).getCurrency()).isEqualTo("USD");
+        assertThat(totals.get(0).getAmount()).isEqualByComparingTo("55.5");
+        assertThat(totals.get(0).getTransactionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void dailyTotalsAccumulateAndDisappearWhenEmpty() {
+        LocalDate day = JAN.plusDays(4);
+        upsertRepository.addDailyCategoryTotal(1L, 5L, day, TransactionType.EXPENSE, "USD", new BigDecimal("12"), 1);
+        upsertRepository.addDailyCategoryTotal(1L, 5L, day, TransactionType.EXPENSE, "USD", new BigDecimal("8"), 1);
+        upsertRepository.addDailyCategoryTotal(1L, 5L, day, TransactionType.INCOME, "USD", new BigDecimal("100"), 1);
+        upsertRepository.addDailyCategoryTotal(1L, 5L, day, TransactionType.INCOME, "USD", new BigDecimal("-100"), -1);
+
+        List<DailyCategoryTotal> totals = dailyTotalRepository.findByUserIdInAndCategoryIdInAndTransactionDateBetween(
+                List.of(1L), List.of(5L), day, day);
+        assertThat(totals).hasSize(1);
+        assertThat(totals.get(0).getType()).isEqualTo(TransactionType.EXPENSE);
+        assertThat(totals.get(0).getAmount()).isEqualByComparingTo("20");
+        assertThat(totals.get(0).getTransactionCount()).isEqualTo(2);
+    }
+}
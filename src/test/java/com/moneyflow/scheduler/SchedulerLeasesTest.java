@@ -0,0 +1,110 @@
+package com.moneyflow.scheduler;
+
+import com.moneyflow.model.entity.SchedulerLease;
+import com.moneyflow.model.entity.SchedulerNode;
+import com.moneyflow.repository.SchedulerLeaseRepository;
+import com.moneyflow.repository.SchedulerNodeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/** Several nodes sharing the lease and node tables of the H2 dev schema. */
+@DataJpaTest
+@ActiveProfiles("dev")
+class SchedulerLeasesTest {
+
+    @Autowired private SchedulerLeaseRepository leaseRepository;
+    @Autowired private SchedulerNodeRepository nodeRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private TestEntityManager entityManager;
+
+    @Test
+    void takesOverAnExpiredLeaseButNotALiveOne() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        leaseRepository.saveAndFlush(lease("expired", "node-b", now.minusMinutes(10), now.minusMinutes(1)));
+        leaseRepository.saveAndFlush(lease("live", "node-b", now.minusMinutes(1), now.plusMinutes(4)));
+        SchedulerLeases nodeA = node("node-a", false);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertThat(nodeA.runLocked("expired", 0, () -> ran.set(true))).isTrue();
+        assertThat(ran).isTrue();
+        assertThat(nodeA.runLocked("live", 0, () -> ran.set(false))).isFalse();
+
+        entityManager.clear();
+        assertThat(leaseRepository.findAll())
+                .extracting(SchedulerLease::getName, SchedulerLease::getOwner)
+                .containsExactlyInAnyOrder(
+                        tuple("expired", "node-a"),
+                        tuple("live", "node-b"));
+        assertThat(ran).isTrue();
+    }
+
+    @Test
+    void lostRenewalStopsTheRunAndLeavesTheNewOwnersLeaseAlone() {
+        SchedulerLeases nodeA = node("node-a", false);
+        LocalDateTime[] takenUntil = new LocalDateTime[1];
+        AtomicBoolean continued = new AtomicBoolean();
+
+        boolean ran = nodeA.runLocked("rollup_rebuild", 0, () -> {
+            // The run outlives its lease and another node takes the job over.
+            LocalDateTime later = LocalDateTime.now(ZoneOffset.UTC).plusHours(1).truncatedTo(ChronoUnit.SECONDS);
+            takenUntil[0] = later.plusMinutes(5);
+            assertThat(leaseRepository.takeOver("rollup_rebuild", "node-b", later, takenUntil[0])).isEqualTo(1);
+            SchedulerLeases.checkHeld();
+            nodeA.heartbeat();
+            SchedulerLeases.checkHeld();
+            continued.set(true);
+        });
+
+        assertThat(ran).isTrue();
+        assertThat(continued).isFalse();
+        entityManager.clear();
+        SchedulerLease lease = leaseRepository.findAll().get(0);
+        assertThat(lease.getOwner()).isEqualTo("node-b");
+        assertThat(lease.getLeaseUntil()).isEqualTo(takenUntil[0]);
+    }
+
+    @Test
+    void liveNodesSplitTheUsersBetweenThem() {
+        SchedulerLeases nodeA = node("node-a", true);
+        SchedulerLeases nodeB = node("node-b", true);
+        SchedulerLeases nodeC = node("node-c", true);
+        nodeRepository.saveAndFlush(SchedulerNode.builder()
+                .nodeId("node-0-gone").heartbeatAt(LocalDateTime.now(ZoneOffset.UTC).minusMinutes(5)).build());
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+        nodeC.heartbeat();
+
+        assertThat(nodeA.shards()).isEqualTo(new SchedulerLeases.Shards(0, 3));
+        assertThat(nodeB.shards()).isEqualTo(new SchedulerLeases.Shards(1, 3));
+        assertThat(nodeC.shards()).isEqualTo(new SchedulerLeases.Shards(2, 3));
+
+        nodeB.leave();
+        assertThat(nodeC.shards()).isEqualTo(new SchedulerLeases.Shards(1, 2));
+        assertThat(node("node-d", false).shards()).isEqualTo(new SchedulerLeases.Shards(0, 1));
+    }
+
+    private SchedulerLeases node(String nodeId, boolean sharded) {
+        SchedulerLeases leases = new SchedulerLeases(leaseRepository, nodeRepository,
+                new TransactionTemplate(transactionManager), nodeId);
+        ReflectionTestUtils.setField(leases, "sharded", sharded);
+        return leases;
+    }
+
+    private static SchedulerLease lease(String name, String owner, LocalDateTime lockedAt, LocalDateTime until) {
+        return SchedulerLease.builder().name(name).owner(owner).lockedAt(lockedAt).leaseUntil(until).build();
+    }
+}
@@ -1,30 +1,52 @@
 package com.moneyflow.service;
 
+import com.moneyflow.analytics.BudgetSpendCounters;
+import com.moneyflow.analytics.TeamBudgetIndex;
+import com.moneyflow.config.CurrencyProperties;
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
 import com.moneyflow.model.entity.Budget;
 import com.moneyflow.model.entity.Category;
+import com.moneyflow.model.entity.CategoryClosure;
+import com.moneyflow.model.entity.Team;
+import com.moneyflow.model.entity.TeamMember;
 import com.moneyflow.model.entity.User;
 import com.moneyflow.model.enums.CategoryType;
 import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.notification.LiveUpdateHub;
 import com.moneyflow.notification.NotificationService;
 import com.moneyflow.repository.BudgetRepository;
+import com.moneyflow.repository.CategoryClosureRepository;
+import com.moneyflow.repository.TeamMemberRepository;
 import com.moneyflow.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -36,13 +58,34 @@ class BudgetAlertServiceTest {
 
     @Mock private BudgetRepository budgetRepository;
     @Mock private TransactionRepository transactionRepository;
+    @Mock private CategoryClosureRepository closureRepository;
+    @Mock private TeamMemberRepository teamMemberRepository;
+    @Mock private TeamPermissionService teamPermissionService;
     @Mock private NotificationService notificationService;
+    @Mock private LiveUpdateHub liveUpdateHub;
+    @Mock private TransactionTemplate transactionTemplate;
 
-    @InjectMocks private BudgetAlertService service;
+    private BudgetAlertService service;
 
     private static final LocalDate DATE = LocalDate.of(2026, 1, 15);
 
-    private Budget budget(LocalDateTime alertSentAt) {
+    @BeforeEach
+    void setUp() {
+        CurrencyProperties props = new CurrencyProperties();
+        props.setBase("USD");
+        props.setRates(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("1.08")));
+        BudgetSpendCounters counters = new BudgetSpendCounters(transactionRepository, new CurrencyService(props));
+        TeamBudgetIndex index = new TeamBudgetIndex(budgetRepository, closureRepository);
+        service = new BudgetAlertService(budgetRepository, teamMemberRepository, counters, index,
+                teamPermissionService, notificationService, liveUpdateHub, transactionTemplate);
+        when(teamPermissionService.teamId(any())).thenReturn(null);
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private Budget budget(Long id, LocalDateTime alertSentAt) {
         User u = User.builder().email("u@ex.com").build();
         u.setId(1L);
         Category c = Category.builder().name("Food").type(CategoryType.EXPENSE).build();
@@ -51,57 +94,250 @@ class BudgetAlertServiceTest {
                 .user(u).category(c).amount(new BigDecimal("100"))
                 .month(1).year(2026).alertThreshold(new BigDecimal("80.00"))
                 .alertSentAt(alertSentAt).build();
-        b.setId(7L);
+        b.setId(id);
         b.setIsActive(true);
         return b;
     }
 
-    private void stubBudget(Budget b) {
-        when(budgetRepository.findByUserIdAndCategoryIdAndMonthAndYear(1L, 5L, 1, 2026))
-                .thenReturn(Optional.of(b));
+    private void stubBudgets(Budget... budgets) {
+        when(budgetRepository.findForCategoryOrAncestors(1L, 5L, 1, 2026)).thenReturn(List.of(budgets));
     }
 
+    /** Seed value of a counter; the database sum already includes the write being evaluated. */
     private void stubSpent(String amount) {
-        when(transactionRepository.sumAmountByCategoryTypeAndDateRange(
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"USD", new BigDecimal(amount)});
+        when(transactionRepository.sumByCategorySubtreeGroupedByCurrency(
                 eq(1L), eq(5L), eq(TransactionType.EXPENSE), any(), any()))
-                .thenReturn(new BigDecimal(amount));
+                .thenReturn(rows);
+    }
+
+    private static TransactionSnapshot expense(String amount, String currency) {
+        return TransactionSnapshot.builder()
+                .id(11L).userId(1L).accountId(3L).currency(currency).categoryId(5L)
+                .type(TransactionType.EXPENSE).amount(new BigDecimal(amount))
+                .transactionDate(DATE).tagIds(Set.of())
+                .build();
     }
 
     @Test
     void firesAlertOnceWhenThresholdCrossed() {
-        Budget b = budget(null);
-        stubBudget(b);
+        Budget b = budget(7L, null);
+        stubBudgets(b);
         stubSpent("90"); // 90% >= 80% threshold
 
-        service.evaluateForCategory(1L, 5L, DATE);
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("10", "USD")));
+
+        service.flush();
 
         verify(notificationService, times(1))
                 .sendBudgetAlert(any(), any(), any(), any(), anyBoolean());
         assertThat(b.getAlertSentAt()).isNotNull();
     }
 
+    @Test
+    void evaluatesBudgetsOnAncestorCategories() {
+        stubBudgets(budget(7L, null), budget(8L, null));
+        stubSpent("90");
+
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("10", "USD")));
+
+        service.flush();
+
+        verify(notificationService, times(2))
+                .sendBudgetAlert(any(), any(), any(), any(), anyBoolean());
+    }
+
     @Test
     void doesNotResendWhenAlreadyAlerted() {
-        Budget b = budget(LocalDateTime.of(2026, 1, 10, 9, 0));
-        stubBudget(b);
+        stubBudgets(budget(7L, LocalDateTime.of(2026, 1, 10, 9, 0)));
         stubSpent("95");
 
-        service.evaluateForCategory(1L, 5L, DATE);
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("10", "USD")));
+
+        service.flush();
 
         verify(notificationService, never())
                 .sendBudgetAlert(any(), any(), any(), any(), anyBoolean());
     }
 
+    @Test
+    void failedBatchIsRetriedOnTheNextFlushWithoutCountingTwice() {
+        Budget b = budget(7L, null);
+        stubBudgets(b);
+        stubSpent("90");
+        doThrow(new IllegalStateException("mail down")).doNothing()
+                .when(notificationService).sendBudgetAlert(any(), any(), any(), any(), anyBoolean());
+
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("10", "USD")));
+        service.flush();
+        assertThat(b.getAlertSentAt()).isNull();
+
+        service.flush();
+
+        verify(notificationService, times(2))
+                .sendBudgetAlert(any(), any(), argThat(spent -> spent.compareTo(new BigDecimal("90")) == 0), any(), anyBoolean());
+        assertThat(b.getAlertSentAt()).isNotNull();
+    }
+
     @Test
     void rearmsWhenSpendingDropsBelowThreshold() {
-        Budget b = budget(LocalDateTime.of(2026, 1, 10, 9, 0));
-        stubBudget(b);
+        Budget b = budget(7L, LocalDateTime.of(2026, 1, 10, 9, 0));
+        stubBudgets(b);
         stubSpent("50"); // back under threshold
 
-        service.evaluateForCategory(1L, 5L, DATE);
+        service.onTransactionChanged(TransactionChangedEvent.deleted(expense("40", "USD")));
+
+        service.flush();
 
         verify(notificationService, never())
                 .sendBudgetAlert(any(), any(), any(), any(), anyBoolean());
         assertThat(b.getAlertSentAt()).isNull();
     }
+
+    @Test
+    void doesNotRearmWhenDatabaseSpendIsStillOverThreshold() {
+        Budget b = budget(7L, LocalDateTime.of(2026, 1, 10, 9, 0));
+        stubBudgets(b);
+        List<Object[]> seed = new ArrayList<>();
+        seed.add(new Object[]{"USD", new BigDecimal("95")});
+        List<Object[]> afterOtherNode = new ArrayList<>();
+        afterOtherNode.add(new Object[]{"USD", new BigDecimal("85")});
+        when(transactionRepository.sumByCategorySubtreeGroupedByCurrency(
+                eq(1L), eq(5L), eq(TransactionType.EXPENSE), any(), any()))
+                .thenReturn(seed, afterOtherNode);
+
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("5", "USD")));
+        service.flush();
+        // This node only sees the deletion; another node added 30 meanwhile.
+        service.onTransactionChanged(TransactionChangedEvent.deleted(expense("40", "USD")));
+        service.flush();
+
+        assertThat(b.getAlertSentAt()).isNotNull();
+        verify(budgetRepository, never()).save(any());
+        verify(liveUpdateHub, never()).budgetAlertChanged(any(), any(), any());
+    }
+
+    @Test
+    void laterWritesUseCounterInsteadOfAggregateQuery() {
+        Budget b = budget(7L, null);
+        stubBudgets(b);
+        stubSpent("50");
+
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("10", "USD")));
+
+        service.flush();
+        assertThat(b.getAlertSentAt()).isNull();
+
+        // 50 + 25 EUR (27 USD) = 77: still under; +5 more = 82 crosses 80%.
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("25", "EUR")));
+        service.flush();
+        assertThat(b.getAlertSentAt()).isNull();
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("5", "USD")));
+        service.flush();
+
+        assertThat(b.getAlertSentAt()).isNotNull();
+        verify(transactionRepository, times(1)).sumByCategorySubtreeGroupedByCurrency(
+                any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void coalescesWritesToSameCategoryIntoOneEvaluation() {
+        Budget b = budget(7L, null);
+        stubBudgets(b);
+        stubSpent("90"); // includes all three committed writes
+
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("10", "USD")));
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("20", "USD")));
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("30", "USD")));
+        verify(budgetRepository, never()).findForCategoryOrAncestors(any(), any(), any(), any());
+
+        service.flush();
+        service.flush();
+
+        verify(budgetRepository, times(1)).findForCategoryOrAncestors(any(), any(), any(), any());
+        verify(notificationService, times(1))
+                .sendBudgetAlert(any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void skipsWritesThatCancelOut() {
+        stubBudgets(budget(7L, null));
+
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("10", "USD")));
+        service.onTransactionChanged(TransactionChangedEvent.deleted(expense("10", "USD")));
+        service.flush();
+
+        verify(budgetRepository, never()).findForCategoryOrAncestors(any(), any(), any(), any());
+    }
+
+    @Test
+    void ignoresNonExpenseWrites() {
+        stubBudgets(budget(7L, null));
+
+        service.onTransactionChanged(TransactionChangedEvent.created(TransactionSnapshot.builder()
+                .id(12L).userId(1L).accountId(3L).currency("USD").categoryId(5L)
+                .type(TransactionType.INCOME).amount(new BigDecimal("500"))
+                .transactionDate(DATE).tagIds(Set.of()).build()));
+
+        service.flush();
+
+        verify(budgetRepository, never()).findForCategoryOrAncestors(any(), any(), any(), any());
+    }
+
+    @Test
+    void evaluatesTeamBudgetsFromIndexAndNotifiesMembersInOneBatch() {
+        Team team = Team.builder().name("Home").build();
+        team.setId(30L);
+        Category parent = Category.builder().name("Household").type(CategoryType.EXPENSE).build();
+        parent.setId(4L);
+        Budget teamBudget = budget(9L, null);
+        teamBudget.setTeam(team);
+        teamBudget.setCategory(parent);
+        when(teamPermissionService.teamId(1L)).thenReturn(30L);
+        when(budgetRepository.findByTeamIdAndMonthAndYearAndIsActiveTrue(30L, 1, 2026))
+                .thenReturn(List.of(teamBudget));
+        when(closureRepository.findByAncestorIdIn(anyCollection()))
+                .thenReturn(List.of(CategoryClosure.builder().ancestorId(4L).descendantId(5L).depth(1).build()));
+        when(budgetRepository.findAllById(List.of(9L))).thenReturn(List.of(teamBudget));
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"USD", new BigDecimal("70")});
+        when(transactionRepository.sumTeamCategorySubtreeGroupedByCurrency(
+                eq(30L), eq(4L), eq(TransactionType.EXPENSE), any(), any())).thenReturn(rows);
+        User member = User.builder().email("m@ex.com").build();
+        when(teamMemberRepository.findWithUserByTeamId(30L)).thenReturn(List.of(
+                TeamMember.builder().team(team).user(teamBudget.getUser()).build(),
+                TeamMember.builder().team(team).user(member).build()));
+
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("5", "USD")));
+
+        service.flush();
+        assertThat(teamBudget.getAlertSentAt()).isNull();
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("10", "USD")));
+        service.flush();
+
+        assertThat(teamBudget.getAlertSentAt()).isNotNull();
+        verify(notificationService, times(1)).sendTeamBudgetAlert(
+                eq(List.of(teamBudget.getUser(), member)), eq(teamBudget), any(), any(), anyBoolean());
+        verify(notificationService, never()).sendBudgetAlert(any(), any(), any(), any(), anyBoolean());
+        verify(liveUpdateHub).budgetAlertChanged(eq(1L), eq(30L), any());
+        // Index and counter are each built once; later writes reuse them.
+        verify(budgetRepository, times(1)).findByTeamIdAndMonthAndYearAndIsActiveTrue(any(), any(), any());
+        verify(transactionRepository, times(1)).sumTeamCategorySubtreeGroupedByCurrency(
+                any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void skipsTeamLookupsWhenTeamHasNoBudgetForCategory() {
+        when(teamPermissionService.teamId(1L)).thenReturn(30L);
+        when(budgetRepository.findByTeamIdAndMonthAndYearAndIsActiveTrue(30L, 1, 2026)).thenReturn(List.of());
+
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("10", "USD")));
+
+        service.flush();
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("10", "USD")));
+
+        verify(budgetRepository, times(1)).findByTeamIdAndMonthAndYearAndIsActiveTrue(any(), any(), any());
+        verify(budgetRepository, never()).findAllById(anyList());
+    }
 }
@@ -0,0 +1,292 @@
+package com.moneyflow.service;
+
+import com.moneyflow.analytics.PeriodAggregate;
+import com.moneyflow.analytics.TeamBudgetIndex;
+import com.moneyflow.config.CurrencyProperties;
+import com.moneyflow.exception.ResourceNotFoundException;
+import com.moneyflow.model.dto.budget.BudgetPlanRequest;
+import com.moneyflow.model.dto.budget.BudgetPlanResponse;
+import com.moneyflow.model.dto.budget.BudgetResponse;
+import com.moneyflow.model.entity.Budget;
+import com.moneyflow.model.entity.Category;
+import com.moneyflow.model.entity.CategoryClosure;
+import com.moneyflow.model.entity.DailyCategoryTotal;
+import com.moneyflow.model.entity.SnapshotState;
+import com.moneyflow.model.entity.Team;
+import com.moneyflow.model.entity.User;
+import com.moneyflow.model.enums.CategoryType;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.BudgetBulkRepository;
+import com.moneyflow.repository.BudgetRepository;
+import com.moneyflow.repository.CategoryClosureRepository;
+import com.moneyflow.repository.CategoryRepository;
+import com.moneyflow.repository.DailyCategoryTotalRepository;
+import com.moneyflow.repository.SnapshotStateRepository;
+import com.moneyflow.repository.TeamMemberRepository;
+import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.repository.UserRepository;
+import com.moneyflow.security.SecurityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BudgetServiceTest {
+
+    @Mock private BudgetRepository budgetRepository;
+    @Mock private CategoryRepository categoryRepository;
+    @Mock private CategoryClosureRepository categoryClosureRepository;
+    @Mock private TeamMemberRepository teamMemberRepository;
+    @Mock private TransactionRepository transactionRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private TeamPermissionService teamPermissionService;
+    @Mock private TeamBudgetIndex teamBudgetIndex;
+    @Mock private BudgetBulkRepository budgetBulkRepository;
+    @Mock private DailyCategoryTotalRepository dailyTotalRepository;
+    @Mock private SnapshotStateRepository stateRepository;
+
+    private BudgetService service;
+    private MockedStatic<SecurityUtils> security;
+
+    @BeforeEach
+    void setUp() {
+        CurrencyProperties props = new CurrencyProperties();
+        props.setBase("USD");
+        props.setRates(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("1.08")));
+        service = new BudgetService(budgetRepository, budgetBulkRepository, categoryRepository, categoryClosureRepository,
+                teamMemberRepository, transactionRepository, userRepository, new CurrencyService(props), teamPermissionService,
+                teamBudgetIndex, dailyTotalRepository, stateRepository);
+        when(stateRepository.findByName(DailyRollupService.STATE_NAME))
+                .thenReturn(Optional.of(SnapshotState.builder().name(DailyRollupService.STATE_NAME).build()));
+        security = mockStatic(SecurityUtils.class);
+        security.when(SecurityUtils::getCurrentUserId).thenReturn(1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        security.close();
+    }
+
+    @Test
+    void yearViewUsesConstantQueryCount() {
+        for (int categories : new int[]{1, 20}) {
+            List<Budget> budgets = new ArrayList<>();
+            for (long c = 1; c <= categories; c++) {
+                for (int month = 1; month <= 12; month++) {
+                    budgets.add(budget(c * 100 + month, category(c), month, null));
+                }
+            }
+            when(budgetRepository.findVisibleByYear(1L, 2026)).thenReturn(budgets);
+
+            assertThat(service.getBudgetsByYear(2026)).hasSize(categories * 12);
+        }
+
+        verify(categoryClosureRepository, times(2)).findByAncestorIdIn(anyCollection());
+        verify(transactionRepository, times(2)).sumSpendByCategoryMonthGrouped(anyCollection(), anyCollection(), any(), any());
+        verify(teamMemberRepository, never()).findMemberPairs(anyCollection());
+        verifyNoMoreInteractions(transactionRepository, categoryClosureRepository);
+    }
+
+    @Test
+    void sumsSubcategoriesPerCurrencyAndScopesSpendToOwnerOrTeamMembers() {
+        Category food = category(5L);
+        Category groceries = category(6L);
+        Budget personal = budget(1L, food, 1, null);
+        Team team = Team.builder().name("Household").build();
+        team.setId(9L);
+        Budget teamBudget = budget(2L, groceries, 1, team);
+        when(budgetRepository.findVisibleByMonthAndYear(1L, 1, 2026)).thenReturn(List.of(personal, teamBudget));
+        when(categoryClosureRepository.findByAncestorIdIn(anyCollection())).thenReturn(List.of(
+                CategoryClosure.builder().ancestorId(5L).descendantId(6L).depth(1).build()));
+        List<Object[]> members = new ArrayList<>();
+        members.add(new Object[]{9L, 1L});
+        members.add(new Object[]{9L, 2L});
+        when(teamMemberRepository.findMemberPairs(anyCollection())).thenReturn(members);
+        when(transactionRepository.sumSpendByCategoryMonthGrouped(anyCollection(), anyCollection(), any(), any())).thenReturn(List.of(
+                row(1L, 5L, "USD", "10"),
+                row(1L, 6L, "USD", "20"),
+                row(1L, 6L, "EUR", "50"),
+                row(2L, 6L, "USD", "100"),
+                row(3L, 6L, "USD", "1000")));
+
+        List<BudgetResponse> responses = service.getBudgetsByMonthAndYear(1, 2026);
+
+        // Personal Food: own Food + own Groceries (10 + 20 + 50 EUR).
+        assertThat(responses.get(0).getSpent()).isEqualByComparingTo("84");
+        // Team Groceries: every member's Groceries (20 + 50 EUR + 100); user 3 left the team.
+        assertThat(responses.get(1).getSpent()).isEqualByComparingTo("174");
+    }
+
+    @Test
+    void paceIsLinearWithoutHistory() {
+        BudgetResponse.Pace pace = BudgetService.pace(new BigDecimal("300"), PeriodAggregate.toUnits(new BigDecimal("150")),
+                List.of(new long[31], new long[31], new long[31]), YearMonth.of(2026, 4), LocalDate.of(2026, 4, 10));
+
+        assertThat(pace.getCurve()).isEqualTo(BudgetResponse.PaceCurve.LINEAR);
+        assertThat(pace.getExpectedSpend()).isEqualByComparingTo("100");
+        assertThat(pace.getProjectedSpend()).isEqualByComparingTo("450");
+        // 150 left at (450 - 150) / 20 remaining days = 15 a day.
+        assertThat(pace.getDaysUntilExhausted()).isEqualTo(10);
+        assertThat(pace.getAheadOfPace()).isTrue();
+    }
+
+    @Test
+    void paceFollowsHistoricalDayOfMonthShape() {
+        long[] march = new long[31];
+        march[0] = 100;  // half of the month's spending lands on the 1st (rent)
+        march[30] = 100;
+        BudgetResponse.Pace pace = BudgetService.pace(new BigDecimal("300"), PeriodAggregate.toUnits(new BigDecimal("150")),
+                List.of(new long[31], new long[28], march), YearMonth.of(2026, 4), LocalDate.of(2026, 4, 10));
+
+        assertThat(pace.getCurve()).isEqualTo(BudgetResponse.PaceCurve.HISTORICAL);
+        assertThat(pace.getExpectedSpend()).isEqualByComparingTo("150");
+        assertThat(pace.getProjectedSpend()).isEqualByComparingTo("300");
+        assertThat(pace.getDaysUntilExhausted()).isEqualTo(20);
+        assertThat(pace.getAheadOfPace()).isFalse();
+        assertThat(BudgetService.pace(BigDecimal.TEN, 0, List.of(), YearMonth.of(2026, 5), LocalDate.of(2026, 4, 10)))
+                .isNull();
+    }
+
+    @Test
+    void paceForAllBudgetsReadsDailyRollupsOnce() {
+        List<Budget> budgets = new ArrayList<>();
+        for (long c = 1; c <= 10; c++) {
+            budgets.add(budget(c, category(c), 1, null));
+        }
+        when(budgetRepository.findVisibleByMonthAndYear(1L, 1, 2026)).thenReturn(budgets);
+        when(dailyTotalRepository.findByUserIdInAndCategoryIdInAndTransactionDateBetween(
+                anyCollection(), anyCollection(), any(), any())).thenReturn(List.of(
+                daily(1L, LocalDate.of(2026, 1, 5), "USD", "40"),
+                daily(1L, LocalDate.of(2026, 1, 20), "EUR", "50"),
+                daily(1L, LocalDate.of(2025, 12, 5), "USD", "999"),
+                daily(2L, LocalDate.of(2026, 1, 2), "USD", "7")));
+
+        List<BudgetResponse> responses = service.getPace(1, 2026);
+
+        assertThat(responses).hasSize(10);
+        assertThat(responses.get(0).getSpent()).isEqualByComparingTo("94");
+        // A closed month's pace is its final position.
+        assertThat(responses.get(0).getPace().getProjectedSpend()).isEqualByComparingTo("94");
+        assertThat(responses.get(0).getPace().getExpectedSpend()).isEqualByComparingTo("500");
+        assertThat(responses.get(1).getSpent()).isEqualByComparingTo("7");
+        verify(dailyTotalRepository, times(1)).findByUserIdInAndCategoryIdInAndTransactionDateBetween(
+                anyCollection(), anyCollection(), any(), any());
+        verify(transactionRepository, never()).sumSpendByCategoryMonthGrouped(anyCollection(), anyCollection(), any(), any());
+    }
+
+    @Test
+    void paceSumsTransactionsUntilDailyRollupsAreBuilt() {
+        when(stateRepository.findByName(DailyRollupService.STATE_NAME)).thenReturn(Optional.empty());
+        when(budgetRepository.findVisibleByMonthAndYear(1L, 1, 2026)).thenReturn(List.of(budget(1L, category(1L), 1, null)));
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, 1L, LocalDate.of(2026, 1, 5), TransactionType.EXPENSE, "USD", new BigDecimal("40"), 2L});
+        when(transactionRepository.sumDailyGroupedFor(anyCollection(), anyCollection(), any(), any())).thenReturn(rows);
+
+        List<BudgetResponse> responses = service.getPace(1, 2026);
+
+        assertThat(responses.get(0).getSpent()).isEqualByComparingTo("40");
+        verify(dailyTotalRepository, never()).findByUserIdInAndCategoryIdInAndTransactionDateBetween(
+                anyCollection(), anyCollection(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void planExpandsYearlyEntriesIntoOneBulkWrite() {
+        when(categoryRepository.findAllAvailableForUser(1L)).thenReturn(List.of(category(5L), category(6L)));
+        BudgetPlanRequest request = BudgetPlanRequest.builder()
+                .year(2026)
+                .budgets(List.of(
+                        BudgetPlanRequest.Entry.builder().categoryId(5L).amount(new BigDecimal("300")).build(),
+                        BudgetPlanRequest.Entry.builder().categoryId(5L).month(12).amount(new BigDecimal("600")).build(),
+                        BudgetPlanRequest.Entry.builder().categoryId(6L).month(1).amount(new BigDecimal("50"))
+                                .alertThreshold(new BigDecimal("90")).build()))
+                .build();
+        when(budgetBulkRepository.upsertPlan(eq(1L), eq(2026), any())).thenReturn(List.of(
+                new BudgetBulkRepository.PlanRow(6L, 1, new BigDecimal("50"), new BigDecimal("90"))));
+
+        BudgetPlanResponse response = service.savePlan(request);
+
+        assertThat(response.getSkipped()).containsExactly(
+                BudgetPlanResponse.Skipped.builder().categoryId(6L).month(1).build());
+        ArgumentCaptor<List<BudgetBulkRepository.PlanRow>> rows = ArgumentCaptor.forClass(List.class);
+        verify(budgetBulkRepository, times(1)).upsertPlan(eq(1L), eq(2026), rows.capture());
+        assertThat(rows.getValue()).hasSize(13);
+        assertThat(rows.getValue()).contains(
+                new BudgetBulkRepository.PlanRow(5L, 12, new BigDecimal("600"), new BigDecimal("80.00")),
+                new BudgetBulkRepository.PlanRow(6L, 1, new BigDecimal("50"), new BigDecimal("90")));
+        verify(budgetRepository, never()).save(any());
+    }
+
+    @Test
+    void planRejectsUnavailableCategory() {
+        when(categoryRepository.findAllAvailableForUser(1L)).thenReturn(List.of(category(5L)));
+        BudgetPlanRequest request = BudgetPlanRequest.builder()
+                .year(2026)
+                .budgets(List.of(BudgetPlanRequest.Entry.builder().categoryId(7L).amount(BigDecimal.TEN).build()))
+                .build();
+
+        assertThatThrownBy(() -> service.savePlan(request)).isInstanceOf(ResourceNotFoundException.class);
+        verify(budgetBulkRepository, never()).upsertPlan(any(), anyInt(), any());
+    }
+
+    private static DailyCategoryTotal daily(Long categoryId, LocalDate date, String currency, String amount) {
+        return DailyCategoryTotal.builder()
+                .userId(1L).categoryId(categoryId).transactionDate(date).type(TransactionType.EXPENSE)
+                .currency(currency).amount(new BigDecimal(amount)).transactionCount(1L)
+                .build();
+    }
+
+    private static Object[] row(Long userId, Long categoryId, String currency, String amount) {
+        return new Object[]{userId, categoryId, 2026, 1, TransactionType.EXPENSE, currency, new BigDecimal(amount)};
+    }
+
+    private static Category category(Long id) {
+        Category category = Category.builder().name("Category " + id).type(CategoryType.EXPENSE).build();
+        category.setId(id);
+        return category;
+    }
+
+    private static Budget budget(Long id, Category category, int month, Team team) {
+        User owner = User.builder().email("u@ex.com").build();
+        owner.setId(1L);
+        Budget budget = Budget.builder()
+                .user(owner)
+                .team(team)
+                .category(category)
+                .amount(new BigDecimal("500"))
+                .month(month)
+                .year(2026)
+                .build();
+        budget.setId(id);
+        return budget;
+    }
+}
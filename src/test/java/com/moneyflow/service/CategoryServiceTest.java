@@ -0,0 +1,156 @@
+package com.moneyflow.service;
+
+import com.moneyflow.analytics.TeamBudgetIndex;
+import com.moneyflow.exception.BadRequestException;
+import com.moneyflow.model.dto.category.CreateCategoryRequest;
+import com.moneyflow.model.dto.category.UpdateCategoryRequest;
+import com.moneyflow.model.entity.User;
+import com.moneyflow.model.enums.CategoryType;
+import com.moneyflow.repository.CategoryClosureRepository;
+import com.moneyflow.repository.UserRepository;
+import com.moneyflow.security.SecurityUtils;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mockStatic;
+
+/**
+ * Closure table maintenance, checked against the rows actually stored (H2 dev schema).
+ */
+@DataJpaTest
+@ActiveProfiles("dev")
+@Import(CategoryService.class)
+class CategoryServiceTest {
+
+    @Autowired private CategoryService service;
+    @Autowired private CategoryClosureRepository closureRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TestEntityManager entityManager;
+
+    @MockBean private TeamPermissionService teamPermissionService;
+    @MockBean private TeamBudgetIndex teamBudgetIndex;
+
+    private MockedStatic<SecurityUtils> security;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .email("closure@ex.com").password("x").firstName("C").build());
+        security = mockStatic(SecurityUtils.class);
+        security.when(SecurityUtils::getCurrentUserId).thenReturn(user.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        security.close();
+    }
+
+    @Test
+    void createUnderParentLinksToEveryAncestor() {
+        Long food = create("Food", null);
+        Long groceries = create("Groceries", food);
+        Long produce = create("Produce", groceries);
+
+        assertThat(links()).containsExactlyInAnyOrder(
+                tuple(food, groceries, 1),
+                tuple(food, produce, 2),
+                tuple(groceries, produce, 1));
+    }
+
+    @Test
+    void movingSubtreeRelinksItUnderTheNewParent() {
+        Long food = create("Food", null);
+        Long home = create("Home", null);
+        Long groceries = create("Groceries", food);
+        Long produce = create("Produce", groceries);
+        Long kitchen = create("Kitchen", home);
+
+        service.updateCategory(groceries, UpdateCategoryRequest.builder().parentId(kitchen).build());
+        flush();
+
+        assertThat(links()).containsExactlyInAnyOrder(
+                tuple(home, kitchen, 1),
+                tuple(home, groceries, 2),
+                tuple(home, produce, 3),
+                tuple(kitchen, groceries, 1),
+                tuple(kitchen, produce, 2),
+                tuple(groceries, produce, 1));
+
+        service.updateCategory(groceries, UpdateCategoryRequest.builder().topLevel(true).build());
+        flush();
+
+        assertThat(links()).containsExactlyInAnyOrder(
+                tuple(home, kitchen, 1),
+                tuple(groceries, produce, 1));
+    }
+
+    @Test
+    void rejectsMovingUnderOwnSubtree() {
+        Long food = create("Food", null);
+        Long groceries = create("Groceries", food);
+        Long produce = create("Produce", groceries);
+
+        assertThatThrownBy(() -> service.updateCategory(food, UpdateCategoryRequest.builder().parentId(produce).build()))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.updateCategory(food, UpdateCategoryRequest.builder().parentId(food).build()))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void rejectsParentOfAnotherType() {
+        Long salary = service.createCategory(CreateCategoryRequest.builder()
+                .name("Salary").type(CategoryType.INCOME).build()).getId();
+
+        assertThatThrownBy(() -> create("Bonus", salary)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void parentCanBeDeletedOnceItsSubcategoriesAre() {
+        Long food = create("Food", null);
+        Long groceries = create("Groceries", food);
+
+        assertThatThrownBy(() -> service.deleteCategory(food)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.updateCategory(food,
+                UpdateCategoryRequest.builder().type(CategoryType.INCOME).build()))
+                .isInstanceOf(BadRequestException.class);
+
+        service.deleteCategory(groceries);
+        flush();
+        service.deleteCategory(food);
+
+        // The deleted subcategory keeps its link so its history still rolls up.
+        assertThat(links()).containsExactly(tuple(food, groceries, 1));
+    }
+
+    private Long create(String name, Long parentId) {
+        Long id = service.createCategory(CreateCategoryRequest.builder()
+                .name(name).type(CategoryType.EXPENSE).parentId(parentId).build()).getId();
+        flush();
+        return id;
+    }
+
+    private List<Tuple> links() {
+        return closureRepository.findAll().stream()
+                .map(c -> tuple(c.getAncestorId(), c.getDescendantId(), c.getDepth()))
+                .toList();
+    }
+
+    private void flush() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,183 @@
+package com.moneyflow.service;
+
+import com.moneyflow.analytics.TransactionColumnStore;
+import com.moneyflow.config.CurrencyProperties;
+import com.moneyflow.exception.BadRequestException;
+import com.moneyflow.model.dto.dashboard.DashboardSummary;
+import com.moneyflow.model.dto.dashboard.TeamDashboard;
+import com.moneyflow.model.entity.Account;
+import com.moneyflow.model.entity.Category;
+import com.moneyflow.model.entity.Team;
+import com.moneyflow.model.entity.TeamMember;
+import com.moneyflow.model.entity.Transaction;
+import com.moneyflow.model.entity.User;
+import com.moneyflow.model.enums.AccountType;
+import com.moneyflow.model.enums.TeamRole;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.AccountRepository;
+import com.moneyflow.repository.CategoryClosureRepository;
+import com.moneyflow.repository.CategoryRepository;
+import com.moneyflow.repository.TeamMemberRepository;
+import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.security.SecurityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DashboardServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 3, 1);
+    private static final LocalDate END = LocalDate.of(2026, 3, 31);
+
+    @Mock private AccountRepository accountRepository;
+    @Mock private TransactionRepository transactionRepository;
+    @Mock private TeamPermissionService teamPermissionService;
+    @Mock private TeamMemberRepository teamMemberRepository;
+    @Mock private CategoryRepository categoryRepository;
+    @Mock private CategoryClosureRepository categoryClosureRepository;
+    @Mock private TransactionColumnStore columnStore;
+    @Mock private MonthlySnapshotService monthlySnapshotService;
+    @Mock private MerchantInsightService merchantInsightService;
+
+    private DashboardService service;
+    private MockedStatic<SecurityUtils> security;
+
+    @BeforeEach
+    void setUp() {
+        CurrencyProperties props = new CurrencyProperties();
+        props.setBase("USD");
+        props.setRates(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("2")));
+        service = new DashboardService(accountRepository, transactionRepository, teamPermissionService,
+                teamMemberRepository, new CurrencyService(props), categoryRepository, categoryClosureRepository,
+                columnStore, monthlySnapshotService, merchantInsightService);
+        security = mockStatic(SecurityUtils.class);
+        security.when(SecurityUtils::getCurrentUserId).thenReturn(1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        security.close();
+    }
+
+    @Test
+    void teamDashboardPartitionsOneGroupedQueryByMember() {
+        when(teamPermissionService.teamId(1L)).thenReturn(7L);
+        when(teamMemberRepository.findWithUserByTeamId(7L)).thenReturn(List.of(member(1L, "Ann"), member(2L, "Bob"), member(3L, "Cy")));
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, TransactionType.EXPENSE, 5L, "USD", new BigDecimal("30"), 2L});
+        rows.add(new Object[]{2L, TransactionType.EXPENSE, 5L, "EUR", new BigDecimal("50"), 1L});
+        rows.add(new Object[]{2L, TransactionType.INCOME, 6L, "USD", new BigDecimal("200"), 1L});
+        when(transactionRepository.sumTeamGroupedByMember(7L, START, END)).thenReturn(rows);
+        when(categoryRepository.findAllById(any())).thenReturn(List.of(category(5L, "Food"), category(6L, "Salary")));
+
+        TeamDashboard res = service.getTeamDashboard(START, END);
+
+        verify(transactionRepository, times(1)).sumTeamGroupedByMember(7L, START, END);
+        assertThat(res.getTotalExpense()).isEqualByComparingTo("130");
+        assertThat(res.getTotalIncome()).isEqualByComparingTo("200");
+        assertThat(res.getTotalTransactions()).isEqualTo(4);
+        assertThat(res.getMembers()).extracting(TeamDashboard.MemberSummary::getUserId).containsExactly(2L, 1L, 3L);
+        assertThat(res.getMembers().get(0).getTotalExpense()).isEqualByComparingTo("100");
+        assertThat(res.getMembers().get(1).getTopExpenseCategories().get(0).getTransactionCount()).isEqualTo(2);
+        assertThat(res.getMembers().get(2).getTotalTransactions()).isZero();
+    }
+
+    @Test
+    void teamDashboardReportsFormerMembersSoTheBreakdownAddsUp() {
+        when(teamPermissionService.teamId(1L)).thenReturn(7L);
+        when(teamMemberRepository.findWithUserByTeamId(7L)).thenReturn(List.of(member(1L, "Ann")));
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, TransactionType.EXPENSE, 5L, "USD", new BigDecimal("30"), 2L});
+        rows.add(new Object[]{8L, TransactionType.EXPENSE, 5L, "USD", new BigDecimal("40"), 1L});
+        rows.add(new Object[]{9L, TransactionType.EXPENSE, 5L, "USD", new BigDecimal("50"), 3L});
+        when(transactionRepository.sumTeamGroupedByMember(7L, START, END)).thenReturn(rows);
+        when(categoryRepository.findAllById(any())).thenReturn(List.of(category(5L, "Food")));
+
+        TeamDashboard res = service.getTeamDashboard(START, END);
+
+        assertThat(res.getTotalExpense()).isEqualByComparingTo("120");
+        assertThat(res.getMembers()).extracting(TeamDashboard.MemberSummary::getUserId).containsExactly(1L, null);
+        TeamDashboard.MemberSummary former = res.getMembers().get(1);
+        assertThat(former.getName()).isEqualTo(DashboardService.FORMER_MEMBERS);
+        assertThat(former.getTotalExpense()).isEqualByComparingTo("90");
+        assertThat(former.getTotalTransactions()).isEqualTo(4);
+    }
+
+    @Test
+    void summaryRollsSubcategoriesUpToTopLevel() {
+        Account account = Account.builder().currency("USD").balance(BigDecimal.ZERO).type(AccountType.BANK).build();
+        account.setId(10L);
+        when(accountRepository.findAllAccessibleByUser(1L)).thenReturn(List.of(account));
+        when(transactionRepository.findByAccountIdInAndTransactionDateBetweenAndIsActiveTrue(any(), any(), any()))
+                .thenReturn(List.of(
+                        transaction(account, category(11L, "Groceries"), TransactionType.EXPENSE, "30"),
+                        transaction(account, category(12L, "Restaurants"), TransactionType.EXPENSE, "20"),
+                        transaction(account, category(6L, "Salary"), TransactionType.INCOME, "100")));
+        List<Object[]> roots = new ArrayList<>();
+        roots.add(new Object[]{11L, 5L});
+        roots.add(new Object[]{12L, 5L});
+        when(categoryClosureRepository.findRootPairs(any())).thenReturn(roots);
+        when(categoryRepository.findAllById(any())).thenReturn(List.of(category(5L, "Food"), category(6L, "Salary")));
+
+        DashboardSummary res = service.getDashboardSummary(START, END, true);
+
+        assertThat(res.getTopExpenseCategories()).hasSize(1);
+        assertThat(res.getTopExpenseCategories().get(0).getName()).isEqualTo("Food");
+        assertThat(res.getTopExpenseCategories().get(0).getAmount()).isEqualByComparingTo("50");
+        assertThat(res.getTopExpenseCategories().get(0).getTransactionCount()).isEqualTo(2);
+        assertThat(res.getTopIncomeCategories().get(0).getName()).isEqualTo("Salary");
+    }
+
+    @Test
+    void teamDashboardRequiresTeam() {
+        when(teamPermissionService.teamId(1L)).thenReturn(null);
+
+        assertThatThrownBy(() -> service.getTeamDashboard(START, END)).isInstanceOf(BadRequestException.class);
+    }
+
+    private static TeamMember member(Long userId, String firstName) {
+        User user = User.builder().firstName(firstName).lastName("X").build();
+        user.setId(userId);
+        Team team = Team.builder().name("Home").build();
+        team.setId(7L);
+        return TeamMember.builder().user(user).team(team).role(TeamRole.MEMBER).build();
+    }
+
+    private static Transaction transaction(Account account, Category category, TransactionType type, String amount) {
+        return Transaction.builder()
+                .account(account)
+                .category(category)
+                .type(type)
+                .amount(new BigDecimal(amount))
+                .transactionDate(START.plusDays(2))
+                .build();
+    }
+
+    private static Category category(Long id, String name) {
+        Category c = Category.builder().name(name).build();
+        c.setId(id);
+        return c;
+    }
+}
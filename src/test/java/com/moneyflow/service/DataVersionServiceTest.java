@@ -0,0 +1,94 @@
+package com.moneyflow.service;
+
+import com.moneyflow.model.entity.DataVersion;
+import com.moneyflow.model.enums.DataVersionScope;
+import com.moneyflow.repository.DataVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DataVersionServiceTest {
+
+    @Mock private DataVersionRepository dataVersionRepository;
+    @Mock private TeamPermissionService teamPermissionService;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private DataVersionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DataVersionService(dataVersionRepository, teamPermissionService, transactionManager);
+    }
+
+    @Test
+    void bumpIncrementsUserAndTeamVersions() {
+        when(teamPermissionService.teamId(1L)).thenReturn(7L);
+        when(dataVersionRepository.increment(DataVersionScope.USER, 1L)).thenReturn(1);
+        when(dataVersionRepository.increment(DataVersionScope.TEAM, 7L)).thenReturn(1);
+
+        service.bump(1L);
+
+        verify(dataVersionRepository).increment(DataVersionScope.USER, 1L);
+        verify(dataVersionRepository).increment(DataVersionScope.TEAM, 7L);
+        verify(dataVersionRepository, never()).save(any());
+    }
+
+    @Test
+    void bumpCreatesMissingRow() {
+        when(teamPermissionService.teamId(1L)).thenReturn(null);
+        when(dataVersionRepository.increment(DataVersionScope.USER, 1L)).thenReturn(0);
+
+        service.bump(1L);
+
+        verify(dataVersionRepository).save(any(DataVersion.class));
+    }
+
+    @Test
+    void bumpRetriesIncrementWhenRowWasCreatedConcurrently() {
+        when(teamPermissionService.teamId(1L)).thenReturn(null);
+        when(dataVersionRepository.increment(DataVersionScope.USER, 1L)).thenReturn(0, 1);
+        when(dataVersionRepository.save(any(DataVersion.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        service.bump(1L);
+
+        verify(dataVersionRepository, times(2)).increment(DataVersionScope.USER, 1L);
+    }
+
+    @Test
+    void etagIsServedFromMemoryUntilATeammateBumps() {
+        when(teamPermissionService.teamId(1L)).thenReturn(7L);
+        when(teamPermissionService.teamId(2L)).thenReturn(7L);
+        when(dataVersionRepository.increment(any(), any())).thenReturn(1);
+        DataVersion user = DataVersion.builder().scope(DataVersionScope.USER).scopeId(1L).dataVersion(3L).build();
+        DataVersion team = DataVersion.builder().scope(DataVersionScope.TEAM).scopeId(7L).dataVersion(5L).build();
+        when(dataVersionRepository.findForUserAndTeam(1L, 7L))
+                .thenReturn(List.of(user, team))
+                .thenReturn(List.of(user, DataVersion.builder()
+                        .scope(DataVersionScope.TEAM).scopeId(7L).dataVersion(6L).build()));
+
+        String first = service.etag(1L);
+        String cached = service.etag(1L);
+        service.bump(2L);
+        String second = service.etag(1L);
+
+        assertThat(first).startsWith("W/\"1-3.7-5.");
+        assertThat(cached).isEqualTo(first);
+        assertThat(second).isNotEqualTo(first);
+        verify(dataVersionRepository, times(2)).findForUserAndTeam(1L, 7L);
+    }
+}
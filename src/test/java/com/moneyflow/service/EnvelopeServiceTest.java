@@ -0,0 +1,184 @@
+package com.moneyflow.service;
+
+import com.moneyflow.config.CurrencyProperties;
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.exception.BadRequestException;
+import com.moneyflow.model.dto.budget.EnvelopeAllocationRequest;
+import com.moneyflow.model.dto.budget.EnvelopeResponse;
+import com.moneyflow.model.entity.Category;
+import com.moneyflow.model.entity.CategoryClosure;
+import com.moneyflow.model.entity.Envelope;
+import com.moneyflow.model.entity.EnvelopeMonth;
+import com.moneyflow.model.entity.User;
+import com.moneyflow.model.enums.CategoryType;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.AccountRepository;
+import com.moneyflow.repository.CategoryClosureRepository;
+import com.moneyflow.repository.CategoryRepository;
+import com.moneyflow.repository.EnvelopeMonthRepository;
+import com.moneyflow.repository.EnvelopeRepository;
+import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.repository.UserRepository;
+import com.moneyflow.security.SecurityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EnvelopeServiceTest {
+
+    private static final YearMonth JAN = YearMonth.of(2026, 1);
+
+    @Mock private EnvelopeRepository envelopeRepository;
+    @Mock private EnvelopeMonthRepository monthRepository;
+    @Mock private CategoryRepository categoryRepository;
+    @Mock private CategoryClosureRepository closureRepository;
+    @Mock private AccountRepository accountRepository;
+    @Mock private TransactionRepository transactionRepository;
+    @Mock private UserRepository userRepository;
+
+    private EnvelopeService service;
+    private MockedStatic<SecurityUtils> security;
+    private Category food;
+
+    @BeforeEach
+    void setUp() {
+        CurrencyProperties props = new CurrencyProperties();
+        props.setBase("USD");
+        props.setRates(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("1.10")));
+        service = new EnvelopeService(envelopeRepository, monthRepository, categoryRepository, closureRepository,
+                accountRepository, transactionRepository, userRepository, new CurrencyService(props));
+        security = mockStatic(SecurityUtils.class);
+        security.when(SecurityUtils::getCurrentUserId).thenReturn(1L);
+
+        food = Category.builder().name("Food").type(CategoryType.EXPENSE).build();
+        food.setId(5L);
+        when(categoryRepository.findByIdAndAvailableForUser(5L, 1L)).thenReturn(Optional.of(food));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(User.builder().email("u@ex.com").build()));
+        when(envelopeRepository.save(any())).thenAnswer(inv -> {
+            Envelope e = inv.getArgument(0);
+            if (e.getId() == null) {
+                e.setId(40L);
+            }
+            return e;
+        });
+        when(monthRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(monthRepository.findForUpdate(any(), any())).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        security.close();
+    }
+
+    private Envelope envelope(String balance) {
+        Envelope e = Envelope.builder().category(food).startMonth(JAN.atDay(1))
+                .balance(new BigDecimal(balance)).build();
+        e.setId(40L);
+        return e;
+    }
+
+    private static TransactionSnapshot expense(String amount, String currency, LocalDate date) {
+        return TransactionSnapshot.builder()
+                .id(11L).userId(1L).accountId(3L).currency(currency).categoryId(6L)
+                .type(TransactionType.EXPENSE).amount(new BigDecimal(amount))
+                .transactionDate(date).tagIds(Set.of())
+                .build();
+    }
+
+    @Test
+    void firstAllocationSeedsEnvelopeWithSpendingSinceItsMonth() {
+        when(envelopeRepository.findForUpdate(1L, 5L)).thenReturn(Optional.empty());
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{2026, 1, "USD", new BigDecimal("30")});
+        rows.add(new Object[]{2026, 2, "EUR", new BigDecimal("10")});
+        when(transactionRepository.sumByCategorySubtreeMonthlySince(1L, 5L, TransactionType.EXPENSE, JAN.atDay(1)))
+                .thenReturn(rows);
+
+        EnvelopeResponse response = service.allocate(EnvelopeAllocationRequest.builder()
+                .categoryId(5L).amount(new BigDecimal("100")).month(1).year(2026).build());
+
+        // 100 assigned - 30 - 11 (10 EUR) already spent.
+        assertThat(response.getBalance()).isEqualByComparingTo("59");
+        assertThat(response.getAllocated()).isEqualByComparingTo("100");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EnvelopeMonth>> seeded = ArgumentCaptor.forClass(List.class);
+        verify(monthRepository).saveAll(seeded.capture());
+        assertThat(seeded.getValue()).extracting(EnvelopeMonth::getMonthStart)
+                .containsExactly(JAN.atDay(1), JAN.plusMonths(1).atDay(1));
+    }
+
+    @Test
+    void rejectsEnvelopeUnderAnotherEnvelope() {
+        when(envelopeRepository.findForUpdate(1L, 5L)).thenReturn(Optional.empty());
+        when(closureRepository.findByDescendantIdOrderByDepth(5L)).thenReturn(List.of(
+                CategoryClosure.builder().ancestorId(4L).descendantId(5L).depth(1).build()));
+        when(envelopeRepository.existsByUserIdAndCategoryIdIn(any(), anyCollection())).thenReturn(true);
+
+        assertThatThrownBy(() -> service.allocate(EnvelopeAllocationRequest.builder()
+                .categoryId(5L).amount(new BigDecimal("100")).build()))
+                .isInstanceOf(BadRequestException.class);
+        verify(monthRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void cannotTakeBackMoreThanEnvelopeHolds() {
+        when(envelopeRepository.findForUpdate(1L, 5L)).thenReturn(Optional.of(envelope("20")));
+
+        assertThatThrownBy(() -> service.allocate(EnvelopeAllocationRequest.builder()
+                .categoryId(5L).amount(new BigDecimal("-25")).month(2).year(2026).build()))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void expenseWritesDrawDownCoveringEnvelope() {
+        Envelope envelope = envelope("100");
+        when(envelopeRepository.findCoveringForUpdate(1L, 6L)).thenReturn(List.of(envelope));
+
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("25", "USD", JAN.atDay(10))));
+        service.onTransactionChanged(TransactionChangedEvent.updated(
+                expense("25", "USD", JAN.atDay(10)), expense("10", "EUR", JAN.atDay(10))));
+
+        // 100 - 25, then the edit puts 25 back and takes 11.
+        assertThat(envelope.getBalance()).isEqualByComparingTo("89");
+    }
+
+    @Test
+    void ignoresSpendingBeforeEnvelopeStarted() {
+        Envelope envelope = envelope("100");
+        when(envelopeRepository.findCoveringForUpdate(1L, 6L)).thenReturn(List.of(envelope));
+
+        service.onTransactionChanged(TransactionChangedEvent.deleted(expense("40", "USD", LocalDate.of(2025, 12, 5))));
+
+        assertThat(envelope.getBalance()).isEqualByComparingTo("100");
+        verify(monthRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,70 @@
+package com.moneyflow.service;
+
+import com.moneyflow.exception.ResourceNotFoundException;
+import com.moneyflow.model.dto.account.AccountResponse;
+import com.moneyflow.model.dto.dashboard.DashboardSummary;
+import com.moneyflow.model.dto.home.HomeResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class HomeServiceTest {
+
+    @Mock private AccountService accountService;
+    @Mock private DashboardService dashboardService;
+    @Mock private BudgetService budgetService;
+    @Mock private SavingsGoalService savingsGoalService;
+    @Mock private RecurringTransactionService recurringTransactionService;
+
+    private HomeService service;
+
+    @BeforeEach
+    void setUp() {
+        // Same-thread executor keeps the test deterministic; the fan-out logic is unchanged.
+        service = new HomeService(accountService, dashboardService, budgetService,
+                savingsGoalService, recurringTransactionService, Runnable::run);
+    }
+
+    @Test
+    void defaultsDashboardPeriodToCurrentMonth() {
+        LocalDate first = LocalDate.now().withDayOfMonth(1);
+        LocalDate last = first.plusMonths(1).minusDays(1);
+        when(dashboardService.getDashboardSummary(first, last)).thenReturn(DashboardSummary.builder().build());
+
+        HomeResponse res = service.getHome(null, null);
+
+        verify(dashboardService).getDashboardSummary(first, last);
+        assertThat(res.getStartDate()).isEqualTo(first);
+        assertThat(res.getEndDate()).isEqualTo(last);
+        assertThat(res.getDashboard().getData()).isNotNull();
+        assertThat(res.getTotalMillis()).isNotNull();
+    }
+
+    @Test
+    void failingSectionDoesNotFailTheOthers() {
+        AccountResponse account = AccountResponse.builder().id(1L).name("Cash").build();
+        when(accountService.getAllAccounts()).thenReturn(List.of(account));
+        when(budgetService.getTriggeredBudgets()).thenThrow(new ResourceNotFoundException("Budget", "id", 9L));
+
+        HomeResponse res = service.getHome(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+
+        assertThat(res.getAccounts().getData()).containsExactly(account);
+        assertThat(res.getAccounts().getError()).isNull();
+        assertThat(res.getTriggeredBudgets().getData()).isNull();
+        assertThat(res.getTriggeredBudgets().getError()).isEqualTo("Section unavailable");
+        assertThat(res.getTriggeredBudgets().getDurationMillis()).isNotNull();
+    }
+}
@@ -0,0 +1,110 @@
+package com.moneyflow.service;
+
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.model.entity.MonthlySnapshot;
+import com.moneyflow.model.entity.SnapshotDirtyMonth;
+import com.moneyflow.model.entity.SnapshotState;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.MonthlySnapshotRepository;
+import com.moneyflow.repository.RollupUpsertRepository;
+import com.moneyflow.repository.SnapshotDirtyMonthRepository;
+import com.moneyflow.repository.SnapshotStateRepository;
+import com.moneyflow.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MonthlySnapshotServiceTest {
+
+    @Mock private MonthlySnapshotRepository snapshotRepository;
+    @Mock private SnapshotDirtyMonthRepository dirtyMonthRepository;
+    @Mock private RollupUpsertRepository upsertRepository;
+    @Mock private SnapshotStateRepository stateRepository;
+    @Mock private TransactionRepository transactionRepository;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private MonthlySnapshotService service;
+
+    @Test
+    void mergesSnapshotDirtyMonthsAndLiveTail() {
+        LocalDate jan = LocalDate.of(2026, 1, 1);
+        LocalDate feb = LocalDate.of(2026, 2, 1);
+        when(stateRepository.findByName("monthly")).thenReturn(Optional.of(
+                SnapshotState.builder().name("monthly").coveredUntil(LocalDate.of(2026, 2, 28)).build()));
+        when(snapshotRepository.findByAccountIdInAndMonthStartBetween(anyCollection(), eq(jan), eq(LocalDate.of(2026, 2, 28))))
+                .thenReturn(List.of(snapshot(jan, "100"), snapshot(feb, "999")));
+        when(dirtyMonthRepository.findByAccountIdInAndMonthStartBetween(anyCollection(), any(), any()))
+                .thenReturn(List.of(SnapshotDirtyMonth.builder().userId(1L).accountId(10L).monthStart(feb).build()));
+        when(transactionRepository.sumMonthlyGroupedForUserAccount(1L, 10L, feb, LocalDate.of(2026, 2, 28)))
+                .thenReturn(rows(grouped(2026, 2, "40")));
+        when(transactionRepository.sumMonthlyGroupedForAccounts(anyCollection(), eq(LocalDate.of(2026, 3, 1)), eq(LocalDate.of(2026, 3, 31))))
+                .thenReturn(rows(grouped(2026, 3, "7")));
+
+        List<MonthlySnapshotService.MonthlyAmount> result =
+                service.monthlyTotalsForAccounts(Set.of(10L), YearMonth.of(2026, 1), YearMonth.of(2026, 3));
+
+        assertThat(result).extracting(MonthlySnapshotService.MonthlyAmount::getAmount)
+                .containsExactlyInAnyOrder(new BigDecimal("100"), new BigDecimal("40"), new BigDecimal("7"));
+    }
+
+    @Test
+    void marksOnlyClosedMonthsDirty() {
+        LocalDate lastMonth = LocalDate.now().minusMonths(1).withDayOfMonth(1);
+        service.onTransactionChanged(TransactionChangedEvent.updated(
+                tx(lastMonth.plusDays(3)), tx(LocalDate.now())));
+
+        verify(upsertRepository).markDirty(eq(1L), eq(10L), eq(lastMonth), any());
+        verify(upsertRepository, never()).markDirty(eq(1L), eq(10L), eq(LocalDate.now().withDayOfMonth(1)), any());
+    }
+
+    @Test
+    void uncoveredMonthIsNotServedFromSnapshot() {
+        when(stateRepository.findByName("monthly")).thenReturn(Optional.empty());
+
+        assertThat(service.findUserMonth(1L, YearMonth.of(2026, 1))).isEmpty();
+    }
+
+    private static MonthlySnapshot snapshot(LocalDate month, String amount) {
+        return MonthlySnapshot.builder().userId(1L).accountId(10L).categoryId(5L)
+                .type(TransactionType.EXPENSE).monthStart(month)
+                .amount(new BigDecimal(amount)).transactionCount(1L).build();
+    }
+
+    private static Object[] grouped(int year, int month, String amount) {
+        return new Object[]{1L, 10L, 5L, TransactionType.EXPENSE, year, month, new BigDecimal(amount), 1L};
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private static TransactionSnapshot tx(LocalDate date) {
+        return TransactionSnapshot.builder().id(3L).userId(1L).accountId(10L).currency("USD").categoryId(5L)
+                .type(TransactionType.EXPENSE).amount(BigDecimal.TEN).transactionDate(date).tagIds(Set.of()).build();
+    }
+}
@@ -0,0 +1,150 @@
+package com.moneyflow.service;
+
+import com.moneyflow.exception.BadRequestException;
+import com.moneyflow.model.entity.JobCheckpoint;
+import com.moneyflow.model.enums.JobRunStatus;
+import com.moneyflow.repository.JobCheckpointRepository;
+import com.moneyflow.repository.RecurringTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RecurringBatchProcessorTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    @Mock private RecurringTransactionRepository recurringTransactionRepository;
+    @Mock private RecurringTransactionService recurringTransactionService;
+    @Mock private JobCheckpointRepository checkpointRepository;
+
+    private RecurringBatchProcessor processor;
+
+    /** Due rule id -> user id; rules leave it once processed, like in the database. */
+    private final TreeMap<Long, Long> due = new TreeMap<>();
+    private final List<Collection<Long>> groups = new ArrayList<>();
+    private final Map<String, JobCheckpoint> checkpoints = new HashMap<>();
+    private JobCheckpoint saved;
+
+    @BeforeEach
+    void setUp() {
+        processor = new RecurringBatchProcessor(recurringTransactionRepository, recurringTransactionService,
+                checkpointRepository, Runnable::run);
+        ReflectionTestUtils.setField(processor, "chunkSize", 2);
+        ReflectionTestUtils.setField(processor, "perUserQuota", 1);
+        when(recurringTransactionRepository.findDueKeysAfter(eq(TODAY), anyInt(), anyInt(), anyLong(),
+                any(Pageable.class)))
+                .thenAnswer(inv -> {
+                    int shard = inv.getArgument(1);
+                    int shardCount = inv.getArgument(2);
+                    long afterId = inv.getArgument(3);
+                    int size = inv.<Pageable>getArgument(4).getPageSize();
+                    List<Object[]> rows = new ArrayList<>();
+                    due.tailMap(afterId, false).entrySet().stream()
+                            .filter(e -> e.getValue() % shardCount == shard)
+                            .limit(size)
+                            .forEach(e -> rows.add(new Object[]{e.getKey(), e.getValue()}));
+                    return rows;
+                });
+        when(recurringTransactionService.processDue(any(), eq(TODAY))).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            groups.add(List.copyOf(ids));
+            ids.forEach(due::remove);
+            return ids.size();
+        });
+        when(checkpointRepository.findByJobName(any()))
+                .thenAnswer(inv -> Optional.ofNullable(checkpoints.get(inv.<String>getArgument(0))));
+        when(checkpointRepository.save(any())).thenAnswer(inv -> {
+            saved = inv.getArgument(0);
+            checkpoints.put(saved.getJobName(), saved);
+            return saved;
+        });
+    }
+
+    @Test
+    void defersUsersOverQuotaToLaterPasses() {
+        due.put(1L, 7L);
+        due.put(2L, 7L);
+        due.put(3L, 7L);
+        due.put(4L, 8L);
+
+        long generated = processor.processDue(TODAY);
+
+        assertThat(generated).isEqualTo(4);
+        // Pass 1 gives user 7 and user 8 one rule each; user 7's others follow one per pass.
+        assertThat(groups).containsExactly(List.of(1L), List.of(4L), List.of(2L), List.of(3L));
+        assertThat(saved.getStatus()).isEqualTo(JobRunStatus.COMPLETED);
+        assertThat(saved.getPassNumber()).isEqualTo(3);
+        assertThat(saved.getProcessedCount()).isEqualTo(4);
+    }
+
+    @Test
+    void retriesFailedGroupRuleByRule() {
+        ReflectionTestUtils.setField(processor, "perUserQuota", 10);
+        due.put(1L, 7L);
+        due.put(2L, 7L);
+        when(recurringTransactionService.processDue(eq(List.of(1L, 2L)), eq(TODAY)))
+                .thenThrow(new BadRequestException("Insufficient balance"));
+        when(recurringTransactionService.processDue(eq(List.of(1L)), eq(TODAY)))
+                .thenThrow(new BadRequestException("Insufficient balance"));
+        when(recurringTransactionService.processDue(eq(List.of(2L)), eq(TODAY))).thenReturn(3);
+
+        long generated = processor.processDue(TODAY);
+
+        assertThat(generated).isEqualTo(3);
+        assertThat(saved.getFailedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shardRunsOnlyItsUsersUnderItsOwnCheckpoint() {
+        ReflectionTestUtils.setField(processor, "perUserQuota", 10);
+        due.put(1L, 7L);
+        due.put(2L, 8L);
+        due.put(3L, 9L);
+
+        long generated = processor.processDue(TODAY, 1, 2);
+
+        assertThat(generated).isEqualTo(2);
+        assertThat(groups).containsExactly(List.of(1L), List.of(3L));
+        assertThat(due).containsOnlyKeys(2L);
+        assertThat(checkpoints).containsOnlyKeys("recurring_transactions#1/2");
+    }
+
+    @Test
+    void resumesInterruptedRunFromCheckpoint() {
+        checkpoints.put(RecurringBatchProcessor.JOB_NAME, JobCheckpoint.builder().jobName(RecurringBatchProcessor.JOB_NAME).runDate(TODAY)
+                .status(JobRunStatus.RUNNING).passNumber(1).lastId(2L)
+                .processedCount(2L).generatedCount(2L).failedCount(0L).build());
+        due.put(1L, 7L); // committed before the checkpoint in a real run; skipped here by the keyset
+        due.put(3L, 8L);
+
+        long generated = processor.processDue(TODAY);
+
+        assertThat(generated).isEqualTo(1);
+        assertThat(groups).containsExactly(List.of(3L));
+        assertThat(saved.getGeneratedCount()).isEqualTo(3);
+    }
+}
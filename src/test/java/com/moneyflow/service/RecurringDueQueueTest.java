@@ -0,0 +1,128 @@
+package com.moneyflow.service;
+
+import com.moneyflow.model.entity.RecurringTransaction;
+import com.moneyflow.model.entity.User;
+import com.moneyflow.repository.RecurringTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecurringDueQueueTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    @Mock private RecurringTransactionRepository recurringTransactionRepository;
+
+    private final MutableClock clock = new MutableClock(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC));
+    private RecurringDueQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new RecurringDueQueue(recurringTransactionRepository, clock);
+        ReflectionTestUtils.setField(queue, "spreadMinutes", 60);
+    }
+
+    private static RecurringTransaction rule(long id, LocalDate next) {
+        User user = User.builder().email("u@example.com").build();
+        user.setId(7L);
+        RecurringTransaction recurring = RecurringTransaction.builder()
+                .user(user).startDate(next).nextExecutionDate(next).isPaused(false).build();
+        recurring.setId(id);
+        return recurring;
+    }
+
+    @Test
+    void firesOverdueAtOnceAndTodaysWithinTheSpreadWindow() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, 7L, TODAY.minusDays(2)});
+        rows.add(new Object[]{2L, 7L, TODAY});
+        rows.add(new Object[]{3L, 8L, TODAY.plusDays(1)});
+        when(recurringTransactionRepository.findDueKeysThrough(any(), eq(0), eq(1))).thenReturn(rows);
+        queue.reload();
+
+        assertThat(queue.pollDue()).extracting(RecurringDueQueue.Entry::ruleId).containsExactly(1L);
+
+        clock.now = clock.now.plusSeconds(3600);
+        assertThat(queue.pollDue()).extracting(RecurringDueQueue.Entry::ruleId).containsExactly(2L);
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    void rescheduleReplacesQueuedInstantAndPauseDropsIt() {
+        queue.schedule(rule(1L, TODAY));
+        queue.schedule(rule(1L, TODAY.plusDays(1)));
+        RecurringTransaction paused = rule(2L, TODAY);
+        paused.setIsPaused(true);
+        queue.schedule(rule(2L, TODAY));
+        queue.schedule(paused);
+
+        clock.now = clock.now.plusSeconds(3600);
+        assertThat(queue.pollDue()).isEmpty();
+        clock.now = clock.now.plusSeconds(24 * 3600);
+        assertThat(queue.pollDue()).extracting(RecurringDueQueue.Entry::dueDate).containsExactly(TODAY.plusDays(1));
+    }
+
+    @Test
+    void holdsOnlyItsShardOfTheUsers() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, 7L, TODAY.minusDays(1)});
+        when(recurringTransactionRepository.findDueKeysThrough(any(), eq(1), eq(2))).thenReturn(rows);
+        queue.reload(1, 2);
+
+        // User 7 is in shard 1 of 2; user 8's rule belongs to the other node.
+        RecurringTransaction other = rule(2L, TODAY.minusDays(1));
+        other.getUser().setId(8L);
+        queue.schedule(other);
+        queue.schedule(rule(3L, TODAY.minusDays(1)));
+
+        assertThat(queue.holdsShard(1, 2)).isTrue();
+        assertThat(queue.pollDue()).extracting(RecurringDueQueue.Entry::ruleId).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void ignoresRulesBeyondTheHorizon() {
+        queue.schedule(rule(1L, TODAY.plusDays(30)));
+
+        assertThat(queue.size()).isZero();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return Clock.fixed(now, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,24 +1,29 @@
 package com.moneyflow.service;
 
+import com.moneyflow.event.TransactionChangedEvent;
 import com.moneyflow.model.entity.Account;
 import com.moneyflow.model.entity.Category;
 import com.moneyflow.model.entity.RecurringTransaction;
+import com.moneyflow.model.entity.Transaction;
 import com.moneyflow.model.entity.User;
 import com.moneyflow.model.enums.CategoryType;
 import com.moneyflow.model.enums.Frequency;
 import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.notification.LiveUpdateHub;
 import com.moneyflow.repository.AccountRepository;
 import com.moneyflow.repository.CategoryRepository;
 import com.moneyflow.repository.RecurringTransactionRepository;
-import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.repository.TransactionBulkRepository;
 import com.moneyflow.repository.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -26,6 +31,9 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,11 +41,13 @@ import static org.mockito.Mockito.when;
 class RecurringTransactionServiceTest {
 
     @Mock private RecurringTransactionRepository recurringTransactionRepository;
-    @Mock private TransactionRepository transactionRepository;
+    @Mock private TransactionBulkRepository transactionBulkRepository;
     @Mock private AccountRepository accountRepository;
     @Mock private CategoryRepository categoryRepository;
     @Mock private UserRepository userRepository;
-    @Mock private BudgetAlertService budgetAlertService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private LiveUpdateHub liveUpdateHub;
+    @Mock private RecurringDueQueue dueQueue;
 
     @InjectMocks private RecurringTransactionService service;
 
@@ -68,27 +78,66 @@ class RecurringTransactionServiceTest {
     void backfillsEveryMissedPeriodUpToToday() {
         LocalDate today = LocalDate.now();
         RecurringTransaction recurring = dailyRecurring(today.minusDays(3), null);
-        when(recurringTransactionRepository.findDueRecurringTransactions(any()))
+        when(recurringTransactionRepository.findByIdInOrderById(any()))
                 .thenReturn(List.of(recurring));
 
-        int processed = service.processDueRecurringTransactions();
+        int processed = service.processDue(List.of(1L), today);
 
         // today-3, today-2, today-1, today => 4 occurrences
         assertThat(processed).isEqualTo(4);
         assertThat(recurring.getNextExecutionDate()).isEqualTo(today.plusDays(1));
     }
 
+    @Test
+    void postsMissedOccurrencesWithOneBatchBalanceUpdateAndEvent() {
+        LocalDate today = LocalDate.now();
+        RecurringTransaction recurring = dailyRecurring(today.minusDays(3), null);
+        when(recurringTransactionRepository.findByIdInOrderById(any()))
+                .thenReturn(List.of(recurring));
+
+        service.processDue(List.of(1L), today);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(transactionBulkRepository).insertAll(inserted.capture());
+        assertThat(inserted.getValue()).extracting(Transaction::getTransactionDate)
+                .containsExactly(today.minusDays(3), today.minusDays(2), today.minusDays(1), today);
+        assertThat(recurring.getAccount().getBalance()).isEqualByComparingTo("-40.00");
+        assertThat(recurring.getExecutionCount()).isEqualTo(4);
+        assertThat(recurring.getTotalPostedAmount()).isEqualByComparingTo("40.00");
+        assertThat(recurring.getLastPostedAmount()).isEqualByComparingTo("10.00");
+        verify(accountRepository, times(1)).save(recurring.getAccount());
+        verify(recurringTransactionRepository, times(1)).save(recurring);
+        ArgumentCaptor<TransactionChangedEvent> event = ArgumentCaptor.forClass(TransactionChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertThat(event.getValue().getChanges()).hasSize(4);
+        verify(dueQueue).schedule(recurring);
+    }
+
     @Test
     void stopsBackfillAtEndDate() {
         LocalDate today = LocalDate.now();
         RecurringTransaction recurring = dailyRecurring(today.minusDays(3), today.minusDays(1));
-        when(recurringTransactionRepository.findDueRecurringTransactions(any()))
+        when(recurringTransactionRepository.findByIdInOrderById(any()))
                 .thenReturn(List.of(recurring));
 
-        int processed = service.processDueRecurringTransactions();
+        int processed = service.processDue(List.of(1L), today);
 
         // today-3, today-2, today-1 (endDate) => 3 occurrences, then stops
         assertThat(processed).isEqualTo(3);
         assertThat(recurring.getNextExecutionDate()).isEqualTo(today);
     }
+
+    @Test
+    void skipsRulePausedSinceItWasPickedUp() {
+        LocalDate today = LocalDate.now();
+        RecurringTransaction recurring = dailyRecurring(today.minusDays(3), null);
+        recurring.setIsPaused(true);
+        when(recurringTransactionRepository.findByIdInOrderById(any()))
+                .thenReturn(List.of(recurring));
+
+        assertThat(service.processDue(List.of(1L), today)).isZero();
+        assertThat(recurring.getNextExecutionDate()).isEqualTo(today.minusDays(3));
+        verify(transactionBulkRepository, never()).insertAll(any());
+    }
 }
@@ -0,0 +1,190 @@
+package com.moneyflow.service;
+
+import com.moneyflow.config.CurrencyProperties;
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.model.dto.budget.SpendDistributionResponse;
+import com.moneyflow.model.entity.Account;
+import com.moneyflow.model.entity.Category;
+import com.moneyflow.model.entity.SnapshotState;
+import com.moneyflow.model.entity.SpendSketch;
+import com.moneyflow.model.entity.Team;
+import com.moneyflow.model.entity.Transaction;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.CategoryRepository;
+import com.moneyflow.repository.RollupUpsertRepository;
+import com.moneyflow.repository.SnapshotStateRepository;
+import com.moneyflow.repository.SpendSketchRepository;
+import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.security.SecurityUtils;
+import com.tdunning.math.stats.MergingDigest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SpendSketchServiceTest {
+
+    @Mock private SpendSketchRepository sketchRepository;
+    @Mock private RollupUpsertRepository upsertRepository;
+    @Mock private TransactionRepository transactionRepository;
+    @Mock private CategoryRepository categoryRepository;
+    @Mock private SnapshotStateRepository stateRepository;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private SpendSketchService service;
+    private MockedStatic<SecurityUtils> security;
+
+    @BeforeEach
+    void setUp() {
+        CurrencyProperties props = new CurrencyProperties();
+        props.setBase("USD");
+        props.setRates(Map.of("USD", BigDecimal.ONE));
+        service = new SpendSketchService(sketchRepository, upsertRepository, transactionRepository, categoryRepository,
+                stateRepository, new CurrencyService(props), transactionTemplate);
+        security = mockStatic(SecurityUtils.class);
+        security.when(SecurityUtils::getCurrentUserId).thenReturn(1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        security.close();
+    }
+
+    @Test
+    void newExpenseIsAddedToExistingDigest() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        SpendSketch existing = sketch(1L, month, new BigDecimal("10"), 10);
+        when(sketchRepository.findForUpdate(1L, 5L, month)).thenReturn(Optional.of(existing));
+
+        service.onTransactionChanged(TransactionChangedEvent.created(expense(month, "20")));
+
+        ArgumentCaptor<SpendSketch> saved = ArgumentCaptor.forClass(SpendSketch.class);
+        verify(sketchRepository).save(saved.capture());
+        assertThat(saved.getValue().getTransactionCount()).isEqualTo(2);
+        assertThat(saved.getValue().getTotalAmount()).isEqualByComparingTo("30");
+        assertThat(SpendSketchService.decode(saved.getValue().getDigest()).size()).isEqualTo(2);
+        verify(transactionRepository, never()).findSpentTransactionsForUser(anyLong(), anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void firstExpenseOfMonthCreatesSketchThroughUpsertAndBuildsItFromTheMonth() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        when(upsertRepository.insertSpendSketchIfAbsent(eq(1L), eq(5L), eq(month), any())).thenReturn(true);
+        when(sketchRepository.findForUpdate(1L, 5L, month)).thenReturn(Optional.of(sketch(1L, month, BigDecimal.ZERO)));
+        Account account = Account.builder().currency("USD").build();
+        when(transactionRepository.findSpentTransactionsForUser(1L, 5L, TransactionType.EXPENSE, month,
+                month.plusMonths(1).minusDays(1))).thenReturn(List.of(
+                Transaction.builder().account(account).amount(new BigDecimal("15")).build(),
+                Transaction.builder().account(account).amount(new BigDecimal("20")).build()));
+
+        service.onTransactionChanged(TransactionChangedEvent.created(expense(month, "20")));
+
+        ArgumentCaptor<SpendSketch> saved = ArgumentCaptor.forClass(SpendSketch.class);
+        verify(sketchRepository).save(saved.capture());
+        // Built from the month's rows, which already include the new one; not added twice.
+        assertThat(saved.getValue().getTransactionCount()).isEqualTo(2);
+        assertThat(saved.getValue().getTotalAmount()).isEqualByComparingTo("35");
+    }
+
+    @Test
+    void mergesMonthsAndMembersForTeamCategory() {
+        Category category = Category.builder().name("Groceries").team(new Team()).build();
+        category.setId(5L);
+        when(categoryRepository.findByIdAndAvailableForUser(5L, 1L)).thenReturn(Optional.of(category));
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        when(sketchRepository.findByCategoryIdInAndMonthStartBetween(anyList(), any(), any())).thenReturn(List.of(
+                sketch(1L, thisMonth, new BigDecimal("100"), 10, 20, 30, 40),
+                sketch(2L, thisMonth, new BigDecimal("50"), 50),
+                sketch(2L, thisMonth.minusMonths(1), new BigDecimal("300"), 60, 70, 80, 90)));
+
+        SpendDistributionResponse res = service.getDistribution(5L, 12).get(0);
+
+        assertThat(res.getTransactionCount()).isEqualTo(9);
+        assertThat(res.getMedianTransaction()).isBetween(new BigDecimal("40"), new BigDecimal("60"));
+        assertThat(res.getMonthsWithSpend()).isEqualTo(2);
+        assertThat(res.getMedianMonthlySpend()).isEqualByComparingTo("150");
+        assertThat(res.getP90MonthlySpend()).isEqualByComparingTo("300");
+    }
+
+    @Test
+    void backfillLocksSketchesBeforeReadingAmountsAndStopsAtLastClosedMonth() {
+        YearMonth lastClosed = YearMonth.now().minusMonths(1);
+        LocalDate start = lastClosed.atDay(1);
+        LocalDate end = lastClosed.atEndOfMonth();
+        when(stateRepository.findByName(SpendSketchService.BACKFILL_STATE)).thenReturn(Optional.of(SnapshotState.builder()
+                .name(SpendSketchService.BACKFILL_STATE).coveredUntil(start.minusDays(1)).build()));
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(transactionRepository.findExpenseKeys(start, end)).thenReturn(List.<Object[]>of(new Object[]{1L, 5L}));
+        when(sketchRepository.findForUpdate(1L, 5L, start)).thenReturn(Optional.of(sketch(1L, start, BigDecimal.ZERO)));
+        when(transactionRepository.findExpenseAmounts(start, end)).thenReturn(List.of(
+                new Object[]{1L, 5L, new BigDecimal("15"), "USD"},
+                // A pair whose first expense arrived after the keys were read belongs to its writer.
+                new Object[]{2L, 5L, new BigDecimal("99"), "USD"}));
+
+        service.backfillIfNeeded();
+
+        InOrder order = inOrder(sketchRepository, transactionRepository);
+        order.verify(sketchRepository).findForUpdate(1L, 5L, start);
+        order.verify(transactionRepository).findExpenseAmounts(start, end);
+        ArgumentCaptor<SpendSketch> saved = ArgumentCaptor.forClass(SpendSketch.class);
+        verify(sketchRepository).save(saved.capture());
+        assertThat(saved.getValue().getUserId()).isEqualTo(1L);
+        assertThat(saved.getValue().getTotalAmount()).isEqualByComparingTo("15");
+        verify(transactionRepository, never()).findExpenseKeys(eq(YearMonth.now().atDay(1)), any());
+        ArgumentCaptor<SnapshotState> progress = ArgumentCaptor.forClass(SnapshotState.class);
+        verify(stateRepository).save(progress.capture());
+        assertThat(progress.getValue().getCoveredUntil()).isEqualTo(end);
+    }
+
+    private static SpendSketch sketch(Long userId, LocalDate month, BigDecimal total, double... points) {
+        MergingDigest digest = new MergingDigest(SpendSketchService.COMPRESSION);
+        for (double p : points) {
+            digest.add(p);
+        }
+        return SpendSketch.builder().userId(userId).categoryId(5L).monthStart(month)
+                .digest(SpendSketchService.encode(digest))
+                .transactionCount((long) points.length).totalAmount(total).build();
+    }
+
+    private static TransactionSnapshot expense(LocalDate date, String amount) {
+        return TransactionSnapshot.builder().id(9L).userId(1L).accountId(10L).currency("USD").categoryId(5L)
+                .type(TransactionType.EXPENSE).amount(new BigDecimal(amount)).transactionDate(date)
+                .tagIds(Set.of()).build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.moneyflow.service;
+
+import com.moneyflow.config.CurrencyProperties;
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.model.entity.Category;
+import com.moneyflow.model.entity.SpendingStats;
+import com.moneyflow.model.entity.User;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.notification.NotificationService;
+import com.moneyflow.repository.CategoryRepository;
+import com.moneyflow.repository.RollupUpsertRepository;
+import com.moneyflow.repository.SpendingStatsRepository;
+import com.moneyflow.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SpendingAnomalyServiceTest {
+
+    @Mock private SpendingStatsRepository statsRepository;
+    @Mock private RollupUpsertRepository upsertRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private CategoryRepository categoryRepository;
+    @Mock private NotificationService notificationService;
+
+    private SpendingAnomalyService service;
+    private SpendingStats stats;
+
+    @BeforeEach
+    void setUp() {
+        CurrencyProperties props = new CurrencyProperties();
+        props.setBase("USD");
+        props.setRates(Map.of("USD", BigDecimal.ONE));
+        service = new SpendingAnomalyService(statsRepository, upsertRepository, userRepository, categoryRepository,
+                new CurrencyService(props), notificationService);
+
+        User user = User.builder().email("u@ex.com").build();
+        user.setId(1L);
+        Category category = Category.builder().name("Food").build();
+        category.setId(5L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(categoryRepository.findById(5L)).thenReturn(Optional.of(category));
+        stats = SpendingStats.builder().userId(1L).categoryId(5L).build();
+        when(statsRepository.findForUpdate(1L, 5L)).thenAnswer(i -> Optional.of(stats));
+    }
+
+    @Test
+    void maintainsRunningMeanAndVariance() {
+        for (String amount : new String[]{"10", "20", "30", "40"}) {
+            service.onTransactionChanged(TransactionChangedEvent.created(expense(amount)));
+        }
+
+        assertThat(stats.getSampleCount()).isEqualTo(4);
+        assertThat(stats.getMean()).isCloseTo(25.0, within(1e-9));
+        // Sample variance of 10, 20, 30, 40 is 166.67.
+        assertThat(stats.getSumSqDiff() / 3).isCloseTo(166.6667, within(1e-3));
+        verify(upsertRepository, times(4)).insertSpendingStatsIfAbsent(1L, 5L);
+    }
+
+    @Test
+    void editsAndDeletionsTakeTheOldAmountBackOut() {
+        for (String amount : new String[]{"10", "20", "30"}) {
+            service.onTransactionChanged(TransactionChangedEvent.created(expense(amount)));
+        }
+
+        service.onTransactionChanged(TransactionChangedEvent.updated(expense("30"), expense("40")));
+        service.onTransactionChanged(TransactionChangedEvent.deleted(expense("10")));
+
+        // Same as having recorded only 20 and 40.
+        assertThat(stats.getSampleCount()).isEqualTo(2);
+        assertThat(stats.getMean()).isCloseTo(30.0, within(1e-9));
+        assertThat(stats.getSumSqDiff()).isCloseTo(200.0, within(1e-9));
+    }
+
+    @Test
+    void batchOfPostingsLocksAndSavesTheRowOnce() {
+        service.onTransactionChanged(TransactionChangedEvent.created(List.of(
+                expense("10"), expense("20"), expense("30"))));
+
+        assertThat(stats.getSampleCount()).isEqualTo(3);
+        verify(statsRepository, times(1)).findForUpdate(1L, 5L);
+        verify(statsRepository, times(1)).save(stats);
+    }
+
+    @Test
+    void alertsOnlyOnOutliersAfterMinimumSamples() {
+        for (int i = 0; i < 10; i++) {
+            service.onTransactionChanged(TransactionChangedEvent.created(expense(i % 2 == 0 ? "9" : "11")));
+        }
+        verify(notificationService, never()).sendSpendingAnomaly(any(), any(), any(), any(), anyString());
+
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("12")));
+        verify(notificationService, never()).sendSpendingAnomaly(any(), any(), any(), any(), anyString());
+
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("500")));
+        verify(notificationService).sendSpendingAnomaly(any(), any(), any(), any(), anyString());
+    }
+
+    @Test
+    void doesNotAlertBeforeMinimumSamplesOrOnEdits() {
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("10")));
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("11")));
+        service.onTransactionChanged(TransactionChangedEvent.created(expense("1000")));
+        for (int i = 0; i < 10; i++) {
+            service.onTransactionChanged(TransactionChangedEvent.created(expense("10")));
+        }
+        service.onTransactionChanged(TransactionChangedEvent.updated(expense("10"), expense("900")));
+
+        verify(notificationService, never()).sendSpendingAnomaly(any(), any(), any(), any(), anyString());
+    }
+
+    private static TransactionSnapshot expense(String amount) {
+        return TransactionSnapshot.builder()
+                .id(9L).userId(1L).accountId(10L).currency("USD").categoryId(5L)
+                .type(TransactionType.EXPENSE).amount(new BigDecimal(amount))
+                .description("Dinner").transactionDate(LocalDate.of(2026, 1, 15)).tagIds(Set.of())
+                .build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.moneyflow.service;
+
+import com.moneyflow.config.CurrencyProperties;
+import com.moneyflow.event.TransactionChangedEvent;
+import com.moneyflow.event.TransactionSnapshot;
+import com.moneyflow.model.dto.tag.TagReportResponse;
+import com.moneyflow.model.entity.Tag;
+import com.moneyflow.model.entity.TagMonthlyTotal;
+import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.repository.RollupUpsertRepository;
+import com.moneyflow.repository.SnapshotStateRepository;
+import com.moneyflow.repository.TagMonthlyTotalRepository;
+import com.moneyflow.repository.TagRepository;
+import com.moneyflow.repository.TransactionRepository;
+import com.moneyflow.security.SecurityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TagRollupServiceTest {
+
+    private static final LocalDate JAN = LocalDate.of(2026, 1, 1);
+
+    @Mock private TagMonthlyTotalRepository totalRepository;
+    @Mock private RollupUpsertRepository upsertRepository;
+    @Mock private TagRepository tagRepository;
+    @Mock private TransactionRepository transactionRepository;
+    @Mock private SnapshotStateRepository stateRepository;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private TagRollupService service;
+    private MockedStatic<SecurityUtils> security;
+
+    @BeforeEach
+    void setUp() {
+        CurrencyProperties props = new CurrencyProperties();
+        props.setBase("USD");
+        props.setRates(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("1.08")));
+        service = new TagRollupService(totalRepository, upsertRepository, tagRepository, transactionRepository,
+                stateRepository, new CurrencyService(props), transactionTemplate);
+        security = mockStatic(SecurityUtils.class);
+        security.when(SecurityUtils::getCurrentUserId).thenReturn(1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        security.close();
+    }
+
+    @Test
+    void retaggingMovesAmountBetweenTags() {
+        service.onTransactionChanged(TransactionChangedEvent.updated(
+                expense("40", Set.of(7L)), expense("40", Set.of(8L))));
+
+        verify(upsertRepository).lockMonthShared(TagRollupService.STATE_NAME, JAN);
+        verify(upsertRepository).addTagMonthlyTotal(7L, JAN, TransactionType.EXPENSE, "USD", new BigDecimal("-40"), -1);
+        verify(upsertRepository).addTagMonthlyTotal(8L, JAN, TransactionType.EXPENSE, "USD", new BigDecimal("40"), 1);
+    }
+
+    @Test
+    void unchangedTagsAndAmountSkipRollups() {
+        service.onTransactionChanged(TransactionChangedEvent.updated(
+                expense("40", Set.of(7L)), expense("40", Set.of(7L))));
+
+        verify(upsertRepository, never()).lockMonthShared(any(), any());
+        verify(upsertRepository, never()).addTagMonthlyTotal(any(), any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void rebuildLocksEachMonthBeforeReplacingIt() {
+        when(transactionRepository.findEarliestTransactionDate()).thenReturn(LocalDate.now().minusMonths(1));
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(transactionRepository.sumByTagGrouped(any(), any())).thenReturn(List.of());
+
+        service.rebuild();
+
+        InOrder order = inOrder(upsertRepository, totalRepository);
+        LocalDate lastMonth = LocalDate.now().minusMonths(1).withDayOfMonth(1);
+        order.verify(upsertRepository).lockMonthExclusive(TagRollupService.STATE_NAME, lastMonth);
+        order.verify(totalRepository).deleteMonth(lastMonth);
+        order.verify(upsertRepository).lockMonthExclusive(TagRollupService.STATE_NAME, lastMonth.plusMonths(1));
+        order.verify(totalRepository).deleteMonth(lastMonth.plusMonths(1));
+    }
+
+    @Test
+    void reportConvertsToBaseCurrency() {
+        Tag tag = Tag.builder().name("Travel").build();
+        tag.setId(7L);
+        when(tagRepository.findByUserIdAndIsActiveTrue(1L)).thenReturn(List.of(tag));
+        when(totalRepository.findByTagIdInAndMonthStartBetween(anyCollection(), eq(JAN), eq(JAN.plusMonths(1))))
+                .thenReturn(List.of(
+                        total(7L, TransactionType.EXPENSE, "USD", "100", 2),
+                        total(7L, TransactionType.EXPENSE, "EUR", "50", 1),
+                        total(7L, TransactionType.INCOME, "USD", "20", 1)));
+
+        List<TagReportResponse> report = service.getReport(YearMonth.from(JAN), YearMonth.from(JAN).plusMonths(1));
+
+        assertThat(report).hasSize(1);
+        assertThat(report.get(0).getTotalExpense()).isEqualByComparingTo("154");
+        assertThat(report.get(0).getNetFlow()).isEqualByComparingTo("-134");
+        assertThat(report.get(0).getTransactionCount()).isEqualTo(4);
+        assertThat(report.get(0).getMonths()).hasSize(1);
+    }
+
+    private static TagMonthlyTotal total(Long tagId, TransactionType type, String currency, String amount, long count) {
+        return TagMonthlyTotal.builder()
+                .tagId(tagId).monthStart(JAN).type(type).currency(currency)
+                .amount(new BigDecimal(amount)).transactionCount(count)
+                .build();
+    }
+
+    private static TransactionSnapshot expense(String amount, Set<Long> tagIds) {
+        return TransactionSnapshot.builder()
+                .id(1L).userId(1L).accountId(10L).currency("USD").categoryId(5L)
+                .type(TransactionType.EXPENSE).amount(new BigDecimal(amount))
+                .transactionDate(JAN.plusDays(3)).tagIds(tagIds)
+                .build();
+    }
+}
@@ -11,6 +11,7 @@ import com.moneyflow.model.entity.User;
 import com.moneyflow.model.enums.AccountType;
 import com.moneyflow.model.enums.CategoryType;
 import com.moneyflow.model.enums.TransactionType;
+import com.moneyflow.notification.LiveUpdateHub;
 import com.moneyflow.repository.AccountRepository;
 import com.moneyflow.repository.CategoryRepository;
 import com.moneyflow.repository.TagRepository;
@@ -27,6 +28,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
@@ -49,8 +51,9 @@ class TransactionServiceTest {
     @Mock private CategoryRepository categoryRepository;
     @Mock private UserRepository userRepository;
     @Mock private TagRepository tagRepository;
-    @Mock private BudgetAlertService budgetAlertService;
     @Mock private TeamPermissionService teamPermissionService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private LiveUpdateHub liveUpdateHub;
 
     @InjectMocks private TransactionService service;
 